@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Runs the load tests against the application started with the default connection pool and PgJDBC settings,
+# then with those of the prod profile, and prints the result tables of both runs one after the other.
+#
+# Usage: scripts/pool-comparison.sh [jar]
+# e.g.   DB_CORES=8 scripts/pool-comparison.sh target/CalorieX-0.0.1-SNAPSHOT.jar
+# Needs a built jar and the database the application is configured for, see the README. Only the
+# 'app.connection-pool.*' and 'spring.datasource.hikari.*' lines of application-prod.properties are applied,
+# the rest of the prod profile is left out so it does not skew the comparison.
+# The load tests write meals, so the second run reads somewhat larger reports. Run the script twice with
+# ORDER=prod-first to see how much that matters.
+set -euo pipefail
+
+JAR="${1:-target/CalorieX-0.0.1-SNAPSHOT.jar}"
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+ORDER="${ORDER:-default-first}"
+PROD_PROPERTIES=src/main/resources/application-prod.properties
+LOG_DIR="${LOG_DIR:-target/pool-comparison}"
+
+mapfile -t prod_settings < <(grep -E '^(app\.connection-pool|spring\.datasource\.hikari)\.' "$PROD_PROPERTIES" | sed 's/^/--/')
+mkdir -p "$LOG_DIR"
+
+run() {
+  local name="$1"
+  shift
+  java -jar "$JAR" "$@" >"$LOG_DIR/$name-app.log" 2>&1 &
+  local app=$!
+  trap 'kill "$app" 2>/dev/null || true' EXIT
+  until curl -sf "$BASE_URL/readyz" >/dev/null; do
+    kill -0 "$app" 2>/dev/null || { echo "Application exited, see $LOG_DIR/$name-app.log"; exit 1; }
+    sleep 0.1
+  done
+
+  # A missed SLO fails the build, but the tables are logged before that, so keep going.
+  mvn -B test -P load -Dload.base-url="$BASE_URL" >"$LOG_DIR/$name-load.log" 2>&1 || true
+  kill "$app"
+  wait "$app" 2>/dev/null || true
+  trap - EXIT
+
+  echo "=== $name pool and driver settings"
+  awk '/^Scenario / {table = 1; print ""; print; next} /^([0-9]|\[)/ {table = 0} table && NF' "$LOG_DIR/$name-load.log"
+}
+
+if [ "$ORDER" = prod-first ]; then
+  run prod "${prod_settings[@]}"
+  run default
+else
+  run default
+  run prod "${prod_settings[@]}"
+fi
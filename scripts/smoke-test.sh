@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+# Starts the application with the given command, runs a few requests against it
+# and reports the time until it was ready and its resident memory afterwards.
+#
+# Usage: scripts/smoke-test.sh <command> [args...]
+#   scripts/smoke-test.sh target/CalorieX --spring.profiles.active=prod
+#   scripts/smoke-test.sh java -Dspring.aot.enabled=true -jar target/CalorieX-0.0.1-SNAPSHOT.jar --spring.profiles.active=prod
+# The database comes from DB_URL, DB_USER and DB_PASSWORD and defaults to a local caloriex_db.
+set -euo pipefail
+
+export DB_URL="${DB_URL:-localhost:5432/caloriex_db}"
+export DB_USER="${DB_USER:-postgres}"
+export DB_PASSWORD="${DB_PASSWORD:-postgres}"
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+MANAGEMENT_URL="${MANAGEMENT_URL:-http://localhost:8081}"
+API="$BASE_URL/api/v1"
+LOG="$(mktemp)"
+
+start=$(date +%s%N)
+"$@" >"$LOG" 2>&1 &
+pid=$!
+trap 'kill "$pid" 2>/dev/null; wait "$pid" 2>/dev/null || true; rm -f "$LOG"' EXIT
+
+until curl -sf "$BASE_URL/readyz" >/dev/null; do
+  if ! kill -0 "$pid" 2>/dev/null; then
+    cat "$LOG"
+    echo "Application exited before it was ready" >&2
+    exit 1
+  fi
+  sleep 0.02
+done
+ready_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+
+email="smoke-$(date +%s%N)@example.com"
+user_id=$(curl -sf -o /dev/null -D - -H 'Content-Type: application/json' "$API/users" -d "{
+  \"name\": \"Smoke Test\", \"email\": \"$email\", \"age\": 30, \"weight\": 70.0, \"height\": 175,
+  \"gender\": \"MALE\", \"activityLevelId\": 1, \"goalId\": 1
+}" | tr -d '\r' | awk -F': ' 'tolower($1) == "authorization" { print $2 }')
+dish_id=$(curl -sf -o /dev/null -D - -H 'Content-Type: application/json' -H "Authorization: $user_id" "$API/dishes" -d '{
+  "name": "Oatmeal", "protein": 5.0, "fat": 3.0, "carbohydrates": 27.0
+}' | tr -d '\r' | awk -F': ' 'tolower($1) == "location" { n = split($2, parts, "/"); print parts[n] }')
+curl -sf -o /dev/null -H 'Content-Type: application/json' -H "Authorization: $user_id" "$API/meals" -d "{
+  \"name\": \"Breakfast\", \"mealDishes\": [{ \"dishId\": $dish_id, \"servings\": 1.5 }]
+}"
+curl -sf -H "Authorization: $user_id" "$API/meals/report/daily/today" | grep -q '"totalCalories"'
+curl -sf -H "Authorization: $user_id" -H 'Accept: application/cbor' "$API/meals/report/daily/period?startDay=$(date +%F)&endDay=$(date +%F)" >/dev/null
+curl -sf "$MANAGEMENT_URL/actuator/prometheus" | grep -q '^caloriex_service_seconds'
+
+rss_kb=$(awk '/^VmRSS/ { print $2 }' "/proc/$pid/status")
+echo "Smoke test passed: ready after ${ready_ms} ms, RSS $(( rss_kb / 1024 )) MB after the requests"
+echo "Application reported: $(grep -o 'Started CalorieXApplication in [0-9.]* seconds' "$LOG" || echo 'no startup line')"
@@ -0,0 +1,30 @@
+#!/usr/bin/env bash
+# Measures how long the app container takes from start until it reports ready.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+# Needs the .env file described in the README. PostgreSQL is started once and kept running,
+# the app container is recreated for every run, so each run includes migrations being checked.
+set -euo pipefail
+
+RUNS="${1:-5}"
+READINESS_URL="${READINESS_URL:-http://localhost:8080/readyz}"
+
+docker compose build app
+docker compose up -d --wait postgres
+
+results=()
+for run in $(seq 1 "$RUNS"); do
+  docker compose rm -sf app >/dev/null
+  start=$(date +%s%N)
+  docker compose up -d --no-deps app >/dev/null
+  until curl -sf "$READINESS_URL" >/dev/null; do
+    sleep 0.02
+  done
+  elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+  results+=("$elapsed")
+  reported=$(docker compose logs app | grep -o 'Started CalorieXApplication in [0-9.]* seconds' | tail -1)
+  echo "Run $run: ready after ${elapsed} ms (${reported})"
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+echo "Readiness over $RUNS runs: min ${sorted[0]} ms, median ${sorted[$(( RUNS / 2 ))]} ms, max ${sorted[$(( RUNS - 1 ))]} ms"
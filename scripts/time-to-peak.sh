@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Starts the application with the given command and measures how long it takes to reach peak throughput
+# on the daily period report, counted from the moment the process was started.
+#
+# Usage: scripts/time-to-peak.sh <command...>
+# e.g.   scripts/time-to-peak.sh java -jar target/CalorieX-0.0.1-SNAPSHOT.jar
+#        scripts/time-to-peak.sh java -XX:CRaCRestoreFrom=target/crac
+# Needs 'hey' (https://github.com/rakyll/hey) and the database the application is configured for.
+# Peak is the highest one-second throughput seen, time to peak the first second within PEAK_RATIO of it.
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+SECONDS_MEASURED="${SECONDS_MEASURED:-120}"
+CONCURRENCY="${CONCURRENCY:-16}"
+PEAK_RATIO="${PEAK_RATIO:-0.95}"
+EMAIL="${EMAIL:-warm-up@caloriex.local}"
+
+start=$(date +%s%N)
+"$@" >/tmp/time-to-peak-app.log 2>&1 &
+app=$!
+trap 'kill "$app" 2>/dev/null || true' EXIT
+
+until curl -sf "$BASE_URL/readyz" >/dev/null; do
+  kill -0 "$app" 2>/dev/null || { echo "Application exited, see /tmp/time-to-peak-app.log"; exit 1; }
+  sleep 0.02
+done
+ready=$(( ($(date +%s%N) - start) / 1000000 ))
+
+auth=$(curl -sf -D - -o /dev/null -X POST "$BASE_URL/api/v1/users/login?email=${EMAIL/@/%40}" \
+  | tr -d '\r' | awk -F': ' 'tolower($1) == "authorization" {print $2}')
+if [ -z "$auth" ]; then
+  auth=$(curl -sf -D - -o /dev/null -X POST "$BASE_URL/api/v1/users" -H 'Content-Type: application/json' \
+    -d "{\"name\":\"Warm-up\",\"email\":\"$EMAIL\",\"age\":30,\"weight\":70,\"height\":175,\"gender\":\"MALE\",\"activityLevelId\":1,\"goalId\":1}" \
+    | tr -d '\r' | awk -F': ' 'tolower($1) == "authorization" {print $2}')
+fi
+
+today=$(date +%F)
+week_ago=$(date -d '6 days ago' +%F)
+url="$BASE_URL/api/v1/meals/report/daily/period?startDay=$week_ago&endDay=$today"
+
+throughputs=()
+offsets=()
+for second in $(seq 1 "$SECONDS_MEASURED"); do
+  offsets+=("$(( ($(date +%s%N) - start) / 1000000 ))")
+  throughputs+=("$(hey -z 1s -c "$CONCURRENCY" -H "Authorization: $auth" "$url" | awk '/Requests\/sec/ {print $2}')")
+done
+
+peak=$(printf '%s\n' "${throughputs[@]}" | sort -g | tail -1)
+for i in "${!throughputs[@]}"; do
+  if awk -v t="${throughputs[$i]}" -v p="$peak" -v r="$PEAK_RATIO" 'BEGIN {exit !(t >= p * r)}'; then
+    echo "Ready after ${ready} ms, peak ${peak} req/s, within ${PEAK_RATIO} of peak after ${offsets[$i]} ms"
+    printf 'Throughput per second: %s\n' "${throughputs[*]}"
+    exit 0
+  fi
+done
@@ -0,0 +1,135 @@
+package org.nikolait.assignment.caloriex.coalescing;
+
+import org.nikolait.assignment.caloriex.dto.MealDailyReportDto;
+import org.nikolait.assignment.caloriex.dto.MealDailySummaryDto;
+import org.nikolait.assignment.caloriex.dto.NutritionAggregateDto;
+import org.nikolait.assignment.caloriex.mapper.MealDailyReportMapper;
+import org.nikolait.assignment.caloriex.mapper.MealDailySummaryMapper;
+import org.nikolait.assignment.caloriex.mapper.NutritionAggregateMapper;
+import org.nikolait.assignment.caloriex.service.MealReportService;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Shares one report computation between concurrent identical requests, e.g. several devices
+ * of a user opening the app at once.
+ * <p>
+ * What is shared is the mapped response, built from entities that are detached once the transaction of
+ * {@link MealReportService} ends; callers only serialize it. Calls are coalesced before that transaction starts,
+ * and with open-in-view disabled a waiting caller holds no database connection.
+ * <p>
+ * A user who wrote a meal within {@link RecentWrites}' window computes reports on their own,
+ * so they never get a report computed before their write.
+ * <p>
+ * Two reads are left out on purpose. The full and normalized period and all-tracked views are streamed from
+ * a database cursor into the response, so sharing them would mean holding whole bodies in memory for the
+ * waiting callers, which streaming exists to avoid. {@code /users/me} loads one user by primary key, already
+ * looked up by the authorization, so sharing it would cost about as much as the query it saves.
+ */
+@Service
+public class CoalescingMealReportService {
+
+    private final MealReportService mealReportService;
+    private final MealDailyReportMapper mealDailyReportMapper;
+    private final MealDailySummaryMapper mealDailySummaryMapper;
+    private final NutritionAggregateMapper nutritionAggregateMapper;
+    private final SingleFlight singleFlight;
+    private final RecentWrites recentWrites;
+
+    public CoalescingMealReportService(
+            MealReportService mealReportService,
+            MealDailyReportMapper mealDailyReportMapper,
+            MealDailySummaryMapper mealDailySummaryMapper,
+            NutritionAggregateMapper nutritionAggregateMapper,
+            SingleFlight singleFlight,
+            RecentWrites recentWrites
+    ) {
+        this.mealReportService = mealReportService;
+        this.mealDailyReportMapper = mealDailyReportMapper;
+        this.mealDailySummaryMapper = mealDailySummaryMapper;
+        this.nutritionAggregateMapper = nutritionAggregateMapper;
+        this.singleFlight = singleFlight;
+        this.recentWrites = recentWrites;
+    }
+
+    public MealDailyReportDto getMealDailyReportForToday(Long userId, ZoneId zoneId) {
+        return getMealDailyReportForDay(userId, LocalDate.now(zoneId), zoneId);
+    }
+
+    public MealDailyReportDto getMealDailyReportForDay(Long userId, LocalDate day, ZoneId zoneId) {
+        return execute(
+                "daily-report",
+                userId,
+                List.of(userId, day, zoneId),
+                () -> mealDailyReportMapper.toResponseDto(
+                        mealReportService.generateMealDailyReportForDay(userId, day, zoneId))
+        );
+    }
+
+    public List<MealDailySummaryDto> getMealDailySummariesForPeriod(
+            Long userId,
+            LocalDate startDay,
+            LocalDate endDay,
+            ZoneId zoneId
+    ) {
+        return execute(
+                "period-summaries",
+                userId,
+                List.of(userId, startDay, endDay, zoneId),
+                () -> mealDailySummaryMapper.toResponseDtoList(
+                        mealReportService.generateMealDailySummariesForPeriod(userId, startDay, endDay, zoneId))
+        );
+    }
+
+    public List<MealDailySummaryDto> getAllTrackedMealDailySummaries(Long userId, ZoneId zoneId) {
+        return execute(
+                "all-tracked-summaries",
+                userId,
+                List.of(userId, zoneId),
+                () -> mealDailySummaryMapper.toResponseDtoList(
+                        mealReportService.generateAllTrackedMealDailySummaries(userId, zoneId))
+        );
+    }
+
+    public List<NutritionAggregateDto> getWeeklyAggregates(
+            Long userId,
+            LocalDate startDay,
+            LocalDate endDay,
+            ZoneId zoneId
+    ) {
+        return execute(
+                "weekly-aggregates",
+                userId,
+                List.of(userId, startDay, endDay, zoneId),
+                () -> nutritionAggregateMapper.toResponseDtoList(
+                        mealReportService.generateWeeklyAggregates(userId, startDay, endDay, zoneId))
+        );
+    }
+
+    public List<NutritionAggregateDto> getMonthlyAggregates(
+            Long userId,
+            LocalDate startDay,
+            LocalDate endDay,
+            ZoneId zoneId
+    ) {
+        return execute(
+                "monthly-aggregates",
+                userId,
+                List.of(userId, startDay, endDay, zoneId),
+                () -> nutritionAggregateMapper.toResponseDtoList(
+                        mealReportService.generateMonthlyAggregates(userId, startDay, endDay, zoneId))
+        );
+    }
+
+    private <T> T execute(String operation, Long userId, List<?> args, Supplier<T> computation) {
+        if (recentWrites.isRecent(userId)) {
+            return computation.get();
+        }
+        return singleFlight.execute(operation, args, computation);
+    }
+
+}
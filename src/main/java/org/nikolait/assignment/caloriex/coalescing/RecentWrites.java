@@ -0,0 +1,41 @@
+package org.nikolait.assignment.caloriex.coalescing;
+
+import org.nikolait.assignment.caloriex.config.CoalescingProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote a meal within the last {@link CoalescingProperties#recentWriteWindow()}.
+ * <p>
+ * Entries are dropped once they are older than the window, checked at most once per window on a write,
+ * so only users who wrote recently are held in memory.
+ */
+@Component
+public class RecentWrites {
+
+    private final long windowNanos;
+    private final Map<Long, Long> lastWriteNanosByUser = new ConcurrentHashMap<>();
+
+    private volatile long lastPurgeNanos = System.nanoTime();
+
+    public RecentWrites(CoalescingProperties properties) {
+        this.windowNanos = properties.recentWriteWindow().toNanos();
+    }
+
+    public void record(Long userId) {
+        long now = System.nanoTime();
+        lastWriteNanosByUser.put(userId, now);
+        if (now - lastPurgeNanos > windowNanos) {
+            lastPurgeNanos = now;
+            lastWriteNanosByUser.values().removeIf(writtenAt -> now - writtenAt > windowNanos);
+        }
+    }
+
+    public boolean isRecent(Long userId) {
+        Long writtenAt = lastWriteNanosByUser.get(userId);
+        return writtenAt != null && System.nanoTime() - writtenAt <= windowNanos;
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.nikolait.assignment.caloriex.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical calls share one in-flight computation.
+ * <p>
+ * The first caller for a key computes the result; callers arriving while it runs wait for it
+ * and receive the same result or exception. Nothing is cached: once the computation finishes,
+ * the next call computes again. Callers must treat shared results as read-only.
+ */
+@Component
+public class SingleFlight {
+
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param operation name of the computation, also used as the metrics tag.
+     * @param args      arguments identifying the call, e.g. user ID and report period.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, List<?> args, Supplier<T> computation) {
+        Key key = new Key(operation, args);
+        CompletableFuture<Object> ownFuture = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, ownFuture);
+        if (existing != null) {
+            callCounter(operation, "coalesced").increment();
+            return (T) join(existing);
+        }
+
+        callCounter(operation, "executed").increment();
+        try {
+            T result = computation.get();
+            ownFuture.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            ownFuture.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, ownFuture);
+        }
+    }
+
+    private Counter callCounter(String operation, String result) {
+        return Counter.builder("caloriex.single-flight.calls")
+                .description("Calls that ran a computation or shared one already in flight")
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(String operation, List<?> args) {
+    }
+
+}
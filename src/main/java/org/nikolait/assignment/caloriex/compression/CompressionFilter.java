@@ -0,0 +1,129 @@
+package org.nikolait.assignment.caloriex.compression;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.nikolait.assignment.caloriex.config.CompressionProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Gzip-compresses responses of the configured content types for clients that accept gzip.
+ * <p>
+ * Deflaters and their buffers come from a {@link DeflaterPool}. Streamed responses are compressed
+ * as they are written and finished on the async dispatch that completes them.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.compression", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private static final String WRAPPER_ATTRIBUTE = CompressionFilter.class.getName() + ".WRAPPER";
+    private static final String GZIP = "gzip";
+
+    private final CompressionProperties properties;
+    private final DeflaterPool deflaterPool;
+
+    private final Counter compressedResponses;
+    private final Counter originalBytes;
+    private final Counter compressedBytes;
+    private final Counter savedBytes;
+
+    public CompressionFilter(CompressionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.deflaterPool = new DeflaterPool(
+                properties.level(),
+                (int) properties.minResponseSize().toBytes(),
+                properties.poolSize()
+        );
+        this.compressedResponses = Counter.builder("caloriex.http.compression.responses")
+                .description("Responses sent gzip-compressed")
+                .register(meterRegistry);
+        this.originalBytes = Counter.builder("caloriex.http.compression.original")
+                .description("Size of compressed responses before compression")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.compressedBytes = Counter.builder("caloriex.http.compression.compressed")
+                .description("Size of compressed responses after compression")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.savedBytes = Counter.builder("caloriex.http.compression.saved")
+                .description("Bytes not sent thanks to compression")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        GzipResponseWrapper wrapper = (GzipResponseWrapper) request.getAttribute(WRAPPER_ATTRIBUTE);
+        if (wrapper == null) {
+            if (!acceptsGzip(request) || HttpMethod.HEAD.matches(request.getMethod())) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            wrapper = new GzipResponseWrapper(response, deflaterPool, properties.mimeTypes(), this::record);
+            request.setAttribute(WRAPPER_ATTRIBUTE, wrapper);
+            response = wrapper;
+        }
+        // on an async dispatch the response passed in already wraps the wrapper
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!request.isAsyncStarted()) {
+                wrapper.finish();
+            }
+        }
+    }
+
+    private void record(long original, long compressed) {
+        compressedResponses.increment();
+        originalBytes.increment(original);
+        compressedBytes.increment(compressed);
+        savedBytes.increment(original - compressed);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(GZIP) && !isZeroQuality(parts)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZeroQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+}
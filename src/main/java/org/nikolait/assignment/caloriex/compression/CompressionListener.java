@@ -0,0 +1,8 @@
+package org.nikolait.assignment.caloriex.compression;
+
+@FunctionalInterface
+interface CompressionListener {
+
+    void onCompressed(long originalBytes, long compressedBytes);
+
+}
@@ -0,0 +1,37 @@
+package org.nikolait.assignment.caloriex.compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of {@link PooledDeflater}s. Creating a deflater allocates native zlib memory,
+ * so reusing them keeps compression from allocating per response. When the pool is empty a new
+ * deflater is created; when it is full a returned deflater is released.
+ */
+class DeflaterPool {
+
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+
+    private final BlockingQueue<PooledDeflater> idle;
+    private final int level;
+    private final int pendingBufferSize;
+
+    DeflaterPool(int level, int pendingBufferSize, int poolSize) {
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+        this.level = level;
+        this.pendingBufferSize = pendingBufferSize;
+    }
+
+    PooledDeflater borrow() {
+        PooledDeflater deflater = idle.poll();
+        return deflater != null ? deflater : new PooledDeflater(level, OUTPUT_BUFFER_SIZE, pendingBufferSize);
+    }
+
+    void release(PooledDeflater deflater) {
+        deflater.reset();
+        if (!idle.offer(deflater)) {
+            deflater.deflater.end();
+        }
+    }
+
+}
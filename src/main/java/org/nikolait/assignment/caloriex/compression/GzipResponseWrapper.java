@@ -0,0 +1,315 @@
+package org.nikolait.assignment.caloriex.compression;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Response wrapper that gzip-compresses the body once it reaches the minimum size.
+ * <p>
+ * The start of the body is held back until it is larger than the minimum size or the response ends.
+ * Small responses and responses of other content types are then sent unchanged, as are responses
+ * the application already encoded itself. A compressed response loses its Content-Length.
+ */
+class GzipResponseWrapper extends HttpServletResponseWrapper {
+
+    private final DeflaterPool deflaterPool;
+    private final List<String> mimeTypes;
+    private final CompressionListener listener;
+
+    private GzipOutputStream outputStream;
+    private PrintWriter writer;
+    private long contentLength = -1;
+
+    GzipResponseWrapper(
+            HttpServletResponse response,
+            DeflaterPool deflaterPool,
+            List<String> mimeTypes,
+            CompressionListener listener
+    ) {
+        super(response);
+        this.deflaterPool = deflaterPool;
+        this.mimeTypes = mimeTypes;
+        this.listener = listener;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        return gzipOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(gzipOutputStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        } else if (outputStream != null) {
+            outputStream.flush();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (outputStream != null) {
+            outputStream.pendingCount = 0;
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        contentLength = -1;
+        if (outputStream != null) {
+            outputStream.pendingCount = 0;
+        }
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        contentLength = len;
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        contentLength = len;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            contentLength = Long.parseLong(value);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            contentLength = Long.parseLong(value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            contentLength = value;
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    /**
+     * Writes whatever is still held back, ends the gzip stream and returns the deflater to the pool.
+     * Safe to call more than once.
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (outputStream != null) {
+            outputStream.finish();
+        }
+    }
+
+    private GzipOutputStream gzipOutputStream() {
+        if (outputStream == null) {
+            outputStream = new GzipOutputStream();
+        }
+        return outputStream;
+    }
+
+    private boolean isCompressible() {
+        String contentType = getContentType();
+        return getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                && !isCommitted()
+                && contentType != null
+                && mimeTypes.stream().anyMatch(contentType::startsWith);
+    }
+
+    /**
+     * Whether the response is already known not to be compressed, e.g. because of its content type,
+     * so it need not be held back or take a deflater from the pool.
+     */
+    private boolean isExcluded() {
+        return getContentType() != null && !isCompressible();
+    }
+
+    private enum State {
+        BUFFERING,
+        COMPRESSING,
+        PASS_THROUGH,
+        FINISHED
+    }
+
+    private class GzipOutputStream extends ServletOutputStream {
+
+        private final byte[] singleByte = new byte[1];
+
+        private State state = State.BUFFERING;
+        private PooledDeflater pooled;
+        private PooledGzipOutputStream gzip;
+        private ServletOutputStream target;
+        private int pendingCount;
+
+        @Override
+        public void write(int b) throws IOException {
+            singleByte[0] = (byte) b;
+            write(singleByte, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            switch (state) {
+                case BUFFERING -> {
+                    if (isExcluded()) {
+                        startPassThrough();
+                        target().write(b, off, len);
+                        return;
+                    }
+                    if (pooled == null) {
+                        pooled = deflaterPool.borrow();
+                    }
+                    if (pendingCount + len <= pooled.pendingBuffer.length) {
+                        System.arraycopy(b, off, pooled.pendingBuffer, pendingCount, len);
+                        pendingCount += len;
+                        return;
+                    }
+                    if (isCompressible()) {
+                        startCompressing();
+                    } else {
+                        startPassThrough();
+                    }
+                    write(b, off, len);
+                }
+                case COMPRESSING -> gzip.write(b, off, len);
+                case PASS_THROUGH -> target().write(b, off, len);
+                case FINISHED -> throw new IOException("Response has already been finished");
+            }
+        }
+
+        /**
+         * Pushes compressed data written so far to the client, so streamed responses arrive as they are written.
+         * Data held back below the minimum size stays held back, unless the content type rules out compression.
+         */
+        @Override
+        public void flush() throws IOException {
+            if (state == State.BUFFERING && isExcluded()) {
+                startPassThrough();
+            }
+            if (state == State.COMPRESSING) {
+                gzip.flush();
+            } else if (state == State.PASS_THROUGH) {
+                target().flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            if (target != null) {
+                target.close();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return target == null || target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                target().setWriteListener(writeListener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void finish() throws IOException {
+            try {
+                switch (state) {
+                    case BUFFERING -> {
+                        if (pendingCount > 0) {
+                            if (!isCommitted()) {
+                                getResponse().setContentLength(pendingCount);
+                            }
+                            target().write(pooled.pendingBuffer, 0, pendingCount);
+                        }
+                    }
+                    case COMPRESSING -> {
+                        gzip.finish();
+                        listener.onCompressed(gzip.originalBytes(), gzip.compressedBytes());
+                    }
+                    case PASS_THROUGH, FINISHED -> {
+                    }
+                }
+            } finally {
+                state = State.FINISHED;
+                releaseDeflater();
+            }
+        }
+
+        private void startCompressing() throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            state = State.COMPRESSING;
+            gzip = new PooledGzipOutputStream(target(), pooled);
+            gzip.write(pooled.pendingBuffer, 0, pendingCount);
+            pendingCount = 0;
+        }
+
+        private void startPassThrough() throws IOException {
+            if (contentLength >= 0 && !isCommitted()) {
+                getResponse().setContentLengthLong(contentLength);
+            }
+            state = State.PASS_THROUGH;
+            if (pendingCount > 0) {
+                target().write(pooled.pendingBuffer, 0, pendingCount);
+                pendingCount = 0;
+            }
+            releaseDeflater();
+        }
+
+        private void releaseDeflater() {
+            if (pooled != null) {
+                deflaterPool.release(pooled);
+                pooled = null;
+            }
+        }
+
+        private ServletOutputStream target() throws IOException {
+            if (target == null) {
+                target = getResponse().getOutputStream();
+            }
+            return target;
+        }
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package org.nikolait.assignment.caloriex.compression;
+
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A raw deflater with the buffers one response needs, reused across responses through {@link DeflaterPool}.
+ */
+class PooledDeflater {
+
+    final Deflater deflater;
+    final CRC32 crc = new CRC32();
+    final byte[] outputBuffer;
+    /**
+     * Holds the start of a response until it is known whether it reaches the minimum size.
+     */
+    final byte[] pendingBuffer;
+
+    PooledDeflater(int level, int outputBufferSize, int pendingBufferSize) {
+        this.deflater = new Deflater(level, true);
+        this.outputBuffer = new byte[outputBufferSize];
+        this.pendingBuffer = new byte[pendingBufferSize];
+    }
+
+    void reset() {
+        deflater.reset();
+        crc.reset();
+    }
+
+}
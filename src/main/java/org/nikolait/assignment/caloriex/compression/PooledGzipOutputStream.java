@@ -0,0 +1,60 @@
+package org.nikolait.assignment.caloriex.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Gzip stream over a {@link PooledDeflater}, flushing with {@link Deflater#SYNC_FLUSH}.
+ * <p>
+ * The JDK's {@link java.util.zip.GZIPOutputStream} always creates and ends its own deflater, so this is
+ * the same stream with the deflater and its buffer taken from the pool instead. It never ends the deflater.
+ */
+class PooledGzipOutputStream extends DeflaterOutputStream {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int TRAILER_SIZE = 8;
+
+    private final PooledDeflater pooled;
+
+    PooledGzipOutputStream(OutputStream out, PooledDeflater pooled) throws IOException {
+        super(out, pooled.deflater, pooled.outputBuffer.length, true);
+        this.buf = pooled.outputBuffer;
+        this.pooled = pooled;
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        pooled.crc.update(b, off, len);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (!def.finished()) {
+            super.finish();
+            byte[] trailer = new byte[TRAILER_SIZE];
+            writeIntLittleEndian(trailer, 0, (int) pooled.crc.getValue());
+            writeIntLittleEndian(trailer, 4, (int) def.getBytesRead());
+            out.write(trailer);
+        }
+    }
+
+    long originalBytes() {
+        return def.getBytesRead();
+    }
+
+    long compressedBytes() {
+        return HEADER.length + def.getBytesWritten() + (def.finished() ? TRAILER_SIZE : 0);
+    }
+
+    private static void writeIntLittleEndian(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >> 8);
+        bytes[offset + 2] = (byte) (value >> 16);
+        bytes[offset + 3] = (byte) (value >> 24);
+    }
+
+}
@@ -0,0 +1,19 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of report coalescing.
+ *
+ * @param recentWriteWindow how long after writing a meal a user's reports are computed on their own rather than
+ *                          shared, so they never come from a computation that started before the write.
+ *                          Must be longer than the slowest report computation.
+ */
+@ConfigurationProperties(prefix = "app.coalescing")
+public record CoalescingProperties(
+        @DefaultValue("10s") Duration recentWriteWindow
+) {
+}
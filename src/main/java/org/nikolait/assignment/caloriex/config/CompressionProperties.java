@@ -0,0 +1,26 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Settings of gzip compression of responses.
+ *
+ * @param minResponseSize responses smaller than this are sent uncompressed.
+ * @param level           deflate level from 1 (fastest) to 9 (smallest).
+ * @param mimeTypes       content types that are compressed.
+ * @param poolSize        number of idle deflaters with their buffers kept for reuse.
+ */
+@ConfigurationProperties(prefix = "app.compression")
+public record CompressionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2KB") DataSize minResponseSize,
+        @DefaultValue("6") int level,
+        @DefaultValue({"application/json", "application/problem+json", "application/x-ndjson", "text/csv"})
+        List<String> mimeTypes,
+        @DefaultValue("64") int poolSize
+) {
+}
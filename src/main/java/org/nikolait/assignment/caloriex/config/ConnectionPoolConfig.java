@@ -0,0 +1,43 @@
+package org.nikolait.assignment.caloriex.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Slf4j
+@Configuration
+public class ConnectionPoolConfig {
+
+    /**
+     * Sizes the Hikari pool from {@link ConnectionPoolProperties} after Spring Boot has bound
+     * the 'spring.datasource.hikari' properties and before the pool starts.
+     * The properties are bound from the environment, so the data source need not wait for other beans.
+     */
+    @Bean
+    public static BeanPostProcessor connectionPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    ConnectionPoolProperties properties = Binder.get(environment)
+                            .bindOrCreate("app.connection-pool", ConnectionPoolProperties.class);
+                    if (properties.autoSize()) {
+                        if (properties.databaseCores() <= 0) {
+                            log.warn("Database cores are not set, sizing the connection pool to the fallback size");
+                        }
+                        int poolSize = properties.poolSize();
+                        dataSource.setMaximumPoolSize(poolSize);
+                        dataSource.setMinimumIdle(poolSize);
+                        log.info("Sized connection pool {} to {} connections", dataSource.getPoolName(), poolSize);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+
+}
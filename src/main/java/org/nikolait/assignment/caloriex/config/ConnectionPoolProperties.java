@@ -0,0 +1,35 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Sizing of the database connection pool.
+ * <p>
+ * With auto sizing the pool holds a fixed number of connections, twice the database cores plus
+ * the effective spindle count, capped by the expected concurrency. More connections than that
+ * only queue up on the database server, while requests wait for a connection just as long.
+ * The cores of the application host say nothing about the database server, so without the database cores
+ * the pool falls back to a fixed, conservative size.
+ *
+ * @param autoSize            whether the pool size is derived, overriding 'spring.datasource.hikari.maximum-pool-size'.
+ * @param databaseCores       CPU cores of the database server; 0 if unknown.
+ * @param effectiveSpindles   disks the database can read from in parallel while waiting for I/O.
+ * @param expectedConcurrency the most requests and background jobs expected to use the database at the same time.
+ * @param fallbackPoolSize    pool size used when the database cores are unknown.
+ */
+@ConfigurationProperties(prefix = "app.connection-pool")
+public record ConnectionPoolProperties(
+        @DefaultValue("false") boolean autoSize,
+        @DefaultValue("0") int databaseCores,
+        @DefaultValue("1") int effectiveSpindles,
+        @DefaultValue("50") int expectedConcurrency,
+        @DefaultValue("10") int fallbackPoolSize
+) {
+
+    public int poolSize() {
+        int size = databaseCores > 0 ? databaseCores * 2 + effectiveSpindles : fallbackPoolSize;
+        return Math.max(1, Math.min(size, expectedConcurrency));
+    }
+
+}
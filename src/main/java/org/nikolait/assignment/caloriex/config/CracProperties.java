@@ -0,0 +1,20 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the checkpoint taken for Coordinated Restore at Checkpoint (CRaC).
+ *
+ * @param checkpointAfterWarmUp whether the application warms itself up once ready and then takes a checkpoint.
+ *                              Needs a JDK with CRaC support, e.g. started with '-XX:CRaCCheckpointTo=...'.
+ * @param warmUpIterations      number of rounds of synthetic requests sent before the checkpoint.
+ * @param warmUpEmail           email of the user the synthetic requests are sent as; created if missing.
+ */
+@ConfigurationProperties(prefix = "app.crac")
+public record CracProperties(
+        @DefaultValue("false") boolean checkpointAfterWarmUp,
+        @DefaultValue("2000") int warmUpIterations,
+        @DefaultValue("warm-up@caloriex.local") String warmUpEmail
+) {
+}
@@ -0,0 +1,23 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the live daily progress stream.
+ *
+ * @param heartbeatInterval       pause between heartbeats, which also detect closed connections and new days.
+ * @param timeout                 lifetime of a stream; clients reconnect once it ends.
+ * @param maxSubscriptionsPerUser streams kept open per user; the oldest is closed when a new one exceeds it.
+ * @param shutdownTimeout         time to wait on shutdown for pushes that are being sent.
+ */
+@ConfigurationProperties(prefix = "app.daily-progress-stream")
+public record DailyProgressStreamProperties(
+        @DefaultValue("15s") Duration heartbeatInterval,
+        @DefaultValue("30m") Duration timeout,
+        @DefaultValue("5") int maxSubscriptionsPerUser,
+        @DefaultValue("5s") Duration shutdownTimeout
+) {
+}
@@ -0,0 +1,41 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Settings of the synthetic data generator run with the 'generate' profile.
+ * The same seed and end date always produce the same users, dishes and meals;
+ * their ids only differ if the tables already hold rows.
+ *
+ * @param seed          seed of every random choice.
+ * @param users         number of users to create.
+ * @param dishesPerUser number of dishes every user creates when signing up.
+ * @param days          length of the generated history, ending on the end date.
+ * @param endDate       last day of the generated history; required.
+ * @param mealsPerDay   average number of meals on a day a typical user tracks.
+ * @param dishesPerMeal average number of dishes in a meal.
+ * @param trackingRate  share of days on which a typical user tracks meals.
+ * @param tailIndex     Pareto shape of how active users are, above 1; the lower, the heavier the heavy users.
+ * @param timeZones     time zones users are spread across evenly; meals are eaten at local meal times.
+ */
+@ConfigurationProperties(prefix = "app.data-generator")
+public record DataGeneratorProperties(
+        @DefaultValue("42") long seed,
+        @DefaultValue("1000") int users,
+        @DefaultValue("25") int dishesPerUser,
+        @DefaultValue("90") int days,
+        LocalDate endDate,
+        @DefaultValue("3.0") double mealsPerDay,
+        @DefaultValue("2.0") double dishesPerMeal,
+        @DefaultValue("0.6") double trackingRate,
+        @DefaultValue("1.5") double tailIndex,
+        @DefaultValue({
+                "America/Los_Angeles", "America/New_York", "America/Sao_Paulo", "Europe/London", "Europe/Berlin",
+                "Europe/Moscow", "Asia/Kolkata", "Asia/Shanghai", "Asia/Tokyo", "Australia/Sydney"
+        }) List<String> timeZones
+) {
+}
@@ -0,0 +1,29 @@
+package org.nikolait.assignment.caloriex.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Slf4j
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Skips migrations in a training run that only refreshes the context, e.g. to create a CDS archive
+     * while building the Docker image, where no database is available.
+     * 'spring.flyway.enabled' cannot be used for this, because an AOT-processed build fixes it at build time.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(Environment environment) {
+        return flyway -> {
+            if ("onRefresh".equals(environment.getProperty("spring.context.exit"))) {
+                log.info("Skipping database migrations in a training run");
+                return;
+            }
+            flyway.migrate();
+        };
+    }
+
+}
@@ -0,0 +1,25 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the Idempotency-Key handling for creation endpoints.
+ *
+ * @param store       where completed requests are remembered: {@code memory} for a single node,
+ *                    {@code jdbc} to share keys between nodes through the database.
+ * @param ttl         how long a completed request can be replayed.
+ * @param maxKeys     maximum number of keys kept by the in-memory store.
+ * @param maxBodySize largest request body read up front to fingerprint a request, larger ones are rejected with 413.
+ */
+@ConfigurationProperties(prefix = "app.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("memory") String store,
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("100000") int maxKeys,
+        @DefaultValue("64KB") DataSize maxBodySize
+) {
+}
@@ -0,0 +1,33 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of the optional write-behind mode for meal creation.
+ *
+ * @param writeBehind        enables the queue; when false meals are saved synchronously.
+ * @param queueCapacity      maximum number of accepted meals waiting to be written.
+ * @param batchSize          maximum number of meals committed in a single transaction.
+ * @param maxBatchDelay      how long the writer waits for the first meal of a batch.
+ * @param journalDirectory   directory of the append-only journal replayed on restart.
+ * @param journalSegmentSize size after which the journal rolls over to a new segment file.
+ * @param retryDelay         first delay before a batch that failed for a reason other than invalid data is retried.
+ * @param maxRetryDelay      upper bound of the retry delay, which doubles after every failed attempt.
+ */
+@ConfigurationProperties(prefix = "app.meal-ingestion")
+public record MealIngestionProperties(
+        @DefaultValue("false") boolean writeBehind,
+        @DefaultValue("10000") int queueCapacity,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("50ms") Duration maxBatchDelay,
+        @DefaultValue("data/meal-journal") Path journalDirectory,
+        @DefaultValue("16MB") DataSize journalSegmentSize,
+        @DefaultValue("1s") Duration retryDelay,
+        @DefaultValue("30s") Duration maxRetryDelay
+) {
+}
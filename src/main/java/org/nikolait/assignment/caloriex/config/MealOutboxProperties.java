@@ -0,0 +1,21 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the dispatcher delivering MealCreated events from the outbox.
+ *
+ * @param batchSize    maximum number of events delivered to consumers at once.
+ * @param pollInterval pause between polls once the outbox is drained.
+ * @param retryDelay   pause before redelivering a batch a consumer failed on.
+ */
+@ConfigurationProperties(prefix = "app.meal-outbox")
+public record MealOutboxProperties(
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("200ms") Duration pollInterval,
+        @DefaultValue("1s") Duration retryDelay
+) {
+}
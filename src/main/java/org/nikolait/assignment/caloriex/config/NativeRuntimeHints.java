@@ -0,0 +1,63 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.nikolait.assignment.caloriex.annotation.LocaleContext;
+import org.nikolait.assignment.caloriex.metrics.SlowOperation;
+import org.nikolait.assignment.caloriex.metrics.SlowQueryPlan;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.ClassUtils;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.stream.Stream;
+
+/**
+ * Reachability metadata for a native image that Spring AOT cannot infer on its own.
+ * <p>
+ * Entities, mappers, repositories, aspects and Flyway migrations are covered by Spring AOT and Spring Boot.
+ * What is left is what the application reaches by reflection itself: the JDBC proxies counting and timing statements,
+ * DTOs written by an ObjectMapper outside of a controller return type, the actuator records of slow
+ * operations, the annotation read by {@code LocaleAspect} and the SQL scripts of the test data.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String DTO_PACKAGE = "org.nikolait.assignment.caloriex.dto";
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.proxies()
+                .registerJdkProxy(Connection.class)
+                .registerJdkProxy(Statement.class)
+                .registerJdkProxy(PreparedStatement.class)
+                .registerJdkProxy(CallableStatement.class);
+
+        Stream.concat(dtoClasses(classLoader), Stream.of(SlowOperation.class, SlowQueryPlan.class))
+                .forEach(type -> bindingRegistrar.registerReflectionHints(hints.reflection(), type));
+
+        hints.reflection().registerType(LocaleContext.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.resources().registerPattern("sql/*.sql");
+    }
+
+    private static Stream<Class<?>> dtoClasses(ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isIndependent();
+            }
+        };
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+        scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+        return scanner.findCandidateComponents(DTO_PACKAGE).stream()
+                .map(definition -> ClassUtils.resolveClassName(definition.getBeanClassName(), classLoader));
+    }
+
+}
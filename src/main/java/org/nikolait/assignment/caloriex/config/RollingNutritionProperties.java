@@ -0,0 +1,16 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the in-memory rolling nutrition statistics.
+ *
+ * @param maxCachedUsers number of users whose windows are kept in memory;
+ *                       least recently read users are evicted and rebuilt from the database on the next read.
+ */
+@ConfigurationProperties(prefix = "app.rolling-nutrition")
+public record RollingNutritionProperties(
+        @DefaultValue("100000") int maxCachedUsers
+) {
+}
@@ -0,0 +1,34 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.nikolait.assignment.caloriex.metrics.SlowOperationRecorder;
+import org.nikolait.assignment.caloriex.metrics.SlowQueryDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class SlowOperationConfig {
+
+    /**
+     * Wraps the data source so every statement is timed, whether it comes from Hibernate or JdbcTemplate.
+     * The recorder is looked up on first use, so it does not have to exist before the data source.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.slow-operations", name = "enabled")
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowOperationRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SlowQueryDataSource)) {
+                    return new SlowQueryDataSource(dataSource, recorder);
+                }
+                return bean;
+            }
+        };
+    }
+
+}
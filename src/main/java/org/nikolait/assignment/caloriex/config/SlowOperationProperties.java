@@ -0,0 +1,28 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the slow query and slow request log.
+ *
+ * @param enabled          whether SQL statements are timed, which proxies every JDBC statement;
+ *                         slow requests are recorded either way.
+ * @param queryThreshold   statements running at least this long are recorded.
+ * @param requestThreshold requests taking at least this long are recorded.
+ * @param capacity         number of most recent records kept in memory.
+ * @param explainEnabled   whether plans of recorded queries can be captured on demand, which runs them again.
+ * @param explainTimeout   statement timeout of a plan captured on demand.
+ */
+@ConfigurationProperties(prefix = "app.slow-operations")
+public record SlowOperationProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("200ms") Duration queryThreshold,
+        @DefaultValue("1s") Duration requestThreshold,
+        @DefaultValue("200") int capacity,
+        @DefaultValue("false") boolean explainEnabled,
+        @DefaultValue("10s") Duration explainTimeout
+) {
+}
@@ -0,0 +1,17 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the per-request SQL statement count.
+ *
+ * @param headerEnabled whether responses carry the count in the X-Sql-Statement-Count header.
+ * @param warnThreshold count above which a request is logged as a likely N+1 query.
+ */
+@ConfigurationProperties(prefix = "app.sql-statements")
+public record SqlStatementProperties(
+        @DefaultValue("false") boolean headerEnabled,
+        @DefaultValue("50") int warnThreshold
+) {
+}
@@ -0,0 +1,15 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of responses streamed straight from a database cursor.
+ *
+ * @param fetchSize number of rows the JDBC driver reads from the cursor at once.
+ */
+@ConfigurationProperties(prefix = "app.streaming")
+public record StreamingProperties(
+        @DefaultValue("500") int fetchSize
+) {
+}
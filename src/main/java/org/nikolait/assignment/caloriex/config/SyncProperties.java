@@ -0,0 +1,15 @@
+package org.nikolait.assignment.caloriex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the delta sync API.
+ *
+ * @param pageSize maximum number of change log entries returned by one sync request.
+ */
+@ConfigurationProperties(prefix = "app.sync")
+public record SyncProperties(
+        @DefaultValue("500") int pageSize
+) {
+}
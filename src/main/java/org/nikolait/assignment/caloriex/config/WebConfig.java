@@ -1,13 +1,19 @@
 package org.nikolait.assignment.caloriex.config;
 
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.idempotency.IdempotencyInterceptor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final IdempotencyInterceptor idempotencyInterceptor;
+
     @Value("${api.prefix:/api}")
     private String apiPrefix;
 
@@ -18,4 +24,9 @@ public class WebConfig implements WebMvcConfigurer {
         );
     }
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(idempotencyInterceptor);
+    }
+
 }
@@ -2,11 +2,14 @@ package org.nikolait.assignment.caloriex.controller.v1;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.annotation.Idempotent;
 import org.nikolait.assignment.caloriex.dto.DishCreationDto;
 import org.nikolait.assignment.caloriex.dto.DishResponseDto;
+import org.nikolait.assignment.caloriex.idempotency.IdempotencyInterceptor;
 import org.nikolait.assignment.caloriex.mapper.DishMapper;
 import org.nikolait.assignment.caloriex.model.Dish;
 import org.nikolait.assignment.caloriex.secutiry.AuthorizationService;
@@ -28,10 +31,16 @@ public class DishController {
     private final DishMapper dishMapper;
 
     @PostMapping
+    @Idempotent
     @Operation(
             summary = "Create a Dish for the authenticated user",
             description = "Requires User ID in the Authorization header",
-            security = @SecurityRequirement(name = "Authorization")
+            security = @SecurityRequirement(name = "Authorization"),
+            parameters = @Parameter(
+                    in = ParameterIn.HEADER,
+                    name = IdempotencyInterceptor.IDEMPOTENCY_KEY_HEADER,
+                    description = "Optional key; repeated requests with the same key replay the original response"
+            )
     )
     public ResponseEntity<Void> createDish(
             @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
@@ -2,11 +2,16 @@ package org.nikolait.assignment.caloriex.controller.v1;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.annotation.Idempotent;
+import org.nikolait.assignment.caloriex.config.MealIngestionProperties;
 import org.nikolait.assignment.caloriex.dto.MealCreationDto;
 import org.nikolait.assignment.caloriex.dto.MealResponseDto;
+import org.nikolait.assignment.caloriex.dto.MealStatusDto;
+import org.nikolait.assignment.caloriex.idempotency.IdempotencyInterceptor;
 import org.nikolait.assignment.caloriex.mapper.MealMapper;
 import org.nikolait.assignment.caloriex.model.Meal;
 import org.nikolait.assignment.caloriex.secutiry.AuthorizationService;
@@ -16,6 +21,8 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+
 @RestController
 @RequestMapping("/meals")
 @RequiredArgsConstructor
@@ -24,12 +31,23 @@ public class MealController {
     private final AuthorizationService authorizationService;
     private final MealService mealService;
     private final MealMapper mealMapper;
+    private final MealIngestionProperties mealIngestionProperties;
 
     @PostMapping
+    @Idempotent
     @Operation(
             summary = "Create a Meal for the authenticated User",
-            description = "Requires User ID in the Authorization header",
-            security = @SecurityRequirement(name = "Authorization")
+            description = """
+                     Requires User ID in the Authorization header <br>
+                     Returns 202 Accepted instead of 201 Created when write-behind ingestion is enabled, <br>
+                     GET /meals/{id}/status then tells when the Meal is stored
+                    """,
+            security = @SecurityRequirement(name = "Authorization"),
+            parameters = @Parameter(
+                    in = ParameterIn.HEADER,
+                    name = IdempotencyInterceptor.IDEMPOTENCY_KEY_HEADER,
+                    description = "Optional key; repeated requests with the same key replay the original response"
+            )
     )
     public ResponseEntity<Void> createMeal(
             @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
@@ -37,7 +55,11 @@ public class MealController {
     ) {
         Long userId = authorizationService.authorizeByHeader(authHeader);
         Meal meal = mealService.createMeal(userId, mealMapper.toModel(mealCreationDto));
-        return ResponseEntity.created(UriUtil.buildResourceUriForId(meal.getId())).build();
+        URI location = UriUtil.buildResourceUriForId(meal.getId());
+        if (mealIngestionProperties.writeBehind()) {
+            return ResponseEntity.accepted().location(location).build();
+        }
+        return ResponseEntity.created(location).build();
     }
 
     @GetMapping("/{id}")
@@ -54,4 +76,21 @@ public class MealController {
         return mealMapper.toResponseDto(mealService.getUserMeal(userId, id));
     }
 
+    @GetMapping("/{id}/status")
+    @Operation(
+            summary = "Get the status of a Meal accepted with 202 by write-behind ingestion",
+            description = """
+                     Requires User ID in the Authorization header <br>
+                     PENDING until the Meal is stored, then CREATED, or FAILED if it could not be stored
+                    """,
+            security = @SecurityRequirement(name = "Authorization")
+    )
+    public MealStatusDto getMealStatus(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
+            @PathVariable Long id
+    ) {
+        Long userId = authorizationService.authorizeByHeader(authHeader);
+        return mealMapper.toStatusDto(id, mealService.getUserMealStatus(userId, id));
+    }
+
 }
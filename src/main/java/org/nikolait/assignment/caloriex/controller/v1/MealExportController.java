@@ -0,0 +1,52 @@
+package org.nikolait.assignment.caloriex.controller.v1;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.model.ExportFormatEnum;
+import org.nikolait.assignment.caloriex.secutiry.AuthorizationService;
+import org.nikolait.assignment.caloriex.service.MealExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/meals/export")
+@RequiredArgsConstructor
+public class MealExportController {
+
+    private final AuthorizationService authorizationService;
+    private final MealExportService mealExportService;
+
+    @GetMapping
+    @Operation(
+            summary = "Export all Meals of the authenticated User",
+            description = """
+                     Requires User ID in the Authorization header <br>
+                     Supported formats: ndjson (one Meal per line), csv (one dish of a Meal per line) <br>
+                     The response is gzip-compressed by the compression filter when the Accept-Encoding header allows it
+                    """,
+            security = @SecurityRequirement(name = "Authorization")
+    )
+    public ResponseEntity<StreamingResponseBody> exportMeals(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        Long userId = authorizationService.authorizeByHeader(authHeader);
+        ExportFormatEnum exportFormat = ExportFormatEnum.fromParameter(format);
+        StreamingResponseBody body = outputStream -> mealExportService.exportUserMeals(userId, exportFormat, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("meals." + exportFormat.getFileExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+}
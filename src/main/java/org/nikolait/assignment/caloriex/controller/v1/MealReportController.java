@@ -2,15 +2,33 @@ package org.nikolait.assignment.caloriex.controller.v1;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.coalescing.CoalescingMealReportService;
 import org.nikolait.assignment.caloriex.dto.MealDailyReportDto;
-import org.nikolait.assignment.caloriex.mapper.MealDailyReportMapper;
-import org.nikolait.assignment.caloriex.model.MealDailyReport;
+import org.nikolait.assignment.caloriex.dto.MealDailySummaryDto;
+import org.nikolait.assignment.caloriex.dto.NormalizedMealDailyReportsDto;
+import org.nikolait.assignment.caloriex.dto.NutritionAggregateDto;
+import org.nikolait.assignment.caloriex.dto.RollingNutritionReportDto;
+import org.nikolait.assignment.caloriex.mapper.RollingNutritionReportMapper;
+import org.nikolait.assignment.caloriex.model.ReportFormatEnum;
+import org.nikolait.assignment.caloriex.model.ReportViewEnum;
+import org.nikolait.assignment.caloriex.model.RollingNutritionReport;
+import org.nikolait.assignment.caloriex.progress.DailyProgressRegistry;
 import org.nikolait.assignment.caloriex.secutiry.AuthorizationService;
-import org.nikolait.assignment.caloriex.service.MealReportService;
+import org.nikolait.assignment.caloriex.service.MealReportStreamingService;
+import org.nikolait.assignment.caloriex.service.RollingNutritionService;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -22,8 +40,11 @@ import java.util.List;
 public class MealReportController {
 
     private final AuthorizationService authorizationService;
-    private final MealReportService mealReportService;
-    private final MealDailyReportMapper mealDailyReportMapper;
+    private final CoalescingMealReportService coalescingMealReportService;
+    private final MealReportStreamingService mealReportStreamingService;
+    private final RollingNutritionService rollingNutritionService;
+    private final RollingNutritionReportMapper rollingNutritionReportMapper;
+    private final DailyProgressRegistry dailyProgressRegistry;
 
     @GetMapping("/daily/today")
     @Operation(
@@ -40,9 +61,29 @@ public class MealReportController {
     ) {
         Long userId = authorizationService.authorizeByHeader(authHeader);
 
-        MealDailyReport mealDailyReport = mealReportService.generateMealDailyReportForToday(userId, zoneId);
+        return coalescingMealReportService.getMealDailyReportForToday(userId, zoneId);
+    }
 
-        return mealDailyReportMapper.toResponseDto(mealDailyReport);
+    @GetMapping(value = "/daily/today/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream calorie progress of the authenticated User for today",
+            description = """
+                     Requires User ID in the Authorization header <br>
+                     Uses 'X-Time-Zone' header to determine user's time zone (default: UTC) <br>
+                     Sends a 'progress' event right away and after every Meal the User writes
+                    """,
+            security = @SecurityRequirement(name = "Authorization")
+    )
+    @ApiResponse(responseCode = "200", content = @Content(
+            mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+            schema = @Schema(implementation = MealDailySummaryDto.class)
+    ))
+    public SseEmitter streamDailyProgressForToday(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
+            @RequestHeader(value = "X-Time-Zone", defaultValue = "UTC") ZoneId zoneId
+    ) {
+        Long userId = authorizationService.authorizeByHeader(authHeader);
+        return dailyProgressRegistry.subscribe(userId, zoneId);
     }
 
     @GetMapping("/daily/day")
@@ -61,56 +102,283 @@ public class MealReportController {
     ) {
         Long userId = authorizationService.authorizeByHeader(authHeader);
 
-        MealDailyReport mealDailyReport = mealReportService.generateMealDailyReportForDay(userId, day, zoneId);
-
-        return mealDailyReportMapper.toResponseDto(mealDailyReport);
+        return coalescingMealReportService.getMealDailyReportForDay(userId, day, zoneId);
     }
 
     @GetMapping("/daily/period")
     @Operation(
             summary = "Get daily Meal report for the authenticated User in a specific period",
+            description = """
+                     Requires User ID in the Authorization header <br>
+                     Uses 'X-Time-Zone' header to determine user's time zone (default: UTC) <br>
+                     Responds with CBOR instead of JSON when the Accept header prefers 'application/cbor'
+                    """,
+            security = @SecurityRequirement(name = "Authorization")
+    )
+    @ApiResponse(responseCode = "200", content = {
+            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = MealDailyReportDto.class))),
+            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = MealDailyReportDto.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> getDailyMealReportForPeriod(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) @Parameter(hidden = true) String accept,
+            @RequestHeader(value = "X-Time-Zone", defaultValue = "UTC") ZoneId zoneId,
+            @RequestParam LocalDate startDay,
+            @RequestParam LocalDate endDay
+    ) {
+        Long userId = authorizationService.authorizeByHeader(authHeader);
+        validatePeriod(startDay, endDay);
+        ReportFormatEnum format = ReportFormatEnum.fromAcceptHeader(accept);
+
+        StreamingResponseBody body = outputStream -> mealReportStreamingService.writeMealDailyReportsForPeriod(
+                userId,
+                startDay,
+                endDay,
+                zoneId,
+                format,
+                ReportViewEnum.FULL,
+                outputStream
+        );
+
+        return streamingResponse(format, body);
+    }
+
+    @GetMapping(value = "/daily/period", params = "view=summary")
+    @Operation(
+            summary = "Get daily calorie summaries without meals for the authenticated User in a specific period",
             description = """
                      Requires User ID in the Authorization header <br>
                      Uses 'X-Time-Zone' header to determine user's time zone (default: UTC)
                     """,
             security = @SecurityRequirement(name = "Authorization")
     )
-    public List<MealDailyReportDto> getDailyMealReportForPeriod(
+    public List<MealDailySummaryDto> getDailyMealSummaryForPeriod(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
+            @RequestHeader(value = "X-Time-Zone", defaultValue = "UTC") ZoneId zoneId,
+            @RequestParam LocalDate startDay,
+            @RequestParam LocalDate endDay
+    ) {
+        Long userId = authorizationService.authorizeByHeader(authHeader);
+        validatePeriod(startDay, endDay);
+
+        return coalescingMealReportService.getMealDailySummariesForPeriod(userId, startDay, endDay, zoneId);
+    }
+
+    @GetMapping(value = "/daily/period", params = "view=normalized")
+    @Operation(
+            summary = "Get daily Meal report with a shared Dish dictionary for the authenticated User in a specific period",
+            description = """
+                     Requires User ID in the Authorization header <br>
+                     Uses 'X-Time-Zone' header to determine user's time zone (default: UTC) <br>
+                     Meals refer to dishes by ID; each Dish is listed once in 'dishes' <br>
+                     Responds with CBOR instead of JSON when the Accept header prefers 'application/cbor'
+                    """,
+            security = @SecurityRequirement(name = "Authorization")
+    )
+    @ApiResponse(responseCode = "200", content = {
+            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = NormalizedMealDailyReportsDto.class)),
+            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE,
+                    schema = @Schema(implementation = NormalizedMealDailyReportsDto.class))
+    })
+    public ResponseEntity<StreamingResponseBody> getNormalizedDailyMealReportForPeriod(
             @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) @Parameter(hidden = true) String accept,
             @RequestHeader(value = "X-Time-Zone", defaultValue = "UTC") ZoneId zoneId,
             @RequestParam LocalDate startDay,
             @RequestParam LocalDate endDay
     ) {
         Long userId = authorizationService.authorizeByHeader(authHeader);
+        validatePeriod(startDay, endDay);
+        ReportFormatEnum format = ReportFormatEnum.fromAcceptHeader(accept);
 
-        List<MealDailyReport> mealDailyReports = mealReportService.generateMealDailyReportsForPeriod(
+        StreamingResponseBody body = outputStream -> mealReportStreamingService.writeMealDailyReportsForPeriod(
                 userId,
                 startDay,
                 endDay,
-                zoneId
+                zoneId,
+                format,
+                ReportViewEnum.NORMALIZED,
+                outputStream
         );
 
-        return mealDailyReportMapper.toResponseDtoList(mealDailyReports);
+        return streamingResponse(format, body);
     }
 
     @GetMapping("daily/all-tracked")
     @Operation(
             summary = "Get daily Meal reports for days with tracked meals for the authenticated User",
+            description = """
+                     Requires User ID in the Authorization header <br>
+                     Uses 'X-Time-Zone' header to determine user's time zone (default: UTC) <br>
+                     Responds with CBOR instead of JSON when the Accept header prefers 'application/cbor'
+                    """,
+            security = @SecurityRequirement(name = "Authorization")
+    )
+    @ApiResponse(responseCode = "200", content = {
+            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = MealDailyReportDto.class))),
+            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = MealDailyReportDto.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> getAllMealsForUser(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) @Parameter(hidden = true) String accept,
+            @RequestHeader(value = "X-Time-Zone", defaultValue = "UTC") ZoneId zoneId
+    ) {
+        Long userId = authorizationService.authorizeByHeader(authHeader);
+        ReportFormatEnum format = ReportFormatEnum.fromAcceptHeader(accept);
+
+        StreamingResponseBody body = outputStream -> mealReportStreamingService.writeAllTrackedMealDailyReports(
+                userId,
+                zoneId,
+                format,
+                ReportViewEnum.FULL,
+                outputStream
+        );
+
+        return streamingResponse(format, body);
+    }
+
+    @GetMapping(value = "daily/all-tracked", params = "view=summary")
+    @Operation(
+            summary = "Get daily calorie summaries without meals for days with tracked meals for the authenticated User",
             description = """
                      Requires User ID in the Authorization header <br>
                      Uses 'X-Time-Zone' header to determine user's time zone (default: UTC)
                     """,
             security = @SecurityRequirement(name = "Authorization")
     )
-    public List<MealDailyReportDto> getAllMealsForUser(
+    public List<MealDailySummaryDto> getAllMealSummariesForUser(
             @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
             @RequestHeader(value = "X-Time-Zone", defaultValue = "UTC") ZoneId zoneId
     ) {
         Long userId = authorizationService.authorizeByHeader(authHeader);
 
-        List<MealDailyReport> mealDailyReports = mealReportService.generateAllTrackedMealDailyReports(userId, zoneId);
+        return coalescingMealReportService.getAllTrackedMealDailySummaries(userId, zoneId);
+    }
 
-        return mealDailyReportMapper.toResponseDtoList(mealDailyReports);
+    @GetMapping(value = "daily/all-tracked", params = "view=normalized")
+    @Operation(
+            summary = "Get daily Meal reports with a shared Dish dictionary for days with tracked meals for the authenticated User",
+            description = """
+                     Requires User ID in the Authorization header <br>
+                     Uses 'X-Time-Zone' header to determine user's time zone (default: UTC) <br>
+                     Meals refer to dishes by ID; each Dish is listed once in 'dishes' <br>
+                     Responds with CBOR instead of JSON when the Accept header prefers 'application/cbor'
+                    """,
+            security = @SecurityRequirement(name = "Authorization")
+    )
+    @ApiResponse(responseCode = "200", content = {
+            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = NormalizedMealDailyReportsDto.class)),
+            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE,
+                    schema = @Schema(implementation = NormalizedMealDailyReportsDto.class))
+    })
+    public ResponseEntity<StreamingResponseBody> getNormalizedMealReportsForUser(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) @Parameter(hidden = true) String accept,
+            @RequestHeader(value = "X-Time-Zone", defaultValue = "UTC") ZoneId zoneId
+    ) {
+        Long userId = authorizationService.authorizeByHeader(authHeader);
+        ReportFormatEnum format = ReportFormatEnum.fromAcceptHeader(accept);
+
+        StreamingResponseBody body = outputStream -> mealReportStreamingService.writeAllTrackedMealDailyReports(
+                userId,
+                zoneId,
+                format,
+                ReportViewEnum.NORMALIZED,
+                outputStream
+        );
+
+        return streamingResponse(format, body);
+    }
+
+    @GetMapping("/weekly")
+    @Operation(
+            summary = "Get weekly nutrition aggregates for the authenticated User in a specific period",
+            description = """
+                     Requires User ID in the Authorization header <br>
+                     Uses 'X-Time-Zone' header to determine user's time zone (default: UTC) <br>
+                     The period is extended to whole ISO weeks (Monday to Sunday)
+                    """,
+            security = @SecurityRequirement(name = "Authorization")
+    )
+    public List<NutritionAggregateDto> getWeeklyNutritionAggregates(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
+            @RequestHeader(value = "X-Time-Zone", defaultValue = "UTC") ZoneId zoneId,
+            @RequestParam LocalDate startDay,
+            @RequestParam LocalDate endDay
+    ) {
+        Long userId = authorizationService.authorizeByHeader(authHeader);
+
+        return coalescingMealReportService.getWeeklyAggregates(userId, startDay, endDay, zoneId);
+    }
+
+    @GetMapping("/monthly")
+    @Operation(
+            summary = "Get monthly nutrition aggregates for the authenticated User in a specific period",
+            description = """
+                     Requires User ID in the Authorization header <br>
+                     Uses 'X-Time-Zone' header to determine user's time zone (default: UTC) <br>
+                     The period is extended to whole calendar months
+                    """,
+            security = @SecurityRequirement(name = "Authorization")
+    )
+    public List<NutritionAggregateDto> getMonthlyNutritionAggregates(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
+            @RequestHeader(value = "X-Time-Zone", defaultValue = "UTC") ZoneId zoneId,
+            @RequestParam LocalDate startDay,
+            @RequestParam LocalDate endDay
+    ) {
+        Long userId = authorizationService.authorizeByHeader(authHeader);
+
+        return coalescingMealReportService.getMonthlyAggregates(userId, startDay, endDay, zoneId);
+    }
+
+    @GetMapping("/rolling")
+    @Operation(
+            summary = "Get 7 and 30 day rolling nutrition averages for the authenticated User",
+            description = """
+                     Requires User ID in the Authorization header <br>
+                     Uses 'X-Time-Zone' header to determine user's time zone (default: UTC) <br>
+                     Both windows end today and include today's meals
+                    """,
+            security = @SecurityRequirement(name = "Authorization")
+    )
+    public RollingNutritionReportDto getRollingNutritionReport(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
+            @RequestHeader(value = "X-Time-Zone", defaultValue = "UTC") ZoneId zoneId
+    ) {
+        Long userId = authorizationService.authorizeByHeader(authHeader);
+
+        RollingNutritionReport rollingNutritionReport = rollingNutritionService.generateRollingNutritionReport(
+                userId,
+                zoneId
+        );
+
+        return rollingNutritionReportMapper.toResponseDto(rollingNutritionReport);
+    }
+
+    /**
+     * Rejects a reversed period up front, as a streamed report can no longer change its status once it has started.
+     */
+    private static void validatePeriod(LocalDate startDay, LocalDate endDay) {
+        if (endDay.isBefore(startDay)) {
+            throw new ValidationException("endDay must not be before startDay");
+        }
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamingResponse(
+            ReportFormatEnum format,
+            StreamingResponseBody body
+    ) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .body(body);
     }
 
 }
@@ -0,0 +1,41 @@
+package org.nikolait.assignment.caloriex.controller.v1;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.dto.SyncResponseDto;
+import org.nikolait.assignment.caloriex.mapper.SyncMapper;
+import org.nikolait.assignment.caloriex.secutiry.AuthorizationService;
+import org.nikolait.assignment.caloriex.service.SyncService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final AuthorizationService authorizationService;
+    private final SyncService syncService;
+    private final SyncMapper syncMapper;
+
+    @GetMapping
+    @Operation(
+            summary = "Get Meals and Dishes changed since a cursor for the authenticated User",
+            description = """
+                     Requires User ID in the Authorization header <br>
+                     Omit 'since' for the first sync, then pass the returned 'cursor' <br>
+                     Repeat while 'hasMore' is true; 'deletedMealIds' and 'deletedDishIds' list removed entities
+                    """,
+            security = @SecurityRequirement(name = "Authorization")
+    )
+    public SyncResponseDto getChanges(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) @Parameter(hidden = true) String authHeader,
+            @RequestParam(defaultValue = "0") long since
+    ) {
+        Long userId = authorizationService.authorizeByHeader(authHeader);
+        return syncMapper.toResponseDto(syncService.getChangesSince(userId, since));
+    }
+
+}
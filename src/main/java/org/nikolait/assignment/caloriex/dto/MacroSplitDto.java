@@ -0,0 +1,8 @@
+package org.nikolait.assignment.caloriex.dto;
+
+public record MacroSplitDto(
+        double protein,
+        double fat,
+        double carbohydrates
+) {
+}
@@ -0,0 +1,11 @@
+package org.nikolait.assignment.caloriex.dto;
+
+import java.time.LocalDate;
+
+public record MealDailySummaryDto(
+        LocalDate date,
+        int totalCalories,
+        int dailyCalorieTarget,
+        boolean exceeded
+) {
+}
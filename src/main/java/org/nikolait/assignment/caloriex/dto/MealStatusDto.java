@@ -0,0 +1,9 @@
+package org.nikolait.assignment.caloriex.dto;
+
+import org.nikolait.assignment.caloriex.model.MealIngestionStatusEnum;
+
+public record MealStatusDto(
+        Long id,
+        MealIngestionStatusEnum status
+) {
+}
@@ -0,0 +1,13 @@
+package org.nikolait.assignment.caloriex.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record NormalizedMealDailyReportDto(
+        LocalDate date,
+        List<NormalizedMealResponseDto> meals,
+        int totalCalories,
+        int dailyCalorieTarget,
+        boolean exceeded
+) {
+}
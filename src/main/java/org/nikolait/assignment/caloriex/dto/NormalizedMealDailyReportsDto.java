@@ -0,0 +1,13 @@
+package org.nikolait.assignment.caloriex.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Map;
+
+public record NormalizedMealDailyReportsDto(
+        List<NormalizedMealDailyReportDto> days,
+        @Schema(description = "every Dish referenced by the meals, keyed by Dish ID")
+        Map<Long, DishResponseDto> dishes
+) {
+}
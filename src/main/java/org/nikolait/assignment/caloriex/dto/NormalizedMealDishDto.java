@@ -0,0 +1,8 @@
+package org.nikolait.assignment.caloriex.dto;
+
+public record NormalizedMealDishDto(
+        Long dishId,
+        Double servings,
+        Double calories
+) {
+}
@@ -0,0 +1,13 @@
+package org.nikolait.assignment.caloriex.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record NormalizedMealResponseDto(
+        Long id,
+        String name,
+        List<NormalizedMealDishDto> mealDishes,
+        int calories,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,19 @@
+package org.nikolait.assignment.caloriex.dto;
+
+import java.time.LocalDate;
+
+public record NutritionAggregateDto(
+        String period,
+        LocalDate startDate,
+        LocalDate endDate,
+        int trackedDays,
+        int totalCalories,
+        double averageCalories,
+        int dailyCalorieTarget,
+        int daysOverTarget,
+        double protein,
+        double fat,
+        double carbohydrates,
+        MacroSplitDto macroSplit
+) {
+}
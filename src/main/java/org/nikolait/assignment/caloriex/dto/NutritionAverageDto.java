@@ -0,0 +1,12 @@
+package org.nikolait.assignment.caloriex.dto;
+
+public record NutritionAverageDto(
+        int days,
+        double calories,
+        double protein,
+        double fat,
+        double carbohydrates,
+        int dailyCalorieTarget,
+        boolean exceeded
+) {
+}
@@ -0,0 +1,10 @@
+package org.nikolait.assignment.caloriex.dto;
+
+import java.time.LocalDate;
+
+public record RollingNutritionReportDto(
+        LocalDate date,
+        NutritionAverageDto lastWeek,
+        NutritionAverageDto lastMonth
+) {
+}
@@ -0,0 +1,13 @@
+package org.nikolait.assignment.caloriex.dto;
+
+import java.util.List;
+
+public record SyncResponseDto(
+        long cursor,
+        boolean hasMore,
+        List<MealResponseDto> meals,
+        List<DishResponseDto> dishes,
+        List<Long> deletedMealIds,
+        List<Long> deletedDishIds
+) {
+}
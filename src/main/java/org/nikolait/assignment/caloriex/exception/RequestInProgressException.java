@@ -0,0 +1,9 @@
+package org.nikolait.assignment.caloriex.exception;
+
+public class RequestInProgressException extends RuntimeException {
+
+    public RequestInProgressException(String message) {
+        super(message);
+    }
+
+}
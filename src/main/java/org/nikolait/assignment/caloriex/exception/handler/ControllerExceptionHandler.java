@@ -4,8 +4,11 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.nikolait.assignment.caloriex.exception.EntityAlreadyExistsException;
+import org.nikolait.assignment.caloriex.exception.RequestInProgressException;
 import org.nikolait.assignment.caloriex.exception.UnauthorizedException;
 import org.nikolait.assignment.caloriex.exception.UnprocessableEntityException;
+import org.nikolait.assignment.caloriex.ulti.ConstraintViolationUtil;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -24,6 +27,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ControllerExceptionHandler {
 
+    private static final String UNIQUE_USER_DISH_NAME_CONSTRAINT = "unique_user_dish_name";
+
     @ExceptionHandler(BindException.class)
     public ErrorResponse handleBindExceptions(BindException ex) {
         return ErrorResponse.builder(ex, ProblemDetail.forStatus(HttpStatus.BAD_REQUEST))
@@ -67,6 +72,32 @@ public class ControllerExceptionHandler {
                 .build();
     }
 
+    @ExceptionHandler(RequestInProgressException.class)
+    public ErrorResponse handleRequestInProgress(RequestInProgressException ex) {
+        return ErrorResponse.builder(ex, HttpStatus.CONFLICT, ex.getMessage())
+                .type(URI.create(ex.getClass().getSimpleName()))
+                .build();
+    }
+
+    /**
+     * Maps duplicate keys that were not translated by a service to 409. Other integrity violations, such as
+     * foreign key, not-null or check violations, are not conflicts and are rethrown to end up as a server error.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ErrorResponse handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        if (ConstraintViolationUtil.isViolationOf(ex, UNIQUE_USER_DISH_NAME_CONSTRAINT)) {
+            return ErrorResponse.builder(ex, HttpStatus.CONFLICT, "Dish with this name already exists for current User")
+                    .type(URI.create(EntityAlreadyExistsException.class.getSimpleName()))
+                    .build();
+        }
+        if (ConstraintViolationUtil.isUniqueViolation(ex)) {
+            return ErrorResponse.builder(ex, HttpStatus.CONFLICT, "Request conflicts with existing data")
+                    .type(URI.create(ex.getClass().getSimpleName()))
+                    .build();
+        }
+        throw ex;
+    }
+
     @ExceptionHandler(MissingRequestHeaderException.class)
     public ErrorResponse handleMissingHeader(MissingRequestHeaderException ex) {
         return ErrorResponse.builder(ex, HttpStatus.UNAUTHORIZED, ex.getMessage())
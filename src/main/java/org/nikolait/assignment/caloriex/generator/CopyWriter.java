@@ -0,0 +1,66 @@
+package org.nikolait.assignment.caloriex.generator;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Streams rows into a COPY ... FROM STDIN in the text format, sending them in chunks.
+ * Values must not contain tabs, newlines or backslashes; null is written as \N.
+ */
+class CopyWriter implements AutoCloseable {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final CopyIn copyIn;
+    private final StringBuilder buffer = new StringBuilder(CHUNK_SIZE + 1024);
+
+    private boolean ended;
+
+    CopyWriter(CopyManager copyManager, String copySql) throws SQLException {
+        this.copyIn = copyManager.copyIn(copySql);
+    }
+
+    void row(Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                buffer.append('\t');
+            }
+            buffer.append(values[i] == null ? "\\N" : values[i]);
+        }
+        buffer.append('\n');
+        if (buffer.length() >= CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the remaining rows and completes the COPY.
+     *
+     * @return the number of rows copied.
+     */
+    long end() throws SQLException {
+        flush();
+        ended = true;
+        return copyIn.endCopy();
+    }
+
+    /**
+     * Cancels the COPY unless it was ended.
+     */
+    @Override
+    public void close() throws SQLException {
+        if (!ended && copyIn.isActive()) {
+            copyIn.cancelCopy();
+        }
+    }
+
+    private void flush() throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+}
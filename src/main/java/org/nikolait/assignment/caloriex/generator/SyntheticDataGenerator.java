@@ -0,0 +1,191 @@
+package org.nikolait.assignment.caloriex.generator;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.nikolait.assignment.caloriex.config.DataGeneratorProperties;
+import org.nikolait.assignment.caloriex.model.Dish;
+import org.nikolait.assignment.caloriex.model.Meal;
+import org.nikolait.assignment.caloriex.model.MealDish;
+import org.nikolait.assignment.caloriex.model.User;
+import org.nikolait.assignment.caloriex.repository.ActivityLevelRepository;
+import org.nikolait.assignment.caloriex.repository.GoalRepository;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Fills the database with synthetic users, dishes and meals for performance tests and benchmarks,
+ * then shuts the application down.
+ * <p>
+ * Rows are streamed with COPY in one transaction, a table at a time, generating every user again for each table
+ * instead of keeping them in memory. Sync changes are written for every dish and meal, so delta sync
+ * sees the generated history; no meal outbox events are written.
+ * Run it with: {@code java -jar CalorieX.jar --spring.profiles.active=generate --app.data-generator.users=1000000}
+ */
+@Slf4j
+@Component
+@Profile("generate")
+@DependsOn("flyway")
+@RequiredArgsConstructor
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private final DataGeneratorProperties properties;
+    private final DataSource dataSource;
+    private final ActivityLevelRepository activityLevelRepository;
+    private final GoalRepository goalRepository;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        SyntheticDataModel model = new SyntheticDataModel(
+                properties,
+                activityLevelRepository.findAll(Sort.by("id")),
+                goalRepository.findAll(Sort.by("id"))
+        );
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                generate(model, connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+            try (Statement statement = connection.createStatement()) {
+                connection.setAutoCommit(true);
+                statement.execute("ANALYZE users, dishes, meals, meal_dishes, sync_changes, sync_sequences");
+            }
+        }
+        log.info("Generated {} users with seed {} in {} s",
+                properties.users(), properties.seed(), (System.nanoTime() - start) / 1_000_000_000);
+        SpringApplication.exit(applicationContext);
+    }
+
+    private void generate(SyntheticDataModel model, Connection connection) throws SQLException {
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        IdRange ids = new IdRange(
+                nextId(connection, "users"),
+                nextId(connection, "dishes"),
+                nextId(connection, "meals")
+        );
+
+        copy(model, ids, copyManager, "users", """
+                COPY users (id, activity_level_id, goal_id, name, email, age, weight, height, gender,
+                            daily_calorie_target, created_at) FROM STDIN""", (writer, generated) -> {
+            User user = generated.user();
+            writer.row(user.getId(), user.getActivityLevel().getId(), user.getGoal().getId(), user.getName(),
+                    user.getEmail(), user.getAge(), user.getWeight(), user.getHeight(), user.getGender(),
+                    user.getDailyCalorieTarget(), user.getCreatedAt());
+        });
+        copy(model, ids, copyManager, "dishes", """
+                COPY dishes (id, user_id, name, protein, fat, carbohydrates, calories, created_at) FROM STDIN""",
+                (writer, generated) -> {
+                    for (Dish dish : generated.dishes()) {
+                        writer.row(dish.getId(), generated.user().getId(), dish.getName(), dish.getProtein(),
+                                dish.getFat(), dish.getCarbohydrates(), dish.getCalories(), dish.getCreatedAt());
+                    }
+                });
+        copy(model, ids, copyManager, "meals", "COPY meals (id, name, user_id, created_at) FROM STDIN",
+                (writer, generated) -> {
+                    for (Meal meal : generated.meals()) {
+                        writer.row(meal.getId(), meal.getName(), generated.user().getId(), meal.getCreatedAt());
+                    }
+                });
+        copy(model, ids, copyManager, "meal_dishes", "COPY meal_dishes (meal_id, dish_id, servings) FROM STDIN",
+                (writer, generated) -> {
+                    for (Meal meal : generated.meals()) {
+                        for (MealDish mealDish : meal.getMealDishes()) {
+                            writer.row(meal.getId(), mealDish.getDish().getId(), mealDish.getServings());
+                        }
+                    }
+                });
+        copy(model, ids, copyManager, "sync_changes", """
+                COPY sync_changes (user_id, sequence, entity_type, entity_id, operation, changed_at) FROM STDIN""",
+                (writer, generated) -> {
+                    long userId = generated.user().getId();
+                    long sequence = 0;
+                    for (Dish dish : generated.dishes()) {
+                        writer.row(userId, ++sequence, "DISH", dish.getId(), "UPSERT", dish.getCreatedAt());
+                    }
+                    for (Meal meal : generated.meals()) {
+                        writer.row(userId, ++sequence, "MEAL", meal.getId(), "UPSERT", meal.getCreatedAt());
+                    }
+                });
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("""
+                    INSERT INTO sync_sequences (user_id, last_sequence)
+                    SELECT user_id, MAX(sequence) FROM sync_changes WHERE user_id >= %d GROUP BY user_id
+                    """.formatted(ids.firstUserId()));
+            statement.execute("SELECT setval('users_id_seq', (SELECT MAX(id) FROM users))");
+            statement.execute("SELECT setval('dishes_id_seq', (SELECT MAX(id) FROM dishes))");
+            statement.execute("SELECT setval('meals_id_seq', (SELECT MAX(id) FROM meals))");
+        }
+    }
+
+    /**
+     * Generates every user again and copies the rows the writer makes of them into one table.
+     */
+    private void copy(
+            SyntheticDataModel model,
+            IdRange ids,
+            CopyManager copyManager,
+            String table,
+            String copySql,
+            RowWriter rowWriter
+    ) throws SQLException {
+        long start = System.nanoTime();
+        long mealId = ids.firstMealId();
+        long rows;
+        try (CopyWriter writer = new CopyWriter(copyManager, copySql)) {
+            for (int i = 0; i < properties.users(); i++) {
+                SyntheticUser generated = model.generate(
+                        i,
+                        ids.firstUserId() + i,
+                        ids.firstDishId() + (long) i * properties.dishesPerUser(),
+                        mealId
+                );
+                mealId += generated.meals().size();
+                rowWriter.write(writer, generated);
+            }
+            rows = writer.end();
+        }
+        log.info("Copied {} rows into {} in {} ms", rows, table, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @return the first id after both the stored rows and the ids the sequence already handed out.
+     */
+    private static long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("""
+                     SELECT GREATEST((SELECT COALESCE(MAX(id), 0) FROM %1$s), (SELECT last_value FROM %1$s_id_seq)) + 1
+                     """.formatted(table))) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(CopyWriter writer, SyntheticUser generated) throws SQLException;
+    }
+
+    private record IdRange(long firstUserId, long firstDishId, long firstMealId) {
+    }
+
+}
@@ -0,0 +1,261 @@
+package org.nikolait.assignment.caloriex.generator;
+
+import org.nikolait.assignment.caloriex.config.DataGeneratorProperties;
+import org.nikolait.assignment.caloriex.model.ActivityLevel;
+import org.nikolait.assignment.caloriex.model.Dish;
+import org.nikolait.assignment.caloriex.model.GenderEnum;
+import org.nikolait.assignment.caloriex.model.Goal;
+import org.nikolait.assignment.caloriex.model.Meal;
+import org.nikolait.assignment.caloriex.model.MealDish;
+import org.nikolait.assignment.caloriex.model.User;
+import org.nikolait.assignment.caloriex.ulti.CalorieCalculator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a user together with the dishes and meals of their history.
+ * <p>
+ * Each user is generated from its own random stream, derived from the seed and the user's index,
+ * so the same user can be generated again without generating the ones before it.
+ * Names and emails are numbered by that index too, so they do not depend on the ids the database hands out.
+ * <ul>
+ *     <li>How active a user is follows a Pareto distribution: most users track now and then,
+ *     a long tail of heavy users tracks nearly every day and logs more meals a day.</li>
+ *     <li>Users sign up on a random day of the history and track from then on.</li>
+ *     <li>Meals are spread over the local day of the user's time zone, between 7:00 and 22:00.</li>
+ *     <li>Dishes in a meal favour the first dishes of a user, so every user has favourites.</li>
+ * </ul>
+ */
+public class SyntheticDataModel {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final int MAX_MEALS_PER_DAY = 12;
+    private static final int MAX_DISHES_PER_MEAL = 8;
+    private static final int FIRST_MEAL_MINUTE = 7 * 60;
+    private static final int MEAL_MINUTES_PER_DAY = 15 * 60;
+
+    private static final List<DishTemplate> CATALOG = List.of(
+            new DishTemplate("Oatmeal", 5.0, 3.0, 27.0),
+            new DishTemplate("Scrambled Eggs", 12.0, 14.0, 2.0),
+            new DishTemplate("Greek Yogurt", 10.0, 4.0, 6.0),
+            new DishTemplate("Pancakes", 6.0, 8.0, 40.0),
+            new DishTemplate("Avocado Toast", 6.0, 15.0, 25.0),
+            new DishTemplate("Granola", 7.0, 10.0, 45.0),
+            new DishTemplate("Banana", 1.3, 0.4, 27.0),
+            new DishTemplate("Apple", 0.5, 0.3, 25.0),
+            new DishTemplate("Chicken Breast", 31.0, 3.6, 0.0),
+            new DishTemplate("Beef Steak", 26.0, 15.0, 0.0),
+            new DishTemplate("Salmon Fillet", 22.0, 13.0, 0.0),
+            new DishTemplate("Tuna Salad", 18.0, 9.0, 5.0),
+            new DishTemplate("Caesar Salad", 9.0, 17.0, 11.0),
+            new DishTemplate("Vegetable Soup", 4.0, 5.0, 20.0),
+            new DishTemplate("Lentil Soup", 9.0, 3.0, 22.0),
+            new DishTemplate("Pasta Bolognese", 18.0, 14.0, 60.0),
+            new DishTemplate("Mushroom Risotto", 7.0, 12.0, 55.0),
+            new DishTemplate("Fried Rice", 8.0, 10.0, 50.0),
+            new DishTemplate("Burrito", 20.0, 18.0, 55.0),
+            new DishTemplate("Cheeseburger", 25.0, 26.0, 35.0),
+            new DishTemplate("Pizza Slice", 12.0, 10.0, 33.0),
+            new DishTemplate("Sushi Roll", 9.0, 4.0, 38.0),
+            new DishTemplate("Ramen", 15.0, 16.0, 60.0),
+            new DishTemplate("Buckwheat Porridge", 6.0, 2.0, 35.0),
+            new DishTemplate("Borscht", 5.0, 6.0, 15.0),
+            new DishTemplate("Cottage Cheese", 14.0, 5.0, 4.0),
+            new DishTemplate("Protein Shake", 25.0, 2.0, 8.0),
+            new DishTemplate("Mixed Nuts", 6.0, 16.0, 6.0),
+            new DishTemplate("Dark Chocolate", 2.0, 12.0, 13.0),
+            new DishTemplate("Orange Juice", 1.7, 0.5, 26.0)
+    );
+
+    private final DataGeneratorProperties properties;
+    private final List<ActivityLevel> activityLevels;
+    private final List<Goal> goals;
+    private final List<ZoneId> timeZones;
+    private final LocalDate firstDay;
+    private final LocalDate lastDay;
+    private final double meanActivity;
+
+    public SyntheticDataModel(DataGeneratorProperties properties, List<ActivityLevel> activityLevels, List<Goal> goals) {
+        if (properties.tailIndex() <= 1) {
+            throw new IllegalArgumentException("Tail index must be above 1, but was " + properties.tailIndex());
+        }
+        this.properties = properties;
+        this.activityLevels = List.copyOf(activityLevels);
+        this.goals = List.copyOf(goals);
+        this.timeZones = properties.timeZones().stream().map(ZoneId::of).toList();
+        if (properties.endDate() == null) {
+            throw new IllegalArgumentException("End date must be set, so the same data can be generated again");
+        }
+        this.lastDay = properties.endDate();
+        this.firstDay = lastDay.minusDays(properties.days() - 1L);
+        this.meanActivity = properties.tailIndex() / (properties.tailIndex() - 1);
+    }
+
+    /**
+     * Generates the user with the given index, numbering its dishes and meals from the given ids on.
+     */
+    public SyntheticUser generate(int index, long userId, long firstDishId, long firstMealId) {
+        SplittableRandom random = new SplittableRandom(mix(properties.seed() * GOLDEN_GAMMA + index));
+        User user = generateUser(random, index + 1, userId);
+        ZoneId zoneId = timeZones.get(random.nextInt(timeZones.size()));
+        LocalDate signUpDay = firstDay.plusDays(random.nextInt(properties.days()));
+        user.setCreatedAt(signUpDay.atTime(localTime(random.nextInt(FIRST_MEAL_MINUTE, FIRST_MEAL_MINUTE + MEAL_MINUTES_PER_DAY)))
+                .atZone(zoneId)
+                .toInstant());
+        double activity = Math.pow(1 - random.nextDouble(), -1 / properties.tailIndex()) / meanActivity;
+
+        List<Dish> dishes = generateDishes(random, user, firstDishId);
+        List<Meal> meals = new ArrayList<>();
+        long mealId = firstMealId;
+        double trackingProbability = Math.min(1, properties.trackingRate() * activity);
+        double mealsPerDay = properties.mealsPerDay() * Math.sqrt(activity);
+        for (LocalDate day = signUpDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            if (random.nextDouble() >= trackingProbability) {
+                continue;
+            }
+            int mealCount = Math.clamp(poisson(random, mealsPerDay), 1, MAX_MEALS_PER_DAY);
+            int slot = MEAL_MINUTES_PER_DAY / mealCount;
+            for (int i = 0; i < mealCount; i++) {
+                LocalTime time = localTime(FIRST_MEAL_MINUTE + i * slot + random.nextInt(slot));
+                Instant createdAt = day.atTime(time).atZone(zoneId).toInstant();
+                if (createdAt.isBefore(user.getCreatedAt())) {
+                    continue;
+                }
+                meals.add(generateMeal(random, mealId++, user, mealName(time), createdAt, dishes));
+            }
+        }
+        return new SyntheticUser(user, zoneId, dishes, meals);
+    }
+
+    private User generateUser(SplittableRandom random, int number, long userId) {
+        GenderEnum gender = random.nextBoolean() ? GenderEnum.MALE : GenderEnum.FEMALE;
+        int height = (int) Math.clamp(
+                Math.round(random.nextGaussian(gender == GenderEnum.MALE ? 177 : 164, 7)), 145, 210);
+        double bodyMassIndex = Math.clamp(random.nextGaussian(26, 4.5), 17, 45);
+        User user = User.builder()
+                .id(userId)
+                .name("User " + number)
+                .email("user" + number + "@synthetic.caloriex")
+                .age(18 + (int) (52 * Math.pow(random.nextDouble(), 1.5)))
+                .weight(round(bodyMassIndex * height * height / 10_000.0))
+                .height(height)
+                .gender(gender)
+                .activityLevel(activityLevels.get(random.nextInt(activityLevels.size())))
+                .goal(goals.get(random.nextInt(goals.size())))
+                .build();
+        user.setDailyCalorieTarget(CalorieCalculator.calculateDailyCalorieTarget(user));
+        return user;
+    }
+
+    /**
+     * Every user picks the catalog in its own order and numbers repeated dish names, so names stay unique per user.
+     */
+    private List<Dish> generateDishes(SplittableRandom random, User user, long firstDishId) {
+        int[] order = random.ints(0, Integer.MAX_VALUE).limit(CATALOG.size()).toArray();
+        List<Integer> catalogOrder = new ArrayList<>(CATALOG.size());
+        for (int i = 0; i < CATALOG.size(); i++) {
+            catalogOrder.add(i);
+        }
+        catalogOrder.sort((a, b) -> Integer.compare(order[a], order[b]));
+
+        List<Dish> dishes = new ArrayList<>(properties.dishesPerUser());
+        for (int i = 0; i < properties.dishesPerUser(); i++) {
+            DishTemplate template = CATALOG.get(catalogOrder.get(i % CATALOG.size()));
+            int round = i / CATALOG.size();
+            Dish dish = Dish.builder()
+                    .id(firstDishId + i)
+                    .user(user)
+                    .name(round == 0 ? template.name() : template.name() + " " + (round + 1))
+                    .protein(round(template.protein() * random.nextDouble(0.85, 1.15)))
+                    .fat(round(template.fat() * random.nextDouble(0.85, 1.15)))
+                    .carbohydrates(round(template.carbohydrates() * random.nextDouble(0.85, 1.15)))
+                    .createdAt(user.getCreatedAt().plus(Duration.ofMinutes(i)))
+                    .build();
+            dish.setCalories(Math.max(1, CalorieCalculator.calculateDishCalories(dish)));
+            dishes.add(dish);
+        }
+        return dishes;
+    }
+
+    private Meal generateMeal(
+            SplittableRandom random,
+            long mealId,
+            User user,
+            String name,
+            Instant createdAt,
+            List<Dish> dishes
+    ) {
+        Meal meal = Meal.builder()
+                .id(mealId)
+                .user(user)
+                .name(name)
+                .createdAt(createdAt)
+                .build();
+        int dishCount = Math.clamp(1 + poisson(random, properties.dishesPerMeal() - 1), 1,
+                Math.min(MAX_DISHES_PER_MEAL, dishes.size()));
+        boolean[] chosen = new boolean[dishes.size()];
+        while (meal.getMealDishes().size() < dishCount) {
+            double favourite = random.nextDouble();
+            int dishIndex = (int) (dishes.size() * favourite * favourite);
+            if (chosen[dishIndex]) {
+                continue;
+            }
+            chosen[dishIndex] = true;
+            meal.getMealDishes().add(MealDish.builder()
+                    .meal(meal)
+                    .dish(dishes.get(dishIndex))
+                    .servings(0.5 + 0.25 * random.nextInt(11))
+                    .build());
+        }
+        return meal;
+    }
+
+    private static String mealName(LocalTime time) {
+        if (time.getHour() < 11) {
+            return "Breakfast";
+        }
+        if (time.getHour() < 16) {
+            return "Lunch";
+        }
+        return time.getHour() < 21 ? "Dinner" : "Snack";
+    }
+
+    private static LocalTime localTime(int minuteOfDay) {
+        return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    private static int poisson(SplittableRandom random, double mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    private record DishTemplate(String name, double protein, double fat, double carbohydrates) {
+    }
+
+}
@@ -0,0 +1,16 @@
+package org.nikolait.assignment.caloriex.generator;
+
+import org.nikolait.assignment.caloriex.model.Dish;
+import org.nikolait.assignment.caloriex.model.Meal;
+import org.nikolait.assignment.caloriex.model.User;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * A generated user with its dishes and its meals in the order they were eaten.
+ *
+ * @param zoneId time zone the meals were eaten in; it is not stored, as users have no time zone.
+ */
+public record SyntheticUser(User user, ZoneId zoneId, List<Dish> dishes, List<Meal> meals) {
+}
@@ -0,0 +1,136 @@
+package org.nikolait.assignment.caloriex.idempotency;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.annotation.Idempotent;
+import org.nikolait.assignment.caloriex.exception.RequestInProgressException;
+import org.nikolait.assignment.caloriex.exception.UnprocessableEntityException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Replays the recorded response of {@link Idempotent} endpoints for repeated Idempotency-Key values
+ * without invoking the controller. Keys are scoped by HTTP method, path and Authorization header,
+ * and only successful responses are remembered. A key reused for a request with a different body
+ * is rejected with 422 instead of replaying a response that does not belong to it.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyInterceptor implements HandlerInterceptor {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String RESERVED_KEY_ATTRIBUTE = IdempotencyInterceptor.class.getName() + ".reservedKey";
+    private static final String FINGERPRINT_ATTRIBUTE = IdempotencyInterceptor.class.getName() + ".fingerprint";
+
+    private final IdempotencyStore idempotencyStore;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || !handlerMethod.hasMethodAnnotation(Idempotent.class)) {
+            return true;
+        }
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return true;
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException(
+                    "%s must not exceed %d characters".formatted(IDEMPOTENCY_KEY_HEADER, MAX_KEY_LENGTH)
+            );
+        }
+
+        String scopedKey = sha256(
+                request.getMethod(),
+                request.getRequestURI(),
+                String.valueOf(request.getHeader(HttpHeaders.AUTHORIZATION)),
+                idempotencyKey
+        );
+        String fingerprint = fingerprint(request);
+        Optional<IdempotencyRecord> existing = idempotencyStore.reserve(scopedKey, fingerprint);
+        if (existing.isEmpty()) {
+            request.setAttribute(RESERVED_KEY_ATTRIBUTE, scopedKey);
+            request.setAttribute(FINGERPRINT_ATTRIBUTE, fingerprint);
+            return true;
+        }
+
+        IdempotencyRecord record = existing.get();
+        if (!record.matches(fingerprint)) {
+            throw new UnprocessableEntityException(
+                    "%s was already used for a different request".formatted(IDEMPOTENCY_KEY_HEADER)
+            );
+        }
+        if (!record.isCompleted()) {
+            throw new RequestInProgressException(
+                    "Request with the same %s is still in progress".formatted(IDEMPOTENCY_KEY_HEADER)
+            );
+        }
+        response.setStatus(record.status());
+        if (record.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, record.location());
+        }
+        response.setHeader(IDEMPOTENT_REPLAYED_HEADER, Boolean.TRUE.toString());
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            Exception ex
+    ) {
+        if (!(request.getAttribute(RESERVED_KEY_ATTRIBUTE) instanceof String scopedKey)) {
+            return;
+        }
+        if (ex == null && HttpStatus.valueOf(response.getStatus()).is2xxSuccessful()) {
+            idempotencyStore.complete(
+                    scopedKey,
+                    new IdempotencyRecord(
+                            response.getStatus(),
+                            response.getHeader(HttpHeaders.LOCATION),
+                            (String) request.getAttribute(FINGERPRINT_ATTRIBUTE)
+                    )
+            );
+        } else {
+            idempotencyStore.release(scopedKey);
+        }
+    }
+
+    /**
+     * Hashes the method, path and body of the request. The body is only available when
+     * {@link IdempotencyKeyFilter} has read it, which it does for POST requests to these endpoints.
+     */
+    private String fingerprint(HttpServletRequest request) {
+        CachedBodyRequest cachedBodyRequest = WebUtils.getNativeRequest(request, CachedBodyRequest.class);
+        byte[] body = cachedBodyRequest != null ? cachedBodyRequest.body() : new byte[0];
+        return sha256(request.getMethod(), request.getRequestURI(), HexFormat.of().formatHex(sha256(body)));
+    }
+
+    private static String sha256(String... parts) {
+        return HexFormat.of().formatHex(sha256(String.join("\n", parts).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+}
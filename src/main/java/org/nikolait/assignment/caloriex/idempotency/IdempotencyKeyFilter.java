@@ -0,0 +1,97 @@
+package org.nikolait.assignment.caloriex.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.nikolait.assignment.caloriex.annotation.Idempotent;
+import org.nikolait.assignment.caloriex.config.IdempotencyProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the body of POST requests to {@link Idempotent} endpoints carrying an Idempotency-Key up front,
+ * so {@link IdempotencyInterceptor} can tell a retry from a different request reusing the key.
+ * Bodies larger than the configured maximum are rejected with 413 instead of being buffered.
+ */
+@Component
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    private final long maxBodySize;
+    private final List<RequestMappingInfo> idempotentMappings;
+
+    public IdempotencyKeyFilter(
+            IdempotencyProperties properties,
+            @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping
+    ) {
+        this.maxBodySize = properties.maxBodySize().toBytes();
+        this.idempotentMappings = handlerMapping.getHandlerMethods().entrySet().stream()
+                .filter(entry -> entry.getValue().hasMethodAnnotation(Idempotent.class))
+                .map(Map.Entry::getKey)
+                .filter(mapping -> mapping.getMethodsCondition().getMethods().contains(RequestMethod.POST))
+                .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(IdempotencyInterceptor.IDEMPOTENCY_KEY_HEADER) == null
+                || !HttpMethod.POST.matches(request.getMethod())
+                || !isIdempotentEndpoint(request);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (request.getContentLengthLong() > maxBodySize) {
+            rejectTooLarge(response);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(Math.toIntExact(maxBodySize) + 1);
+        if (body.length > maxBodySize) {
+            rejectTooLarge(response);
+            return;
+        }
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    /**
+     * Matches the request against the mappings of {@link Idempotent} endpoints. Filters run before the
+     * dispatcher has parsed the request path, so it is parsed here and cleared again afterwards.
+     */
+    private boolean isIdempotentEndpoint(HttpServletRequest request) {
+        boolean parsed = ServletRequestPathUtils.hasParsedRequestPath(request);
+        if (!parsed) {
+            ServletRequestPathUtils.parseAndCache(request);
+        }
+        try {
+            return idempotentMappings.stream().anyMatch(mapping -> mapping.getMatchingCondition(request) != null);
+        } finally {
+            if (!parsed) {
+                ServletRequestPathUtils.clearParsedRequestPath(request);
+            }
+        }
+    }
+
+    private void rejectTooLarge(HttpServletResponse response) throws IOException {
+        response.sendError(
+                HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                "Request body with an %s must not exceed %d bytes"
+                        .formatted(IdempotencyInterceptor.IDEMPOTENCY_KEY_HEADER, maxBodySize)
+        );
+    }
+
+}
@@ -0,0 +1,28 @@
+package org.nikolait.assignment.caloriex.idempotency;
+
+/**
+ * Outcome of a request remembered under an Idempotency-Key.
+ *
+ * @param status      HTTP status of the original response, or 0 while the request is in progress.
+ * @param location    Location header of the original response, if any.
+ * @param fingerprint SHA-256 of the method, path and body of the original request.
+ */
+public record IdempotencyRecord(int status, String location, String fingerprint) {
+
+    public static IdempotencyRecord inProgress(String fingerprint) {
+        return new IdempotencyRecord(0, null, fingerprint);
+    }
+
+    public boolean isCompleted() {
+        return status != 0;
+    }
+
+    /**
+     * Whether a request with the given fingerprint repeats the original one.
+     * Records kept from before fingerprints were stored match any request.
+     */
+    public boolean matches(String requestFingerprint) {
+        return fingerprint == null || fingerprint.equals(requestFingerprint);
+    }
+
+}
@@ -0,0 +1,20 @@
+package org.nikolait.assignment.caloriex.idempotency;
+
+import java.util.Optional;
+
+public interface IdempotencyStore {
+
+    /**
+     * Atomically reserves the key for a new request.
+     *
+     * @param fingerprint fingerprint of the request, kept with the key.
+     * @return empty if the key was reserved by this call,
+     * otherwise the record of the request that already holds the key.
+     */
+    Optional<IdempotencyRecord> reserve(String key, String fingerprint);
+
+    void complete(String key, IdempotencyRecord record);
+
+    void release(String key);
+
+}
@@ -0,0 +1,70 @@
+package org.nikolait.assignment.caloriex.idempotency;
+
+import org.nikolait.assignment.caloriex.config.IdempotencyProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single-node store keeping keys in insertion order.
+ * Since every key lives for the same TTL, the oldest entries are also the first to expire,
+ * so eviction only ever looks at the head of the map.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.idempotency", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final long ttlNanos;
+    private final int maxKeys;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public InMemoryIdempotencyStore(IdempotencyProperties properties) {
+        this.ttlNanos = properties.ttl().toNanos();
+        this.maxKeys = properties.maxKeys();
+    }
+
+    @Override
+    public synchronized Optional<IdempotencyRecord> reserve(String key, String fingerprint) {
+        long now = System.nanoTime();
+        evict(now);
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return Optional.of(existing.record());
+        }
+        entries.put(key, new Entry(IdempotencyRecord.inProgress(fingerprint), now + ttlNanos));
+        return Optional.empty();
+    }
+
+    @Override
+    public synchronized void complete(String key, IdempotencyRecord record) {
+        entries.computeIfPresent(key, (k, entry) -> new Entry(record, entry.expiresAt()));
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry oldest = iterator.next().getValue();
+            if (entries.size() < maxKeys && oldest.expiresAt() - now > 0) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private record Entry(IdempotencyRecord record, long expiresAt) {
+    }
+
+}
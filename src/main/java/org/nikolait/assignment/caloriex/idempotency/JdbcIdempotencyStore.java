@@ -0,0 +1,66 @@
+package org.nikolait.assignment.caloriex.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.config.IdempotencyProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Store shared by all application nodes, backed by the idempotency_keys table.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.idempotency", name = "store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final String RESERVE_SQL = """
+            INSERT INTO idempotency_keys (key, fingerprint, expires_at)
+            VALUES (?, ?, CURRENT_TIMESTAMP + make_interval(secs => ?))
+            ON CONFLICT (key) DO UPDATE
+                SET status = NULL, location = NULL, fingerprint = EXCLUDED.fingerprint, expires_at = EXCLUDED.expires_at
+                WHERE idempotency_keys.expires_at < CURRENT_TIMESTAMP
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyProperties properties;
+
+    @Override
+    public Optional<IdempotencyRecord> reserve(String key, String fingerprint) {
+        int reserved = jdbcTemplate.update(RESERVE_SQL, key, fingerprint, properties.ttl().toSeconds());
+        if (reserved == 1) {
+            return Optional.empty();
+        }
+        return jdbcTemplate.query(
+                "SELECT status, location, fingerprint FROM idempotency_keys WHERE key = ?",
+                (rs, rowNum) -> new IdempotencyRecord(
+                        rs.getInt("status"),
+                        rs.getString("location"),
+                        rs.getString("fingerprint")
+                ),
+                key
+        ).stream().findFirst().or(() -> Optional.of(IdempotencyRecord.inProgress(fingerprint)));
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record) {
+        jdbcTemplate.update(
+                "UPDATE idempotency_keys SET status = ?, location = ? WHERE key = ?",
+                record.status(), record.location(), key
+        );
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key = ?", key);
+    }
+
+    @Scheduled(fixedDelayString = "PT1M")
+    public void deleteExpired() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < CURRENT_TIMESTAMP");
+    }
+
+}
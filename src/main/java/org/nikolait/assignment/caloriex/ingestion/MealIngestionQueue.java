@@ -0,0 +1,281 @@
+package org.nikolait.assignment.caloriex.ingestion;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.nikolait.assignment.caloriex.config.MealIngestionProperties;
+import org.nikolait.assignment.caloriex.model.Meal;
+import org.nikolait.assignment.caloriex.model.SyncEntityTypeEnum;
+import org.nikolait.assignment.caloriex.model.SyncOperationEnum;
+import org.nikolait.assignment.caloriex.repository.MealJdbcRepository;
+import org.nikolait.assignment.caloriex.repository.MealOutboxRepository;
+import org.nikolait.assignment.caloriex.repository.SyncChangeRepository;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind queue for meal creation.
+ * <p>
+ * Accepted meals get a pre-allocated id, are appended to the {@link MealJournal} and handed
+ * to a single writer thread that commits them in batches. On startup the journal is replayed,
+ * so meals accepted before a crash are written once the application is back.
+ * When the queue is full the meal is written synchronously by the calling thread.
+ * <p>
+ * A meal that breaks a constraint when written, e.g. because its dish was deleted meanwhile, is recorded
+ * as failed, so its user can see it through {@link #isPending} and the meal status endpoint.
+ * Any other failure, such as the database being unreachable, is retried with backoff while the meals stay
+ * in the journal. Meals are only pending on the node that accepted them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MealIngestionQueue implements SmartLifecycle {
+
+    private final MealIngestionProperties properties;
+    private final MealJdbcRepository mealJdbcRepository;
+    private final MealOutboxRepository mealOutboxRepository;
+    private final SyncChangeRepository syncChangeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Object appendLock = new Object();
+    private final Map<Long, Long> pendingMealUsers = new ConcurrentHashMap<>();
+
+    private BlockingQueue<PendingMeal> queue;
+    private MealJournal journal;
+    private Thread writer;
+    private CountDownLatch stopSignal;
+    private volatile boolean running;
+
+    public boolean isEnabled() {
+        return properties.writeBehind();
+    }
+
+    /**
+     * Accepts a validated meal for asynchronous persistence.
+     * Must be called outside a transaction, as it waits for the journal to reach the disk.
+     *
+     * @param meal the meal with its user and dishes already resolved.
+     * @return the same meal with a pre-allocated id.
+     */
+    public Meal submit(Meal meal) {
+        if (!running) {
+            throw new IllegalStateException("Meal ingestion queue is not running");
+        }
+        meal.setId(mealJdbcRepository.nextMealId());
+        pendingMealUsers.put(meal.getId(), meal.getUser().getId());
+
+        boolean queued;
+        try {
+            synchronized (appendLock) {
+                long segment = journal.append(meal);
+                queued = queue.offer(new PendingMeal(meal, segment));
+            }
+            journal.sync();
+        } catch (IOException e) {
+            pendingMealUsers.remove(meal.getId());
+            throw new UncheckedIOException("Failed to journal Meal with id %d".formatted(meal.getId()), e);
+        }
+
+        if (!queued) {
+            log.warn("Meal ingestion queue is full, writing Meal with id {} synchronously", meal.getId());
+            try {
+                persist(List.of(meal));
+            } finally {
+                pendingMealUsers.remove(meal.getId());
+            }
+        }
+        return meal;
+    }
+
+    /**
+     * Whether the meal was accepted by this node and is still waiting to be written.
+     */
+    public boolean isPending(Long userId, Long mealId) {
+        return userId.equals(pendingMealUsers.get(mealId));
+    }
+
+    @Override
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        journal = new MealJournal(properties.journalDirectory(), properties.journalSegmentSize().toBytes());
+        queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        try {
+            replayJournal();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay meal journal", e);
+        }
+        stopSignal = new CountDownLatch(1);
+        running = true;
+        writer = Thread.ofPlatform().name("meal-ingestion-writer").start(this::drainLoop);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        stopSignal.countDown();
+        try {
+            writer.join();
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Failed to close meal journal", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server, so no request can reach a stopped queue.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void replayJournal() throws IOException {
+        List<Meal> journaled = journal.readAll();
+        for (int from = 0; from < journaled.size(); from += properties.batchSize()) {
+            List<Meal> batch = journaled.subList(from, Math.min(from + properties.batchSize(), journaled.size()));
+            persistOrRecordFailures(batch);
+        }
+        if (!journaled.isEmpty()) {
+            log.info("Replayed {} meals from the ingestion journal", journaled.size());
+        }
+        journal.open();
+        journal.deleteReplayed();
+    }
+
+    private void drainLoop() {
+        List<PendingMeal> batch = new ArrayList<>(properties.batchSize());
+        long pollTimeout = properties.maxBatchDelay().toNanos();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMeal first = queue.poll(pollTimeout, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.batchSize() - 1);
+                List<Meal> meals = batch.stream().map(PendingMeal::meal).toList();
+                if (!writeBatch(meals)) {
+                    log.warn("Stopped with unwritten meals, they stay in the journal until the next start");
+                    return;
+                }
+                meals.forEach(meal -> pendingMealUsers.remove(meal.getId()));
+                batch.clear();
+                releaseCommittedSegments();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                log.error("Failed to release committed meal journal segments", e);
+            }
+        }
+    }
+
+    private void releaseCommittedSegments() throws IOException {
+        synchronized (appendLock) {
+            PendingMeal oldest = queue.peek();
+            journal.deleteSegmentsBefore(oldest != null ? oldest.segment() : journal.currentSegment());
+        }
+    }
+
+    /**
+     * Writes the batch, retrying with a doubling delay until it succeeds or the queue is stopped.
+     *
+     * @return false if the queue was stopped before the batch could be written.
+     */
+    private boolean writeBatch(List<Meal> batch) throws InterruptedException {
+        long delay = properties.retryDelay().toMillis();
+        while (true) {
+            try {
+                persistOrRecordFailures(batch);
+                return true;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Failed to write {} journaled meals", batch.size(), e);
+                    return false;
+                }
+                log.warn("Failed to write {} journaled meals, retrying in {} ms", batch.size(), delay, e);
+                stopSignal.await(delay, TimeUnit.MILLISECONDS);
+                delay = Math.min(delay * 2, properties.maxRetryDelay().toMillis());
+            }
+        }
+    }
+
+    /**
+     * Commits the batch in one transaction. If it breaks a constraint, every meal is written on its own,
+     * so a single invalid meal cannot block the rest of the batch, and the ones that still fail are recorded
+     * as failed. Writing twice is harmless, as meals that are already stored are skipped.
+     */
+    private void persistOrRecordFailures(List<Meal> batch) {
+        try {
+            persist(batch);
+        } catch (DataIntegrityViolationException batchFailure) {
+            for (Meal meal : batch) {
+                try {
+                    persist(List.of(meal));
+                } catch (DataIntegrityViolationException e) {
+                    log.error("Journaled Meal with id {} could not be written, recording it as failed", meal.getId(), e);
+                    mealJdbcRepository.insertFailure(meal, e.getMostSpecificCause().toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes meals together with their outbox events and sync changes in one transaction.
+     * Replayed meals that were already committed are skipped, so no duplicate events are recorded.
+     */
+    private void persist(List<Meal> meals) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Meal> inserted = mealJdbcRepository.insertAll(meals);
+            if (!inserted.isEmpty()) {
+                mealOutboxRepository.append(inserted);
+                appendSyncChanges(inserted);
+            }
+        });
+    }
+
+    /**
+     * Takes the per-user sync sequences in ascending user id order,
+     * so a batch cannot deadlock with another transaction writing for the same users.
+     */
+    private void appendSyncChanges(List<Meal> meals) {
+        Map<Long, List<Long>> mealIdsByUser = meals.stream().collect(Collectors.groupingBy(
+                meal -> meal.getUser().getId(),
+                TreeMap::new,
+                Collectors.mapping(Meal::getId, Collectors.toList())
+        ));
+        mealIdsByUser.forEach((userId, mealIds) ->
+                syncChangeRepository.append(userId, SyncEntityTypeEnum.MEAL, mealIds, SyncOperationEnum.UPSERT)
+        );
+    }
+
+    private record PendingMeal(Meal meal, long segment) {
+    }
+
+}
@@ -0,0 +1,228 @@
+package org.nikolait.assignment.caloriex.ingestion;
+
+import org.nikolait.assignment.caloriex.model.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of accepted meals split into numbered segment files.
+ * Every record is length-prefixed and followed by a CRC32 checksum,
+ * so a torn write at the tail of a segment is detected and skipped on replay.
+ */
+public class MealJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "meals-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    private final Path directory;
+    private final long segmentSize;
+
+    private FileChannel channel;
+    private long currentSegment;
+
+    public MealJournal(Path directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Reads every complete record of the existing segments in the order they were written.
+     */
+    public synchronized List<Meal> readAll() throws IOException {
+        List<Meal> meals = new ArrayList<>();
+        for (long segment : listSegments()) {
+            readSegment(segmentPath(segment), meals);
+        }
+        return meals;
+    }
+
+    /**
+     * Starts a new segment numbered after all existing ones.
+     */
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> segments = listSegments();
+        currentSegment = segments.isEmpty() ? 0 : segments.getLast();
+        openSegment(currentSegment + 1);
+    }
+
+    /**
+     * Appends a meal to the current segment without forcing it to disk.
+     *
+     * @return the number of the segment the meal was written to.
+     */
+    public synchronized long append(Meal meal) throws IOException {
+        if (channel.size() >= segmentSize) {
+            channel.force(false);
+            channel.close();
+            openSegment(currentSegment + 1);
+        }
+        ByteBuffer record = encode(meal);
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        return currentSegment;
+    }
+
+    /**
+     * Forces appended records to disk. Concurrent callers share the same fsync where the OS allows it.
+     */
+    public void sync() throws IOException {
+        FileChannel current;
+        synchronized (this) {
+            current = channel;
+        }
+        try {
+            current.force(false);
+        } catch (ClosedChannelException e) {
+            // the segment was rolled over and forced before being closed
+        }
+    }
+
+    public synchronized long currentSegment() {
+        return currentSegment;
+    }
+
+    /**
+     * Deletes segments whose meals are all committed, never touching the current one.
+     */
+    public synchronized void deleteSegmentsBefore(long segment) throws IOException {
+        for (long existing : listSegments()) {
+            if (existing < segment && existing < currentSegment) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    /**
+     * Deletes every segment except the current one.
+     */
+    public synchronized void deleteReplayed() throws IOException {
+        deleteSegmentsBefore(currentSegment);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private void openSegment(long segment) throws IOException {
+        channel = FileChannel.open(
+                segmentPath(segment),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND
+        );
+        currentSegment = segment;
+    }
+
+    private List<Long> listSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))
+                    .map(Long::valueOf)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve("%s%020d%s".formatted(SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private static ByteBuffer encode(Meal meal) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(128);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeLong(meal.getId());
+        payload.writeLong(meal.getUser().getId());
+        payload.writeUTF(meal.getName());
+        payload.writeLong(meal.getCreatedAt().getEpochSecond());
+        payload.writeInt(meal.getCreatedAt().getNano());
+        payload.writeInt(meal.getMealDishes().size());
+        for (MealDish mealDish : meal.getMealDishes()) {
+            payload.writeLong(mealDish.getDish().getId());
+            payload.writeDouble(mealDish.getServings());
+        }
+        byte[] bytes = payloadBytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        return ByteBuffer.allocate(Integer.BYTES + bytes.length + Integer.BYTES)
+                .putInt(bytes.length)
+                .put(bytes)
+                .putInt((int) crc.getValue())
+                .flip();
+    }
+
+    private static void readSegment(Path path, List<Meal> meals) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                int length = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    return;
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                int checksum = in.readInt();
+
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                if ((int) crc.getValue() != checksum) {
+                    return;
+                }
+                meals.add(decode(bytes));
+            }
+        } catch (EOFException e) {
+            // reached the end of the segment or a torn tail record
+        }
+    }
+
+    private static Meal decode(byte[] bytes) throws IOException {
+        DataInputStream payload = new DataInputStream(new ByteArrayInputStream(bytes));
+        long mealId = payload.readLong();
+        long userId = payload.readLong();
+        String name = payload.readUTF();
+        Instant createdAt = Instant.ofEpochSecond(payload.readLong(), payload.readInt());
+
+        Meal meal = Meal.builder()
+                .id(mealId)
+                .user(User.builder().id(userId).build())
+                .name(name)
+                .createdAt(createdAt)
+                .build();
+
+        int dishCount = payload.readInt();
+        for (int i = 0; i < dishCount; i++) {
+            long dishId = payload.readLong();
+            double servings = payload.readDouble();
+            meal.getMealDishes().add(MealDish.builder()
+                    .id(new MealDishId(mealId, dishId))
+                    .meal(meal)
+                    .dish(Dish.builder().id(dishId).build())
+                    .servings(servings)
+                    .build());
+        }
+        return meal;
+    }
+
+}
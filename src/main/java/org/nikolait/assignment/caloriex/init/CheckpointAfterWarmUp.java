@@ -0,0 +1,81 @@
+package org.nikolait.assignment.caloriex.init;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.crac.CheckpointException;
+import org.crac.Core;
+import org.crac.RestoreException;
+import org.flywaydb.core.Flyway;
+import org.nikolait.assignment.caloriex.config.CracProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpClient;
+
+/**
+ * Warms the application up with synthetic requests once it is ready and then takes a CRaC checkpoint,
+ * so a process restored from it starts with loaded classes and compiled hot paths.
+ * <p>
+ * Around the checkpoint Spring stops and restarts every lifecycle bean, which closes and reopens the web server,
+ * the Hikari pool, the meal ingestion journal and the background threads. Migrations are applied again
+ * after the restore, as the database may have moved on since the checkpoint was taken.
+ * A failed warm-up is logged and the checkpoint is taken anyway, with whatever it managed to warm up.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CheckpointAfterWarmUp {
+
+    private final CracProperties properties;
+    private final Environment environment;
+    private final ObjectProvider<Flyway> flywayProvider;
+
+    @Value("${api.prefix:/api}")
+    private String apiPrefix;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!properties.checkpointAfterWarmUp()) {
+            return;
+        }
+        warmUp();
+        try {
+            log.info("Taking a checkpoint");
+            Core.checkpointRestore();
+        } catch (UnsupportedOperationException e) {
+            log.warn("The JVM does not support CRaC, continuing without a checkpoint");
+            return;
+        } catch (CheckpointException | RestoreException e) {
+            throw new IllegalStateException("Failed to take a checkpoint", e);
+        }
+        log.info("Restored from a checkpoint");
+        flywayProvider.ifAvailable(Flyway::migrate);
+    }
+
+    private void warmUp() {
+        long start = System.nanoTime();
+        String baseUrl = "http://localhost:" + environment.getRequiredProperty("local.server.port") + apiPrefix + "/v1";
+        // Its own client, closed before the checkpoint, so no socket is left open
+        try (HttpClient httpClient = HttpClient.newHttpClient()) {
+            RestClient restClient = RestClient.builder()
+                    .baseUrl(baseUrl)
+                    .requestFactory(new JdkClientHttpRequestFactory(httpClient))
+                    .build();
+            new WarmUpClient(restClient, properties.warmUpEmail()).run(properties.warmUpIterations());
+        } catch (RestClientException e) {
+            log.warn("Warm-up failed after {} ms, taking the checkpoint anyway",
+                    (System.nanoTime() - start) / 1_000_000, e);
+            return;
+        }
+        log.info("Warmed up with {} rounds of requests in {} ms",
+                properties.warmUpIterations(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+}
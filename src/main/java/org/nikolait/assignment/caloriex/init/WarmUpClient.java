@@ -0,0 +1,184 @@
+package org.nikolait.assignment.caloriex.init;
+
+import lombok.extern.slf4j.Slf4j;
+import org.nikolait.assignment.caloriex.dto.DishCreationDto;
+import org.nikolait.assignment.caloriex.dto.DishResponseDto;
+import org.nikolait.assignment.caloriex.dto.MealCreationDto;
+import org.nikolait.assignment.caloriex.dto.MealDishCreationDto;
+import org.nikolait.assignment.caloriex.dto.UserCreationDto;
+import org.nikolait.assignment.caloriex.model.GenderEnum;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sends synthetic requests to the meal, dish and report endpoints, so the code paths serving them
+ * are loaded and compiled by the JIT before real traffic arrives.
+ * <p>
+ * The requests are sent as a dedicated user, which is created on the first run together with its dish,
+ * so later runs against the same database reuse both. The warm-up is read-mostly: every run creates
+ * at most {@value #MEALS_PER_RUN} meals, spread over its rounds, and no other rows.
+ */
+@Slf4j
+public class WarmUpClient {
+
+    public static final int MEALS_PER_RUN = 20;
+
+    private static final String DISH_NAME = "Warm-up porridge";
+    private static final String TIME_ZONE_HEADER = "X-Time-Zone";
+    private static final List<String> TIME_ZONES = List.of("UTC", "Europe/Moscow", "America/New_York", "Asia/Tokyo");
+
+    private final RestClient restClient;
+    private final String email;
+
+    /**
+     * @param restClient client whose base URL points at the '/api/v1' prefix of the running application.
+     */
+    public WarmUpClient(RestClient restClient, String email) {
+        this.restClient = restClient;
+        this.email = email;
+    }
+
+    /**
+     * Runs the given number of rounds of requests.
+     */
+    public void run(int iterations) {
+        String authorization = authorize();
+        Long dishId = findOrCreateDish(authorization);
+        Long mealId = createMeal(authorization, dishId, null);
+        int mealsCreated = 1;
+        int mealEvery = Math.max(1, iterations / MEALS_PER_RUN);
+
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < iterations; i++) {
+            String zone = TIME_ZONES.get(i % TIME_ZONES.size());
+            if (i > 0 && i % mealEvery == 0 && mealsCreated < MEALS_PER_RUN) {
+                mealId = createMeal(authorization, dishId, mealId);
+                mealsCreated++;
+            }
+            get(authorization, zone, MediaType.APPLICATION_JSON, "/users/me");
+            get(authorization, zone, MediaType.APPLICATION_JSON, "/dishes/{id}", dishId);
+            if (mealId != null) {
+                get(authorization, zone, MediaType.APPLICATION_JSON, "/meals/{id}", mealId);
+            }
+            get(authorization, zone, MediaType.APPLICATION_JSON, "/meals/report/daily/today");
+            get(authorization, zone, MediaType.APPLICATION_JSON, "/meals/report/daily/day?day={day}", today);
+            get(authorization, zone, i % 2 == 0 ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_CBOR,
+                    "/meals/report/daily/period?startDay={start}&endDay={end}", today.minusDays(6), today);
+            get(authorization, zone, MediaType.APPLICATION_JSON,
+                    "/meals/report/daily/period?startDay={start}&endDay={end}&view=summary", today.minusDays(6), today);
+            get(authorization, zone, MediaType.APPLICATION_JSON,
+                    "/meals/report/daily/period?startDay={start}&endDay={end}&view=normalized", today.minusDays(6), today);
+            get(authorization, zone, MediaType.APPLICATION_JSON,
+                    "/meals/report/weekly?startDay={start}&endDay={end}", today.minusDays(27), today);
+            get(authorization, zone, MediaType.APPLICATION_JSON, "/meals/report/rolling");
+        }
+    }
+
+    private String authorize() {
+        try {
+            return authorization(restClient.post()
+                    .uri("/users/login?email={email}", email)
+                    .retrieve()
+                    .toBodilessEntity());
+        } catch (HttpClientErrorException e) {
+            log.info("Creating warm-up user {}", email);
+            return authorization(restClient.post()
+                    .uri("/users")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new UserCreationDto("Warm-up", email, 30, 70.0, 175, GenderEnum.MALE, 1L, 1L))
+                    .retrieve()
+                    .toBodilessEntity());
+        }
+    }
+
+    /**
+     * @return the id of the warm-up dish, created unless an earlier run already did.
+     */
+    private Long findOrCreateDish(String authorization) {
+        Long dishId = findDish(authorization);
+        if (dishId != null) {
+            return dishId;
+        }
+        try {
+            return idOf(restClient.post()
+                    .uri("/dishes")
+                    .header(HttpHeaders.AUTHORIZATION, authorization)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new DishCreationDto(DISH_NAME, 5.0, 3.0, 27.0, 150))
+                    .retrieve()
+                    .toBodilessEntity());
+        } catch (HttpClientErrorException.Conflict e) {
+            // Created concurrently since it was looked up
+            dishId = findDish(authorization);
+            if (dishId == null) {
+                throw e;
+            }
+            return dishId;
+        }
+    }
+
+    private Long findDish(String authorization) {
+        DishResponseDto[] dishes = restClient.get()
+                .uri("/dishes")
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .body(DishResponseDto[].class);
+        if (dishes == null) {
+            return null;
+        }
+        return Arrays.stream(dishes)
+                .filter(dish -> DISH_NAME.equals(dish.name()))
+                .map(DishResponseDto::id)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * @return the id of the created meal, or the previous one if the meal was only accepted
+     * by write-behind ingestion and may not be readable yet.
+     */
+    private Long createMeal(String authorization, Long dishId, Long previousMealId) {
+        ResponseEntity<Void> response = restClient.post()
+                .uri("/meals")
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new MealCreationDto("Warm-up breakfast", List.of(new MealDishCreationDto(dishId, 1.5))))
+                .retrieve()
+                .toBodilessEntity();
+        return response.getStatusCode() == HttpStatus.CREATED ? idOf(response) : previousMealId;
+    }
+
+    private void get(String authorization, String zone, MediaType accept, String uri, Object... variables) {
+        restClient.get()
+                .uri(uri, variables)
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .header(TIME_ZONE_HEADER, zone)
+                .accept(accept)
+                .retrieve()
+                .body(byte[].class);
+    }
+
+    private static String authorization(ResponseEntity<Void> response) {
+        return response.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+    }
+
+    private static Long idOf(ResponseEntity<Void> response) {
+        URI location = response.getHeaders().getLocation();
+        if (location == null) {
+            throw new IllegalStateException("Warm-up request returned no Location header");
+        }
+        String path = location.getPath();
+        return Long.valueOf(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+}
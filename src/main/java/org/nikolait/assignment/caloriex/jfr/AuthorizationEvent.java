@@ -0,0 +1,24 @@
+package org.nikolait.assignment.caloriex.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for resolving the user of a request.
+ */
+@Name("caloriex.Authorization")
+@Label("Authorization")
+@Category({"CalorieX", "Security"})
+@StackTrace(false)
+public class AuthorizationEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Authorized")
+    public boolean authorized;
+
+}
@@ -0,0 +1,38 @@
+package org.nikolait.assignment.caloriex.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for creating a meal, ending when its transaction completes or, in write-behind mode, once it is journaled.
+ */
+@Name("caloriex.MealCreation")
+@Label("Meal Creation")
+@Category({"CalorieX", "Meals"})
+@Description("A meal created through the API, including the commit of its transaction")
+@StackTrace(false)
+public class MealCreationEvent extends Event {
+
+    @Label("User ID")
+    public long userId;
+
+    @Label("Dish Count")
+    public int dishCount;
+
+    @Label("Statements")
+    @Description("SQL statements run, including the flush on commit")
+    public long statements;
+
+    @Label("Queued")
+    @Description("Whether the meal was handed to the write-behind queue instead of being inserted")
+    public boolean queued;
+
+    @Label("Committed")
+    @Description("Whether the transaction committed or, when queued, the meal was journaled")
+    public boolean committed;
+
+}
@@ -0,0 +1,48 @@
+package org.nikolait.assignment.caloriex.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for building daily meal reports, from meal entities or streamed from meal dish rows.
+ */
+@Name("caloriex.ReportGeneration")
+@Label("Report Generation")
+@Category({"CalorieX", "Reports"})
+@Description("Daily meal reports built from meals loaded as entities or streamed from rows")
+@StackTrace(false)
+public class ReportGenerationEvent extends Event {
+
+    @Label("Report")
+    @Description("Kind of report: day, period or all-tracked")
+    public String report;
+
+    @Label("User ID")
+    public long userId;
+
+    @Label("Days Requested")
+    @Description("Days reported, including days without meals")
+    public long daysRequested;
+
+    @Label("Meals Loaded")
+    public int mealsLoaded;
+
+    @Label("Entities Hydrated")
+    @Description("Meals, their meal dishes and the distinct dishes loaded with them; none for streamed reports")
+    public int entitiesHydrated;
+
+    @Label("Rows Streamed")
+    @Description("Meal dish rows read for a streamed report")
+    public long rowsStreamed;
+
+    @Label("Write Time")
+    @Description("Time spent building and writing the days of a streamed report, including waits on the client")
+    @Timespan(Timespan.NANOSECONDS)
+    public long writeTime;
+
+}
@@ -0,0 +1,40 @@
+package org.nikolait.assignment.caloriex.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import org.nikolait.assignment.caloriex.dto.MealDailySummaryDto;
+import org.nikolait.assignment.caloriex.model.MealDailySummaries;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface MealDailySummaryMapper {
+
+    /**
+     * Returns a read-only view that creates each DTO only when it is read, e.g. while it is serialized.
+     */
+    default List<MealDailySummaryDto> toResponseDtoList(MealDailySummaries summaries) {
+        return new AbstractList<>() {
+
+            @Override
+            public MealDailySummaryDto get(int index) {
+                Objects.checkIndex(index, summaries.size());
+                return new MealDailySummaryDto(
+                        summaries.getDate(index),
+                        summaries.getTotalCalories(index),
+                        summaries.getDailyCalorieTarget(),
+                        summaries.isExceeded(index)
+                );
+            }
+
+            @Override
+            public int size() {
+                return summaries.size();
+            }
+
+        };
+    }
+
+}
@@ -4,7 +4,9 @@ import org.mapstruct.Mapper;
 import org.mapstruct.MappingConstants;
 import org.nikolait.assignment.caloriex.dto.MealCreationDto;
 import org.nikolait.assignment.caloriex.dto.MealResponseDto;
+import org.nikolait.assignment.caloriex.dto.MealStatusDto;
 import org.nikolait.assignment.caloriex.model.Meal;
+import org.nikolait.assignment.caloriex.model.MealIngestionStatusEnum;
 
 import java.util.List;
 
@@ -20,4 +22,6 @@ public interface MealMapper {
 
     List<MealResponseDto> toResponseDtoList(List<Meal> mealList);
 
+    MealStatusDto toStatusDto(Long id, MealIngestionStatusEnum status);
+
 }
@@ -0,0 +1,53 @@
+package org.nikolait.assignment.caloriex.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.nikolait.assignment.caloriex.dto.*;
+import org.nikolait.assignment.caloriex.model.Dish;
+import org.nikolait.assignment.caloriex.model.Meal;
+import org.nikolait.assignment.caloriex.model.MealDailyReport;
+import org.nikolait.assignment.caloriex.model.MealDish;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps daily reports to a shape where every dish is written once in a dictionary
+ * and meals refer to dishes by ID.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface NormalizedMealReportMapper {
+
+    default NormalizedMealDailyReportsDto toResponseDto(List<MealDailyReport> mealDailyReports) {
+        Map<Long, DishResponseDto> dishes = new LinkedHashMap<>();
+        for (MealDailyReport mealDailyReport : mealDailyReports) {
+            collectDishes(mealDailyReport, dishes);
+        }
+        return new NormalizedMealDailyReportsDto(toDayDtoList(mealDailyReports), dishes);
+    }
+
+    /**
+     * Adds the dishes of a day that are not in the dictionary yet.
+     */
+    default void collectDishes(MealDailyReport mealDailyReport, Map<Long, DishResponseDto> dishes) {
+        for (Meal meal : mealDailyReport.getMeals()) {
+            for (MealDish mealDish : meal.getMealDishes()) {
+                dishes.computeIfAbsent(mealDish.getDish().getId(), id -> toDishResponseDto(mealDish.getDish()));
+            }
+        }
+    }
+
+    List<NormalizedMealDailyReportDto> toDayDtoList(List<MealDailyReport> mealDailyReports);
+
+    NormalizedMealDailyReportDto toDayDto(MealDailyReport mealDailyReport);
+
+    NormalizedMealResponseDto toMealDto(Meal meal);
+
+    @Mapping(source = "dish.id", target = "dishId")
+    NormalizedMealDishDto toMealDishDto(MealDish mealDish);
+
+    DishResponseDto toDishResponseDto(Dish dish);
+
+}
@@ -0,0 +1,17 @@
+package org.nikolait.assignment.caloriex.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import org.nikolait.assignment.caloriex.dto.NutritionAggregateDto;
+import org.nikolait.assignment.caloriex.model.NutritionAggregate;
+
+import java.util.List;
+
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface NutritionAggregateMapper {
+
+    NutritionAggregateDto toResponseDto(NutritionAggregate nutritionAggregate);
+
+    List<NutritionAggregateDto> toResponseDtoList(List<NutritionAggregate> nutritionAggregates);
+
+}
@@ -0,0 +1,17 @@
+package org.nikolait.assignment.caloriex.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import org.nikolait.assignment.caloriex.dto.NutritionAverageDto;
+import org.nikolait.assignment.caloriex.dto.RollingNutritionReportDto;
+import org.nikolait.assignment.caloriex.model.NutritionAverage;
+import org.nikolait.assignment.caloriex.model.RollingNutritionReport;
+
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface RollingNutritionReportMapper {
+
+    RollingNutritionReportDto toResponseDto(RollingNutritionReport rollingNutritionReport);
+
+    NutritionAverageDto toResponseDto(NutritionAverage nutritionAverage);
+
+}
@@ -0,0 +1,16 @@
+package org.nikolait.assignment.caloriex.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import org.nikolait.assignment.caloriex.dto.SyncResponseDto;
+import org.nikolait.assignment.caloriex.model.SyncChanges;
+
+@Mapper(
+        componentModel = MappingConstants.ComponentModel.SPRING,
+        uses = {MealMapper.class, DishMapper.class}
+)
+public interface SyncMapper {
+
+    SyncResponseDto toResponseDto(SyncChanges syncChanges);
+
+}
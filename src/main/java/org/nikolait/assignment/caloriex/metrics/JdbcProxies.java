@@ -0,0 +1,75 @@
+package org.nikolait.assignment.caloriex.metrics;
+
+import lombok.experimental.UtilityClass;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * JDK proxies of connections and their statements, used by the data sources that instrument statements.
+ */
+@UtilityClass
+class JdbcProxies {
+
+    /**
+     * Creates the handler of a statement, given the statement and the SQL it was prepared with,
+     * which is null for plain statements.
+     */
+    interface StatementHandlerFactory {
+
+        InvocationHandler create(Statement statement, String sql);
+
+    }
+
+    /**
+     * Proxies the connection so every statement it creates is proxied with a handler of the factory.
+     */
+    Connection wrap(Connection connection, StatementHandlerFactory handlers) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return wrap(statement, handlers.create(statement, sql));
+            }
+            return result;
+        });
+    }
+
+    Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Statement wrap(Statement statement, InvocationHandler handler) {
+        if (statement instanceof CallableStatement) {
+            return proxy(CallableStatement.class, statement, handler);
+        }
+        if (statement instanceof PreparedStatement) {
+            return proxy(PreparedStatement.class, statement, handler);
+        }
+        return proxy(Statement.class, statement, handler);
+    }
+
+    private <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(
+                JdbcProxies.class.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> target.toString();
+                    default -> handler.invoke(proxy, method, args);
+                }
+        ));
+    }
+
+}
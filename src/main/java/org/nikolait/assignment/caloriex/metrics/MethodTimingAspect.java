@@ -0,0 +1,124 @@
+package org.nikolait.assignment.caloriex.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ValidationException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.nikolait.assignment.caloriex.exception.EntityAlreadyExistsException;
+import org.nikolait.assignment.caloriex.exception.RequestInProgressException;
+import org.nikolait.assignment.caloriex.exception.UnauthorizedException;
+import org.nikolait.assignment.caloriex.exception.UnprocessableEntityException;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+/**
+ * Times every call of services, JDBC repositories and mappers, so a slow request can be split
+ * into time spent in SQL, in service code, in mapping and, by subtraction, in serialization.
+ * Spring Data repositories are timed by Spring Boot as 'spring.data.repository.invocations'.
+ * <p>
+ * Timers are tagged with the class, method, HTTP endpoint pattern, outcome and one of a fixed set of exceptions.
+ * Arguments such as user IDs are never used as tags, so the number of series stays bounded.
+ * They publish no percentile histogram, which is left to the per-endpoint 'http.server.requests';
+ * their max and mean are enough to tell which layer a slow endpoint spends its time in.
+ */
+@Aspect
+@Component
+public class MethodTimingAspect {
+
+    private static final String NO_ENDPOINT = "none";
+    private static final String NO_EXCEPTION = "none";
+    private static final String OTHER_EXCEPTION = "Other";
+
+    /**
+     * Exceptions tagged by name; any other is tagged as 'Other'. Checked in order, so subclasses come first.
+     */
+    private static final List<Class<? extends Throwable>> TAGGED_EXCEPTIONS = List.of(
+            EntityNotFoundException.class,
+            EntityAlreadyExistsException.class,
+            UnauthorizedException.class,
+            UnprocessableEntityException.class,
+            RequestInProgressException.class,
+            ValidationException.class,
+            IllegalArgumentException.class,
+            DataAccessException.class
+    );
+
+    private final MeterRegistry meterRegistry;
+
+    public MethodTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(org.nikolait.assignment.caloriex.service.impl..*)"
+            + " || within(org.nikolait.assignment.caloriex.secutiry.AuthorizationService)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("caloriex.service", "Time spent in service methods", joinPoint);
+    }
+
+    @Around("within(org.nikolait.assignment.caloriex.repository..*)"
+            + " && @within(org.springframework.stereotype.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("caloriex.repository", "Time spent in JDBC repository methods", joinPoint);
+    }
+
+    @Around("within(org.nikolait.assignment.caloriex.mapper..*)")
+    public Object timeMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("caloriex.mapper", "Time spent mapping models to DTOs and back", joinPoint);
+    }
+
+    private Object time(String name, String description, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NO_EXCEPTION;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = exceptionTag(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .description(description)
+                    .tag("class", AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("endpoint", currentEndpoint())
+                    .tag("outcome", NO_EXCEPTION.equals(exception) ? "SUCCESS" : "ERROR")
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String exceptionTag(Throwable e) {
+        for (Class<? extends Throwable> taggedException : TAGGED_EXCEPTIONS) {
+            if (taggedException.isInstance(e)) {
+                return taggedException.getSimpleName();
+            }
+        }
+        return OTHER_EXCEPTION;
+    }
+
+    /**
+     * The URI pattern of the request being handled, e.g. 'GET /api/v1/meals/{id}',
+     * or 'none' outside of a request such as in background threads and streamed responses.
+     */
+    static String currentEndpoint() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            Object pattern = attributes.getAttribute(
+                    HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST
+            );
+            if (pattern != null) {
+                return attributes.getRequest().getMethod() + " " + pattern;
+            }
+        }
+        return NO_ENDPOINT;
+    }
+
+}
@@ -0,0 +1,33 @@
+package org.nikolait.assignment.caloriex.metrics;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A query or request that took longer than its threshold.
+ * Bind parameters are described by their types only, their values are never exposed.
+ *
+ * @param endpoint       URI pattern of the request, or 'none' outside of a request.
+ * @param sql            the statement with placeholders; null for requests.
+ * @param parameterTypes type of each bind parameter in order, 'null' for a null value.
+ * @param statementCount statements the request ran; null for queries.
+ * @param explainable    whether a plan can be captured on demand with the recorded parameters.
+ */
+public record SlowOperation(
+        long id,
+        Type type,
+        Instant occurredAt,
+        long elapsedMillis,
+        String endpoint,
+        String sql,
+        List<String> parameterTypes,
+        Long statementCount,
+        boolean explainable
+) {
+
+    public enum Type {
+        QUERY,
+        REQUEST
+    }
+
+}
@@ -0,0 +1,203 @@
+package org.nikolait.assignment.caloriex.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.nikolait.assignment.caloriex.config.SlowOperationProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the most recent slow queries and requests in a fixed-size ring buffer and logs each of them.
+ * <p>
+ * If capturing plans is enabled, a slow query keeps a copy of its bind parameters, so its plan can be captured
+ * later on demand. Plain select statements are explained with ANALYZE and BUFFERS, which runs them again.
+ * Any other statement, including a WITH query that may modify data, is explained without running it.
+ * The capture always runs in a transaction that is rolled back.
+ */
+@Slf4j
+@Component
+public class SlowOperationRecorder {
+
+    private static final int MAX_CAPTURED_PARAMETERS = 1000;
+    private static final Pattern SELECT_INTO = Pattern.compile("\\binto\\b");
+
+    private final SlowOperationProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final long queryThresholdNanos;
+    private final long requestThresholdNanos;
+    private final Entry[] entries;
+
+    private long lastId;
+
+    public SlowOperationRecorder(SlowOperationProperties properties, JdbcTemplate jdbcTemplate) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.queryThresholdNanos = properties.queryThreshold().toNanos();
+        this.requestThresholdNanos = properties.requestThreshold().toNanos();
+        this.entries = new Entry[properties.capacity()];
+    }
+
+    /**
+     * @return whether a statement that ran this long is recorded.
+     */
+    public boolean isSlowQuery(long elapsedNanos) {
+        return elapsedNanos >= queryThresholdNanos;
+    }
+
+    /**
+     * Records a slow statement run on the current thread.
+     *
+     * @param parameters bind parameters in order, or null if any of them cannot be bound again.
+     */
+    public void recordQuery(String sql, List<Object> parameters, List<String> parameterTypes, long elapsedNanos) {
+        String endpoint = MethodTimingAspect.currentEndpoint();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        boolean explainable = properties.explainEnabled()
+                && parameters != null
+                && parameters.size() <= MAX_CAPTURED_PARAMETERS;
+        log.warn("Slow query took {} ms on {}: {}", elapsedMillis, endpoint, sql);
+        add(id -> new Entry(
+                new SlowOperation(id, SlowOperation.Type.QUERY, Instant.now(), elapsedMillis, endpoint, sql,
+                        List.copyOf(parameterTypes), null, explainable),
+                explainable ? Collections.unmodifiableList(new ArrayList<>(parameters)) : null
+        ));
+    }
+
+    /**
+     * Records the request if it took longer than the request threshold.
+     */
+    public void recordRequest(String endpoint, long elapsedNanos, long statementCount) {
+        if (elapsedNanos < requestThresholdNanos) {
+            return;
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        log.warn("Slow request {} took {} ms and ran {} SQL statements", endpoint, elapsedMillis, statementCount);
+        add(id -> new Entry(
+                new SlowOperation(id, SlowOperation.Type.REQUEST, Instant.now(), elapsedMillis, endpoint, null,
+                        List.of(), statementCount, false),
+                null
+        ));
+    }
+
+    /**
+     * @return the recorded operations, newest first.
+     */
+    public synchronized List<SlowOperation> getRecent() {
+        List<SlowOperation> recent = new ArrayList<>(entries.length);
+        for (long id = lastId; id > 0 && id > lastId - entries.length; id--) {
+            recent.add(entries[slot(id)].operation());
+        }
+        return recent;
+    }
+
+    /**
+     * Runs EXPLAIN for a recorded query with the parameters it was recorded with.
+     *
+     * @return the plan, or empty if the query is no longer kept or its parameters were not captured.
+     */
+    public Optional<SlowQueryPlan> explain(long id) {
+        Entry entry = find(id);
+        if (entry == null || entry.parameters() == null) {
+            return Optional.empty();
+        }
+        String sql = entry.operation().sql();
+        String explainSql = (isPlainSelect(sql) ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ") + sql;
+        List<String> plan = jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET LOCAL statement_timeout = " + properties.explainTimeout().toMillis());
+                }
+                try (PreparedStatement statement = connection.prepareStatement(explainSql)) {
+                    for (int i = 0; i < entry.parameters().size(); i++) {
+                        statement.setObject(i + 1, entry.parameters().get(i));
+                    }
+                    List<String> lines = new ArrayList<>();
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            lines.add(resultSet.getString(1));
+                        }
+                    }
+                    return lines;
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+        return Optional.of(new SlowQueryPlan(id, sql, plan));
+    }
+
+    /**
+     * @return whether the value can be bound again as is when capturing a plan.
+     */
+    static boolean isReplayable(Object value) {
+        return value == null
+                || value instanceof Number
+                || value instanceof Boolean
+                || value instanceof String
+                || value instanceof byte[]
+                || value instanceof Date
+                || value instanceof Temporal
+                || value instanceof UUID;
+    }
+
+    /**
+     * @return the type of the bind parameter as shown in a record, e.g. 'Long' or 'byte[16]'.
+     */
+    static String describe(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value.getClass().isArray()) {
+            return value.getClass().getComponentType().getSimpleName() + "[" + Array.getLength(value) + "]";
+        }
+        return value.getClass().getSimpleName();
+    }
+
+    private synchronized void add(LongFunction<Entry> factory) {
+        lastId++;
+        entries[slot(lastId)] = factory.apply(lastId);
+    }
+
+    private synchronized Entry find(long id) {
+        if (id <= 0 || id > lastId || id <= lastId - entries.length) {
+            return null;
+        }
+        return entries[slot(id)];
+    }
+
+    private int slot(long id) {
+        return (int) ((id - 1) % entries.length);
+    }
+
+    /**
+     * @return whether the statement only reads, so running it with ANALYZE changes nothing.
+     */
+    private static boolean isPlainSelect(String sql) {
+        String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return statement.startsWith("select") && !SELECT_INTO.matcher(statement).find();
+    }
+
+    private record Entry(SlowOperation operation, List<Object> parameters) {
+    }
+
+}
@@ -0,0 +1,38 @@
+package org.nikolait.assignment.caloriex.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint listing recent slow queries and requests at GET /actuator/slowoperations.
+ * POST /actuator/slowoperations/{id} captures the plan of a recorded query, if 'app.slow-operations.explain-enabled' is set.
+ * The records show SQL and endpoints and a capture runs the query again, so expose it only on a private management port.
+ */
+@Component
+@Endpoint(id = "slowoperations")
+@RequiredArgsConstructor
+public class SlowOperationsEndpoint {
+
+    private final SlowOperationRecorder slowOperationRecorder;
+
+    @ReadOperation
+    public List<SlowOperation> slowOperations() {
+        return slowOperationRecorder.getRecent();
+    }
+
+    /**
+     * @return the plan, or null, answered with 404, if the query is no longer kept or cannot be explained,
+     * e.g. because capturing plans is disabled.
+     */
+    @WriteOperation
+    public SlowQueryPlan explain(@Selector long id) {
+        return slowOperationRecorder.explain(id).orElse(null);
+    }
+
+}
@@ -0,0 +1,126 @@
+package org.nikolait.assignment.caloriex.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data source that times every statement and hands the slow ones to the {@link SlowOperationRecorder},
+ * together with the bind parameters they were run with.
+ * <p>
+ * Only the execute call is timed, not reading the rows of the result afterwards.
+ * EXPLAIN statements are never recorded, so capturing the plan of a slow query does not record it again.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<SlowOperationRecorder> recorderProvider;
+
+    private volatile SlowOperationRecorder recorder;
+
+    public SlowQueryDataSource(DataSource targetDataSource, ObjectProvider<SlowOperationRecorder> recorderProvider) {
+        super(targetDataSource);
+        this.recorderProvider = recorderProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return JdbcProxies.wrap(connection, StatementHandler::new);
+    }
+
+    private SlowOperationRecorder recorder() {
+        SlowOperationRecorder current = recorder;
+        if (current == null) {
+            current = recorderProvider.getObject();
+            recorder = current;
+        }
+        return current;
+    }
+
+    private static boolean isExplain(String sql) {
+        return sql.stripLeading().regionMatches(true, 0, "EXPLAIN", 0, 7);
+    }
+
+    /**
+     * Keeps the bind parameters set on a statement and times its execute calls.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String sql;
+        private final List<Object> parameters = new ArrayList<>();
+
+        private boolean replayable = true;
+
+        private StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    return JdbcProxies.invoke(target, method, args);
+                } finally {
+                    onExecuted(args, System.nanoTime() - start);
+                }
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, "setNull".equals(name) ? null : args[1]);
+            } else if ("clearParameters".equals(name)) {
+                parameters.clear();
+                replayable = true;
+            }
+            return JdbcProxies.invoke(target, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+            replayable &= SlowOperationRecorder.isReplayable(value);
+        }
+
+        private void onExecuted(Object[] args, long elapsedNanos) {
+            SlowOperationRecorder slowOperationRecorder = recorder();
+            if (!slowOperationRecorder.isSlowQuery(elapsedNanos)) {
+                return;
+            }
+            boolean direct = args != null && args.length > 0 && args[0] instanceof String;
+            String executed = direct ? (String) args[0] : sql;
+            // A batch of plain statements has no single statement to record
+            if (executed == null || isExplain(executed)) {
+                return;
+            }
+            List<Object> executedParameters = direct ? List.of() : parameters;
+            slowOperationRecorder.recordQuery(
+                    executed,
+                    direct || replayable ? executedParameters : null,
+                    executedParameters.stream().map(SlowOperationRecorder::describe).toList(),
+                    elapsedNanos
+            );
+        }
+
+    }
+
+}
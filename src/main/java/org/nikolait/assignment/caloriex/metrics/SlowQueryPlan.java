@@ -0,0 +1,12 @@
+package org.nikolait.assignment.caloriex.metrics;
+
+import java.util.List;
+
+/**
+ * Plan of a recorded slow query, captured by running it again with the same parameters.
+ *
+ * @param id   ID of the {@link SlowOperation}.
+ * @param plan lines of the EXPLAIN output.
+ */
+public record SlowQueryPlan(long id, String sql, List<String> plan) {
+}
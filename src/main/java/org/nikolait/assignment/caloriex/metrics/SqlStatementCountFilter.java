@@ -0,0 +1,278 @@
+package org.nikolait.assignment.caloriex.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.nikolait.assignment.caloriex.config.SqlStatementProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how many SQL statements each request ran, per endpoint,
+ * and logs requests above the configured threshold as likely N+1 queries.
+ * Requests are also handed to the {@link SlowOperationRecorder}, which keeps the slow ones.
+ * <p>
+ * An async request, e.g. a streamed body or server-sent events, is recorded once, when its last dispatch ends.
+ * Its count includes the statements of the async task, e.g. writing the body, which run on another thread,
+ * but not those that other threads run to push events to it.
+ * <p>
+ * If enabled, responses carry the count in a header, set when the response is committed.
+ * A streamed response that is committed before it ends, on a flush or a full buffer, only counts what ran until then.
+ */
+@Slf4j
+@Component
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-Sql-Statement-Count";
+
+    private static final String STATEMENTS_ATTRIBUTE = SqlStatementCountFilter.class.getName() + ".statements";
+
+    private final SqlStatementProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final SlowOperationRecorder slowOperationRecorder;
+
+    public SqlStatementCountFilter(
+            SqlStatementProperties properties,
+            MeterRegistry meterRegistry,
+            SlowOperationRecorder slowOperationRecorder
+    ) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.slowOperationRecorder = slowOperationRecorder;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        RequestStatements statements;
+        if (request.getAttribute(STATEMENTS_ATTRIBUTE) instanceof RequestStatements started) {
+            statements = started;
+        } else {
+            statements = new RequestStatements();
+            request.setAttribute(STATEMENTS_ATTRIBUTE, statements);
+            WebAsyncUtils.getAsyncManager(request)
+                    .registerCallableInterceptor(SqlStatementCountFilter.class.getName(), new AsyncTaskInterceptor());
+        }
+        CountHeaderResponse headerResponse = WebUtils.getNativeResponse(response, CountHeaderResponse.class);
+        if (properties.headerEnabled() && headerResponse == null) {
+            headerResponse = new CountHeaderResponse(response, statements);
+            response = headerResponse;
+        }
+        statements.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (headerResponse != null && !isAsyncStarted(request)) {
+                headerResponse.setCountHeader();
+            }
+            statements.end();
+            if (!isAsyncStarted(request)) {
+                record(request, statements);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestStatements statements) {
+        long count = statements.finished.get();
+        String endpoint = endpoint(request);
+        DistributionSummary.builder("caloriex.http.sql.statements")
+                .description("SQL statements run per request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(count);
+        if (count > properties.warnThreshold()) {
+            log.warn("{} ran {} SQL statements, likely an N+1 query", endpoint, count);
+        }
+        slowOperationRecorder.recordRequest(endpoint, System.nanoTime() - statements.startNanos, count);
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? request.getMethod() + " " + pattern : "none";
+    }
+
+    /**
+     * Statements of one request, which may run on several threads: its dispatches and its async task.
+     * Each thread measures its part from the {@link SqlStatementCounter} reading taken when the part began.
+     */
+    private static final class RequestStatements {
+
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong finished = new AtomicLong();
+        private final Map<Thread, Long> running = new ConcurrentHashMap<>();
+
+        private void begin() {
+            running.put(Thread.currentThread(), SqlStatementCounter.current());
+        }
+
+        private void end() {
+            Long start = running.remove(Thread.currentThread());
+            if (start != null) {
+                finished.addAndGet(SqlStatementCounter.current() - start);
+            }
+        }
+
+        private long soFar() {
+            Long start = running.get(Thread.currentThread());
+            return finished.get() + (start != null ? SqlStatementCounter.current() - start : 0);
+        }
+
+    }
+
+    /**
+     * Adds the statements an async task runs on its own thread to the count of the request.
+     * The dispatch that started the task is counted up to this point first,
+     * so the task sees them when it commits the response.
+     */
+    private static final class AsyncTaskInterceptor implements CallableProcessingInterceptor {
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            RequestStatements statements = statements(request);
+            statements.end();
+            statements.begin();
+        }
+
+        @Override
+        public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+            statements(request).begin();
+        }
+
+        @Override
+        public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+            statements(request).end();
+        }
+
+        private static RequestStatements statements(NativeWebRequest request) {
+            return (RequestStatements) request.getAttribute(STATEMENTS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+
+    }
+
+    /**
+     * Sets the count header right before the response is committed: on a flush, when the body outgrows the buffer,
+     * or when the request ends without committing it.
+     */
+    private static final class CountHeaderResponse extends HttpServletResponseWrapper {
+
+        private final RequestStatements statements;
+
+        private ServletOutputStream outputStream;
+        private boolean headerSet;
+
+        private CountHeaderResponse(HttpServletResponse response, RequestStatements statements) {
+            super(response);
+            this.statements = statements;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountHeaderOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setCountHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setCountHeader();
+            super.flushBuffer();
+        }
+
+        private void setCountHeader() {
+            if (!headerSet && !isCommitted()) {
+                setHeader(STATEMENT_COUNT_HEADER, Long.toString(statements.soFar()));
+            }
+            headerSet = true;
+        }
+
+        private final class CountHeaderOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream target;
+
+            private long written;
+
+            private CountHeaderOutputStream(ServletOutputStream target) {
+                this.target = target;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                beforeWrite(1);
+                target.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                beforeWrite(len);
+                target.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                setCountHeader();
+                target.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                setCountHeader();
+                target.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return target.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                target.setWriteListener(writeListener);
+            }
+
+            private void beforeWrite(int len) {
+                written += len;
+                if (written >= getBufferSize()) {
+                    setCountHeader();
+                }
+            }
+
+        }
+
+    }
+
+}
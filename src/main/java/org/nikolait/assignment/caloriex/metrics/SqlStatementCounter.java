@@ -0,0 +1,27 @@
+package org.nikolait.assignment.caloriex.metrics;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Counts SQL statements executed on the current thread through the {@link StatementCountingDataSource}.
+ * <p>
+ * The count only grows, so callers measure a scope as the difference of two readings,
+ * and nested scopes such as a request inside a test do not reset each other.
+ */
+@UtilityClass
+public class SqlStatementCounter {
+
+    private final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * @return the number of statements executed on the current thread so far.
+     */
+    public long current() {
+        return STATEMENTS.get()[0];
+    }
+
+    void increment() {
+        STATEMENTS.get()[0]++;
+    }
+
+}
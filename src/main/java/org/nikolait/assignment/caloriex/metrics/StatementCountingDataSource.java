@@ -0,0 +1,38 @@
+package org.nikolait.assignment.caloriex.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Data source that counts every statement executed through it in the {@link SqlStatementCounter},
+ * whether it comes from Hibernate, JdbcTemplate or plain JDBC. A batch counts as one statement.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return JdbcProxies.wrap(connection, (statement, sql) -> (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                SqlStatementCounter.increment();
+            }
+            return JdbcProxies.invoke(statement, method, args);
+        });
+    }
+
+}
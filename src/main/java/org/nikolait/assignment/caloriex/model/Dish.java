@@ -14,7 +14,10 @@ import java.time.Instant;
 @AllArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Entity
-@Table(name = "dishes")
+@Table(
+        name = "dishes",
+        uniqueConstraints = @UniqueConstraint(name = "unique_user_dish_name", columnNames = {"user_id", "name"})
+)
 public class Dish {
 
     @Id
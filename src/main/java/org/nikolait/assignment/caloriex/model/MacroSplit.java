@@ -0,0 +1,11 @@
+package org.nikolait.assignment.caloriex.model;
+
+/**
+ * Percentages of energy coming from protein, fat and carbohydrates.
+ */
+public record MacroSplit(
+        double protein,
+        double fat,
+        double carbohydrates
+) {
+}
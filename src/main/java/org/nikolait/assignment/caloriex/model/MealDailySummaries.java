@@ -0,0 +1,97 @@
+package org.nikolait.assignment.caloriex.model;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Daily calorie totals without meals, held in primitive arrays instead of one object per day.
+ */
+public class MealDailySummaries {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    @Getter
+    private final int dailyCalorieTarget;
+
+    private long[] epochDays = new long[INITIAL_CAPACITY];
+    private int[] totalCalories = new int[INITIAL_CAPACITY];
+    private int size;
+
+    public MealDailySummaries(int dailyCalorieTarget) {
+        this.dailyCalorieTarget = dailyCalorieTarget;
+    }
+
+    /**
+     * Adds calories eaten on the given day. Days must be added in ascending order;
+     * calories of the same day are summed.
+     */
+    public void add(LocalDate day, int calories) {
+        long epochDay = day.toEpochDay();
+        if (size > 0 && epochDays[size - 1] == epochDay) {
+            totalCalories[size - 1] += calories;
+            return;
+        }
+        if (size == epochDays.length) {
+            epochDays = Arrays.copyOf(epochDays, size * 2);
+            totalCalories = Arrays.copyOf(totalCalories, size * 2);
+        }
+        epochDays[size] = epochDay;
+        totalCalories[size] = calories;
+        size++;
+    }
+
+    /**
+     * Adds a zero day for every day of the range that has no calories yet. Must be called before {@link #reverse()}.
+     */
+    public void fillDays(LocalDate startDay, LocalDate endDay) {
+        long start = startDay.toEpochDay();
+        int days = Math.toIntExact(endDay.toEpochDay() - start + 1);
+        long[] filledDays = new long[days];
+        int[] filledCalories = new int[days];
+        for (int i = 0; i < days; i++) {
+            filledDays[i] = start + i;
+        }
+        for (int i = 0; i < size; i++) {
+            long day = epochDays[i] - start;
+            if (day >= 0 && day < days) {
+                filledCalories[(int) day] = totalCalories[i];
+            }
+        }
+        epochDays = filledDays;
+        totalCalories = filledCalories;
+        size = days;
+    }
+
+    /**
+     * Reverses the order of the days in place, so the newest day comes first.
+     */
+    public void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            long day = epochDays[i];
+            epochDays[i] = epochDays[j];
+            epochDays[j] = day;
+            int calories = totalCalories[i];
+            totalCalories[i] = totalCalories[j];
+            totalCalories[j] = calories;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LocalDate getDate(int i) {
+        return LocalDate.ofEpochDay(epochDays[i]);
+    }
+
+    public int getTotalCalories(int i) {
+        return totalCalories[i];
+    }
+
+    public boolean isExceeded(int i) {
+        return totalCalories[i] > dailyCalorieTarget;
+    }
+
+}
@@ -0,0 +1,21 @@
+package org.nikolait.assignment.caloriex.model;
+
+import java.time.Instant;
+
+/**
+ * One dish of one meal, read as a flat row together with its meal and dish.
+ */
+public record MealDishRow(
+        long mealId,
+        String mealName,
+        Instant mealCreatedAt,
+        long dishId,
+        String dishName,
+        Double protein,
+        Double fat,
+        Double carbohydrates,
+        int dishCalories,
+        Instant dishCreatedAt,
+        double servings
+) {
+}
@@ -0,0 +1,7 @@
+package org.nikolait.assignment.caloriex.model;
+
+public enum MealIngestionStatusEnum {
+    PENDING,
+    CREATED,
+    FAILED
+}
@@ -0,0 +1,16 @@
+package org.nikolait.assignment.caloriex.model;
+
+import java.time.Instant;
+
+/**
+ * Nutrition totals of a single meal, read without hydrating the Meal entity.
+ */
+public record MealNutrition(
+        long mealId,
+        Instant createdAt,
+        int calories,
+        double protein,
+        double fat,
+        double carbohydrates
+) {
+}
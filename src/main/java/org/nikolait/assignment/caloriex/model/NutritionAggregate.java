@@ -0,0 +1,60 @@
+package org.nikolait.assignment.caloriex.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Nutrition totals of a week or a month.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NutritionAggregate {
+
+    /**
+     * ISO week ({@code 2024-W03}) or month ({@code 2024-01}).
+     */
+    private String period;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private int trackedDays;
+
+    private int daysOverTarget;
+
+    private int dailyCalorieTarget;
+
+    private int totalCalories;
+
+    /**
+     * grams
+     */
+    private double protein;
+
+    /**
+     * grams
+     */
+    private double fat;
+
+    /**
+     * grams
+     */
+    private double carbohydrates;
+
+    private MacroSplit macroSplit;
+
+    /**
+     * Average calories per tracked day, 0 if no day of the period is tracked.
+     */
+    public double getAverageCalories() {
+        return trackedDays == 0 ? 0 : Math.round((double) totalCalories / trackedDays * 100) / 100.0;
+    }
+
+}
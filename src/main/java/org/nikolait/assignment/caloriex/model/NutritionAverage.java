@@ -0,0 +1,37 @@
+package org.nikolait.assignment.caloriex.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NutritionAverage {
+
+    private int days;
+
+    private double calories;
+
+    /**
+     * grams
+     */
+    private double protein;
+
+    /**
+     * grams
+     */
+    private double fat;
+
+    /**
+     * grams
+     */
+    private double carbohydrates;
+
+    private int dailyCalorieTarget;
+
+    public boolean isExceeded() {
+        return calories > dailyCalorieTarget;
+    }
+
+}
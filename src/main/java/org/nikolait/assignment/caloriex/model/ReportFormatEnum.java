@@ -0,0 +1,46 @@
+package org.nikolait.assignment.caloriex.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public enum ReportFormatEnum {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private final MediaType mediaType;
+
+    /**
+     * Picks the format the Accept header prefers, falling back to JSON.
+     */
+    public static ReportFormatEnum fromAcceptHeader(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> acceptedTypes;
+        try {
+            acceptedTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(acceptedTypes);
+        for (MediaType acceptedType : acceptedTypes) {
+            if (acceptedType.getQualityValue() == 0) {
+                continue;
+            }
+            if (acceptedType.isWildcardType() || JSON.mediaType.isCompatibleWith(acceptedType)) {
+                return JSON;
+            }
+            if (CBOR.mediaType.isCompatibleWith(acceptedType)) {
+                return CBOR;
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,12 @@
+package org.nikolait.assignment.caloriex.model;
+
+public enum ReportViewEnum {
+    /**
+     * Every meal with its dishes in full, as a list of {@code MealDailyReportDto}.
+     */
+    FULL,
+    /**
+     * Meals refer to dishes by ID, and every dish is listed once, as a {@code NormalizedMealDailyReportsDto}.
+     */
+    NORMALIZED
+}
@@ -0,0 +1,20 @@
+package org.nikolait.assignment.caloriex.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollingNutritionReport {
+
+    private LocalDate date;
+
+    private NutritionAverage lastWeek;
+
+    private NutritionAverage lastMonth;
+
+}
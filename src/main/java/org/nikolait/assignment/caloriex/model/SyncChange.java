@@ -0,0 +1,12 @@
+package org.nikolait.assignment.caloriex.model;
+
+/**
+ * A single entry of a User's change log.
+ */
+public record SyncChange(
+        long sequence,
+        SyncEntityTypeEnum entityType,
+        long entityId,
+        SyncOperationEnum operation
+) {
+}
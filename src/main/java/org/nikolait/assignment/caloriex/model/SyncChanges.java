@@ -0,0 +1,19 @@
+package org.nikolait.assignment.caloriex.model;
+
+import java.util.List;
+
+/**
+ * Entities changed after a cursor.
+ *
+ * @param cursor  sequence of the last change included; pass it as the next 'since'.
+ * @param hasMore whether further changes are waiting after the cursor.
+ */
+public record SyncChanges(
+        long cursor,
+        boolean hasMore,
+        List<Meal> meals,
+        List<Dish> dishes,
+        List<Long> deletedMealIds,
+        List<Long> deletedDishIds
+) {
+}
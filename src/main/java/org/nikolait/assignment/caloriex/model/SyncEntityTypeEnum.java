@@ -0,0 +1,6 @@
+package org.nikolait.assignment.caloriex.model;
+
+public enum SyncEntityTypeEnum {
+    MEAL,
+    DISH
+}
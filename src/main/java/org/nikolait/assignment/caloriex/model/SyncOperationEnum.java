@@ -0,0 +1,8 @@
+package org.nikolait.assignment.caloriex.model;
+
+/**
+ * What happened to an entity in the change log. Meals and dishes are never deleted, so there are no tombstones.
+ */
+public enum SyncOperationEnum {
+    UPSERT
+}
@@ -0,0 +1,23 @@
+package org.nikolait.assignment.caloriex.outbox;
+
+import java.util.List;
+
+/**
+ * In-process consumer of meal writes, registered as a Spring bean.
+ * <p>
+ * Events are delivered in batches. Within a batch they are ordered by User and then by sequence, and
+ * the events of one User are delivered in the order their meal transactions committed, across batches too.
+ * Events of different Users are not ordered relative to each other.
+ * Delivery is at-least-once: if any consumer throws, the whole batch is redelivered to every consumer,
+ * so implementations must tolerate duplicates.
+ * <p>
+ * Only the node holding the dispatcher lock delivers events, and only to consumers in its own process.
+ * In-memory state kept current by a consumer is therefore only current on that node, which makes
+ * running a single application node a hard requirement for consumers such as rolling windows and
+ * live progress streams.
+ */
+public interface MealCreatedConsumer {
+
+    void onMealsCreated(List<MealCreatedEvent> events);
+
+}
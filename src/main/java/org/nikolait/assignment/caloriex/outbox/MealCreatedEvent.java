@@ -0,0 +1,25 @@
+package org.nikolait.assignment.caloriex.outbox;
+
+import java.time.Instant;
+
+/**
+ * A meal written for a user, with nutrition totals of the meal.
+ *
+ * @param id            id of the event in the outbox.
+ * @param sequence      position of the event among the events of its User; increases in commit and delivery order.
+ * @param mealCreatedAt the moment the meal was eaten, used to place it into a day.
+ * @param recordedAt    the moment the event was written to the outbox.
+ */
+public record MealCreatedEvent(
+        long id,
+        long sequence,
+        long mealId,
+        long userId,
+        Instant mealCreatedAt,
+        Instant recordedAt,
+        int calories,
+        double protein,
+        double fat,
+        double carbohydrates
+) {
+}
@@ -0,0 +1,137 @@
+package org.nikolait.assignment.caloriex.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.nikolait.assignment.caloriex.config.MealOutboxProperties;
+import org.nikolait.assignment.caloriex.repository.MealOutboxRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers MealCreated events from the outbox to every {@link MealCreatedConsumer}.
+ * <p>
+ * The dispatcher pulls batches at the pace consumers can handle, so a slow consumer makes
+ * the outbox table grow instead of buffering events in memory. A batch is deleted in the same
+ * transaction it was delivered in; if delivery fails the batch is retried after a delay.
+ * Batches are taken oldest first and delivered in (User, sequence) order, so every User's events arrive
+ * in the order they were committed.
+ * <p>
+ * Events are not published across nodes. The node that takes the dispatcher lock delivers every event
+ * to its own consumers, while consumers on other nodes never see one, see {@link MealCreatedConsumer}.
+ */
+@Slf4j
+@Component
+public class MealOutboxDispatcher implements SmartLifecycle {
+
+    private final MealOutboxProperties properties;
+    private final MealOutboxRepository mealOutboxRepository;
+    private final ObjectProvider<MealCreatedConsumer> consumerProvider;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter deliveredCounter;
+    private final Counter failureCounter;
+    private final Timer deliveryTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private List<MealCreatedConsumer> consumers;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    public MealOutboxDispatcher(
+            MealOutboxProperties properties,
+            MealOutboxRepository mealOutboxRepository,
+            ObjectProvider<MealCreatedConsumer> consumerProvider,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        this.mealOutboxRepository = mealOutboxRepository;
+        this.consumerProvider = consumerProvider;
+        this.transactionTemplate = transactionTemplate;
+        this.deliveredCounter = Counter.builder("caloriex.meal.outbox.delivered")
+                .description("MealCreated events delivered to consumers")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("caloriex.meal.outbox.failures")
+                .description("Failed deliveries of MealCreated event batches")
+                .register(meterRegistry);
+        this.deliveryTimer = Timer.builder("caloriex.meal.outbox.delivery")
+                .description("Time consumers spend on a batch of MealCreated events")
+                .register(meterRegistry);
+        Gauge.builder("caloriex.meal.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Age of the oldest undelivered MealCreated event in the last polled batch")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        consumers = consumerProvider.orderedStream().toList();
+        running = true;
+        dispatcher = Thread.ofPlatform().name("meal-outbox-dispatcher").start(this::dispatchLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            Duration pause;
+            try {
+                Integer delivered = transactionTemplate.execute(status -> dispatchBatch());
+                pause = delivered != null && delivered == properties.batchSize()
+                        ? Duration.ZERO
+                        : properties.pollInterval();
+            } catch (RuntimeException e) {
+                failureCounter.increment();
+                log.error("Failed to dispatch MealCreated events, retrying in {}", properties.retryDelay(), e);
+                pause = properties.retryDelay();
+            }
+            try {
+                Thread.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private int dispatchBatch() {
+        if (!mealOutboxRepository.tryLockDispatcher()) {
+            return 0;
+        }
+        List<MealCreatedEvent> events = mealOutboxRepository.findNextBatch(properties.batchSize());
+        if (events.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        lagMillis.set(Duration.between(events.getFirst().recordedAt(), Instant.now()).toMillis());
+
+        deliveryTimer.record(() -> consumers.forEach(consumer -> consumer.onMealsCreated(events)));
+        mealOutboxRepository.deleteAll(events.stream().map(MealCreatedEvent::id).toList());
+        deliveredCounter.increment(events.size());
+        return events.size();
+    }
+
+}
@@ -0,0 +1,263 @@
+package org.nikolait.assignment.caloriex.progress;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.nikolait.assignment.caloriex.config.DailyProgressStreamProperties;
+import org.nikolait.assignment.caloriex.dto.MealDailySummaryDto;
+import org.nikolait.assignment.caloriex.mapper.MealDailySummaryMapper;
+import org.nikolait.assignment.caloriex.model.MealDailySummaries;
+import org.nikolait.assignment.caloriex.outbox.MealCreatedConsumer;
+import org.nikolait.assignment.caloriex.outbox.MealCreatedEvent;
+import org.nikolait.assignment.caloriex.service.MealReportService;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds open daily progress streams per user and pushes today's calorie total whenever a meal is written.
+ * <p>
+ * Streams are async servlet responses, so an idle stream holds a connection but no thread.
+ * Pushes and heartbeats are sent from virtual threads, so a slow client delays nobody else.
+ * Refreshes of one user run one at a time and coalesce, so clients never receive an older total
+ * after a newer one, and a burst of meals costs one query.
+ */
+@Slf4j
+@Component
+public class DailyProgressRegistry implements MealCreatedConsumer, SmartLifecycle {
+
+    private static final String PROGRESS_EVENT = "progress";
+
+    private final DailyProgressStreamProperties properties;
+    private final MealReportService mealReportService;
+    private final MealDailySummaryMapper mealDailySummaryMapper;
+
+    private final Map<Long, UserSubscriptions> subscriptionsByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptionCount = new AtomicInteger();
+
+    /**
+     * Replaced on every start, as a stop shuts it down.
+     */
+    private volatile ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    private ScheduledExecutorService heartbeat;
+    private volatile boolean running;
+
+    public DailyProgressRegistry(
+            DailyProgressStreamProperties properties,
+            MealReportService mealReportService,
+            MealDailySummaryMapper mealDailySummaryMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        this.mealReportService = mealReportService;
+        this.mealDailySummaryMapper = mealDailySummaryMapper;
+        Gauge.builder("caloriex.progress.subscriptions", subscriptionCount, AtomicInteger::get)
+                .description("Open daily progress streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream that receives today's progress right away and after every meal the user writes.
+     */
+    public SseEmitter subscribe(Long userId, ZoneId zoneId) {
+        SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+        Subscription subscription = new Subscription(emitter, zoneId);
+        List<Subscription> evicted = new ArrayList<>();
+
+        UserSubscriptions userSubscriptions = subscriptionsByUser.compute(userId, (id, existing) -> {
+            UserSubscriptions current = existing != null ? existing : new UserSubscriptions(id);
+            current.subscriptions.add(subscription);
+            while (current.subscriptions.size() > properties.maxSubscriptionsPerUser()) {
+                evicted.add(current.subscriptions.removeFirst());
+            }
+            return current;
+        });
+        subscriptionCount.addAndGet(1 - evicted.size());
+        evicted.forEach(old -> old.emitter.complete());
+
+        emitter.onCompletion(() -> unsubscribe(userId, subscription));
+        emitter.onTimeout(() -> unsubscribe(userId, subscription));
+        emitter.onError(e -> unsubscribe(userId, subscription));
+
+        requestRefresh(userSubscriptions);
+        return emitter;
+    }
+
+    @Override
+    public void onMealsCreated(List<MealCreatedEvent> events) {
+        if (subscriptionsByUser.isEmpty()) {
+            return;
+        }
+        events.stream()
+                .map(MealCreatedEvent::userId)
+                .distinct()
+                .map(subscriptionsByUser::get)
+                .filter(Objects::nonNull)
+                .forEach(this::requestRefresh);
+    }
+
+    @Override
+    public void start() {
+        if (sender.isShutdown()) {
+            sender = Executors.newVirtualThreadPerTaskExecutor();
+        }
+        heartbeat = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("daily-progress-heartbeat").factory()
+        );
+        long interval = properties.heartbeatInterval().toMillis();
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    /**
+     * Closes every stream before the web server shuts down gracefully, so open streams do not hold the shutdown,
+     * and waits for the pushes that are being sent.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        heartbeat.shutdownNow();
+        subscriptionsByUser.values().forEach(user -> user.subscriptions.forEach(s -> s.emitter.complete()));
+        sender.shutdown();
+        try {
+            if (!sender.awaitTermination(properties.shutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Daily progress pushes did not finish within {}", properties.shutdownTimeout());
+                sender.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            sender.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void unsubscribe(Long userId, Subscription subscription) {
+        subscriptionsByUser.computeIfPresent(userId, (id, existing) -> {
+            if (existing.subscriptions.remove(subscription)) {
+                subscriptionCount.decrementAndGet();
+            }
+            return existing.subscriptions.isEmpty() ? null : existing;
+        });
+    }
+
+    /**
+     * Schedules a refresh unless one is already running for the user, in which case that one repeats once more.
+     * Refreshes requested while stopped are dropped.
+     */
+    private void requestRefresh(UserSubscriptions userSubscriptions) {
+        if (userSubscriptions.pendingRefreshes.getAndIncrement() == 0) {
+            try {
+                sender.execute(() -> refreshLoop(userSubscriptions));
+            } catch (RejectedExecutionException e) {
+                userSubscriptions.pendingRefreshes.set(0);
+            }
+        }
+    }
+
+    private void refreshLoop(UserSubscriptions userSubscriptions) {
+        int pending = userSubscriptions.pendingRefreshes.get();
+        do {
+            try {
+                refresh(userSubscriptions);
+            } catch (RuntimeException e) {
+                log.warn("Failed to refresh daily progress of User with id {}", userSubscriptions.userId, e);
+            }
+            pending = userSubscriptions.pendingRefreshes.addAndGet(-pending);
+        } while (pending != 0);
+    }
+
+    private void refresh(UserSubscriptions userSubscriptions) {
+        Map<ZoneId, MealDailySummaryDto> progressByZone = new HashMap<>();
+        for (Subscription subscription : userSubscriptions.subscriptions) {
+            MealDailySummaryDto progress = progressByZone.computeIfAbsent(
+                    subscription.zoneId,
+                    zoneId -> loadProgress(userSubscriptions.userId, zoneId)
+            );
+            subscription.day = progress.date();
+            send(userSubscriptions.userId, subscription, SseEmitter.event()
+                    .name(PROGRESS_EVENT)
+                    .data(progress, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private MealDailySummaryDto loadProgress(Long userId, ZoneId zoneId) {
+        LocalDate today = LocalDate.now(zoneId);
+        MealDailySummaries summaries = mealReportService.generateMealDailySummariesForPeriod(
+                userId, today, today, zoneId
+        );
+        return mealDailySummaryMapper.toResponseDtoList(summaries).getFirst();
+    }
+
+    /**
+     * Keeps idle connections open through proxies and closes streams whose client is gone.
+     * Streams that are still showing yesterday get a refresh instead.
+     */
+    private void sendHeartbeats() {
+        subscriptionsByUser.forEach((userId, userSubscriptions) -> {
+            boolean newDay = userSubscriptions.subscriptions.stream()
+                    .anyMatch(s -> s.day != null && !s.day.equals(LocalDate.now(s.zoneId)));
+            if (newDay) {
+                requestRefresh(userSubscriptions);
+                return;
+            }
+            for (Subscription subscription : userSubscriptions.subscriptions) {
+                try {
+                    sender.execute(() -> send(userId, subscription, SseEmitter.event().comment("heartbeat")));
+                } catch (RejectedExecutionException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    private void send(Long userId, Subscription subscription, SseEmitter.SseEventBuilder event) {
+        try {
+            subscription.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(userId, subscription);
+            subscription.emitter.completeWithError(e);
+        }
+    }
+
+    private static class UserSubscriptions {
+
+        private final Long userId;
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        private final AtomicInteger pendingRefreshes = new AtomicInteger();
+
+        private UserSubscriptions(Long userId) {
+            this.userId = userId;
+        }
+
+    }
+
+    private static class Subscription {
+
+        private final SseEmitter emitter;
+        private final ZoneId zoneId;
+        /**
+         * The day of the last progress sent, null until the first one.
+         */
+        private volatile LocalDate day;
+
+        private Subscription(SseEmitter emitter, ZoneId zoneId) {
+            this.emitter = emitter;
+            this.zoneId = zoneId;
+        }
+
+    }
+
+}
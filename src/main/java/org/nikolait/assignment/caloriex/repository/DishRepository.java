@@ -3,6 +3,7 @@ package org.nikolait.assignment.caloriex.repository;
 import org.nikolait.assignment.caloriex.model.Dish;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +13,6 @@ public interface DishRepository extends JpaRepository<Dish, Long> {
 
     List<Dish> getAllByUserId(Long userId);
 
-    boolean existsByNameAndUserId(String name, Long userId);
+    List<Dish> findAllByUserIdAndIdIn(Long userId, Collection<Long> ids);
 
 }
@@ -0,0 +1,124 @@
+package org.nikolait.assignment.caloriex.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.config.StreamingProperties;
+import org.nikolait.assignment.caloriex.model.MealDishRow;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+/**
+ * Reads meals with their dishes as flat rows from a forward-only cursor.
+ * <p>
+ * Rows are fetched in chunks of {@link StreamingProperties#fetchSize()} and passed on one by one,
+ * so memory does not grow with the number of meals. PostgreSQL only keeps the cursor open inside
+ * a transaction, so callers must run in one.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MealDishRowRepository {
+
+    private static final String SELECT_SQL = """
+            SELECT m.id         AS meal_id,
+                   m.name       AS meal_name,
+                   m.created_at AS meal_created_at,
+                   d.id         AS dish_id,
+                   d.name       AS dish_name,
+                   d.protein,
+                   d.fat,
+                   d.carbohydrates,
+                   d.calories   AS dish_calories,
+                   d.created_at AS dish_created_at,
+                   md.servings
+            FROM meals m
+                     JOIN meal_dishes md ON md.meal_id = m.id
+                     JOIN dishes d ON d.id = md.dish_id
+            WHERE m.user_id = ?
+            %s
+            ORDER BY m.created_at DESC, m.id DESC
+            """;
+
+    private static final String SELECT_ALL_SQL = SELECT_SQL.formatted("");
+
+    private static final String SELECT_BETWEEN_SQL = SELECT_SQL.formatted("""
+            AND m.created_at >= ?
+            AND m.created_at < ?
+            """);
+
+    private static final RowMapper<MealDishRow> MEAL_DISH_ROW_MAPPER = (rs, rowNum) -> new MealDishRow(
+            rs.getLong("meal_id"),
+            rs.getString("meal_name"),
+            rs.getTimestamp("meal_created_at").toInstant(),
+            rs.getLong("dish_id"),
+            rs.getString("dish_name"),
+            getNullableDouble(rs, "protein"),
+            getNullableDouble(rs, "fat"),
+            getNullableDouble(rs, "carbohydrates"),
+            rs.getInt("dish_calories"),
+            rs.getTimestamp("dish_created_at").toInstant(),
+            rs.getDouble("servings")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StreamingProperties streamingProperties;
+
+    /**
+     * Passes the rows of all meals of the user to the consumer, newest meal first,
+     * keeping the rows of one meal together.
+     */
+    public void forEachByUserId(Long userId, Consumer<MealDishRow> consumer) {
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = prepareForwardOnly(connection.prepareStatement(SELECT_ALL_SQL));
+                    ps.setLong(1, userId);
+                    return ps;
+                },
+                rs -> {
+                    consumer.accept(MEAL_DISH_ROW_MAPPER.mapRow(rs, rs.getRow()));
+                }
+        );
+    }
+
+    /**
+     * Passes the rows of the user's meals created in {@code [start, end)} to the consumer, newest meal first,
+     * keeping the rows of one meal together.
+     */
+    public void forEachByUserIdAndCreatedAtBetween(
+            Long userId,
+            Instant start,
+            Instant end,
+            Consumer<MealDishRow> consumer
+    ) {
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = prepareForwardOnly(connection.prepareStatement(SELECT_BETWEEN_SQL));
+                    ps.setLong(1, userId);
+                    ps.setObject(2, start.atOffset(ZoneOffset.UTC));
+                    ps.setObject(3, end.atOffset(ZoneOffset.UTC));
+                    return ps;
+                },
+                rs -> {
+                    consumer.accept(MEAL_DISH_ROW_MAPPER.mapRow(rs, rs.getRow()));
+                }
+        );
+    }
+
+    private PreparedStatement prepareForwardOnly(PreparedStatement ps) throws SQLException {
+        ps.setFetchDirection(ResultSet.FETCH_FORWARD);
+        ps.setFetchSize(streamingProperties.fetchSize());
+        return ps;
+    }
+
+    private static Double getNullableDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+}
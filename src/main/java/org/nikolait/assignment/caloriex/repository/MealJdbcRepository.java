@@ -0,0 +1,96 @@
+package org.nikolait.assignment.caloriex.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.model.Meal;
+import org.nikolait.assignment.caloriex.model.MealDish;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Plain JDBC access to meals for bulk writes that bypass the persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MealJdbcRepository {
+
+    private static final String INSERT_MEALS_SQL = """
+            INSERT INTO meals (id, user_id, name, created_at)
+            SELECT id, user_id, name, created_at::timestamptz
+            FROM unnest(?::bigint[], ?::bigint[], ?::text[], ?::text[]) AS m(id, user_id, name, created_at)
+            ON CONFLICT (id) DO NOTHING
+            RETURNING id
+            """;
+
+    private static final String INSERT_MEAL_DISH_SQL = """
+            INSERT INTO meal_dishes (meal_id, dish_id, servings)
+            VALUES (?, ?, ?)
+            """;
+
+    private static final String INSERT_FAILURE_SQL = """
+            INSERT INTO meal_ingestion_failures (meal_id, user_id, reason)
+            VALUES (?, ?, ?)
+            ON CONFLICT (meal_id) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Long nextMealId() {
+        return jdbcTemplate.queryForObject("SELECT nextval('meals_id_seq')", Long.class);
+    }
+
+    /**
+     * Inserts meals with pre-allocated ids and their dishes in one transaction.
+     * Meals that are already stored are skipped along with their dishes, so the same batch can be written twice.
+     * <p>
+     * Meals go in as one statement over arrays that returns the IDs it inserted, because batch
+     * update counts cannot tell skipped rows apart once the driver rewrites batched inserts.
+     *
+     * @return the meals that were actually inserted by this call.
+     */
+    @Transactional
+    public List<Meal> insertAll(List<Meal> meals) {
+        Set<Long> insertedIds = new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_MEALS_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", meals.stream().map(Meal::getId).toArray()));
+            ps.setArray(2, connection.createArrayOf("bigint", meals.stream().map(meal -> meal.getUser().getId()).toArray()));
+            ps.setArray(3, connection.createArrayOf("text", meals.stream().map(Meal::getName).toArray()));
+            ps.setArray(4, connection.createArrayOf("text", meals.stream().map(meal -> meal.getCreatedAt().toString()).toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1)));
+        List<Meal> inserted = meals.stream()
+                .filter(meal -> insertedIds.contains(meal.getId()))
+                .toList();
+
+        List<MealDish> mealDishes = inserted.stream()
+                .flatMap(meal -> meal.getMealDishes().stream())
+                .toList();
+
+        jdbcTemplate.batchUpdate(INSERT_MEAL_DISH_SQL, mealDishes, mealDishes.size(), (ps, mealDish) -> {
+            ps.setLong(1, mealDish.getMeal().getId());
+            ps.setLong(2, mealDish.getDish().getId());
+            ps.setDouble(3, mealDish.getServings());
+        });
+        return inserted;
+    }
+
+    /**
+     * Records a write-behind meal that could not be stored, so its user can find out about it.
+     */
+    public void insertFailure(Meal meal, String reason) {
+        jdbcTemplate.update(INSERT_FAILURE_SQL, meal.getId(), meal.getUser().getId(), reason);
+    }
+
+    public boolean existsFailure(Long mealId, Long userId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM meal_ingestion_failures WHERE meal_id = ? AND user_id = ?)",
+                Boolean.class, mealId, userId
+        ));
+    }
+
+}
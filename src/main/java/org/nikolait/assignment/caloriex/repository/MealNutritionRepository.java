@@ -0,0 +1,97 @@
+package org.nikolait.assignment.caloriex.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.model.MealNutrition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Per-meal nutrition totals aggregated in SQL, rounded the same way as {@code Meal.getCalories()}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MealNutritionRepository {
+
+    private static final String SELECT_SQL = """
+            SELECT m.id, m.created_at,
+                   ROUND(SUM(ROUND(d.calories * md.servings, 2)))   AS calories,
+                   COALESCE(SUM(d.protein * md.servings), 0)       AS protein,
+                   COALESCE(SUM(d.fat * md.servings), 0)           AS fat,
+                   COALESCE(SUM(d.carbohydrates * md.servings), 0) AS carbohydrates
+            FROM meals m
+                     JOIN meal_dishes md ON md.meal_id = m.id
+                     JOIN dishes d ON d.id = md.dish_id
+            WHERE m.user_id = ?
+            %s
+            GROUP BY m.id, m.created_at
+            ORDER BY m.created_at
+            """;
+
+    private static final String SELECT_ALL_SQL = SELECT_SQL.formatted("");
+
+    private static final String SELECT_BETWEEN_SQL = SELECT_SQL.formatted("""
+            AND m.created_at >= ?
+            AND m.created_at < ?
+            """);
+
+    private static final RowMapper<MealNutrition> MEAL_NUTRITION_ROW_MAPPER = (rs, rowNum) -> new MealNutrition(
+            rs.getLong("id"),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getInt("calories"),
+            rs.getDouble("protein"),
+            rs.getDouble("fat"),
+            rs.getDouble("carbohydrates")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<MealNutrition> findByUserIdAndCreatedAtBetween(Long userId, Instant start, Instant end) {
+        return jdbcTemplate.query(
+                SELECT_BETWEEN_SQL,
+                MEAL_NUTRITION_ROW_MAPPER,
+                userId,
+                start.atOffset(ZoneOffset.UTC),
+                end.atOffset(ZoneOffset.UTC)
+        );
+    }
+
+    /**
+     * Passes meals to the consumer in creation order as rows are read, without collecting them.
+     */
+    public void forEachByUserIdAndCreatedAtBetween(
+            Long userId,
+            Instant start,
+            Instant end,
+            Consumer<MealNutrition> consumer
+    ) {
+        jdbcTemplate.query(
+                SELECT_BETWEEN_SQL,
+                rs -> {
+                    consumer.accept(MEAL_NUTRITION_ROW_MAPPER.mapRow(rs, rs.getRow()));
+                },
+                userId,
+                start.atOffset(ZoneOffset.UTC),
+                end.atOffset(ZoneOffset.UTC)
+        );
+    }
+
+    /**
+     * Passes all meals of the user to the consumer in creation order as rows are read.
+     */
+    public void forEachByUserId(Long userId, Consumer<MealNutrition> consumer) {
+        jdbcTemplate.query(
+                SELECT_ALL_SQL,
+                rs -> {
+                    consumer.accept(MEAL_NUTRITION_ROW_MAPPER.mapRow(rs, rs.getRow()));
+                },
+                userId
+        );
+    }
+
+}
@@ -0,0 +1,135 @@
+package org.nikolait.assignment.caloriex.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.model.Meal;
+import org.nikolait.assignment.caloriex.outbox.MealCreatedEvent;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class MealOutboxRepository {
+
+    private static final long DISPATCHER_LOCK_KEY = 0x4D65616C4F7574L;
+
+    private static final String ALLOCATE_SEQUENCES_SQL = """
+            INSERT INTO meal_outbox_sequences (user_id, last_sequence)
+            SELECT user_id, meal_count
+            FROM unnest(?::bigint[], ?::bigint[]) AS s(user_id, meal_count)
+            ORDER BY user_id
+            ON CONFLICT (user_id) DO UPDATE SET last_sequence = meal_outbox_sequences.last_sequence + EXCLUDED.last_sequence
+            RETURNING user_id, last_sequence
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO meal_outbox (meal_id, user_id, meal_created_at, sequence)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private static final String SELECT_NEXT_BATCH_SQL = """
+            SELECT o.id, o.sequence, o.meal_id, o.user_id, o.meal_created_at, o.recorded_at,
+                   COALESCE(ROUND(SUM(ROUND(d.calories * md.servings, 2))), 0) AS calories,
+                   COALESCE(SUM(d.protein * md.servings), 0)                   AS protein,
+                   COALESCE(SUM(d.fat * md.servings), 0)                       AS fat,
+                   COALESCE(SUM(d.carbohydrates * md.servings), 0)             AS carbohydrates
+            FROM (SELECT * FROM meal_outbox ORDER BY id LIMIT ?) o
+                     LEFT JOIN meal_dishes md ON md.meal_id = o.meal_id
+                     LEFT JOIN dishes d ON d.id = md.dish_id
+            GROUP BY o.id, o.sequence, o.meal_id, o.user_id, o.meal_created_at, o.recorded_at
+            ORDER BY o.user_id, o.sequence
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records MealCreated events; must run in the transaction that writes the meals.
+     * <p>
+     * Sequences are taken from each User's row in meal_outbox_sequences, which stays locked until commit,
+     * as in {@link SyncChangeRepository}. Events of one User therefore commit in sequence order, and rows
+     * are locked in User order, so transactions writing meals of several Users cannot deadlock.
+     */
+    public void append(List<Meal> meals) {
+        if (meals.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> mealCounts = meals.stream()
+                .collect(Collectors.groupingBy(meal -> meal.getUser().getId(), Collectors.counting()));
+        Map<Long, Long> nextSequences = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(ALLOCATE_SEQUENCES_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", mealCounts.keySet().toArray()));
+            ps.setArray(2, connection.createArrayOf("bigint", mealCounts.values().toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            long userId = rs.getLong("user_id");
+            nextSequences.put(userId, rs.getLong("last_sequence") - mealCounts.get(userId) + 1);
+        });
+        long[] sequences = new long[meals.size()];
+        for (int i = 0; i < meals.size(); i++) {
+            sequences[i] = nextSequences.merge(meals.get(i).getUser().getId(), 1L, Long::sum) - 1;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Meal meal = meals.get(i);
+                ps.setLong(1, meal.getId());
+                ps.setLong(2, meal.getUser().getId());
+                ps.setObject(3, meal.getCreatedAt().atOffset(ZoneOffset.UTC));
+                ps.setLong(4, sequences[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return meals.size();
+            }
+        });
+    }
+
+    /**
+     * Takes a transaction-scoped advisory lock, so only one node dispatches at a time
+     * and a batch is never delivered twice concurrently.
+     */
+    public boolean tryLockDispatcher() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, DISPATCHER_LOCK_KEY
+        ));
+    }
+
+    public List<MealCreatedEvent> findNextBatch(int limit) {
+        return jdbcTemplate.query(SELECT_NEXT_BATCH_SQL, (rs, rowNum) -> new MealCreatedEvent(
+                rs.getLong("id"),
+                rs.getLong("sequence"),
+                rs.getLong("meal_id"),
+                rs.getLong("user_id"),
+                rs.getTimestamp("meal_created_at").toInstant(),
+                rs.getTimestamp("recorded_at").toInstant(),
+                rs.getInt("calories"),
+                rs.getDouble("protein"),
+                rs.getDouble("fat"),
+                rs.getDouble("carbohydrates")
+        ), limit);
+    }
+
+    /**
+     * Deletes exactly the delivered events. Ids are not committed in order across Users,
+     * so a range delete could drop an event committed after the batch was read.
+     */
+    public void deleteAll(List<Long> ids) {
+        jdbcTemplate.update(
+                "DELETE FROM meal_outbox WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray()))
+        );
+    }
+
+}
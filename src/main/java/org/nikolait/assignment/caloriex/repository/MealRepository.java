@@ -1,9 +1,11 @@
 package org.nikolait.assignment.caloriex.repository;
 
 import org.nikolait.assignment.caloriex.model.Meal;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,8 +13,13 @@ public interface MealRepository extends JpaRepository<Meal, Long> {
 
     Optional<Meal> findByIdAndUserId(Long id, Long userId);
 
+    boolean existsByIdAndUserId(Long id, Long userId);
+
     List<Meal> findAllByUserId(Long userId);
 
+    @EntityGraph(attributePaths = "mealDishes.dish")
     List<Meal> findByUserIdAndCreatedAtBetweenOrderByCreatedAt(Long userId, Instant start, Instant end);
 
+    List<Meal> findAllByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
 }
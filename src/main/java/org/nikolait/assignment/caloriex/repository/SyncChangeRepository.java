@@ -0,0 +1,83 @@
+package org.nikolait.assignment.caloriex.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.model.SyncChange;
+import org.nikolait.assignment.caloriex.model.SyncEntityTypeEnum;
+import org.nikolait.assignment.caloriex.model.SyncOperationEnum;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class SyncChangeRepository {
+
+    private static final String ALLOCATE_SEQUENCES_SQL = """
+            INSERT INTO sync_sequences (user_id, last_sequence)
+            VALUES (?, ?)
+            ON CONFLICT (user_id) DO UPDATE SET last_sequence = sync_sequences.last_sequence + EXCLUDED.last_sequence
+            RETURNING last_sequence
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO sync_changes (user_id, sequence, entity_type, entity_id, operation)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String SELECT_AFTER_SQL = """
+            SELECT sequence, entity_type, entity_id, operation
+            FROM sync_changes
+            WHERE user_id = ? AND sequence > ?
+            ORDER BY sequence
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records changes of a User's entities; must run in the transaction that writes them.
+     * <p>
+     * Sequences are taken from the User's row in sync_sequences, which stays locked until commit.
+     * Writes of one User therefore commit in sequence order, and a client that has seen a sequence
+     * can never miss an earlier one committed later.
+     */
+    public void append(Long userId, SyncEntityTypeEnum entityType, List<Long> entityIds, SyncOperationEnum operation) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        Long lastSequence = jdbcTemplate.queryForObject(
+                ALLOCATE_SEQUENCES_SQL, Long.class, userId, entityIds.size()
+        );
+        long firstSequence = lastSequence - entityIds.size() + 1;
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, userId);
+                ps.setLong(2, firstSequence + i);
+                ps.setString(3, entityType.name());
+                ps.setLong(4, entityIds.get(i));
+                ps.setString(5, operation.name());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entityIds.size();
+            }
+        });
+    }
+
+    public List<SyncChange> findByUserIdAfter(Long userId, long sequence, int limit) {
+        return jdbcTemplate.query(SELECT_AFTER_SQL, (rs, rowNum) -> new SyncChange(
+                rs.getLong("sequence"),
+                SyncEntityTypeEnum.valueOf(rs.getString("entity_type")),
+                rs.getLong("entity_id"),
+                SyncOperationEnum.valueOf(rs.getString("operation"))
+        ), userId, sequence, limit);
+    }
+
+}
@@ -11,6 +11,4 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u.id FROM User u WHERE u.email = :email")
     Optional<Long> findIdByEmail(String email);
 
-    boolean existsByEmail(String email);
-
 }
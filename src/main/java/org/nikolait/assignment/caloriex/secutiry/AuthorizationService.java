@@ -2,6 +2,7 @@ package org.nikolait.assignment.caloriex.secutiry;
 
 import lombok.RequiredArgsConstructor;
 import org.nikolait.assignment.caloriex.exception.UnauthorizedException;
+import org.nikolait.assignment.caloriex.jfr.AuthorizationEvent;
 import org.nikolait.assignment.caloriex.repository.UserRepository;
 import org.springframework.stereotype.Service;
 
@@ -12,29 +13,47 @@ public class AuthorizationService {
     private final UserRepository userRepository;
 
     public Long authenticateByEmail(String email) {
-        if (email == null || email.trim().isEmpty()) {
-            throw new UnauthorizedException("Email is missing");
-        }
+        AuthorizationEvent event = beginEvent("email");
+        try {
+            if (email == null || email.trim().isEmpty()) {
+                throw new UnauthorizedException("Email is missing");
+            }
 
-        return userRepository.findIdByEmail(email)
-                .orElseThrow(() -> new UnauthorizedException("User with the provided email not found"));
+            Long userId = userRepository.findIdByEmail(email)
+                    .orElseThrow(() -> new UnauthorizedException("User with the provided email not found"));
+            event.authorized = true;
+            return userId;
+        } finally {
+            event.commit();
+        }
     }
 
     public Long authorizeByHeader(String authHeader) {
-        if (authHeader == null || authHeader.trim().isEmpty()) {
-            throw new UnauthorizedException("Authorization header is missing");
-        }
+        AuthorizationEvent event = beginEvent("header");
         try {
+            if (authHeader == null || authHeader.trim().isEmpty()) {
+                throw new UnauthorizedException("Authorization header is missing");
+            }
             Long userId = parseUserId(authHeader);
             if (!userRepository.existsById(userId)) {
                 throw new UnauthorizedException("User with the provided ID not found");
             }
+            event.authorized = true;
             return userId;
         } catch (NumberFormatException e) {
             throw new UnauthorizedException("Invalid Authorization header");
+        } finally {
+            event.commit();
         }
     }
 
+    private static AuthorizationEvent beginEvent(String method) {
+        AuthorizationEvent event = new AuthorizationEvent();
+        event.method = method;
+        event.begin();
+        return event;
+    }
+
     private Long parseUserId(String authorizationHeader) {
         try {
             return Long.valueOf(authorizationHeader);
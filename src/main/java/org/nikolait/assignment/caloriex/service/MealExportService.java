@@ -0,0 +1,18 @@
+package org.nikolait.assignment.caloriex.service;
+
+import org.nikolait.assignment.caloriex.model.ExportFormatEnum;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the full meal history of a user while it is read from the database.
+ * <p>
+ * The response is committed with a 200 once the first buffer is written. An error after that closes the connection
+ * and the client gets a truncated export: a partial last line, or no end of the chunked body.
+ */
+public interface MealExportService {
+
+    void exportUserMeals(Long userId, ExportFormatEnum format, OutputStream outputStream) throws IOException;
+
+}
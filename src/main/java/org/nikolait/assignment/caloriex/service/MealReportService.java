@@ -1,6 +1,8 @@
 package org.nikolait.assignment.caloriex.service;
 
 import org.nikolait.assignment.caloriex.model.MealDailyReport;
+import org.nikolait.assignment.caloriex.model.MealDailySummaries;
+import org.nikolait.assignment.caloriex.model.NutritionAggregate;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -12,13 +14,27 @@ public interface MealReportService {
 
     MealDailyReport generateMealDailyReportForDay(Long userId, LocalDate day, ZoneId zoneId);
 
-    List<MealDailyReport> generateMealDailyReportsForPeriod(
+    MealDailySummaries generateMealDailySummariesForPeriod(
             Long userId,
             LocalDate startDay,
             LocalDate endDay,
             ZoneId zoneId
     );
 
-    List<MealDailyReport> generateAllTrackedMealDailyReports(Long userId, ZoneId zoneId);
+    MealDailySummaries generateAllTrackedMealDailySummaries(Long userId, ZoneId zoneId);
+
+    List<NutritionAggregate> generateWeeklyAggregates(
+            Long userId,
+            LocalDate startDay,
+            LocalDate endDay,
+            ZoneId zoneId
+    );
+
+    List<NutritionAggregate> generateMonthlyAggregates(
+            Long userId,
+            LocalDate startDay,
+            LocalDate endDay,
+            ZoneId zoneId
+    );
 
 }
@@ -0,0 +1,39 @@
+package org.nikolait.assignment.caloriex.service;
+
+import org.nikolait.assignment.caloriex.model.ReportFormatEnum;
+import org.nikolait.assignment.caloriex.model.ReportViewEnum;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Writes daily Meal reports as JSON or CBOR while they are read from the database, in the shape of
+ * a {@link ReportViewEnum}, mapped by {@code MealDailyReportMapper} or {@code NormalizedMealReportMapper}.
+ * <p>
+ * Every day is flushed once written, so the response is committed with a 200 after the first day. An error
+ * after that can no longer change the status: the connection is closed and the client gets a truncated document,
+ * which it must treat as a failed request as the document does not parse.
+ */
+public interface MealReportStreamingService {
+
+    void writeMealDailyReportsForPeriod(
+            Long userId,
+            LocalDate startDay,
+            LocalDate endDay,
+            ZoneId zoneId,
+            ReportFormatEnum format,
+            ReportViewEnum view,
+            OutputStream outputStream
+    ) throws IOException;
+
+    void writeAllTrackedMealDailyReports(
+            Long userId,
+            ZoneId zoneId,
+            ReportFormatEnum format,
+            ReportViewEnum view,
+            OutputStream outputStream
+    ) throws IOException;
+
+}
@@ -1,6 +1,7 @@
 package org.nikolait.assignment.caloriex.service;
 
 import org.nikolait.assignment.caloriex.model.Meal;
+import org.nikolait.assignment.caloriex.model.MealIngestionStatusEnum;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -12,6 +13,11 @@ public interface MealService {
 
     Meal getUserMeal(Long userId, Long id);
 
+    /**
+     * Tells whether a meal accepted by write-behind ingestion has been stored yet, or failed to be.
+     */
+    MealIngestionStatusEnum getUserMealStatus(Long userId, Long id);
+
     List<Meal> getAllUserMeals(Long userId);
 
     List<Meal> getUserMealsForDay(Long userId, LocalDate day, ZoneId zoneId);
@@ -0,0 +1,11 @@
+package org.nikolait.assignment.caloriex.service;
+
+import org.nikolait.assignment.caloriex.model.RollingNutritionReport;
+
+import java.time.ZoneId;
+
+public interface RollingNutritionService {
+
+    RollingNutritionReport generateRollingNutritionReport(Long userId, ZoneId zoneId);
+
+}
@@ -0,0 +1,9 @@
+package org.nikolait.assignment.caloriex.service;
+
+import org.nikolait.assignment.caloriex.model.SyncChanges;
+
+public interface SyncService {
+
+    SyncChanges getChangesSince(Long userId, long cursor);
+
+}
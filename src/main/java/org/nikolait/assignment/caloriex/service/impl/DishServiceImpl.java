@@ -6,11 +6,16 @@ import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.nikolait.assignment.caloriex.exception.EntityAlreadyExistsException;
 import org.nikolait.assignment.caloriex.model.Dish;
+import org.nikolait.assignment.caloriex.model.SyncEntityTypeEnum;
+import org.nikolait.assignment.caloriex.model.SyncOperationEnum;
 import org.nikolait.assignment.caloriex.model.User;
 import org.nikolait.assignment.caloriex.repository.DishRepository;
+import org.nikolait.assignment.caloriex.repository.SyncChangeRepository;
 import org.nikolait.assignment.caloriex.repository.UserRepository;
 import org.nikolait.assignment.caloriex.service.DishService;
 import org.nikolait.assignment.caloriex.ulti.CalorieCalculator;
+import org.nikolait.assignment.caloriex.ulti.ConstraintViolationUtil;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,8 +28,11 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 public class DishServiceImpl implements DishService {
 
+    private static final String UNIQUE_USER_DISH_NAME_CONSTRAINT = "unique_user_dish_name";
+
     private final DishRepository dishRepository;
     private final UserRepository userRepository;
+    private final SyncChangeRepository syncChangeRepository;
 
     @Override
     public Dish getUserDish(Long userId, Long id) {
@@ -42,18 +50,24 @@ public class DishServiceImpl implements DishService {
         }
         dish.setUser(getUserById(userId));
         dish.setName((StringUtils.normalizeSpace(dish.getName())));
-        if (dishRepository.existsByNameAndUserId(dish.getName(), userId)) {
-            throw new EntityAlreadyExistsException(
-                    "Dish with name %s already exists for current User".formatted(dish.getName())
-            );
-        }
         if (dish.getCalories() == null) {
             validateDishComposition(dish);
             int caloriesPerServing = CalorieCalculator.calculateDishCalories(dish);
             dish.setCalories(caloriesPerServing);
-            return dishRepository.save(dish);
         }
-        return dishRepository.save(dish);
+        Dish savedDish;
+        try {
+            savedDish = dishRepository.save(dish);
+        } catch (DataIntegrityViolationException ex) {
+            if (ConstraintViolationUtil.isViolationOf(ex, UNIQUE_USER_DISH_NAME_CONSTRAINT)) {
+                throw new EntityAlreadyExistsException(
+                        "Dish with name %s already exists for current User".formatted(dish.getName())
+                );
+            }
+            throw ex;
+        }
+        syncChangeRepository.append(userId, SyncEntityTypeEnum.DISH, List.of(savedDish.getId()), SyncOperationEnum.UPSERT);
+        return savedDish;
     }
 
     @Override
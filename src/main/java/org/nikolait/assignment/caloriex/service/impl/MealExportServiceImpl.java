@@ -0,0 +1,126 @@
+package org.nikolait.assignment.caloriex.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.mapper.MealMapper;
+import org.nikolait.assignment.caloriex.model.ExportFormatEnum;
+import org.nikolait.assignment.caloriex.model.MealDishRow;
+import org.nikolait.assignment.caloriex.repository.MealDishRowRepository;
+import org.nikolait.assignment.caloriex.service.MealExportService;
+import org.nikolait.assignment.caloriex.ulti.MealDishRows;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exports meals newest first, straight from {@link MealDishRowRepository}'s cursor.
+ * NDJSON has one meal per line as a {@code MealResponseDto} mapped by {@link MealMapper};
+ * CSV has one line per dish of a meal.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MealExportServiceImpl implements MealExportService {
+
+    private static final String CSV_HEADER = "meal_id,meal_name,meal_created_at,dish_id,dish_name,servings,calories,"
+            + "dish_calories,dish_protein,dish_fat,dish_carbohydrates";
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final MealDishRowRepository mealDishRowRepository;
+    private final ObjectMapper objectMapper;
+    private final MealMapper mealMapper;
+
+    @Override
+    public void exportUserMeals(Long userId, ExportFormatEnum format, OutputStream outputStream) throws IOException {
+        switch (format) {
+            case NDJSON -> exportNdjson(userId, outputStream);
+            case CSV -> exportCsv(userId, outputStream);
+        }
+    }
+
+    private void exportNdjson(Long userId, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            List<MealDishRow> mealRows = new ArrayList<>();
+            try {
+                mealDishRowRepository.forEachByUserId(userId, row -> {
+                    if (!mealRows.isEmpty() && mealRows.getFirst().mealId() != row.mealId()) {
+                        writeNdjsonLine(generator, mealRows);
+                        mealRows.clear();
+                    }
+                    mealRows.add(row);
+                });
+                if (!mealRows.isEmpty()) {
+                    writeNdjsonLine(generator, mealRows);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private void writeNdjsonLine(JsonGenerator generator, List<MealDishRow> mealRows) {
+        try {
+            generator.writeObject(mealMapper.toResponseDto(MealDishRows.toMeal(mealRows)));
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void exportCsv(Long userId, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        try {
+            mealDishRowRepository.forEachByUserId(userId, row -> writeCsvLine(writer, row));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, MealDishRow row) {
+        try {
+            writer.write(String.join(",",
+                    String.valueOf(row.mealId()),
+                    escapeCsv(row.mealName()),
+                    row.mealCreatedAt().toString(),
+                    String.valueOf(row.dishId()),
+                    escapeCsv(row.dishName()),
+                    String.valueOf(row.servings()),
+                    String.valueOf(MealDishRows.toMealDish(row).getCalories()),
+                    String.valueOf(row.dishCalories()),
+                    nullToEmpty(row.protein()),
+                    nullToEmpty(row.fat()),
+                    nullToEmpty(row.carbohydrates())
+            ));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Quotes a cell when needed, and prefixes a quote to text a spreadsheet would run as a formula.
+     */
+    private static String escapeCsv(String value) {
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String nullToEmpty(Double value) {
+        return value == null ? "" : value.toString();
+    }
+
+}
@@ -1,29 +1,42 @@
 package org.nikolait.assignment.caloriex.service.impl;
 
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.jfr.ReportGenerationEvent;
 import org.nikolait.assignment.caloriex.model.Meal;
 import org.nikolait.assignment.caloriex.model.MealDailyReport;
+import org.nikolait.assignment.caloriex.model.MealDailySummaries;
+import org.nikolait.assignment.caloriex.model.MealDish;
+import org.nikolait.assignment.caloriex.model.NutritionAggregate;
 import org.nikolait.assignment.caloriex.model.User;
+import org.nikolait.assignment.caloriex.repository.MealNutritionRepository;
 import org.nikolait.assignment.caloriex.repository.UserRepository;
 import org.nikolait.assignment.caloriex.service.MealReportService;
 import org.nikolait.assignment.caloriex.service.MealService;
+import org.nikolait.assignment.caloriex.stats.DailyNutritionBuckets;
+import org.nikolait.assignment.caloriex.ulti.CalorieCalculator;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.ZoneId;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class MealReportServiceImpl implements MealReportService {
 
+    private static final int MAX_AGGREGATE_DAYS = 3700;
+
     private final MealService mealService;
+    private final MealNutritionRepository mealNutritionRepository;
     private final UserRepository userRepository;
 
     @Override
@@ -34,59 +47,200 @@ public class MealReportServiceImpl implements MealReportService {
 
     @Override
     public MealDailyReport generateMealDailyReportForDay(Long userId, LocalDate day, ZoneId zoneId) {
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
         User user = getUserById(userId);
         List<Meal> dailyMeals = mealService.getUserMealsForDay(userId, day, zoneId);
         int totalCalories = dailyMeals.stream().mapToInt(Meal::getCalories).sum();
         int dailyCalorieTarget = user.getDailyCalorieTarget();
+        commitReportEvent(event, "day", userId, 1, dailyMeals);
         return new MealDailyReport(day, dailyMeals, dailyCalorieTarget, totalCalories);
     }
 
     @Override
-    public List<MealDailyReport> generateMealDailyReportsForPeriod(
+    public MealDailySummaries generateMealDailySummariesForPeriod(
             Long userId,
             LocalDate startDay,
             LocalDate endDay,
             ZoneId zoneId
     ) {
         User user = getUserById(userId);
-        int dailyCalorieTarget = user.getDailyCalorieTarget();
-        List<Meal> dailyMeals = mealService.getUserMealsBetween(userId, startDay, endDay, zoneId);
+        MealDailySummaries summaries = new MealDailySummaries(user.getDailyCalorieTarget());
+        mealNutritionRepository.forEachByUserIdAndCreatedAtBetween(
+                userId,
+                startDay.atStartOfDay(zoneId).toInstant(),
+                endDay.plusDays(1).atStartOfDay(zoneId).toInstant(),
+                meal -> summaries.add(meal.createdAt().atZone(zoneId).toLocalDate(), meal.calories())
+        );
+        summaries.fillDays(startDay, endDay);
+        summaries.reverse();
+        return summaries;
+    }
 
-        Map<LocalDate, List<Meal>> mealsByDate = dailyMeals.stream()
-                .collect(Collectors.groupingBy(meal ->
-                        meal.getCreatedAt().atZone(zoneId).toLocalDate()
-                ));
+    @Override
+    public MealDailySummaries generateAllTrackedMealDailySummaries(Long userId, ZoneId zoneId) {
+        User user = getUserById(userId);
+        MealDailySummaries summaries = new MealDailySummaries(user.getDailyCalorieTarget());
+        mealNutritionRepository.forEachByUserId(
+                userId,
+                meal -> summaries.add(meal.createdAt().atZone(zoneId).toLocalDate(), meal.calories())
+        );
+        summaries.reverse();
+        return summaries;
+    }
 
-        return startDay.datesUntil(endDay.plusDays(1))
-                .sorted(Comparator.reverseOrder())
-                .map(date -> {
-                    List<Meal> meals = mealsByDate.getOrDefault(date, Collections.emptyList());
-                    int totalCalories = meals.stream().mapToInt(Meal::getCalories).sum();
-                    return new MealDailyReport(date, meals, dailyCalorieTarget, totalCalories);
-                })
-                .toList();
+    @Override
+    public List<NutritionAggregate> generateWeeklyAggregates(
+            Long userId,
+            LocalDate startDay,
+            LocalDate endDay,
+            ZoneId zoneId
+    ) {
+        validateAggregatePeriod(startDay, endDay);
+        return generateAggregates(
+                userId,
+                startDay.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                endDay.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)),
+                zoneId,
+                weekStart -> weekStart.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY)),
+                weekStart -> "%d-W%02d".formatted(
+                        weekStart.get(IsoFields.WEEK_BASED_YEAR),
+                        weekStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR)
+                )
+        );
     }
 
     @Override
-    public List<MealDailyReport> generateAllTrackedMealDailyReports(Long userId, ZoneId zoneId) {
+    public List<NutritionAggregate> generateMonthlyAggregates(
+            Long userId,
+            LocalDate startDay,
+            LocalDate endDay,
+            ZoneId zoneId
+    ) {
+        validateAggregatePeriod(startDay, endDay);
+        return generateAggregates(
+                userId,
+                startDay.with(TemporalAdjusters.firstDayOfMonth()),
+                endDay.with(TemporalAdjusters.lastDayOfMonth()),
+                zoneId,
+                monthStart -> monthStart.with(TemporalAdjusters.lastDayOfMonth()),
+                monthStart -> YearMonth.from(monthStart).toString()
+        );
+    }
+
+    /**
+     * Rolls daily buckets up into consecutive periods covering the range, newest period first.
+     *
+     * @param periodEnd   the last day of the period starting on the given day.
+     * @param periodLabel the name of the period starting on the given day.
+     */
+    private List<NutritionAggregate> generateAggregates(
+            Long userId,
+            LocalDate startDay,
+            LocalDate endDay,
+            ZoneId zoneId,
+            UnaryOperator<LocalDate> periodEnd,
+            Function<LocalDate, String> periodLabel
+    ) {
         User user = getUserById(userId);
         int dailyCalorieTarget = user.getDailyCalorieTarget();
-        List<Meal> allMeals = mealService.getAllUserMeals(userId);
+        DailyNutritionBuckets buckets = loadDailyBuckets(userId, startDay, endDay, zoneId);
 
-        Map<LocalDate, List<Meal>> mealsByDate = allMeals.stream()
-                .collect(Collectors.groupingBy(meal ->
-                        meal.getCreatedAt().atZone(zoneId).toLocalDate()
-                ));
+        List<NutritionAggregate> aggregates = new ArrayList<>();
+        int day = 0;
+        while (day < buckets.size()) {
+            LocalDate periodStart = buckets.day(day);
+            LocalDate periodLast = periodEnd.apply(periodStart);
+            int periodDays = (int) (periodLast.toEpochDay() - periodStart.toEpochDay() + 1);
+
+            int trackedDays = 0;
+            int daysOverTarget = 0;
+            int totalCalories = 0;
+            double protein = 0;
+            double fat = 0;
+            double carbohydrates = 0;
+            for (int i = day; i < day + periodDays; i++) {
+                if (buckets.isTracked(i)) {
+                    trackedDays++;
+                }
+                if (buckets.calories(i) > dailyCalorieTarget) {
+                    daysOverTarget++;
+                }
+                totalCalories += buckets.calories(i);
+                protein += buckets.protein(i);
+                fat += buckets.fat(i);
+                carbohydrates += buckets.carbohydrates(i);
+            }
+
+            aggregates.add(NutritionAggregate.builder()
+                    .period(periodLabel.apply(periodStart))
+                    .startDate(periodStart)
+                    .endDate(periodLast)
+                    .trackedDays(trackedDays)
+                    .daysOverTarget(daysOverTarget)
+                    .dailyCalorieTarget(dailyCalorieTarget)
+                    .totalCalories(totalCalories)
+                    .protein(round(protein))
+                    .fat(round(fat))
+                    .carbohydrates(round(carbohydrates))
+                    .macroSplit(CalorieCalculator.calculateMacroSplit(protein, fat, carbohydrates))
+                    .build());
+            day += periodDays;
+        }
+        Collections.reverse(aggregates);
+        return aggregates;
+    }
+
+    private void validateAggregatePeriod(LocalDate startDay, LocalDate endDay) {
+        if (endDay.isBefore(startDay)) {
+            throw new ValidationException("endDay must not be before startDay");
+        }
+        if (endDay.toEpochDay() - startDay.toEpochDay() >= MAX_AGGREGATE_DAYS) {
+            throw new ValidationException("Period must not exceed %d days".formatted(MAX_AGGREGATE_DAYS));
+        }
+    }
+
+    private DailyNutritionBuckets loadDailyBuckets(Long userId, LocalDate startDay, LocalDate endDay, ZoneId zoneId) {
+        DailyNutritionBuckets buckets = new DailyNutritionBuckets(startDay, endDay, zoneId);
+        mealNutritionRepository.forEachByUserIdAndCreatedAtBetween(
+                userId,
+                startDay.atStartOfDay(zoneId).toInstant(),
+                endDay.plusDays(1).atStartOfDay(zoneId).toInstant(),
+                buckets::add
+        );
+        return buckets;
+    }
 
-        return mealsByDate.entrySet().stream()
-                .sorted(Map.Entry.<LocalDate, List<Meal>>comparingByKey().reversed())
-                .map(entry -> {
-                    LocalDate date = entry.getKey();
-                    List<Meal> meals = entry.getValue();
-                    int totalCalories = meals.stream().mapToInt(Meal::getCalories).sum();
-                    return new MealDailyReport(date, meals, dailyCalorieTarget, totalCalories);
-                })
+    /**
+     * Counts the loaded entities only when the event is recorded, so disabled events cost nothing more.
+     */
+    private static void commitReportEvent(
+            ReportGenerationEvent event,
+            String report,
+            Long userId,
+            long daysRequested,
+            List<Meal> meals
+    ) {
+        if (!event.shouldCommit()) {
+            return;
+        }
+        List<MealDish> mealDishes = meals.stream()
+                .flatMap(meal -> meal.getMealDishes().stream())
                 .toList();
+        long dishes = mealDishes.stream()
+                .map(mealDish -> mealDish.getDish().getId())
+                .distinct()
+                .count();
+        event.report = report;
+        event.userId = userId;
+        event.daysRequested = daysRequested;
+        event.mealsLoaded = meals.size();
+        event.entitiesHydrated = meals.size() + mealDishes.size() + (int) dishes;
+        event.commit();
+    }
+
+    private static double round(double grams) {
+        return Math.round(grams * 100) / 100.0;
     }
 
     private User getUserById(Long userId) {
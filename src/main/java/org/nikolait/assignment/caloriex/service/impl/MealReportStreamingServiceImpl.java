@@ -0,0 +1,332 @@
+package org.nikolait.assignment.caloriex.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.dto.DishResponseDto;
+import org.nikolait.assignment.caloriex.jfr.ReportGenerationEvent;
+import org.nikolait.assignment.caloriex.mapper.MealDailyReportMapper;
+import org.nikolait.assignment.caloriex.mapper.NormalizedMealReportMapper;
+import org.nikolait.assignment.caloriex.model.*;
+import org.nikolait.assignment.caloriex.repository.MealDishRowRepository;
+import org.nikolait.assignment.caloriex.repository.UserRepository;
+import org.nikolait.assignment.caloriex.service.MealReportStreamingService;
+import org.nikolait.assignment.caloriex.ulti.MealDishRows;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MealReportStreamingServiceImpl implements MealReportStreamingService {
+
+    private final MealDishRowRepository mealDishRowRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+    private final MealDailyReportMapper mealDailyReportMapper;
+    private final NormalizedMealReportMapper normalizedMealReportMapper;
+
+    @Override
+    public void writeMealDailyReportsForPeriod(
+            Long userId,
+            LocalDate startDay,
+            LocalDate endDay,
+            ZoneId zoneId,
+            ReportFormatEnum format,
+            ReportViewEnum view,
+            OutputStream outputStream
+    ) throws IOException {
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
+        User user = getUserById(userId);
+        try (JsonGenerator generator = createGenerator(format, outputStream)) {
+            ReportBody body = createBody(view, generator);
+            DailyReportWriter writer = new DailyReportWriter(
+                    body, generator, zoneId, user.getDailyCalorieTarget(), endDay);
+            body.start();
+            forEachRow(writer, consumer -> mealDishRowRepository.forEachByUserIdAndCreatedAtBetween(
+                    userId,
+                    startDay.atStartOfDay(zoneId).toInstant(),
+                    endDay.plusDays(1).atStartOfDay(zoneId).toInstant(),
+                    consumer
+            ));
+            writer.finish(startDay);
+            body.end();
+            commitReportEvent(event, "period", userId, writer);
+        }
+    }
+
+    @Override
+    public void writeAllTrackedMealDailyReports(
+            Long userId,
+            ZoneId zoneId,
+            ReportFormatEnum format,
+            ReportViewEnum view,
+            OutputStream outputStream
+    ) throws IOException {
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
+        User user = getUserById(userId);
+        try (JsonGenerator generator = createGenerator(format, outputStream)) {
+            ReportBody body = createBody(view, generator);
+            DailyReportWriter writer = new DailyReportWriter(
+                    body, generator, zoneId, user.getDailyCalorieTarget(), null);
+            body.start();
+            forEachRow(writer, consumer -> mealDishRowRepository.forEachByUserId(userId, consumer));
+            writer.finish(null);
+            body.end();
+            commitReportEvent(event, "all-tracked", userId, writer);
+        }
+    }
+
+    private JsonGenerator createGenerator(ReportFormatEnum format, OutputStream outputStream) throws IOException {
+        ObjectMapper mapper = switch (format) {
+            case JSON -> objectMapper;
+            case CBOR -> cborHttpMessageConverter.getObjectMapper();
+        };
+        return mapper.createGenerator(outputStream);
+    }
+
+    private ReportBody createBody(ReportViewEnum view, JsonGenerator generator) {
+        return switch (view) {
+            case FULL -> new FullReportBody(generator, mealDailyReportMapper);
+            case NORMALIZED -> new NormalizedReportBody(generator, normalizedMealReportMapper);
+        };
+    }
+
+    private void forEachRow(DailyReportWriter writer, RowSource source) throws IOException {
+        try {
+            source.forEach(row -> {
+                try {
+                    writer.accept(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void commitReportEvent(
+            ReportGenerationEvent event,
+            String report,
+            Long userId,
+            DailyReportWriter writer
+    ) {
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.report = report;
+        event.userId = userId;
+        event.daysRequested = writer.daysWritten;
+        event.mealsLoaded = writer.mealsWritten;
+        event.rowsStreamed = writer.rowsRead;
+        event.writeTime = writer.writeNanos;
+        event.commit();
+    }
+
+    private User getUserById(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException(
+                        "User with id %d not found".formatted(userId)
+                ));
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+
+        void forEach(Consumer<MealDishRow> consumer);
+
+    }
+
+    /**
+     * Writes the daily reports in the shape of a report view.
+     */
+    private interface ReportBody {
+
+        void start() throws IOException;
+
+        void writeDay(MealDailyReport mealDailyReport) throws IOException;
+
+        void end() throws IOException;
+
+    }
+
+    /**
+     * Writes an array of {@code MealDailyReportDto}.
+     */
+    private record FullReportBody(JsonGenerator generator, MealDailyReportMapper mapper) implements ReportBody {
+
+        @Override
+        public void start() throws IOException {
+            generator.writeStartArray();
+        }
+
+        @Override
+        public void writeDay(MealDailyReport mealDailyReport) throws IOException {
+            generator.writeObject(mapper.toResponseDto(mealDailyReport));
+        }
+
+        @Override
+        public void end() throws IOException {
+            generator.writeEndArray();
+        }
+
+    }
+
+    /**
+     * Writes a {@code NormalizedMealDailyReportsDto}: the days first, then the dishes they refer to.
+     * Only the dish dictionary is held in memory until the end.
+     */
+    private static class NormalizedReportBody implements ReportBody {
+
+        private final JsonGenerator generator;
+        private final NormalizedMealReportMapper mapper;
+        private final Map<Long, DishResponseDto> dishes = new LinkedHashMap<>();
+
+        private NormalizedReportBody(JsonGenerator generator, NormalizedMealReportMapper mapper) {
+            this.generator = generator;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void start() throws IOException {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("days");
+        }
+
+        @Override
+        public void writeDay(MealDailyReport mealDailyReport) throws IOException {
+            generator.writeObject(mapper.toDayDto(mealDailyReport));
+            mapper.collectDishes(mealDailyReport, dishes);
+        }
+
+        @Override
+        public void end() throws IOException {
+            generator.writeEndArray();
+            generator.writeObjectField("dishes", dishes);
+            generator.writeEndObject();
+        }
+
+    }
+
+    /**
+     * Turns rows ordered from the newest meal to the oldest into daily reports, newest day first.
+     * Only the rows of the current day are held in memory; meals inside a day are written oldest first.
+     */
+    private static class DailyReportWriter {
+
+        private final ReportBody body;
+        private final JsonGenerator generator;
+        private final ZoneId zoneId;
+        private final int dailyCalorieTarget;
+        private final List<MealDishRow> dayRows = new ArrayList<>();
+
+        private LocalDate currentDay;
+        /**
+         * The next day without meals to write when every day of a period is reported, otherwise null.
+         */
+        private LocalDate nextEmptyDay;
+
+        private long rowsRead;
+        private int mealsWritten;
+        private long daysWritten;
+        private long writeNanos;
+
+        private DailyReportWriter(
+                ReportBody body,
+                JsonGenerator generator,
+                ZoneId zoneId,
+                int dailyCalorieTarget,
+                LocalDate endDay
+        ) {
+            this.body = body;
+            this.generator = generator;
+            this.zoneId = zoneId;
+            this.dailyCalorieTarget = dailyCalorieTarget;
+            this.nextEmptyDay = endDay;
+        }
+
+        private void accept(MealDishRow row) throws IOException {
+            LocalDate day = row.mealCreatedAt().atZone(zoneId).toLocalDate();
+            if (!day.equals(currentDay)) {
+                writeCurrentDay();
+                writeEmptyDaysAfter(day);
+                currentDay = day;
+            }
+            dayRows.add(row);
+            rowsRead++;
+        }
+
+        /**
+         * Writes the last day read and, for a period, the empty days down to its first day.
+         */
+        private void finish(LocalDate startDay) throws IOException {
+            writeCurrentDay();
+            if (startDay != null) {
+                writeEmptyDaysAfter(startDay.minusDays(1));
+            }
+        }
+
+        private void writeEmptyDaysAfter(LocalDate day) throws IOException {
+            if (nextEmptyDay == null) {
+                return;
+            }
+            while (nextEmptyDay.isAfter(day)) {
+                writeDay(nextEmptyDay);
+                nextEmptyDay = nextEmptyDay.minusDays(1);
+            }
+            nextEmptyDay = day.minusDays(1);
+        }
+
+        private void writeCurrentDay() throws IOException {
+            if (currentDay == null) {
+                return;
+            }
+            writeDay(currentDay);
+            dayRows.clear();
+            currentDay = null;
+        }
+
+        private void writeDay(LocalDate day) throws IOException {
+            long start = System.nanoTime();
+            List<MealDishRow> rows = day.equals(currentDay) ? dayRows : List.of();
+
+            List<Integer> mealStarts = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                if (i == 0 || rows.get(i).mealId() != rows.get(i - 1).mealId()) {
+                    mealStarts.add(i);
+                }
+            }
+
+            List<Meal> meals = new ArrayList<>(mealStarts.size());
+            for (int meal = mealStarts.size() - 1; meal >= 0; meal--) {
+                int from = mealStarts.get(meal);
+                int to = meal + 1 < mealStarts.size() ? mealStarts.get(meal + 1) : rows.size();
+                meals.add(MealDishRows.toMeal(rows.subList(from, to)));
+            }
+            int totalCalories = meals.stream().mapToInt(Meal::getCalories).sum();
+            body.writeDay(new MealDailyReport(day, meals, dailyCalorieTarget, totalCalories));
+            generator.flush();
+            mealsWritten += meals.size();
+            daysWritten++;
+            writeNanos += System.nanoTime() - start;
+        }
+
+    }
+
+}
@@ -3,19 +3,30 @@ package org.nikolait.assignment.caloriex.service.impl;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.nikolait.assignment.caloriex.coalescing.RecentWrites;
 import org.nikolait.assignment.caloriex.exception.UnprocessableEntityException;
+import org.nikolait.assignment.caloriex.ingestion.MealIngestionQueue;
+import org.nikolait.assignment.caloriex.jfr.MealCreationEvent;
+import org.nikolait.assignment.caloriex.metrics.SqlStatementCounter;
 import org.nikolait.assignment.caloriex.model.*;
 import org.nikolait.assignment.caloriex.repository.DishRepository;
+import org.nikolait.assignment.caloriex.repository.MealJdbcRepository;
+import org.nikolait.assignment.caloriex.repository.MealOutboxRepository;
 import org.nikolait.assignment.caloriex.repository.MealRepository;
+import org.nikolait.assignment.caloriex.repository.SyncChangeRepository;
 import org.nikolait.assignment.caloriex.repository.UserRepository;
 import org.nikolait.assignment.caloriex.service.MealService;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static java.util.Objects.requireNonNull;
 
@@ -24,8 +35,14 @@ import static java.util.Objects.requireNonNull;
 public class MealServiceImpl implements MealService {
 
     private final MealRepository mealRepository;
+    private final MealOutboxRepository mealOutboxRepository;
+    private final SyncChangeRepository syncChangeRepository;
     private final DishRepository dishRepository;
     private final UserRepository userRepository;
+    private final MealIngestionQueue mealIngestionQueue;
+    private final MealJdbcRepository mealJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RecentWrites recentWrites;
 
     @Override
     public Meal getUserMeal(Long userId, Long id) {
@@ -54,8 +71,11 @@ public class MealServiceImpl implements MealService {
         return mealRepository.findByUserIdAndCreatedAtBetweenOrderByCreatedAt(userId, start, end);
     }
 
+    /**
+     * Creates the meal in one transaction, or resolves it in one and hands it to the write-behind queue
+     * once the transaction is over, so no transaction stays open while the journal is synced to disk.
+     */
     @Override
-    @Transactional
     public Meal createMeal(Long userId, Meal meal) {
         if (meal.getId() != null) {
             throw new IllegalArgumentException("Meal id must be null when creating");
@@ -64,16 +84,83 @@ public class MealServiceImpl implements MealService {
             throw new IllegalArgumentException("Meal must include at least one MealDish when creating");
         }
 
-        meal.setUser(getUserById(userId));
-        meal.setName(meal.getName() == null ? "" : StringUtils.normalizeSpace(meal.getName()));
+        MealCreationEvent event = new MealCreationEvent();
+        event.begin();
+        event.userId = userId;
+        event.dishCount = meal.getMealDishes().size();
+
+        if (mealIngestionQueue.isEnabled()) {
+            long statementsBefore = SqlStatementCounter.current();
+            event.queued = true;
+            Meal acceptedMeal;
+            try {
+                transactionTemplate.executeWithoutResult(status -> resolveMeal(userId, meal));
+                acceptedMeal = mealIngestionQueue.submit(meal);
+                event.committed = true;
+            } finally {
+                // a meal that was rejected or not journaled is reported like a rolled back transaction
+                event.statements = SqlStatementCounter.current() - statementsBefore;
+                event.commit();
+            }
+            recentWrites.record(userId);
+            return acceptedMeal;
+        }
+        Meal createdMeal = transactionTemplate.execute(status -> {
+            commitAfterCompletion(event, SqlStatementCounter.current());
+            resolveMeal(userId, meal);
+            Meal savedMeal = mealRepository.save(meal);
+            mealOutboxRepository.append(List.of(savedMeal));
+            syncChangeRepository.append(userId, SyncEntityTypeEnum.MEAL, List.of(savedMeal.getId()), SyncOperationEnum.UPSERT);
+            return savedMeal;
+        });
+        recentWrites.record(userId);
+        return createdMeal;
+    }
 
-        meal.getMealDishes().forEach(mealDish -> populateMealDish(meal, mealDish));
+    @Override
+    public MealIngestionStatusEnum getUserMealStatus(Long userId, Long id) {
+        if (mealIngestionQueue.isPending(userId, id)) {
+            return MealIngestionStatusEnum.PENDING;
+        }
+        if (mealRepository.existsByIdAndUserId(id, userId)) {
+            return MealIngestionStatusEnum.CREATED;
+        }
+        if (mealJdbcRepository.existsFailure(id, userId)) {
+            return MealIngestionStatusEnum.FAILED;
+        }
+        throw new EntityNotFoundException("Meal with id %d was not found for current User".formatted(id));
+    }
 
-        return mealRepository.save(meal);
+    /**
+     * Resolves the user and dishes of the meal. A dish listed twice is rejected on both paths,
+     * as its meal_dishes primary key would fail the synchronous insert anyway.
+     */
+    private void resolveMeal(Long userId, Meal meal) {
+        meal.setUser(getUserById(userId));
+        meal.setName(meal.getName() == null ? "" : StringUtils.normalizeSpace(meal.getName()));
+        Set<Long> dishIds = new HashSet<>();
+        meal.getMealDishes().forEach(mealDish -> populateMealDish(meal, mealDish, dishIds));
+    }
 
+    /**
+     * Commits the event once the transaction completes, so it covers the flush of the meal dishes
+     * and counts its statements.
+     */
+    private static void commitAfterCompletion(MealCreationEvent event, long statementsBefore) {
+        if (!event.isEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                event.statements = SqlStatementCounter.current() - statementsBefore;
+                event.committed = status == STATUS_COMMITTED;
+                event.commit();
+            }
+        });
     }
 
-    private void populateMealDish(Meal meal, MealDish mealDish) {
+    private void populateMealDish(Meal meal, MealDish mealDish, Set<Long> dishIds) {
         mealDish.setId(new MealDishId());
         mealDish.setMeal(meal);
 
@@ -84,6 +171,11 @@ public class MealServiceImpl implements MealService {
         if (mealDish.getServings() <= 0) {
             throw new IllegalArgumentException("Servings must be greater than zero while creating a Meal");
         }
+        if (!dishIds.add(mealDish.getDish().getId())) {
+            throw new UnprocessableEntityException(
+                    "Dish with id %d is listed more than once".formatted(mealDish.getDish().getId())
+            );
+        }
 
         mealDish.setDish(getDishById(mealDish.getDish().getId()));
     }
@@ -0,0 +1,147 @@
+package org.nikolait.assignment.caloriex.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.config.RollingNutritionProperties;
+import org.nikolait.assignment.caloriex.model.MealNutrition;
+import org.nikolait.assignment.caloriex.model.RollingNutritionReport;
+import org.nikolait.assignment.caloriex.model.User;
+import org.nikolait.assignment.caloriex.outbox.MealCreatedConsumer;
+import org.nikolait.assignment.caloriex.outbox.MealCreatedEvent;
+import org.nikolait.assignment.caloriex.repository.MealNutritionRepository;
+import org.nikolait.assignment.caloriex.repository.UserRepository;
+import org.nikolait.assignment.caloriex.service.RollingNutritionService;
+import org.nikolait.assignment.caloriex.stats.RollingNutritionWindow;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.nikolait.assignment.caloriex.stats.RollingNutritionWindow.*;
+
+/**
+ * Keeps a {@link RollingNutritionWindow} per user and time zone in memory.
+ * <p>
+ * A window is built from the database on the first read and then kept up to date from MealCreated events,
+ * so later reads neither query meals nor scan days. Events that arrive before a window is built are skipped:
+ * the meal is already committed and the build picks it up.
+ */
+@Service
+@RequiredArgsConstructor
+public class RollingNutritionServiceImpl implements RollingNutritionService, MealCreatedConsumer {
+
+    private final RollingNutritionProperties properties;
+    private final MealNutritionRepository mealNutritionRepository;
+    private final UserRepository userRepository;
+
+    private final Map<Long, UserWindows> windowsByUser = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    @Override
+    public RollingNutritionReport generateRollingNutritionReport(Long userId, ZoneId zoneId) {
+        UserWindows userWindows = windowsByUser.computeIfAbsent(userId, id -> new UserWindows());
+        userWindows.lastAccess = System.nanoTime();
+        evictIfOverCapacity();
+
+        LocalDate today = LocalDate.now(zoneId);
+        ZoneWindow zoneWindow = userWindows.byZone.computeIfAbsent(zoneId, zone -> new ZoneWindow());
+        synchronized (zoneWindow) {
+            if (zoneWindow.window == null) {
+                zoneWindow.window = buildWindow(userId, today, zoneId);
+            }
+            RollingNutritionWindow window = zoneWindow.window;
+            window.advanceTo(today.toEpochDay());
+            return new RollingNutritionReport(today, window.average(WEEK), window.average(MONTH));
+        }
+    }
+
+    @Override
+    public void onMealsCreated(List<MealCreatedEvent> events) {
+        for (MealCreatedEvent event : events) {
+            UserWindows userWindows = windowsByUser.get(event.userId());
+            if (userWindows == null) {
+                continue;
+            }
+            userWindows.byZone.forEach((zoneId, zoneWindow) -> {
+                synchronized (zoneWindow) {
+                    if (zoneWindow.window != null) {
+                        zoneWindow.window.add(
+                                event.mealCreatedAt().atZone(zoneId).toLocalDate().toEpochDay(),
+                                event.mealId(),
+                                event.calories(),
+                                event.protein(),
+                                event.fat(),
+                                event.carbohydrates()
+                        );
+                    }
+                }
+            });
+        }
+    }
+
+    private RollingNutritionWindow buildWindow(Long userId, LocalDate today, ZoneId zoneId) {
+        User user = getUserById(userId);
+        Instant start = today.minusDays(CAPACITY - 1).atStartOfDay(zoneId).toInstant();
+        Instant end = today.plusDays(1).atStartOfDay(zoneId).toInstant();
+
+        RollingNutritionWindow window = new RollingNutritionWindow(today.toEpochDay(), user.getDailyCalorieTarget());
+        for (MealNutrition meal : mealNutritionRepository.findByUserIdAndCreatedAtBetween(userId, start, end)) {
+            window.add(
+                    meal.createdAt().atZone(zoneId).toLocalDate().toEpochDay(),
+                    meal.mealId(),
+                    meal.calories(),
+                    meal.protein(),
+                    meal.fat(),
+                    meal.carbohydrates()
+            );
+        }
+        return window;
+    }
+
+    /**
+     * Drops the least recently read tenth of the users once the cache is over capacity.
+     */
+    private void evictIfOverCapacity() {
+        int maxCachedUsers = properties.maxCachedUsers();
+        if (windowsByUser.size() <= maxCachedUsers || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int toEvict = windowsByUser.size() - maxCachedUsers + maxCachedUsers / 10;
+            windowsByUser.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .limit(toEvict)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(windowsByUser::remove);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private User getUserById(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException(
+                        "User with id %d not found".formatted(userId)
+                ));
+    }
+
+    private static class UserWindows {
+
+        private final Map<ZoneId, ZoneWindow> byZone = new ConcurrentHashMap<>();
+        private volatile long lastAccess;
+
+    }
+
+    private static class ZoneWindow {
+
+        private RollingNutritionWindow window;
+
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.nikolait.assignment.caloriex.service.impl;
+
+import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.nikolait.assignment.caloriex.config.SyncProperties;
+import org.nikolait.assignment.caloriex.model.*;
+import org.nikolait.assignment.caloriex.repository.DishRepository;
+import org.nikolait.assignment.caloriex.repository.MealRepository;
+import org.nikolait.assignment.caloriex.repository.SyncChangeRepository;
+import org.nikolait.assignment.caloriex.service.SyncService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SyncServiceImpl implements SyncService {
+
+    private final SyncChangeRepository syncChangeRepository;
+    private final MealRepository mealRepository;
+    private final DishRepository dishRepository;
+    private final SyncProperties syncProperties;
+
+    @Override
+    public SyncChanges getChangesSince(Long userId, long cursor) {
+        if (cursor < 0) {
+            throw new ValidationException("Sync cursor must not be negative");
+        }
+        int pageSize = syncProperties.pageSize();
+        List<SyncChange> changes = syncChangeRepository.findByUserIdAfter(userId, cursor, pageSize + 1);
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = changes.subList(0, pageSize);
+        }
+
+        // An entity changed more than once in the page is loaded once
+        Set<Long> mealIds = new LinkedHashSet<>();
+        Set<Long> dishIds = new LinkedHashSet<>();
+        for (SyncChange change : changes) {
+            (change.entityType() == SyncEntityTypeEnum.MEAL ? mealIds : dishIds).add(change.entityId());
+        }
+
+        List<Meal> meals = findChanged(mealIds, ids -> mealRepository.findAllByUserIdAndIdIn(userId, ids));
+        List<Dish> dishes = findChanged(dishIds, ids -> dishRepository.findAllByUserIdAndIdIn(userId, ids));
+
+        return new SyncChanges(
+                changes.isEmpty() ? cursor : changes.getLast().sequence(),
+                hasMore,
+                meals,
+                dishes,
+                findDeleted(mealIds, meals.stream().map(Meal::getId).toList()),
+                findDeleted(dishIds, dishes.stream().map(Dish::getId).toList())
+        );
+    }
+
+    private static <T> List<T> findChanged(Set<Long> ids, Function<List<Long>, List<T>> loader) {
+        return ids.isEmpty() ? List.of() : loader.apply(List.copyOf(ids));
+    }
+
+    /**
+     * Changed entities that are gone by now, so clients drop them. Nothing deletes meals or dishes
+     * through the API, so the change log holds no tombstones; this covers rows removed in the database.
+     */
+    private static List<Long> findDeleted(Set<Long> ids, List<Long> foundIds) {
+        Set<Long> found = new HashSet<>(foundIds);
+        return ids.stream()
+                .filter(id -> !found.contains(id))
+                .toList();
+    }
+
+}
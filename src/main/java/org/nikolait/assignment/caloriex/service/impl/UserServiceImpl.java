@@ -13,6 +13,8 @@ import org.nikolait.assignment.caloriex.repository.GoalRepository;
 import org.nikolait.assignment.caloriex.repository.UserRepository;
 import org.nikolait.assignment.caloriex.service.UserService;
 import org.nikolait.assignment.caloriex.ulti.CalorieCalculator;
+import org.nikolait.assignment.caloriex.ulti.ConstraintViolationUtil;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +24,8 @@ import static java.util.Objects.requireNonNull;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final String UNIQUE_USER_EMAIL_CONSTRAINT = "users_email_key";
+
     private final UserRepository userRepository;
     private final ActivityLevelRepository activityLevelRepository;
     private final GoalRepository goalRepository;
@@ -38,10 +42,6 @@ public class UserServiceImpl implements UserService {
         requireNonNull(user.getGoal(), "User goal is required when creating");
         requireNonNull(user.getGoal().getId(), "User goal id is required when creating");
 
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new EntityAlreadyExistsException("User with email %s already exists.".formatted(user.getEmail()));
-        }
-
         user.setName(StringUtils.normalizeSpace(user.getName()));
 
         user.setActivityLevel(getActivityLevelById(user.getActivityLevel().getId()));
@@ -50,7 +50,14 @@ public class UserServiceImpl implements UserService {
         int dailyCalorieTarget = CalorieCalculator.calculateDailyCalorieTarget(user);
         user.setDailyCalorieTarget(dailyCalorieTarget);
 
-        return userRepository.save(user);
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException ex) {
+            if (ConstraintViolationUtil.isViolationOf(ex, UNIQUE_USER_EMAIL_CONSTRAINT)) {
+                throw new EntityAlreadyExistsException("User with email %s already exists.".formatted(user.getEmail()));
+            }
+            throw ex;
+        }
     }
 
     @Override
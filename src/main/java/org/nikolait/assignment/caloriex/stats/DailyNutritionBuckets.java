@@ -0,0 +1,80 @@
+package org.nikolait.assignment.caloriex.stats;
+
+import org.nikolait.assignment.caloriex.model.MealNutrition;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Daily nutrition totals of one user for a fixed range of days in the user's zone, held in primitive arrays.
+ * Day {@code i} of the buckets is {@code startDay + i}.
+ */
+public class DailyNutritionBuckets {
+
+    private final LocalDate startDay;
+    private final long startEpochDay;
+    private final ZoneId zoneId;
+
+    private final int[] calories;
+    private final double[] protein;
+    private final double[] fat;
+    private final double[] carbohydrates;
+    private final int[] mealCounts;
+
+    public DailyNutritionBuckets(LocalDate startDay, LocalDate endDay, ZoneId zoneId) {
+        this.startDay = startDay;
+        this.startEpochDay = startDay.toEpochDay();
+        this.zoneId = zoneId;
+        int days = Math.toIntExact(endDay.toEpochDay() - startEpochDay + 1);
+        this.calories = new int[days];
+        this.protein = new double[days];
+        this.fat = new double[days];
+        this.carbohydrates = new double[days];
+        this.mealCounts = new int[days];
+    }
+
+    /**
+     * Adds the meal to the day it was eaten on; meals outside the range are ignored.
+     */
+    public void add(MealNutrition meal) {
+        long day = meal.createdAt().atZone(zoneId).toLocalDate().toEpochDay() - startEpochDay;
+        if (day < 0 || day >= calories.length) {
+            return;
+        }
+        int i = (int) day;
+        calories[i] += meal.calories();
+        protein[i] += meal.protein();
+        fat[i] += meal.fat();
+        carbohydrates[i] += meal.carbohydrates();
+        mealCounts[i]++;
+    }
+
+    public int size() {
+        return calories.length;
+    }
+
+    public LocalDate day(int i) {
+        return startDay.plusDays(i);
+    }
+
+    public int calories(int i) {
+        return calories[i];
+    }
+
+    public double protein(int i) {
+        return protein[i];
+    }
+
+    public double fat(int i) {
+        return fat[i];
+    }
+
+    public double carbohydrates(int i) {
+        return carbohydrates[i];
+    }
+
+    public boolean isTracked(int i) {
+        return mealCounts[i] > 0;
+    }
+
+}
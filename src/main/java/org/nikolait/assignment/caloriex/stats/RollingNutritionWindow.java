@@ -0,0 +1,179 @@
+package org.nikolait.assignment.caloriex.stats;
+
+import org.nikolait.assignment.caloriex.model.NutritionAverage;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer of daily nutrition totals for the last {@link #CAPACITY} days of one user in one time zone.
+ * <p>
+ * Days are epoch days in the user's zone. Running sums are kept for every window length,
+ * so averages are read in constant time and only days entering or leaving a window touch the sums.
+ * Meal ids are remembered per day, so a meal that is already counted is never added twice.
+ * Not thread-safe: callers synchronize on the window.
+ */
+public class RollingNutritionWindow {
+
+    public static final int WEEK = 7;
+    public static final int MONTH = 30;
+    public static final int CAPACITY = MONTH;
+
+    private static final int[] WINDOW_LENGTHS = {WEEK, MONTH};
+    private static final int INITIAL_MEALS_PER_DAY = 4;
+
+    private final int[] calories = new int[CAPACITY];
+    private final double[] protein = new double[CAPACITY];
+    private final double[] fat = new double[CAPACITY];
+    private final double[] carbohydrates = new double[CAPACITY];
+    private final long[][] mealIds = new long[CAPACITY][];
+    private final int[] mealCounts = new int[CAPACITY];
+
+    private final long[] calorieSums = new long[WINDOW_LENGTHS.length];
+    private final double[] proteinSums = new double[WINDOW_LENGTHS.length];
+    private final double[] fatSums = new double[WINDOW_LENGTHS.length];
+    private final double[] carbohydrateSums = new double[WINDOW_LENGTHS.length];
+
+    private final int dailyCalorieTarget;
+    private long lastDay;
+
+    /**
+     * @param lastDay the newest day of the window, usually today in the user's zone.
+     */
+    public RollingNutritionWindow(long lastDay, int dailyCalorieTarget) {
+        this.lastDay = lastDay;
+        this.dailyCalorieTarget = dailyCalorieTarget;
+    }
+
+    public long lastDay() {
+        return lastDay;
+    }
+
+    /**
+     * Adds a meal eaten on the given day, moving the window forward if the day is newer than the window.
+     *
+     * @return false if the meal is older than the window or already counted.
+     */
+    public boolean add(long day, long mealId, int mealCalories, double mealProtein, double mealFat,
+                       double mealCarbohydrates) {
+        advanceTo(day);
+        if (day <= lastDay - CAPACITY) {
+            return false;
+        }
+        int slot = slot(day);
+        if (!rememberMeal(slot, mealId)) {
+            return false;
+        }
+        calories[slot] += mealCalories;
+        protein[slot] += mealProtein;
+        fat[slot] += mealFat;
+        carbohydrates[slot] += mealCarbohydrates;
+        for (int w = 0; w < WINDOW_LENGTHS.length; w++) {
+            if (day > lastDay - WINDOW_LENGTHS[w]) {
+                calorieSums[w] += mealCalories;
+                proteinSums[w] += mealProtein;
+                fatSums[w] += mealFat;
+                carbohydrateSums[w] += mealCarbohydrates;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves the newest day of the window forward, dropping days that leave each window from its sums.
+     * Days older than the current newest day are ignored.
+     */
+    public void advanceTo(long day) {
+        if (day <= lastDay) {
+            return;
+        }
+        if (day - lastDay >= CAPACITY) {
+            clear();
+            lastDay = day;
+            return;
+        }
+        while (lastDay < day) {
+            long next = lastDay + 1;
+            for (int w = 0; w < WINDOW_LENGTHS.length; w++) {
+                int leaving = slot(next - WINDOW_LENGTHS[w]);
+                calorieSums[w] -= calories[leaving];
+                proteinSums[w] -= protein[leaving];
+                fatSums[w] -= fat[leaving];
+                carbohydrateSums[w] -= carbohydrates[leaving];
+            }
+            clearSlot(slot(next));
+            lastDay = next;
+        }
+    }
+
+    /**
+     * Average daily nutrition over the last {@code days} days of the window, today included.
+     *
+     * @param days {@link #WEEK} or {@link #MONTH}.
+     */
+    public NutritionAverage average(int days) {
+        int w = windowIndex(days);
+        return new NutritionAverage(
+                days,
+                round((double) calorieSums[w] / days),
+                round(proteinSums[w] / days),
+                round(fatSums[w] / days),
+                round(carbohydrateSums[w] / days),
+                dailyCalorieTarget
+        );
+    }
+
+    private static double round(double value) {
+        return Math.max(0, Math.round(value * 100) / 100.0);
+    }
+
+    private boolean rememberMeal(int slot, long mealId) {
+        long[] ids = mealIds[slot];
+        int count = mealCounts[slot];
+        if (ids == null) {
+            ids = mealIds[slot] = new long[INITIAL_MEALS_PER_DAY];
+        }
+        for (int i = 0; i < count; i++) {
+            if (ids[i] == mealId) {
+                return false;
+            }
+        }
+        if (count == ids.length) {
+            ids = mealIds[slot] = Arrays.copyOf(ids, count * 2);
+        }
+        ids[count] = mealId;
+        mealCounts[slot] = count + 1;
+        return true;
+    }
+
+    private void clear() {
+        for (int slot = 0; slot < CAPACITY; slot++) {
+            clearSlot(slot);
+        }
+        Arrays.fill(calorieSums, 0);
+        Arrays.fill(proteinSums, 0);
+        Arrays.fill(fatSums, 0);
+        Arrays.fill(carbohydrateSums, 0);
+    }
+
+    private void clearSlot(int slot) {
+        calories[slot] = 0;
+        protein[slot] = 0;
+        fat[slot] = 0;
+        carbohydrates[slot] = 0;
+        mealCounts[slot] = 0;
+    }
+
+    private static int slot(long day) {
+        return (int) Math.floorMod(day, CAPACITY);
+    }
+
+    private static int windowIndex(int days) {
+        for (int w = 0; w < WINDOW_LENGTHS.length; w++) {
+            if (WINDOW_LENGTHS[w] == days) {
+                return w;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported window of %d days".formatted(days));
+    }
+
+}
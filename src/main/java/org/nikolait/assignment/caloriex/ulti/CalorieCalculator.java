@@ -2,6 +2,7 @@ package org.nikolait.assignment.caloriex.ulti;
 
 import lombok.experimental.UtilityClass;
 import org.nikolait.assignment.caloriex.model.Dish;
+import org.nikolait.assignment.caloriex.model.MacroSplit;
 import org.nikolait.assignment.caloriex.model.User;
 
 @UtilityClass
@@ -58,4 +59,27 @@ public class CalorieCalculator {
         return (int) Math.round(bmr * user.getActivityLevel().getMultiplier() * user.getGoal().getMultiplier());
     }
 
+    /**
+     * Calculates the share of energy coming from each macronutrient.
+     *
+     * @param protein       grams of protein.
+     * @param fat           grams of fat.
+     * @param carbohydrates grams of carbohydrates.
+     * @return percentages of macronutrient energy, all zero if there is none.
+     */
+    public static MacroSplit calculateMacroSplit(double protein, double fat, double carbohydrates) {
+        double proteinCalories = protein * PROTEIN_CALORIE_COEFFICIENT;
+        double fatCalories = fat * FAT_CALORIE_COEFFICIENT;
+        double carbohydrateCalories = carbohydrates * CARBOHYDRATE_CALORIE_COEFFICIENT;
+        double total = proteinCalories + fatCalories + carbohydrateCalories;
+        if (total <= 0) {
+            return new MacroSplit(0, 0, 0);
+        }
+        return new MacroSplit(
+                Math.round(proteinCalories / total * 1000) / 10.0,
+                Math.round(fatCalories / total * 1000) / 10.0,
+                Math.round(carbohydrateCalories / total * 1000) / 10.0
+        );
+    }
+
 }
@@ -0,0 +1,45 @@
+package org.nikolait.assignment.caloriex.ulti;
+
+import lombok.experimental.UtilityClass;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+@UtilityClass
+public class ConstraintViolationUtil {
+
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    /**
+     * Checks whether the given exception was caused by a violation of the named database constraint.
+     *
+     * @param ex             the translated exception thrown by a repository call.
+     * @param constraintName the name of the constraint as declared in the database schema.
+     * @return true if the root constraint violation refers to the given constraint.
+     */
+    public boolean isViolationOf(DataIntegrityViolationException ex, String constraintName) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return constraintName.equalsIgnoreCase(violation.getConstraintName());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the given exception was caused by a duplicate key, i.e. a violation of a unique constraint.
+     *
+     * @param ex the translated exception thrown by a repository call.
+     * @return true if the root SQL error has the unique violation SQLState 23505.
+     */
+    public boolean isUniqueViolation(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                return UNIQUE_VIOLATION_SQL_STATE.equals(sqlException.getSQLState());
+            }
+        }
+        return false;
+    }
+
+}
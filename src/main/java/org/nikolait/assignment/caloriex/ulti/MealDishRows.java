@@ -0,0 +1,50 @@
+package org.nikolait.assignment.caloriex.ulti;
+
+import lombok.experimental.UtilityClass;
+import org.nikolait.assignment.caloriex.model.*;
+
+import java.util.List;
+
+/**
+ * Rebuilds detached models from {@link MealDishRow}s, so that streamed responses are mapped and serialized
+ * by the same mappers and Jackson configuration as the responses built from entities.
+ */
+@UtilityClass
+public class MealDishRows {
+
+    /**
+     * @param mealRows all rows of one meal.
+     */
+    public Meal toMeal(List<MealDishRow> mealRows) {
+        MealDishRow first = mealRows.getFirst();
+        Meal meal = Meal.builder()
+                .id(first.mealId())
+                .name(first.mealName())
+                .createdAt(first.mealCreatedAt())
+                .build();
+        for (MealDishRow row : mealRows) {
+            MealDish mealDish = toMealDish(row);
+            mealDish.setMeal(meal);
+            meal.getMealDishes().add(mealDish);
+        }
+        return meal;
+    }
+
+    public MealDish toMealDish(MealDishRow row) {
+        Dish dish = Dish.builder()
+                .id(row.dishId())
+                .name(row.dishName())
+                .protein(row.protein())
+                .fat(row.fat())
+                .carbohydrates(row.carbohydrates())
+                .calories(row.dishCalories())
+                .createdAt(row.dishCreatedAt())
+                .build();
+        return MealDish.builder()
+                .id(new MealDishId(row.mealId(), row.dishId()))
+                .dish(dish)
+                .servings(row.servings())
+                .build();
+    }
+
+}
@@ -0,0 +1,17 @@
+-- Idempotency keys shared between application nodes
+CREATE TABLE idempotency_keys
+(
+    key        CHAR(64) PRIMARY KEY,
+    status     SMALLINT,
+    location   VARCHAR(2048),
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+COMMENT
+ON TABLE idempotency_keys IS 'Outcomes of creation requests remembered by Idempotency-Key';
+COMMENT
+ON COLUMN idempotency_keys.key IS 'SHA-256 of method, path, Authorization header and Idempotency-Key';
+COMMENT
+ON COLUMN idempotency_keys.status IS 'HTTP status of the original response, NULL while in progress';
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
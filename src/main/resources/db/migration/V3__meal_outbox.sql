@@ -0,0 +1,12 @@
+-- Transactional outbox of meal writes
+CREATE TABLE meal_outbox
+(
+    id              BIGSERIAL PRIMARY KEY,
+    meal_id         BIGINT      NOT NULL,
+    user_id         BIGINT      NOT NULL,
+    meal_created_at TIMESTAMPTZ NOT NULL,
+    recorded_at     TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT
+ON TABLE meal_outbox IS 'MealCreated events written in the meal transaction and deleted once dispatched';
@@ -0,0 +1,25 @@
+-- Per-user change log read by delta sync
+CREATE TABLE sync_sequences
+(
+    user_id       BIGINT PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    last_sequence BIGINT NOT NULL
+);
+
+COMMENT
+ON TABLE sync_sequences IS 'Last change sequence handed out per User';
+
+CREATE TABLE sync_changes
+(
+    user_id     BIGINT      NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    sequence    BIGINT      NOT NULL,
+    entity_type VARCHAR(15) NOT NULL CHECK (entity_type IN ('MEAL', 'DISH')),
+    entity_id   BIGINT      NOT NULL,
+    operation   VARCHAR(15) NOT NULL CHECK (operation IN ('UPSERT', 'DELETE')),
+    changed_at  TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, sequence)
+);
+
+COMMENT
+ON TABLE sync_changes IS 'Meals and dishes created, changed or deleted, ordered per User by sequence';
+COMMENT
+ON COLUMN sync_changes.operation IS 'DELETE rows are tombstones telling clients to drop the entity';
@@ -0,0 +1,11 @@
+-- Write-behind meals that could not be stored
+CREATE TABLE meal_ingestion_failures
+(
+    meal_id   BIGINT PRIMARY KEY,
+    user_id   BIGINT      NOT NULL,
+    reason    TEXT        NOT NULL,
+    failed_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT
+ON TABLE meal_ingestion_failures IS 'Dead letters of meals accepted with 202 that broke a constraint when written';
@@ -0,0 +1,6 @@
+-- Fingerprint of the request that first used an idempotency key
+ALTER TABLE idempotency_keys
+    ADD COLUMN fingerprint CHAR(64);
+
+COMMENT
+ON COLUMN idempotency_keys.fingerprint IS 'SHA-256 of method, path and body, NULL for keys stored before it was recorded';
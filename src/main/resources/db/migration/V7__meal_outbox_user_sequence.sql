@@ -0,0 +1,31 @@
+-- Per-user order of MealCreated events
+CREATE TABLE meal_outbox_sequences
+(
+    user_id       BIGINT PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    last_sequence BIGINT NOT NULL
+);
+
+COMMENT
+ON TABLE meal_outbox_sequences IS 'Last MealCreated event sequence handed out per User';
+
+ALTER TABLE meal_outbox
+    ADD COLUMN sequence BIGINT;
+
+UPDATE meal_outbox o
+SET sequence = numbered.sequence
+FROM (SELECT id, ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY id) AS sequence
+      FROM meal_outbox) numbered
+WHERE o.id = numbered.id;
+
+INSERT INTO meal_outbox_sequences (user_id, last_sequence)
+SELECT o.user_id, MAX(o.sequence)
+FROM meal_outbox o
+         JOIN users u ON u.id = o.user_id
+GROUP BY o.user_id;
+
+ALTER TABLE meal_outbox
+    ALTER COLUMN sequence SET NOT NULL,
+    ADD UNIQUE (user_id, sequence);
+
+COMMENT
+ON COLUMN meal_outbox.sequence IS 'Position among the events of the User, taken in commit order of the meal transactions';
@@ -0,0 +1,44 @@
+-- Log meals and dishes created before delta sync, so a first sync returns a User's whole history.
+-- They are appended after the changes already logged, so clients holding a cursor receive them too.
+WITH unlogged AS (SELECT d.user_id, 'DISH' AS entity_type, d.id AS entity_id, d.created_at
+                  FROM dishes d
+                  WHERE NOT EXISTS (SELECT 1
+                                    FROM sync_changes c
+                                    WHERE c.user_id = d.user_id
+                                      AND c.entity_type = 'DISH'
+                                      AND c.entity_id = d.id)
+                  UNION ALL
+                  SELECT m.user_id, 'MEAL', m.id, m.created_at
+                  FROM meals m
+                  WHERE NOT EXISTS (SELECT 1
+                                    FROM sync_changes c
+                                    WHERE c.user_id = m.user_id
+                                      AND c.entity_type = 'MEAL'
+                                      AND c.entity_id = m.id))
+INSERT
+INTO sync_changes (user_id, sequence, entity_type, entity_id, operation, changed_at)
+SELECT u.user_id,
+       COALESCE(s.last_sequence, 0)
+           + ROW_NUMBER() OVER (PARTITION BY u.user_id ORDER BY u.created_at, u.entity_type, u.entity_id),
+       u.entity_type,
+       u.entity_id,
+       'UPSERT',
+       u.created_at
+FROM unlogged u
+         LEFT JOIN sync_sequences s ON s.user_id = u.user_id;
+
+INSERT INTO sync_sequences (user_id, last_sequence)
+SELECT user_id, MAX(sequence)
+FROM sync_changes
+GROUP BY user_id
+ON CONFLICT (user_id) DO UPDATE SET last_sequence = EXCLUDED.last_sequence;
+
+-- Nothing deletes meals or dishes, so no change is a tombstone
+ALTER TABLE sync_changes
+    DROP CONSTRAINT sync_changes_operation_check,
+    ADD CONSTRAINT sync_changes_operation_check CHECK (operation = 'UPSERT');
+
+COMMENT
+ON TABLE sync_changes IS 'Meals and dishes created or changed, ordered per User by sequence';
+COMMENT
+ON COLUMN sync_changes.operation IS 'Always UPSERT: clients fetch the current entity';
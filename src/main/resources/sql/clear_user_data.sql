@@ -1,5 +1,7 @@
 -- Clean test data with dependencies
 TRUNCATE TABLE
+    meal_outbox,
+    meal_outbox_sequences,
     meal_dishes,
     meals,
     dishes,
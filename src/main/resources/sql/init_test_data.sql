@@ -127,4 +127,23 @@ VALUES
     -- Day 3 (today)
     (321, 206, 1.00),
     (322, 207, 1.50),
-    (323, 208, 2.50);
\ No newline at end of file
+    (323, 208, 2.50);
+
+-- Log the dishes and meals for delta sync, dishes first within the same instant
+INSERT INTO sync_changes (user_id, sequence, entity_type, entity_id, operation, changed_at)
+SELECT user_id,
+       ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY created_at, entity_type, entity_id),
+       entity_type,
+       entity_id,
+       'UPSERT',
+       created_at
+FROM (SELECT user_id, 'DISH' AS entity_type, id AS entity_id, created_at
+      FROM dishes
+      UNION ALL
+      SELECT user_id, 'MEAL', id, created_at
+      FROM meals) entities;
+
+INSERT INTO sync_sequences (user_id, last_sequence)
+SELECT user_id, MAX(sequence)
+FROM sync_changes
+GROUP BY user_id;
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+import org.nikolait.assignment.caloriex.metrics.SqlStatementCounter;
 import org.nikolait.assignment.caloriex.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -12,6 +14,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -41,6 +44,19 @@ public abstract class IntegrationTestBase {
         assertEquals(3, goalRepository.findAll().size());
     }
 
+    /**
+     * Runs the call, e.g. a service method or a MockMvc request, and fails if it ran more SQL statements
+     * than the budget, so an N+1 regression fails the build.
+     */
+    protected <T> T assertStatementBudget(int budget, ThrowingSupplier<T> call) throws Throwable {
+        long start = SqlStatementCounter.current();
+        T result = call.get();
+        long statements = SqlStatementCounter.current() - start;
+        assertTrue(statements <= budget, "Expected at most %d SQL statements, but %d were run"
+                .formatted(budget, statements));
+        return result;
+    }
+
     @AfterEach
     void cleanup() {
         mealRepository.deleteAll();
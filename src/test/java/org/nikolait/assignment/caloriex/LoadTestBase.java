@@ -0,0 +1,194 @@
+package org.nikolait.assignment.caloriex;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.function.Executable;
+import org.nikolait.assignment.caloriex.dto.DishCreationDto;
+import org.nikolait.assignment.caloriex.dto.UserCreationDto;
+import org.nikolait.assignment.caloriex.load.ArrivalRate;
+import org.nikolait.assignment.caloriex.load.LoadGenerator;
+import org.nikolait.assignment.caloriex.load.LoadRequest;
+import org.nikolait.assignment.caloriex.load.LoadResult;
+import org.nikolait.assignment.caloriex.load.LoadSettings;
+import org.nikolait.assignment.caloriex.load.VirtualUser;
+import org.nikolait.assignment.caloriex.model.GenderEnum;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Base class of the load tests, run against an application that is already running, e.g. with:
+ * {@code mvn test -P load -Dload.base-url=http://localhost:8080}
+ * They are skipped unless 'load.base-url' is set as a system property, which the 'load' profile does.
+ * <p>
+ * Before the scenarios run, the virtual users are logged in, or created with a few dishes if they do not exist yet.
+ * Pointing 'load.user-email' at the users of the synthetic data generator runs the scenarios against their history.
+ */
+@Slf4j
+@TestInstance(Lifecycle.PER_CLASS)
+public abstract class LoadTestBase {
+
+    private static final String BASE_URL_PROPERTY = "load.base-url";
+
+    private static final List<DishCreationDto> DISHES = List.of(
+            new DishCreationDto("Oatmeal", 5.0, 3.0, 25.0, 150),
+            new DishCreationDto("Chicken Breast", 30.0, 5.0, 0.0, 200),
+            new DishCreationDto("Salad", 2.0, 4.0, 10.0, 80)
+    );
+
+    protected final ObjectMapper objectMapper = new ObjectMapper();
+
+    protected LoadSettings settings;
+    protected List<VirtualUser> users;
+
+    private HttpClient httpClient;
+    private LoadGenerator loadGenerator;
+    private String apiUrl;
+
+    @BeforeAll
+    void prepareVirtualUsers() throws IOException, InterruptedException {
+        assumeTrue(System.getProperty(BASE_URL_PROPERTY) != null, "No application to load test");
+        settings = LoadSettings.load();
+        apiUrl = settings.getString(BASE_URL_PROPERTY) + "/api/v1";
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        loadGenerator = new LoadGenerator(httpClient);
+
+        int firstUser = settings.getInt("load.first-user");
+        users = new ArrayList<>();
+        for (int i = firstUser; i < firstUser + settings.getInt("load.users"); i++) {
+            users.add(prepareVirtualUser(settings.getString("load.user-email").formatted(i)));
+        }
+        log.info("Prepared {} virtual users", users.size());
+    }
+
+    @AfterAll
+    void closeHttpClient() {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+    }
+
+    /**
+     * Runs a scenario for its configured duration, logs its results and asserts its SLOs.
+     */
+    protected LoadResult runScenario(String scenario, ArrivalRate rate, LongFunction<LoadRequest> requests) {
+        LoadResult result = loadGenerator.run(scenario, rate, settings.duration(scenario), requests);
+        log.info("\n{}", result.format());
+        assertSlos(result);
+        return result;
+    }
+
+    protected HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(apiUrl + path))
+                .timeout(settings.getDuration("load.request-timeout"));
+    }
+
+    protected HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to write request body", e);
+        }
+    }
+
+    protected static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private void assertSlos(LoadResult result) {
+        List<Executable> checks = new ArrayList<>();
+        double minThroughput = result.offeredRate() * settings.minThroughputRatio(result.scenario());
+        checks.add(() -> assertTrue(result.throughput() >= minThroughput,
+                () -> "%s throughput %.1f req/s below %.1f req/s"
+                        .formatted(result.scenario(), result.throughput(), minThroughput)));
+        for (LoadResult.OperationStats stats : result.stats()) {
+            LoadSettings.Slo slo = settings.slo(stats.operation());
+            checks.add(() -> assertLatency(stats.operation(), "p50", stats.p50(), slo.p50()));
+            checks.add(() -> assertLatency(stats.operation(), "p99", stats.p99(), slo.p99()));
+            checks.add(() -> assertLatency(stats.operation(), "p999", stats.p999(), slo.p999()));
+            if (slo.maxErrorRate() != null) {
+                checks.add(() -> assertTrue(stats.errorRate() <= slo.maxErrorRate(),
+                        () -> "%s error rate %.4f above %.4f"
+                                .formatted(stats.operation(), stats.errorRate(), slo.maxErrorRate())));
+            }
+        }
+        assertAll(result.scenario() + " SLOs", checks);
+    }
+
+    private static void assertLatency(String operation, String percentile, Duration actual, Duration limit) {
+        if (limit != null) {
+            assertTrue(actual.compareTo(limit) <= 0, () -> "%s %s %d ms above SLO %d ms"
+                    .formatted(operation, percentile, actual.toMillis(), limit.toMillis()));
+        }
+    }
+
+    private VirtualUser prepareVirtualUser(String email) throws IOException, InterruptedException {
+        HttpResponse<Void> login = send(request("/users/login?email=" + encode(email))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build());
+        String authorization;
+        if (login.statusCode() == 200) {
+            authorization = authorizationOf(login);
+        } else {
+            HttpResponse<Void> created = send(request("/users")
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(json(new UserCreationDto("Load test user", email, 30, 70.0, 175, GenderEnum.FEMALE, 1L, 2L)))
+                    .build());
+            assertEquals(201, created.statusCode(), () -> "Failed to create virtual user " + email);
+            authorization = authorizationOf(created);
+        }
+
+        HttpResponse<byte[]> dishes = httpClient.send(request("/dishes")
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, dishes.statusCode(), () -> "Failed to read dishes of virtual user " + email);
+        List<Long> dishIds = new ArrayList<>();
+        for (JsonNode dish : objectMapper.readTree(dishes.body())) {
+            dishIds.add(dish.get("id").asLong());
+        }
+        if (dishIds.isEmpty()) {
+            for (DishCreationDto dish : DISHES) {
+                HttpResponse<Void> created = send(request("/dishes")
+                        .header(HttpHeaders.AUTHORIZATION, authorization)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .POST(json(dish))
+                        .build());
+                assertEquals(201, created.statusCode(), () -> "Failed to create a dish of virtual user " + email);
+                String location = created.headers().firstValue(HttpHeaders.LOCATION).orElseThrow();
+                dishIds.add(Long.valueOf(location.substring(location.lastIndexOf('/') + 1)));
+            }
+        }
+        return new VirtualUser(email, authorization, List.copyOf(dishIds));
+    }
+
+    private HttpResponse<Void> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static String authorizationOf(HttpResponse<?> response) {
+        return response.headers().firstValue(HttpHeaders.AUTHORIZATION).orElseThrow();
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.nikolait.assignment.caloriex.benchmark;
+
+import lombok.experimental.UtilityClass;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Minimal harness of the benchmarks: runs an operation for a warm-up time so the JIT has compiled it,
+ * then measures the time and the bytes allocated per call on the calling thread. The calls are measured
+ * in several rounds and the median round is reported, so a GC or JIT pause in one round does not skew it.
+ * <p>
+ * The warm-up time in milliseconds and the measured iterations can be overridden with
+ * {@code -Dbenchmark.warm-up-millis} and {@code -Dbenchmark.iterations}, the calls per round.
+ * The numbers are only comparable between runs on the same machine and JVM.
+ */
+@UtilityClass
+public class Benchmarks {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * Results are folded into this field, so the JIT cannot drop the measured calls as dead code.
+     */
+    private static volatile int sink;
+
+    public Measurement measure(String name, Supplier<?> operation) {
+        long warmUpEnd = System.nanoTime() + Integer.getInteger("benchmark.warm-up-millis", 3000) * 1_000_000L;
+        int iterations = Integer.getInteger("benchmark.iterations", 100);
+        int hash = 0;
+        while (System.nanoTime() < warmUpEnd) {
+            hash += System.identityHashCode(operation.get());
+        }
+
+        long[] roundNanos = new long[ROUNDS];
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                hash += System.identityHashCode(operation.get());
+            }
+            roundNanos[round] = System.nanoTime() - start;
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        sink = hash;
+        Arrays.sort(roundNanos);
+        return new Measurement(
+                name,
+                (double) roundNanos[ROUNDS / 2] / iterations,
+                (double) allocated / ((long) ROUNDS * iterations)
+        );
+    }
+
+    /**
+     * @param nanosPerOp mean time of one call in the median round.
+     * @param bytesPerOp mean bytes allocated by one call.
+     */
+    public record Measurement(String name, double nanosPerOp, double bytesPerOp) {
+
+        public double millisPerOp() {
+            return nanosPerOp / 1_000_000;
+        }
+
+        public double kilobytesPerOp() {
+            return bytesPerOp / 1024;
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.nikolait.assignment.caloriex.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.benchmark.Benchmarks.Measurement;
+import org.nikolait.assignment.caloriex.mapper.DishMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.MealDailyReportMapper;
+import org.nikolait.assignment.caloriex.mapper.MealDailyReportMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.MealDishMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.MealMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.NormalizedMealReportMapper;
+import org.nikolait.assignment.caloriex.mapper.NormalizedMealReportMapperImpl;
+import org.nikolait.assignment.caloriex.model.ReportFormatEnum;
+import org.nikolait.assignment.caloriex.model.ReportViewEnum;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Time and ratio of compressing period report bodies in JSON at deflate levels 1, 6 and 9, the choices
+ * for {@code app.compression.level}. Like the compression filter, each level reuses one raw deflater
+ * and resets it between bodies, so only the compression itself is measured.
+ * <p>
+ * Run with {@code mvn test -P benchmark -Dtest=CompressionBenchmark}.
+ */
+@Slf4j
+@SpringJUnitConfig({
+        MealDailyReportMapperImpl.class,
+        MealMapperImpl.class,
+        MealDishMapperImpl.class,
+        DishMapperImpl.class,
+        NormalizedMealReportMapperImpl.class
+})
+class CompressionBenchmark {
+
+    private static final int[] LEVELS = {1, 6, 9};
+    /**
+     * Gzip header and trailer the filter adds around the raw deflate stream.
+     */
+    private static final int GZIP_FRAMING_SIZE = 18;
+
+    @Autowired
+    private MealDailyReportMapper mealDailyReportMapper;
+    @Autowired
+    private NormalizedMealReportMapper normalizedMealReportMapper;
+
+    @Test
+    void periodReportCompression() {
+        PeriodReportFixture month = new PeriodReportFixture(30, 3, 2);
+        PeriodReportFixture year = new PeriodReportFixture(365, 3, 2);
+        Map<String, byte[]> payloads = new LinkedHashMap<>();
+        payloads.put("full, 30 days", body(month, ReportViewEnum.FULL));
+        payloads.put("full, 365 days", body(year, ReportViewEnum.FULL));
+        payloads.put("normalized, 365 days", body(year, ReportViewEnum.NORMALIZED));
+
+        StringBuilder table = new StringBuilder("Gzip compression of JSON period reports, 3 meals x 2 dishes a day\n")
+                .append(String.format("%-22s %6s %10s %10s %8s %14s%n",
+                        "payload", "level", "body KB", "gzip KB", "ratio", "ns/op"));
+        for (Map.Entry<String, byte[]> payload : payloads.entrySet()) {
+            byte[] body = payload.getValue();
+            for (int level : LEVELS) {
+                Deflater deflater = new Deflater(level, true);
+                try {
+                    int compressedSize = compress(deflater, body).length + GZIP_FRAMING_SIZE;
+                    assertTrue(compressedSize < body.length);
+
+                    Measurement measurement = Benchmarks.measure(payload.getKey(), () -> compress(deflater, body));
+                    table.append(String.format("%-22s %6d %10.1f %10.1f %8.2f %14.0f%n",
+                            payload.getKey(),
+                            level,
+                            body.length / 1024.0,
+                            compressedSize / 1024.0,
+                            (double) body.length / compressedSize,
+                            measurement.nanosPerOp()));
+                } finally {
+                    deflater.end();
+                }
+            }
+        }
+        log.info("\n{}", table);
+    }
+
+    private byte[] body(PeriodReportFixture fixture, ReportViewEnum view) {
+        return fixture.write(
+                fixture.streamingService(mealDailyReportMapper, normalizedMealReportMapper),
+                ReportFormatEnum.JSON,
+                view
+        );
+    }
+
+    private static byte[] compress(Deflater deflater, byte[] body) {
+        deflater.reset();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(out, deflater, 8192)) {
+            deflaterOut.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,144 @@
+package org.nikolait.assignment.caloriex.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.nikolait.assignment.caloriex.mapper.MealDailyReportMapper;
+import org.nikolait.assignment.caloriex.mapper.NormalizedMealReportMapper;
+import org.nikolait.assignment.caloriex.model.MealDishRow;
+import org.nikolait.assignment.caloriex.model.MealNutrition;
+import org.nikolait.assignment.caloriex.model.ReportFormatEnum;
+import org.nikolait.assignment.caloriex.model.ReportViewEnum;
+import org.nikolait.assignment.caloriex.model.User;
+import org.nikolait.assignment.caloriex.repository.MealDishRowRepository;
+import org.nikolait.assignment.caloriex.repository.UserRepository;
+import org.nikolait.assignment.caloriex.service.impl.MealReportStreamingServiceImpl;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A user's period of meals as the report endpoints read it, with the same ObjectMapper settings as the application.
+ * Dishes are picked from a small menu, so the same dishes come back across days as they do for real users.
+ */
+public class PeriodReportFixture {
+
+    public static final Long USER_ID = 1L;
+    public static final LocalDate END_DAY = LocalDate.of(2024, 12, 31);
+    public static final ZoneId ZONE = ZoneOffset.UTC;
+
+    private static final int DAILY_CALORIE_TARGET = 2000;
+    private static final int MENU_SIZE = 20;
+    private static final Instant DISH_CREATED_AT = Instant.parse("2024-01-01T08:00:00Z");
+
+    public static final ObjectMapper JSON_MAPPER = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    public static final ObjectMapper CBOR_MAPPER = CBORMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final int days;
+    private final List<MealDishRow> rows = new ArrayList<>();
+    private final List<MealNutrition> meals = new ArrayList<>();
+
+    /**
+     * Creates the meals of the days up to {@link #END_DAY}, newest first, as the repositories read them.
+     */
+    public PeriodReportFixture(int days, int mealsPerDay, int dishesPerMeal) {
+        this.days = days;
+        long mealId = (long) days * mealsPerDay;
+        for (int day = 0; day < days; day++) {
+            Instant startOfDay = END_DAY.minusDays(day).atStartOfDay(ZONE).toInstant();
+            for (int meal = mealsPerDay - 1; meal >= 0; meal--, mealId--) {
+                Instant createdAt = startOfDay.plusSeconds(7 * 3600L + meal * 4 * 3600L);
+                double calories = 0;
+                for (int dish = 0; dish < dishesPerMeal; dish++) {
+                    long dishId = (mealId * 7 + dish * 3) % MENU_SIZE + 1;
+                    int dishCalories = 80 + (int) dishId * 15;
+                    double servings = 0.5 + (mealId + dish) % 4 * 0.5;
+                    rows.add(new MealDishRow(mealId, "Meal " + (meal + 1), createdAt, dishId, "Dish " + dishId,
+                            dishId * 1.5, dishId * 0.7, dishId * 2.1, dishCalories, DISH_CREATED_AT, servings));
+                    calories += Math.round(dishCalories * servings * 100) / 100.0;
+                }
+                meals.add(new MealNutrition(mealId, createdAt, (int) Math.round(calories), 0, 0, 0));
+            }
+        }
+    }
+
+    public LocalDate startDay() {
+        return END_DAY.minusDays(days - 1);
+    }
+
+    public List<MealNutrition> meals() {
+        return meals;
+    }
+
+    /**
+     * @return a streaming service that reads this fixture instead of the database.
+     */
+    public MealReportStreamingServiceImpl streamingService(
+            MealDailyReportMapper mealDailyReportMapper,
+            NormalizedMealReportMapper normalizedMealReportMapper
+    ) {
+        MealDishRowRepository mealDishRowRepository = mock(MealDishRowRepository.class);
+        doAnswer(invocation -> {
+            rows.forEach(invocation.<Consumer<MealDishRow>>getArgument(3));
+            return null;
+        }).when(mealDishRowRepository).forEachByUserIdAndCreatedAtBetween(eq(USER_ID), any(), any(), any());
+        return new MealReportStreamingServiceImpl(
+                mealDishRowRepository,
+                userRepository(),
+                JSON_MAPPER,
+                new MappingJackson2CborHttpMessageConverter(CBOR_MAPPER),
+                mealDailyReportMapper,
+                normalizedMealReportMapper
+        );
+    }
+
+    public UserRepository userRepository() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(User.builder()
+                .id(USER_ID)
+                .dailyCalorieTarget(DAILY_CALORIE_TARGET)
+                .build()));
+        return userRepository;
+    }
+
+    /**
+     * @return the period report as the period endpoint streams it.
+     */
+    public byte[] write(
+            MealReportStreamingServiceImpl service,
+            ReportFormatEnum format,
+            ReportViewEnum view
+    ) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            service.writeMealDailyReportsForPeriod(USER_ID, startDay(), END_DAY, ZONE, format, view, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+}
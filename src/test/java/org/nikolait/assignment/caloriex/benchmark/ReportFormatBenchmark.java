@@ -0,0 +1,85 @@
+package org.nikolait.assignment.caloriex.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.benchmark.Benchmarks.Measurement;
+import org.nikolait.assignment.caloriex.dto.MealDailyReportDto;
+import org.nikolait.assignment.caloriex.mapper.DishMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.MealDailyReportMapper;
+import org.nikolait.assignment.caloriex.mapper.MealDailyReportMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.MealDishMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.MealMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.NormalizedMealReportMapper;
+import org.nikolait.assignment.caloriex.mapper.NormalizedMealReportMapperImpl;
+import org.nikolait.assignment.caloriex.model.ReportFormatEnum;
+import org.nikolait.assignment.caloriex.model.ReportViewEnum;
+import org.nikolait.assignment.caloriex.service.impl.MealReportStreamingServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Size and encoding and decoding cost of the full period report in JSON and CBOR, over a quarter of meals.
+ * Encoding goes through the streaming service as the period endpoint does, decoding reads the DTOs back.
+ * <p>
+ * Run with {@code mvn test -P benchmark -Dtest=ReportFormatBenchmark}.
+ */
+@Slf4j
+@SpringJUnitConfig({
+        MealDailyReportMapperImpl.class,
+        MealMapperImpl.class,
+        MealDishMapperImpl.class,
+        DishMapperImpl.class,
+        NormalizedMealReportMapperImpl.class
+})
+class ReportFormatBenchmark {
+
+    private static final TypeReference<List<MealDailyReportDto>> REPORTS = new TypeReference<>() {
+    };
+
+    private final PeriodReportFixture fixture = new PeriodReportFixture(90, 4, 3);
+
+    @Autowired
+    private MealDailyReportMapper mealDailyReportMapper;
+    @Autowired
+    private NormalizedMealReportMapper normalizedMealReportMapper;
+
+    @Test
+    void periodReportFormats() {
+        MealReportStreamingServiceImpl streamingService =
+                fixture.streamingService(mealDailyReportMapper, normalizedMealReportMapper);
+
+        StringBuilder table = new StringBuilder("Full period report formats, 90 days x 4 meals x 3 dishes\n")
+                .append(String.format("%-8s %10s %16s %16s%n", "format", "body KB", "encode ms/op", "decode ms/op"));
+        for (ReportFormatEnum format : ReportFormatEnum.values()) {
+            ObjectMapper mapper = format == ReportFormatEnum.CBOR
+                    ? PeriodReportFixture.CBOR_MAPPER
+                    : PeriodReportFixture.JSON_MAPPER;
+            byte[] body = fixture.write(streamingService, format, ReportViewEnum.FULL);
+            assertEquals(90, read(mapper, body).size());
+
+            Measurement encode = Benchmarks.measure("encode", () ->
+                    fixture.write(streamingService, format, ReportViewEnum.FULL));
+            Measurement decode = Benchmarks.measure("decode", () -> read(mapper, body));
+            table.append(String.format("%-8s %10.1f %16.3f %16.3f%n",
+                    format, body.length / 1024.0, encode.millisPerOp(), decode.millisPerOp()));
+        }
+        log.info("\n{}", table);
+    }
+
+    private static List<MealDailyReportDto> read(ObjectMapper mapper, byte[] body) {
+        try {
+            return mapper.readValue(body, REPORTS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package org.nikolait.assignment.caloriex.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.benchmark.Benchmarks.Measurement;
+import org.nikolait.assignment.caloriex.mapper.DishMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.MealDailyReportMapper;
+import org.nikolait.assignment.caloriex.mapper.MealDailyReportMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.MealDailySummaryMapper;
+import org.nikolait.assignment.caloriex.mapper.MealDailySummaryMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.MealDishMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.MealMapperImpl;
+import org.nikolait.assignment.caloriex.mapper.NormalizedMealReportMapper;
+import org.nikolait.assignment.caloriex.mapper.NormalizedMealReportMapperImpl;
+import org.nikolait.assignment.caloriex.model.ReportFormatEnum;
+import org.nikolait.assignment.caloriex.model.ReportViewEnum;
+import org.nikolait.assignment.caloriex.repository.MealNutritionRepository;
+import org.nikolait.assignment.caloriex.service.MealService;
+import org.nikolait.assignment.caloriex.service.impl.MealReportServiceImpl;
+import org.nikolait.assignment.caloriex.service.impl.MealReportStreamingServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Time and allocation of the period report views over a year of meals, from the rows read from the database
+ * to the serialized body. The summary view never builds meals, which is what it exists for.
+ * <p>
+ * Run with {@code mvn test -P benchmark -Dtest=ReportViewBenchmark}.
+ */
+@Slf4j
+@SpringJUnitConfig({
+        MealDailyReportMapperImpl.class,
+        MealMapperImpl.class,
+        MealDishMapperImpl.class,
+        DishMapperImpl.class,
+        NormalizedMealReportMapperImpl.class,
+        MealDailySummaryMapperImpl.class
+})
+class ReportViewBenchmark {
+
+    private final PeriodReportFixture fixture = new PeriodReportFixture(365, 3, 2);
+
+    @Autowired
+    private MealDailyReportMapper mealDailyReportMapper;
+    @Autowired
+    private NormalizedMealReportMapper normalizedMealReportMapper;
+    @Autowired
+    private MealDailySummaryMapper mealDailySummaryMapper;
+
+    @Test
+    void periodReportViews() {
+        MealReportStreamingServiceImpl streamingService =
+                fixture.streamingService(mealDailyReportMapper, normalizedMealReportMapper);
+        MealReportServiceImpl reportService = summaryService();
+
+        List<Measurement> measurements = List.of(
+                Benchmarks.measure("full", () ->
+                        fixture.write(streamingService, ReportFormatEnum.JSON, ReportViewEnum.FULL)),
+                Benchmarks.measure("normalized", () ->
+                        fixture.write(streamingService, ReportFormatEnum.JSON, ReportViewEnum.NORMALIZED)),
+                Benchmarks.measure("summary", () -> writeSummary(reportService))
+        );
+        byte[][] bodies = {
+                fixture.write(streamingService, ReportFormatEnum.JSON, ReportViewEnum.FULL),
+                fixture.write(streamingService, ReportFormatEnum.JSON, ReportViewEnum.NORMALIZED),
+                writeSummary(reportService)
+        };
+
+        StringBuilder table = new StringBuilder("Period report views, 365 days x 3 meals x 2 dishes, JSON\n")
+                .append(String.format("%-12s %12s %14s %12s%n", "view", "ms/op", "alloc KB/op", "body KB"));
+        for (int i = 0; i < measurements.size(); i++) {
+            Measurement measurement = measurements.get(i);
+            table.append(String.format("%-12s %12.3f %14.1f %12.1f%n", measurement.name(),
+                    measurement.millisPerOp(), measurement.kilobytesPerOp(), bodies[i].length / 1024.0));
+        }
+        log.info("\n{}", table);
+        assertTrue(bodies[2].length < bodies[0].length, "Summary should be smaller than the full view");
+    }
+
+    private MealReportServiceImpl summaryService() {
+        MealNutritionRepository mealNutritionRepository = mock(MealNutritionRepository.class);
+        doAnswer(invocation -> {
+            fixture.meals().forEach(invocation.getArgument(3, Consumer.class));
+            return null;
+        }).when(mealNutritionRepository).forEachByUserIdAndCreatedAtBetween(
+                eq(PeriodReportFixture.USER_ID), any(), any(), any());
+        return new MealReportServiceImpl(mock(MealService.class), mealNutritionRepository, fixture.userRepository());
+    }
+
+    /**
+     * Builds and serializes the summary view as the summary endpoint does.
+     */
+    private byte[] writeSummary(MealReportServiceImpl reportService) {
+        try {
+            return PeriodReportFixture.JSON_MAPPER.writeValueAsBytes(mealDailySummaryMapper.toResponseDtoList(
+                    reportService.generateMealDailySummariesForPeriod(PeriodReportFixture.USER_ID,
+                            fixture.startDay(), PeriodReportFixture.END_DAY, PeriodReportFixture.ZONE)
+            ));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
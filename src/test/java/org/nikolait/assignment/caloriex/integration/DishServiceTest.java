@@ -90,7 +90,13 @@ class DishServiceTest extends IntegrationTestBase {
         dishService.createDish(testUser.getId(), firstDish);
 
         // Act & Assert
-        Dish duplicateDish = createDishTemplate(PASTA_NAME).build();
+        // The duplicate needs its macros: the name clash is only found by the INSERT,
+        // and a dish without calories or macros is rejected by validation before that
+        Dish duplicateDish = createDishTemplate(PASTA_NAME)
+                .protein(PASTA_PROTEIN)
+                .fat(PASTA_FAT)
+                .carbohydrates(PASTA_CARBS)
+                .build();
         assertThatThrownBy(() -> dishService.createDish(testUser.getId(), duplicateDish))
                 .isInstanceOf(EntityAlreadyExistsException.class);
     }
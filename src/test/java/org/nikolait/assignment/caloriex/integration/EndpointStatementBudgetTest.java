@@ -0,0 +1,213 @@
+package org.nikolait.assignment.caloriex.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.IntegrationTestBase;
+import org.nikolait.assignment.caloriex.model.*;
+import org.nikolait.assignment.caloriex.ulti.CalorieCalculator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statement budgets of the endpoints, run through MockMvc. The budgets are the statements the endpoints run
+ * today for a week of meals with several dishes each, so a query per meal, dish or day fails the build.
+ * <p>
+ * Streamed bodies are written on the test thread here, so their statements are counted too.
+ */
+class EndpointStatementBudgetTest extends IntegrationTestBase {
+
+    private static final String API = "/api/v1";
+    private static final ZoneId TEST_ZONE = ZoneId.of("UTC");
+    /**
+     * Async tasks, e.g. writing a streamed body, left for the test thread to run.
+     */
+    private static final Queue<Runnable> ASYNC_TASKS = new ConcurrentLinkedQueue<>();
+    private static final int DAYS = 7;
+    private static final int MEALS_PER_DAY = 3;
+    private static final int DISHES_PER_MEAL = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private User user;
+    private List<Dish> dishes;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .name("Budget")
+                .email("budget@example.com")
+                .age(30)
+                .weight(80.0)
+                .height(170)
+                .gender(GenderEnum.MALE)
+                .activityLevel(activityLevelRepository.findById(1L).orElseThrow())
+                .goal(goalRepository.findById(1L).orElseThrow())
+                .build();
+        user.setDailyCalorieTarget(CalorieCalculator.calculateDailyCalorieTarget(user));
+        user = userRepository.save(user);
+
+        dishes = new ArrayList<>();
+        for (int i = 0; i < DISHES_PER_MEAL; i++) {
+            dishes.add(dishRepository.save(Dish.builder()
+                    .name("Dish " + i)
+                    .user(user)
+                    .calories(100 * (i + 1))
+                    .build()));
+        }
+
+        today = LocalDate.now(TEST_ZONE);
+        for (int day = 0; day < DAYS; day++) {
+            for (int meal = 0; meal < MEALS_PER_DAY; meal++) {
+                saveMeal(today.minusDays(day).atStartOfDay(TEST_ZONE).plusHours(8 + 4 * meal).toInstant());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("POST /meals: authorization, user, each dish, the meal and its dishes, outbox and sync log")
+    void createMeal() throws Throwable {
+        String body = """
+                {"name": "Lunch", "mealDishes": [
+                  {"dishId": %d, "servings": 1.0},
+                  {"dishId": %d, "servings": 2.0},
+                  {"dishId": %d, "servings": 0.5}
+                ]}""".formatted(dishes.get(0).getId(), dishes.get(1).getId(), dishes.get(2).getId());
+
+        assertStatementBudget(13, () -> mockMvc.perform(post(API + "/meals")
+                        .header(HttpHeaders.AUTHORIZATION, user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated()));
+    }
+
+    @Test
+    @DisplayName("GET /meals/report/daily/today")
+    void dailyReportForToday() throws Throwable {
+        assertStatementBudget(3, () -> mockMvc.perform(get(API + "/meals/report/daily/today")
+                        .header(HttpHeaders.AUTHORIZATION, user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.meals.length()").value(MEALS_PER_DAY)));
+    }
+
+    @Test
+    @DisplayName("GET /meals/report/daily/day")
+    void dailyReportForDay() throws Throwable {
+        assertStatementBudget(3, () -> mockMvc.perform(get(API + "/meals/report/daily/day")
+                        .header(HttpHeaders.AUTHORIZATION, user.getId())
+                        .param("day", today.minusDays(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.meals.length()").value(MEALS_PER_DAY)));
+    }
+
+    @Test
+    @DisplayName("GET /meals/report/daily/period, full view, streamed")
+    void periodReport() throws Throwable {
+        assertStatementBudget(3, () -> performStreamed(periodRequest(null))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(DAYS)));
+    }
+
+    @Test
+    @DisplayName("GET /meals/report/daily/period, summary view")
+    void periodSummaryReport() throws Throwable {
+        assertStatementBudget(3, () -> mockMvc.perform(periodRequest("summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(DAYS)));
+    }
+
+    @Test
+    @DisplayName("GET /meals/report/daily/period, normalized view, streamed")
+    void periodNormalizedReport() throws Throwable {
+        assertStatementBudget(3, () -> performStreamed(periodRequest("normalized"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.days.length()").value(DAYS)));
+    }
+
+    @Test
+    @DisplayName("GET /users/me")
+    void authenticatedUser() throws Throwable {
+        assertStatementBudget(2, () -> mockMvc.perform(get(API + "/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(user.getId())));
+    }
+
+    private RequestBuilder periodRequest(String view) {
+        var request = get(API + "/meals/report/daily/period")
+                .header(HttpHeaders.AUTHORIZATION, user.getId())
+                .param("startDay", today.minusDays(DAYS - 1).toString())
+                .param("endDay", today.toString());
+        return view != null ? request.param("view", view) : request;
+    }
+
+    /**
+     * Writes the body on the test thread once the request has started async processing, then dispatches it.
+     */
+    private ResultActions performStreamed(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        Runnable task;
+        while ((task = ASYNC_TASKS.poll()) != null) {
+            task.run();
+        }
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private void saveMeal(Instant createdAt) {
+        Meal meal = mealRepository.save(Meal.builder()
+                .user(user)
+                .name("Meal")
+                .createdAt(createdAt)
+                .build());
+        List<MealDish> mealDishes = new ArrayList<>();
+        for (Dish dish : dishes) {
+            MealDish mealDish = new MealDish();
+            mealDish.setId(new MealDishId());
+            mealDish.setMeal(meal);
+            mealDish.setDish(dish);
+            mealDish.setServings(1.0);
+            mealDishes.add(mealDish);
+        }
+        meal.setMealDishes(mealDishes);
+        mealRepository.save(meal);
+    }
+
+    /**
+     * Leaves async tasks to the test thread, where {@code assertStatementBudget} counts statements.
+     */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class TestThreadAsyncConfig implements WebMvcConfigurer {
+
+        @Override
+        public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+            configurer.setTaskExecutor(new TaskExecutorAdapter(ASYNC_TASKS::add));
+        }
+
+    }
+
+}
@@ -1,14 +1,20 @@
 package org.nikolait.assignment.caloriex.integration;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.nikolait.assignment.caloriex.IntegrationTestBase;
+import org.nikolait.assignment.caloriex.dto.MealDailyReportDto;
 import org.nikolait.assignment.caloriex.model.*;
 import org.nikolait.assignment.caloriex.service.MealReportService;
+import org.nikolait.assignment.caloriex.service.MealReportStreamingService;
 import org.nikolait.assignment.caloriex.ulti.CalorieCalculator;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -26,8 +32,15 @@ public class MealReportServiceTest extends IntegrationTestBase {
     private static final double TEST_WEIGHT = 80.0;
     private static final int TEST_HEIGHT = 170;
 
+    private static final TypeReference<List<MealDailyReportDto>> REPORTS = new TypeReference<>() {
+    };
+
     @Autowired
     private MealReportService mealReportService;
+    @Autowired
+    private MealReportStreamingService mealReportStreamingService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     private ActivityLevel sedentaryActivityLevel;
     private Goal weightLossGoal;
@@ -82,50 +95,73 @@ public class MealReportServiceTest extends IntegrationTestBase {
     }
 
     @Test
-    @DisplayName("Generate period report with meals and gaps")
-    void generatePeriodReportWithGaps() {
-        var reports = mealReportService.generateMealDailyReportsForPeriod(testUser.getId(), DATE_1, DATE_2, TEST_ZONE);
+    @DisplayName("Stream period report with meals and gaps")
+    void writePeriodReportWithGaps() throws Throwable {
+        var reports = writePeriodReport(DATE_1, DATE_2);
 
         assertEquals(DATE_2.toEpochDay() - DATE_1.toEpochDay() + 1, reports.size());
 
-        var reportStart = reports.stream().filter(r -> r.getDate().equals(DATE_1)).findFirst().orElseThrow();
-        var reportEnd = reports.stream().filter(r -> r.getDate().equals(DATE_2)).findFirst().orElseThrow();
+        var reportStart = reports.stream().filter(r -> r.date().equals(DATE_1)).findFirst().orElseThrow();
+        var reportEnd = reports.stream().filter(r -> r.date().equals(DATE_2)).findFirst().orElseThrow();
+
+        assertThat(reportStart.totalCalories()).isEqualTo(1300);
+        assertThat(reportEnd.totalCalories()).isEqualTo(900);
+    }
+
+    @Test
+    @DisplayName("Period report stays within its SQL statement budget")
+    void writePeriodReportWithinStatementBudget() throws Throwable {
+        // the user and one query for all meal dish rows, however many meals and days
+        var reports = assertStatementBudget(2, () -> writePeriodReport(DATE_1, DATE_2));
 
-        assertThat(reportStart.getTotalCalories()).isEqualTo(1300);
-        assertThat(reportEnd.getTotalCalories()).isEqualTo(900);
+        assertEquals(DATE_2.toEpochDay() - DATE_1.toEpochDay() + 1, reports.size());
     }
 
     @Test
-    @DisplayName("Generate all tracked reports sorted descending")
-    void generateAllTrackedReportsSorted() {
-        var reports = mealReportService.generateAllTrackedMealDailyReports(testUser.getId(), TEST_ZONE);
+    @DisplayName("Stream all tracked reports sorted descending")
+    void writeAllTrackedReportsSorted() throws Throwable {
+        var reports = writeAllTrackedReports();
 
         assertEquals(2, reports.size());
-        assertTrue(reports.get(0).getDate().isAfter(reports.get(1).getDate()));
+        assertTrue(reports.get(0).date().isAfter(reports.get(1).date()));
     }
 
     @Test
-    @DisplayName("Generate reports for period with no meals")
-    void generateReportsForEmptyPeriod() {
+    @DisplayName("Stream reports for period with no meals")
+    void writeReportsForEmptyPeriod() throws Throwable {
         LocalDate start = LocalDate.now(TEST_ZONE).minusMonths(3);
         LocalDate end = start.plusDays(4);
 
-        var reports = mealReportService.generateMealDailyReportsForPeriod(testUser.getId(), start, end, TEST_ZONE);
+        var reports = writePeriodReport(start, end);
 
         assertEquals(5, reports.size());
-        assertTrue(reports.stream().allMatch(r -> r.getTotalCalories() == 0));
+        assertTrue(reports.stream().allMatch(r -> r.totalCalories() == 0));
     }
 
     @Test
-    @DisplayName("Generate all tracked reports with no meals")
-    void generateAllTrackedReportsWhenEmpty() {
+    @DisplayName("Stream all tracked reports with no meals")
+    void writeAllTrackedReportsWhenEmpty() throws Throwable {
         mealRepository.deleteAll();
 
-        var reports = mealReportService.generateAllTrackedMealDailyReports(testUser.getId(), TEST_ZONE);
+        var reports = writeAllTrackedReports();
 
         assertTrue(reports.isEmpty());
     }
 
+    private List<MealDailyReportDto> writePeriodReport(LocalDate start, LocalDate end) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mealReportStreamingService.writeMealDailyReportsForPeriod(
+                testUser.getId(), start, end, TEST_ZONE, ReportFormatEnum.JSON, ReportViewEnum.FULL, out);
+        return objectMapper.readValue(out.toByteArray(), REPORTS);
+    }
+
+    private List<MealDailyReportDto> writeAllTrackedReports() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mealReportStreamingService.writeAllTrackedMealDailyReports(
+                testUser.getId(), TEST_ZONE, ReportFormatEnum.JSON, ReportViewEnum.FULL, out);
+        return objectMapper.readValue(out.toByteArray(), REPORTS);
+    }
+
     private User createTestUser(String name, String email) {
         User user = User.builder()
                 .name(name)
@@ -0,0 +1,44 @@
+package org.nikolait.assignment.caloriex.load;
+
+import java.time.Duration;
+
+/**
+ * Requests per second offered at a point of a load run, independent of how fast the application responds.
+ */
+@FunctionalInterface
+public interface ArrivalRate {
+
+    double MIN_RATE = 0.1;
+
+    double perSecond(Duration elapsed, Duration duration);
+
+    static ArrivalRate constant(double rate) {
+        return (elapsed, duration) -> Math.max(MIN_RATE, rate);
+    }
+
+    /**
+     * Holds the base rate except for a burst at the burst rate, starting a quarter into the run,
+     * like everyone opening the app at once after a push notification.
+     */
+    static ArrivalRate burst(double baseRate, double burstRate, Duration burstLength) {
+        return (elapsed, duration) -> {
+            Duration burstStart = duration.dividedBy(4);
+            boolean bursting = elapsed.compareTo(burstStart) >= 0
+                    && elapsed.compareTo(burstStart.plus(burstLength)) < 0;
+            return Math.max(MIN_RATE, bursting ? burstRate : baseRate);
+        };
+    }
+
+    /**
+     * Ramps up from the base to the peak rate in the first quarter of the run, holds the peak for half of it
+     * and ramps back down in the last quarter, like the traffic around a meal time.
+     */
+    static ArrivalRate peak(double baseRate, double peakRate) {
+        return (elapsed, duration) -> {
+            double progress = (double) elapsed.toNanos() / duration.toNanos();
+            double share = progress < 0.25 ? progress * 4 : progress < 0.75 ? 1 : (1 - progress) * 4;
+            return Math.max(MIN_RATE, baseRate + (peakRate - baseRate) * share);
+        };
+    }
+
+}
@@ -0,0 +1,137 @@
+package org.nikolait.assignment.caloriex.load;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.nikolait.assignment.caloriex.LoadTestBase;
+import org.nikolait.assignment.caloriex.dto.MealCreationDto;
+import org.nikolait.assignment.caloriex.dto.MealDishCreationDto;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.http.HttpRequest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Load scenarios modelled on how the application is used over a day. Each scenario asserts the latency SLOs
+ * of its operations and the throughput it must be served at, see 'load-test.properties'.
+ * Meals are written before reports are read, so the reports have something to aggregate.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class CalorieXLoadTest extends LoadTestBase {
+
+    private static final String TIME_ZONE_HEADER = "X-Time-Zone";
+    private static final List<String> TIME_ZONES = List.of("UTC", "Europe/Moscow", "America/New_York", "Asia/Tokyo");
+
+    /**
+     * Everyone opens the app at once, e.g. after a push notification.
+     */
+    @Test
+    @Order(1)
+    void loginBurst() {
+        SplittableRandom random = new SplittableRandom(settings.getInt("load.seed"));
+        ArrivalRate rate = ArrivalRate.burst(
+                settings.getDouble("load.login-burst.base-rate"),
+                settings.getDouble("load.login-burst.burst-rate"),
+                settings.getDuration("load.login-burst.burst-length")
+        );
+        runScenario("login-burst", rate, sequence -> {
+            VirtualUser user = randomUser(random);
+            return new LoadRequest("login", request("/users/login?email=" + encode(user.email()))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build());
+        });
+    }
+
+    /**
+     * Meals are logged around a meal time, and some users check their day right after logging one.
+     */
+    @Test
+    @Order(2)
+    void mealTimeWritePeak() {
+        SplittableRandom random = new SplittableRandom(settings.getInt("load.seed") + 1L);
+        double readShare = settings.getDouble("load.meal-peak.read-share");
+        ArrivalRate rate = ArrivalRate.peak(
+                settings.getDouble("load.meal-peak.base-rate"),
+                settings.getDouble("load.meal-peak.peak-rate")
+        );
+        runScenario("meal-peak", rate, sequence -> {
+            VirtualUser user = randomUser(random);
+            if (random.nextDouble() < readShare) {
+                return report(random, user, "report-today", "/meals/report/daily/today", MediaType.APPLICATION_JSON);
+            }
+            return new LoadRequest("create-meal", request("/meals")
+                    .header(HttpHeaders.AUTHORIZATION, user.authorization())
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(json(randomMeal(random, user)))
+                    .build());
+        });
+    }
+
+    /**
+     * Users look back at their reports, mostly at today and the last week.
+     */
+    @Test
+    @Order(3)
+    void reportReads() {
+        SplittableRandom random = new SplittableRandom(settings.getInt("load.seed") + 2L);
+        LocalDate today = LocalDate.now();
+        runScenario("report-reads", ArrivalRate.constant(settings.getDouble("load.report-reads.rate")), sequence -> {
+            VirtualUser user = randomUser(random);
+            int pick = random.nextInt(100);
+            if (pick < 40) {
+                return report(random, user, "report-today", "/meals/report/daily/today", MediaType.APPLICATION_JSON);
+            }
+            if (pick < 60) {
+                LocalDate day = today.minusDays(random.nextInt(30));
+                return report(random, user, "report-day", "/meals/report/daily/day?day=" + day,
+                        MediaType.APPLICATION_JSON);
+            }
+            String lastWeek = "/meals/report/daily/period?startDay=" + today.minusDays(6) + "&endDay=" + today;
+            if (pick < 80) {
+                return report(random, user, "report-period", lastWeek, MediaType.APPLICATION_JSON);
+            }
+            if (pick < 90) {
+                return report(random, user, "report-period-summary", lastWeek + "&view=summary",
+                        MediaType.APPLICATION_JSON);
+            }
+            return report(random, user, "report-all-tracked-summary", "/meals/report/daily/all-tracked?view=summary",
+                    MediaType.APPLICATION_JSON);
+        });
+    }
+
+    private VirtualUser randomUser(SplittableRandom random) {
+        return users.get(random.nextInt(users.size()));
+    }
+
+    private LoadRequest report(
+            SplittableRandom random,
+            VirtualUser user,
+            String operation,
+            String path,
+            MediaType accept
+    ) {
+        return new LoadRequest(operation, request(path)
+                .header(HttpHeaders.AUTHORIZATION, user.authorization())
+                .header(HttpHeaders.ACCEPT, accept.toString())
+                .header(TIME_ZONE_HEADER, TIME_ZONES.get(random.nextInt(TIME_ZONES.size())))
+                .GET()
+                .build());
+    }
+
+    private static MealCreationDto randomMeal(SplittableRandom random, VirtualUser user) {
+        List<Long> dishIds = new ArrayList<>(user.dishIds());
+        int dishCount = 1 + random.nextInt(Math.min(3, dishIds.size()));
+        List<MealDishCreationDto> mealDishes = new ArrayList<>(dishCount);
+        for (int i = 0; i < dishCount; i++) {
+            Long dishId = dishIds.remove(random.nextInt(dishIds.size()));
+            mealDishes.add(new MealDishCreationDto(dishId, 0.5 + 0.25 * random.nextInt(7)));
+        }
+        return new MealCreationDto("Load test meal", mealDishes);
+    }
+
+}
@@ -0,0 +1,72 @@
+package org.nikolait.assignment.caloriex.load;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Sends requests at a given arrival rate, whether or not earlier ones have been answered yet (an open workload),
+ * each from its own virtual thread.
+ * <p>
+ * Requests are created on the scheduling thread in order, so a seeded request factory yields the same run every time.
+ */
+public class LoadGenerator {
+
+    private final HttpClient httpClient;
+
+    public LoadGenerator(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Schedules requests for the given duration and waits until all of them are answered.
+     *
+     * @param requests creates the request with the given sequence number.
+     */
+    public LoadResult run(String scenario, ArrivalRate rate, Duration duration, LongFunction<LoadRequest> requests) {
+        LoadResult result = new LoadResult(scenario);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long intendedStart = start;
+        long sequence = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (intendedStart < end) {
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                LoadRequest request = requests.apply(sequence++);
+                long scheduledAt = intendedStart;
+                executor.execute(() -> send(request, scheduledAt, result));
+                double perSecond = rate.perSecond(Duration.ofNanos(intendedStart - start), duration);
+                intendedStart += (long) (1_000_000_000 / perSecond);
+            }
+        }
+        result.finish(sequence, duration.toNanos(), System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Sends the request and records how long it took from when it was scheduled, whether it succeeded or not,
+     * so failures and timeouts count against the latency SLOs as well.
+     */
+    private void send(LoadRequest request, long scheduledAt, LoadResult result) {
+        boolean success = false;
+        try {
+            HttpResponse<Void> response = httpClient.send(request.request(), HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            // Recorded as an error, including timeouts
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            result.record(request.operation(), System.nanoTime() - scheduledAt, success);
+        }
+    }
+
+}
@@ -0,0 +1,9 @@
+package org.nikolait.assignment.caloriex.load;
+
+import java.net.http.HttpRequest;
+
+/**
+ * A request of a load run; any 2xx response counts as a success of the operation.
+ */
+public record LoadRequest(String operation, HttpRequest request) {
+}
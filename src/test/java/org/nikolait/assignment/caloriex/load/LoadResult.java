@@ -0,0 +1,146 @@
+package org.nikolait.assignment.caloriex.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and errors of a load run per operation.
+ * <p>
+ * A latency is taken from the moment the request was scheduled to be sent, not from when it was sent,
+ * so a stalled application is charged for the requests queued behind it. Every request is recorded,
+ * failed and timed out ones too, so errors count against the latency percentiles as well as the error rate.
+ */
+public class LoadResult {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String scenario;
+    private final Map<String, OperationRecorder> operations = new ConcurrentSkipListMap<>();
+
+    private long scheduled;
+    private long elapsedNanos;
+    private long scheduledNanos;
+
+    public LoadResult(String scenario) {
+        this.scenario = scenario;
+    }
+
+    public String scenario() {
+        return scenario;
+    }
+
+    void record(String operation, long latencyNanos, boolean success) {
+        OperationRecorder recorder = operations.computeIfAbsent(operation, name -> new OperationRecorder());
+        recorder.latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        if (!success) {
+            recorder.errors.increment();
+        }
+    }
+
+    /**
+     * @param scheduledNanos time over which the requests were scheduled.
+     * @param elapsedNanos   time until the last response arrived.
+     */
+    void finish(long scheduled, long scheduledNanos, long elapsedNanos) {
+        this.scheduled = scheduled;
+        this.scheduledNanos = scheduledNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return requests per second that were scheduled to be sent.
+     */
+    public double offeredRate() {
+        return scheduled / seconds(scheduledNanos);
+    }
+
+    /**
+     * @return successful responses per second, over all operations.
+     */
+    public double throughput() {
+        return operations.values().stream().mapToLong(OperationRecorder::successes).sum() / seconds(elapsedNanos);
+    }
+
+    public List<OperationStats> stats() {
+        return operations.entrySet().stream()
+                .map(entry -> {
+                    Histogram latencies = entry.getValue().latencies;
+                    return new OperationStats(
+                            entry.getKey(),
+                            latencies.getTotalCount(),
+                            entry.getValue().errors.sum(),
+                            entry.getValue().successes() / seconds(elapsedNanos),
+                            percentile(latencies, 50),
+                            percentile(latencies, 99),
+                            percentile(latencies, 99.9),
+                            Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencies.getMaxValue()))
+                    );
+                })
+                .toList();
+    }
+
+    /**
+     * @return a table of the run, one line per operation.
+     */
+    public String format() {
+        StringBuilder table = new StringBuilder()
+                .append("Scenario ").append(scenario)
+                .append(String.format(": offered %.1f req/s, throughput %.1f req/s%n", offeredRate(), throughput()))
+                .append(String.format("%-28s %9s %7s %10s %9s %9s %9s %9s%n",
+                        "operation", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (OperationStats stats : stats()) {
+            table.append(String.format("%-28s %9d %7d %10.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    stats.operation(), stats.count(), stats.errors(), stats.throughput(),
+                    millis(stats.p50()), millis(stats.p99()), millis(stats.p999()), millis(stats.max())));
+        }
+        return table.toString();
+    }
+
+    private static Duration percentile(Histogram latencies, double percentile) {
+        return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencies.getValueAtPercentile(percentile)));
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+
+    private static double seconds(long nanos) {
+        return Math.max(nanos, 1) / 1_000_000_000.0;
+    }
+
+    public record OperationStats(
+            String operation,
+            long count,
+            long errors,
+            double throughput,
+            Duration p50,
+            Duration p99,
+            Duration p999,
+            Duration max
+    ) {
+
+        public double errorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+
+    }
+
+    private static final class OperationRecorder {
+
+        private final Histogram latencies = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+
+        private long successes() {
+            return latencies.getTotalCount() - errors.sum();
+        }
+
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.nikolait.assignment.caloriex.load;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Settings of the load tests from 'load-test.properties', each of which can be overridden by a system property,
+ * e.g. {@code mvn test -P load -Dload.duration=2m -Dload.slo.create-meal.p99=150ms}.
+ */
+public class LoadSettings {
+
+    private static final String RESOURCE = "load-test.properties";
+
+    private final Properties defaults;
+
+    private LoadSettings(Properties defaults) {
+        this.defaults = defaults;
+    }
+
+    public static LoadSettings load() {
+        try {
+            return new LoadSettings(PropertiesLoaderUtils.loadProperties(new ClassPathResource(RESOURCE)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + RESOURCE, e);
+        }
+    }
+
+    public String getString(String key) {
+        String value = System.getProperty(key, defaults.getProperty(key));
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("Load test setting '" + key + "' is not set");
+        }
+        return value.trim();
+    }
+
+    public int getInt(String key) {
+        return Integer.parseInt(getString(key));
+    }
+
+    public double getDouble(String key) {
+        return Double.parseDouble(getString(key));
+    }
+
+    public Duration getDuration(String key) {
+        return DurationStyle.detectAndParse(getString(key));
+    }
+
+    /**
+     * @return how long the scenario runs, 'load.duration' unless it has a duration of its own.
+     */
+    public Duration duration(String scenario) {
+        String key = "load." + scenario + ".duration";
+        return isSet(key) ? getDuration(key) : getDuration("load.duration");
+    }
+
+    /**
+     * @return the SLO of an operation from the 'load.slo.&lt;operation&gt;.*' settings, with null for the unset ones.
+     */
+    public Slo slo(String operation) {
+        String prefix = "load.slo." + operation + ".";
+        return new Slo(
+                isSet(prefix + "p50") ? getDuration(prefix + "p50") : null,
+                isSet(prefix + "p99") ? getDuration(prefix + "p99") : null,
+                isSet(prefix + "p999") ? getDuration(prefix + "p999") : null,
+                isSet(prefix + "max-error-rate") ? getDouble(prefix + "max-error-rate") : null
+        );
+    }
+
+    /**
+     * @return the share of the offered rate the scenario must at least be served at, 0 if unset.
+     */
+    public double minThroughputRatio(String scenario) {
+        String key = "load.slo." + scenario + ".min-throughput-ratio";
+        return isSet(key) ? getDouble(key) : 0;
+    }
+
+    private boolean isSet(String key) {
+        String value = System.getProperty(key, defaults.getProperty(key));
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * Latency and error limits of an operation; a null limit is not checked.
+     */
+    public record Slo(Duration p50, Duration p99, Duration p999, Double maxErrorRate) {
+    }
+
+}
@@ -0,0 +1,9 @@
+package org.nikolait.assignment.caloriex.load;
+
+import java.util.List;
+
+/**
+ * A user the load tests act as, with the ID sent in the Authorization header and the dishes meals are made of.
+ */
+public record VirtualUser(String email, String authorization, List<Long> dishIds) {
+}
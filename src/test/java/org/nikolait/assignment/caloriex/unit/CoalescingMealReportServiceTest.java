@@ -0,0 +1,121 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.coalescing.CoalescingMealReportService;
+import org.nikolait.assignment.caloriex.coalescing.RecentWrites;
+import org.nikolait.assignment.caloriex.coalescing.SingleFlight;
+import org.nikolait.assignment.caloriex.config.CoalescingProperties;
+import org.nikolait.assignment.caloriex.dto.MealDailyReportDto;
+import org.nikolait.assignment.caloriex.mapper.MealDailyReportMapper;
+import org.nikolait.assignment.caloriex.mapper.MealDailySummaryMapper;
+import org.nikolait.assignment.caloriex.mapper.NutritionAggregateMapper;
+import org.nikolait.assignment.caloriex.model.MealDailyReport;
+import org.nikolait.assignment.caloriex.service.MealReportService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CoalescingMealReportServiceTest extends UnitTestBase {
+
+    private static final Long USER_ID = 1L;
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 15);
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecentWrites recentWrites = new RecentWrites(new CoalescingProperties(Duration.ofMinutes(1)));
+
+    @Mock
+    private MealReportService mealReportService;
+    @Mock
+    private MealDailyReportMapper mealDailyReportMapper;
+    @Mock
+    private MealDailySummaryMapper mealDailySummaryMapper;
+    @Mock
+    private NutritionAggregateMapper nutritionAggregateMapper;
+
+    private CoalescingMealReportService coalescingMealReportService;
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        coalescingMealReportService = new CoalescingMealReportService(
+                mealReportService,
+                mealDailyReportMapper,
+                mealDailySummaryMapper,
+                nutritionAggregateMapper,
+                new SingleFlight(meterRegistry),
+                recentWrites
+        );
+        // every computation maps a new report, the first one blocks until released
+        when(mealReportService.generateMealDailyReportForDay(USER_ID, DAY, UTC)).thenAnswer(invocation -> {
+            if (computations.incrementAndGet() == 1) {
+                started.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            return new MealDailyReport(DAY, List.of(), 2000, computations.get());
+        });
+        when(mealDailyReportMapper.toResponseDto(any())).thenAnswer(invocation -> {
+            MealDailyReport report = invocation.getArgument(0);
+            return new MealDailyReportDto(report.getDate(), List.of(), report.getTotalCalories(), 2000, false);
+        });
+    }
+
+    @Test
+    void concurrentIdenticalRequests_shareOneMappedReport() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<MealDailyReportDto> leader = executor.submit(this::getReport);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<MealDailyReportDto> follower = executor.submit(this::getReport);
+            awaitCoalesced();
+            release.countDown();
+
+            assertSame(leader.get(), follower.get());
+        }
+        assertEquals(1, computations.get());
+        verify(mealDailyReportMapper, times(1)).toResponseDto(any());
+    }
+
+    @Test
+    void requestAfterUsersOwnWrite_doesNotJoinComputationStartedBeforeIt() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<MealDailyReportDto> beforeWrite = executor.submit(this::getReport);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            recentWrites.record(USER_ID);
+            MealDailyReportDto afterWrite = getReport();
+            release.countDown();
+
+            assertEquals(2, afterWrite.totalCalories());
+            assertNotSame(beforeWrite.get(), afterWrite);
+        }
+        assertEquals(2, computations.get());
+    }
+
+    private MealDailyReportDto getReport() {
+        return coalescingMealReportService.getMealDailyReportForDay(USER_ID, DAY, UTC);
+    }
+
+    private void awaitCoalesced() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("caloriex.single-flight.calls",
+                "operation", "daily-report", "result", "coalesced").count() < 1) {
+            assertTrue(System.nanoTime() < deadline, "Follower did not join the computation in time");
+            Thread.sleep(1);
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.compression.CompressionFilter;
+import org.nikolait.assignment.caloriex.config.CompressionProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionFilterTest extends UnitTestBase {
+
+    private static final String LARGE_JSON = "[" + "{\"name\":\"Oatmeal\",\"calories\":150},".repeat(200) + "{}]";
+    private static final String SMALL_JSON = "{\"name\":\"Oatmeal\"}";
+
+    private MeterRegistry meterRegistry;
+    private CompressionFilter compressionFilter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        compressionFilter = new CompressionFilter(
+                new CompressionProperties(true, DataSize.ofKilobytes(2), 6, List.of("application/json"), 4),
+                meterRegistry
+        );
+    }
+
+    @Test
+    void largeJson_isCompressedAndCounted() throws Exception {
+        MockHttpServletResponse response = filter("gzip, deflate", writing("application/json", LARGE_JSON));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertEquals(LARGE_JSON, gunzip(response.getContentAsByteArray()));
+        double original = meterRegistry.counter("caloriex.http.compression.original").count();
+        double saved = meterRegistry.counter("caloriex.http.compression.saved").count();
+        assertAll(
+                () -> assertEquals(LARGE_JSON.length(), original),
+                () -> assertEquals(original - response.getContentAsByteArray().length, saved),
+                () -> assertEquals(1, meterRegistry.counter("caloriex.http.compression.responses").count())
+        );
+    }
+
+    @Test
+    void responseBelowMinimumSize_isSentUnchangedWithContentLength() throws Exception {
+        MockHttpServletResponse response = filter("gzip", writing("application/json", SMALL_JSON));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(SMALL_JSON, response.getContentAsString());
+        assertEquals(SMALL_JSON.length(), response.getContentLength());
+    }
+
+    @Test
+    void excludedContentType_reachesClientOnFlushBelowMinimumSize() throws Exception {
+        String line = "Oatmeal 150 kcal\n";
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/meals/export");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        compressionFilter.doFilter(request, response, (servletRequest, servletResponse) -> {
+            servletResponse.setContentType("text/plain");
+            servletResponse.getOutputStream().write(line.getBytes(StandardCharsets.UTF_8));
+            servletResponse.flushBuffer();
+
+            assertEquals(line, response.getContentAsString());
+        });
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(line, response.getContentAsString());
+    }
+
+    @Test
+    void clientWithoutGzip_getsUncompressedResponse() throws Exception {
+        MockHttpServletResponse response = filter("gzip;q=0, br", writing("application/json", LARGE_JSON));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(LARGE_JSON, response.getContentAsString());
+    }
+
+    @Test
+    void otherContentType_isSentUnchanged() throws Exception {
+        MockHttpServletResponse response = filter("gzip", writing("text/plain", LARGE_JSON));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(LARGE_JSON, response.getContentAsString());
+    }
+
+    @Test
+    void eventStream_reachesClientOnFlushBelowMinimumSize() throws Exception {
+        String event = "event:progress\ndata:{\"totalCalories\":450}\n\n";
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/meals/report/daily/today/stream");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        compressionFilter.doFilter(request, response, (servletRequest, servletResponse) -> {
+            servletResponse.setContentType("text/event-stream");
+            servletResponse.getOutputStream().write(event.getBytes(StandardCharsets.UTF_8));
+            servletResponse.flushBuffer();
+
+            assertEquals(event, response.getContentAsString());
+        });
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void alreadyEncodedResponse_isNotCompressedTwice() throws Exception {
+        MockHttpServletResponse response = filter("gzip", (request, servletResponse) -> {
+            servletResponse.setContentType("application/json");
+            ((HttpServletResponse) servletResponse)
+                    .setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            servletResponse.getOutputStream().write(LARGE_JSON.getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals(LARGE_JSON, response.getContentAsString());
+        assertEquals(0, meterRegistry.counter("caloriex.http.compression.responses").count());
+    }
+
+    private MockHttpServletResponse filter(String acceptEncoding, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/meals/report/daily/period");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        compressionFilter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static FilterChain writing(String contentType, String body) {
+        return (request, response) -> {
+            response.setContentType(contentType);
+            response.getWriter().write(body);
+        };
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.config.ConnectionPoolConfig;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConnectionPoolConfigTest extends UnitTestBase {
+
+    @Test
+    void databaseCores_sizePoolFromDatabaseServer() {
+        HikariDataSource dataSource = size(new MockEnvironment()
+                .withProperty("app.connection-pool.auto-size", "true")
+                .withProperty("app.connection-pool.database-cores", "4")
+                .withProperty("app.connection-pool.effective-spindles", "1"));
+
+        assertEquals(9, dataSource.getMaximumPoolSize());
+        assertEquals(9, dataSource.getMinimumIdle());
+    }
+
+    @Test
+    void unknownDatabaseCores_fallBackToFixedSize() {
+        HikariDataSource dataSource = size(new MockEnvironment()
+                .withProperty("app.connection-pool.auto-size", "true")
+                .withProperty("app.connection-pool.database-cores", "0")
+                .withProperty("app.connection-pool.fallback-pool-size", "6"));
+
+        assertEquals(6, dataSource.getMaximumPoolSize());
+    }
+
+    @Test
+    void poolSize_isCappedByExpectedConcurrency() {
+        HikariDataSource dataSource = size(new MockEnvironment()
+                .withProperty("app.connection-pool.auto-size", "true")
+                .withProperty("app.connection-pool.database-cores", "32")
+                .withProperty("app.connection-pool.expected-concurrency", "20"));
+
+        assertEquals(20, dataSource.getMaximumPoolSize());
+    }
+
+    @Test
+    void autoSizeOff_keepsConfiguredPoolSize() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(15);
+
+        size(dataSource, new MockEnvironment().withProperty("app.connection-pool.database-cores", "4"));
+
+        assertEquals(15, dataSource.getMaximumPoolSize());
+    }
+
+    private static HikariDataSource size(MockEnvironment environment) {
+        return size(new HikariDataSource(), environment);
+    }
+
+    private static HikariDataSource size(HikariDataSource dataSource, MockEnvironment environment) {
+        ConnectionPoolConfig.connectionPoolSizer(environment).postProcessBeforeInitialization(dataSource, "dataSource");
+        return dataSource;
+    }
+
+}
@@ -0,0 +1,49 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.exception.handler.ControllerExceptionHandler;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.ErrorResponse;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControllerExceptionHandlerTest extends UnitTestBase {
+
+    private final ControllerExceptionHandler handler = new ControllerExceptionHandler();
+
+    @Test
+    void duplicateDishName_isConflictWithDishMessage() {
+        ErrorResponse response = handler.handleDataIntegrityViolation(
+                violation("23505", "unique_user_dish_name"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Dish with this name already exists for current User", response.getBody().getDetail());
+    }
+
+    @Test
+    void otherUniqueViolation_isConflict() {
+        ErrorResponse response = handler.handleDataIntegrityViolation(violation("23505", "users_email_key"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void foreignKeyViolation_isNotConflict() {
+        DataIntegrityViolationException ex = violation("23503", "meal_dishes_dish_id_fkey");
+
+        assertSame(ex, assertThrows(DataIntegrityViolationException.class,
+                () -> handler.handleDataIntegrityViolation(ex)));
+    }
+
+    private static DataIntegrityViolationException violation(String sqlState, String constraintName) {
+        SQLException sqlException = new SQLException("constraint violated", sqlState);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("constraint violated", sqlException, constraintName));
+    }
+
+}
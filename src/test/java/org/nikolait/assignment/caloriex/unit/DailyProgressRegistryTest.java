@@ -0,0 +1,177 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.config.DailyProgressStreamProperties;
+import org.nikolait.assignment.caloriex.dto.MealDailySummaryDto;
+import org.nikolait.assignment.caloriex.mapper.MealDailySummaryMapper;
+import org.nikolait.assignment.caloriex.outbox.MealCreatedEvent;
+import org.nikolait.assignment.caloriex.progress.DailyProgressRegistry;
+import org.nikolait.assignment.caloriex.service.MealReportService;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class DailyProgressRegistryTest extends UnitTestBase {
+
+    private static final long USER_ID = 1L;
+    private static final long OTHER_USER_ID = 2L;
+    private static final String PROGRESS_EVENT = "event:progress";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private MealReportService mealReportService;
+
+    @Mock
+    private MealDailySummaryMapper mealDailySummaryMapper;
+
+    private DailyProgressRegistry registry;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        registry = new DailyProgressRegistry(
+                new DailyProgressStreamProperties(Duration.ofHours(1), Duration.ofHours(1), 5, Duration.ofSeconds(5)),
+                mealReportService,
+                mealDailySummaryMapper,
+                meterRegistry
+        );
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProgressEndpoint(registry)).build();
+        lenient().when(mealDailySummaryMapper.toResponseDtoList(any()))
+                .thenReturn(List.of(new MealDailySummaryDto(LocalDate.now(ZoneId.of("UTC")), 450, 2000, false)));
+        registry.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (registry.isRunning()) {
+            registry.stop();
+        }
+    }
+
+    @Test
+    void subscribe_sendsProgressRightAway_andUnsubscribesWhenStreamCompletes() throws Exception {
+        MvcResult stream = subscribe(USER_ID);
+
+        awaitTrue(() -> countProgressEvents(stream) == 1);
+        assertTrue(content(stream).contains("\"totalCalories\":450"));
+        assertEquals(1, subscriptionCount());
+
+        stream.getRequest().getAsyncContext().complete();
+
+        assertEquals(0, subscriptionCount());
+    }
+
+    @Test
+    void onMealsCreated_pushesProgressToEveryStreamOfTheUserOnly() throws Exception {
+        MvcResult first = subscribe(USER_ID);
+        MvcResult second = subscribe(USER_ID);
+        MvcResult other = subscribe(OTHER_USER_ID);
+        awaitTrue(() -> countProgressEvents(second) == 1 && countProgressEvents(other) == 1);
+        // the refresh of the second subscription may have reached the first one too
+        long firstBefore = countProgressEvents(first);
+
+        registry.onMealsCreated(List.of(mealCreated(300L), mealCreated(301L)));
+
+        awaitTrue(() -> countProgressEvents(first) == firstBefore + 1 && countProgressEvents(second) == 2);
+        assertEquals(1, countProgressEvents(other));
+        assertEquals(3, subscriptionCount());
+    }
+
+    @Test
+    void deadStream_isUnsubscribedOnNextPush() {
+        // the client is gone without the completion callback having run, so the next push fails
+        SseEmitter emitter = registry.subscribe(USER_ID, ZoneId.of("UTC"));
+        emitter.complete();
+
+        registry.onMealsCreated(List.of(mealCreated(300L)));
+
+        awaitTrue(() -> subscriptionCount() == 0);
+    }
+
+    @Test
+    void start_afterStop_pushesProgressAgain() throws Exception {
+        registry.stop();
+        registry.start();
+
+        MvcResult stream = subscribe(USER_ID);
+
+        awaitTrue(() -> countProgressEvents(stream) == 1);
+    }
+
+    private MvcResult subscribe(long userId) throws Exception {
+        return mockMvc.perform(get("/progress").param("userId", String.valueOf(userId)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private double subscriptionCount() {
+        return meterRegistry.get("caloriex.progress.subscriptions").gauge().value();
+    }
+
+    private static MealCreatedEvent mealCreated(long mealId) {
+        Instant now = Instant.now();
+        return new MealCreatedEvent(mealId, mealId, mealId, USER_ID, now, now, 450, 10.0, 5.0, 60.0);
+    }
+
+    private static long countProgressEvents(MvcResult stream) {
+        return content(stream).lines().filter(PROGRESS_EVENT::equals).count();
+    }
+
+    private static String content(MvcResult stream) {
+        try {
+            return stream.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.onSpinWait();
+        }
+    }
+
+    @RestController
+    static class ProgressEndpoint {
+
+        private final DailyProgressRegistry registry;
+
+        ProgressEndpoint(DailyProgressRegistry registry) {
+            this.registry = registry;
+        }
+
+        @GetMapping("/progress")
+        SseEmitter progress(@RequestParam long userId) {
+            return registry.subscribe(userId, ZoneId.of("UTC"));
+        }
+
+    }
+
+}
@@ -6,15 +6,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
+import org.hibernate.exception.ConstraintViolationException;
 import org.mockito.Mock;
 import org.nikolait.assignment.caloriex.UnitTestBase;
 import org.nikolait.assignment.caloriex.exception.EntityAlreadyExistsException;
 import org.nikolait.assignment.caloriex.model.Dish;
+import org.nikolait.assignment.caloriex.model.SyncEntityTypeEnum;
+import org.nikolait.assignment.caloriex.model.SyncOperationEnum;
 import org.nikolait.assignment.caloriex.model.User;
 import org.nikolait.assignment.caloriex.repository.DishRepository;
+import org.nikolait.assignment.caloriex.repository.SyncChangeRepository;
 import org.nikolait.assignment.caloriex.repository.UserRepository;
 import org.nikolait.assignment.caloriex.service.impl.DishServiceImpl;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +42,9 @@ class DishServiceImplTest extends UnitTestBase {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SyncChangeRepository syncChangeRepository;
+
     @InjectMocks
     private DishServiceImpl dishService;
 
@@ -91,32 +100,38 @@ class DishServiceImplTest extends UnitTestBase {
     void createDish_NormalizesName() {
         Dish request = baseDish.toBuilder().name("  Test  Dish  ").build();
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
-        when(dishRepository.existsByNameAndUserId(DISH_NAME, USER_ID)).thenReturn(false);
-        when(dishRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(dishRepository.save(any())).thenAnswer(inv -> withId(inv.getArgument(0)));
 
         Dish result = dishService.createDish(USER_ID, request);
 
         assertThat(result.getName()).isEqualTo(DISH_NAME);
-        verify(dishRepository).existsByNameAndUserId(DISH_NAME, USER_ID);
+        verify(dishRepository).save(argThat(dish -> DISH_NAME.equals(dish.getName())));
     }
 
     @Test
     void createDish_ExistingNameForUser_ThrowsEntityAlreadyExistsException() {
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
-        when(dishRepository.existsByNameAndUserId(DISH_NAME, USER_ID)).thenReturn(true);
+        when(dishRepository.save(any())).thenThrow(constraintViolation("unique_user_dish_name"));
 
         assertThrows(EntityAlreadyExistsException.class,
                 () -> dishService.createDish(USER_ID, baseDish));
 
-        verify(dishRepository).existsByNameAndUserId(DISH_NAME, USER_ID);
-        verify(dishRepository, never()).save(any());
+        verify(dishRepository).save(any());
+    }
+
+    @Test
+    void createDish_OtherIntegrityViolation_RethrowsOriginalException() {
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
+        when(dishRepository.save(any())).thenThrow(constraintViolation("dishes_user_id_fkey"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> dishService.createDish(USER_ID, baseDish));
     }
 
     @Test
     void createDish_CaloriesProvided_SavesWithProvidedCalories() {
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
-        when(dishRepository.existsByNameAndUserId(any(), any())).thenReturn(false);
-        when(dishRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(dishRepository.save(any())).thenAnswer(inv -> withId(inv.getArgument(0)));
 
         Dish result = dishService.createDish(USER_ID, baseDish);
 
@@ -132,7 +147,6 @@ class DishServiceImplTest extends UnitTestBase {
                 .build();
 
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
-        when(dishRepository.existsByNameAndUserId(any(), any())).thenReturn(false);
 
         ValidationException ex = assertThrows(ValidationException.class,
                 () -> dishService.createDish(USER_ID, invalidDish));
@@ -152,8 +166,7 @@ class DishServiceImplTest extends UnitTestBase {
 
         int expectedCalories = (30 * 4) + (10 * 9) + (5 * 4); // 230
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
-        when(dishRepository.existsByNameAndUserId(any(), any())).thenReturn(false);
-        when(dishRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(dishRepository.save(any())).thenAnswer(inv -> withId(inv.getArgument(0)));
 
         Dish result = dishService.createDish(USER_ID, request);
 
@@ -175,8 +188,7 @@ class DishServiceImplTest extends UnitTestBase {
     @Test
     void createDish_AssignsUserToDish() {
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
-        when(dishRepository.existsByNameAndUserId(any(), any())).thenReturn(false);
-        when(dishRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(dishRepository.save(any())).thenAnswer(inv -> withId(inv.getArgument(0)));
 
         Dish result = dishService.createDish(USER_ID, baseDish);
 
@@ -194,6 +206,16 @@ class DishServiceImplTest extends UnitTestBase {
                 .isEqualTo(USER_ID);
     }
 
+    @Test
+    void createDish_RecordsSyncChange() {
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
+        when(dishRepository.save(any())).thenAnswer(inv -> withId(inv.getArgument(0)));
+
+        dishService.createDish(USER_ID, baseDish);
+
+        verify(syncChangeRepository).append(USER_ID, SyncEntityTypeEnum.DISH, List.of(DISH_ID), SyncOperationEnum.UPSERT);
+    }
+
     @Test
     void getAllByUserId_ReturnsDishesFromRepository() {
         List<Dish> expected = List.of(
@@ -212,12 +234,12 @@ class DishServiceImplTest extends UnitTestBase {
     void createDish_AutoPopulatesCreatedAt() {
         // Arrange: Mock dependencies
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
-        when(dishRepository.existsByNameAndUserId(any(), any())).thenReturn(false);
 
         // Mock save operation to return dish WITH populated createdAt
         when(dishRepository.save(any(Dish.class))).thenAnswer(invocation -> {
             Dish dishToSave = invocation.getArgument(0);
             return dishToSave.toBuilder()
+                    .id(DISH_ID)
                     .createdAt(Instant.now()) // Simulate DB auto-population
                     .build();
         });
@@ -231,4 +253,14 @@ class DishServiceImplTest extends UnitTestBase {
                 .isNotNull()
                 .isBetween(Instant.now().minusSeconds(2), Instant.now());
     }
+
+    private Dish withId(Dish dish) {
+        dish.setId(DISH_ID);
+        return dish;
+    }
+
+    private DataIntegrityViolationException constraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate key value", new SQLException(), constraintName));
+    }
 }
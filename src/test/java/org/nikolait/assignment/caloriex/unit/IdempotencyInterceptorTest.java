@@ -0,0 +1,176 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.annotation.Idempotent;
+import org.nikolait.assignment.caloriex.config.IdempotencyProperties;
+import org.nikolait.assignment.caloriex.exception.RequestInProgressException;
+import org.nikolait.assignment.caloriex.exception.UnprocessableEntityException;
+import org.nikolait.assignment.caloriex.idempotency.IdempotencyInterceptor;
+import org.nikolait.assignment.caloriex.idempotency.IdempotencyKeyFilter;
+import org.nikolait.assignment.caloriex.idempotency.InMemoryIdempotencyStore;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyInterceptorTest extends UnitTestBase {
+
+    private static final String MEAL = "{\"name\":\"Breakfast\",\"mealDishes\":[{\"dishId\":200,\"servings\":1.0}]}";
+    private static final String OTHER_MEAL = "{\"name\":\"Lunch\",\"mealDishes\":[{\"dishId\":201,\"servings\":2.0}]}";
+    private static final String LOCATION = "http://localhost/api/v1/meals/300";
+
+    private static final IdempotencyProperties PROPERTIES =
+            new IdempotencyProperties("memory", Duration.ofHours(1), 100, DataSize.ofKilobytes(1));
+
+    private final IdempotencyInterceptor interceptor =
+            new IdempotencyInterceptor(new InMemoryIdempotencyStore(PROPERTIES));
+    private final RequestMappingHandlerMapping handlerMapping = handlerMapping();
+    private final IdempotencyKeyFilter filter = new IdempotencyKeyFilter(PROPERTIES, handlerMapping);
+    private final HandlerMethod handler = handlerMapping.getHandlerMethods().values().iterator().next();
+
+    private int handled;
+
+    @Test
+    void repeatedRequest_replaysRecordedResponse() throws Exception {
+        send(MEAL, true);
+
+        MockHttpServletResponse replayed = send(MEAL, true);
+
+        assertEquals(1, handled, "Controller should only run for the first request");
+        assertEquals(201, replayed.getStatus());
+        assertEquals(LOCATION, replayed.getHeader(HttpHeaders.LOCATION));
+        assertEquals("true", replayed.getHeader(IdempotencyInterceptor.IDEMPOTENT_REPLAYED_HEADER));
+    }
+
+    @Test
+    void keyReusedWithDifferentBody_isRejected() throws Exception {
+        send(MEAL, true);
+
+        assertThrows(UnprocessableEntityException.class, () -> send(OTHER_MEAL, true));
+        assertEquals(1, handled);
+    }
+
+    @Test
+    void repeatedRequestWhileFirstIsInProgress_isConflict() throws Exception {
+        send(MEAL, false);
+
+        assertThrows(RequestInProgressException.class, () -> send(MEAL, true));
+        assertThrows(UnprocessableEntityException.class, () -> send(OTHER_MEAL, true));
+        assertEquals(1, handled);
+    }
+
+    @Test
+    void bodyOverMaximum_isRejectedWithoutReachingController() throws Exception {
+        MockHttpServletResponse response = send("[" + " ".repeat(1024) + "]", true);
+
+        assertEquals(413, response.getStatus());
+        assertEquals(0, handled);
+    }
+
+    @Test
+    void requestToOtherEndpoint_isNotBuffered() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/users");
+        request.addHeader(IdempotencyInterceptor.IDEMPOTENCY_KEY_HEADER, "3f2c7a9e");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (servletRequest, servletResponse) ->
+                assertSame(request, servletRequest, "Request should be passed on as is"));
+    }
+
+    @Test
+    void bufferedBody_signalsReadListenerRightAway() throws Exception {
+        MockHttpServletRequest request = mealRequest(MEAL);
+        List<String> events = new ArrayList<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (servletRequest, servletResponse) -> {
+            ServletInputStream in = servletRequest.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("data:" + new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+        });
+
+        assertEquals(List.of("data:" + MEAL, "done"), events);
+    }
+
+    /**
+     * Sends a meal creation through the filter and the interceptor. The controller reads the body and answers 201,
+     * and the request is only completed if asked to, to leave it in progress otherwise.
+     */
+    private MockHttpServletResponse send(String body, boolean complete) throws Exception {
+        MockHttpServletRequest request = mealRequest(body);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (servletRequest, servletResponse) -> {
+            HttpServletRequest filteredRequest = (HttpServletRequest) servletRequest;
+            if (!interceptor.preHandle(filteredRequest, response, handler)) {
+                return;
+            }
+            handled++;
+            assertEquals(body, new String(filteredRequest.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            response.setStatus(201);
+            response.setHeader(HttpHeaders.LOCATION, LOCATION);
+            if (complete) {
+                interceptor.afterCompletion(filteredRequest, response, handler, null);
+            }
+        });
+        return response;
+    }
+
+    private static MockHttpServletRequest mealRequest(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/meals");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "1");
+        request.addHeader(IdempotencyInterceptor.IDEMPOTENCY_KEY_HEADER, "3f2c7a9e");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static RequestMappingHandlerMapping handlerMapping() {
+        StaticWebApplicationContext context = new StaticWebApplicationContext();
+        context.registerSingleton("mealEndpoint", MealEndpoint.class);
+        context.refresh();
+        RequestMappingHandlerMapping handlerMapping = new RequestMappingHandlerMapping();
+        handlerMapping.setApplicationContext(context);
+        handlerMapping.afterPropertiesSet();
+        return handlerMapping;
+    }
+
+    @RestController
+    static class MealEndpoint {
+
+        @Idempotent
+        @PostMapping("/api/v1/meals")
+        public void createMeal() {
+        }
+
+    }
+
+}
@@ -0,0 +1,86 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.config.IdempotencyProperties;
+import org.nikolait.assignment.caloriex.idempotency.IdempotencyRecord;
+import org.nikolait.assignment.caloriex.idempotency.InMemoryIdempotencyStore;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryIdempotencyStoreTest extends UnitTestBase {
+
+    private static final String KEY = "key";
+    private static final String FINGERPRINT = "fingerprint";
+    private static final IdempotencyRecord CREATED =
+            new IdempotencyRecord(201, "http://localhost/api/v1/meals/300", FINGERPRINT);
+
+    @Test
+    void reserve_newKey_returnsEmpty() {
+        InMemoryIdempotencyStore store = createStore(Duration.ofHours(1), 10);
+
+        assertTrue(store.reserve(KEY, FINGERPRINT).isEmpty());
+    }
+
+    @Test
+    void reserve_keyInProgress_returnsInProgressRecord() {
+        InMemoryIdempotencyStore store = createStore(Duration.ofHours(1), 10);
+        store.reserve(KEY, FINGERPRINT);
+
+        Optional<IdempotencyRecord> existing = store.reserve(KEY, FINGERPRINT);
+
+        assertTrue(existing.isPresent());
+        assertFalse(existing.get().isCompleted());
+        assertEquals(FINGERPRINT, existing.get().fingerprint());
+    }
+
+    @Test
+    void reserve_completedKey_returnsRecordedResponse() {
+        InMemoryIdempotencyStore store = createStore(Duration.ofHours(1), 10);
+        store.reserve(KEY, FINGERPRINT);
+        store.complete(KEY, CREATED);
+
+        assertEquals(Optional.of(CREATED), store.reserve(KEY, FINGERPRINT));
+    }
+
+    @Test
+    void reserve_releasedKey_canBeReservedAgain() {
+        InMemoryIdempotencyStore store = createStore(Duration.ofHours(1), 10);
+        store.reserve(KEY, FINGERPRINT);
+        store.release(KEY);
+
+        assertTrue(store.reserve(KEY, FINGERPRINT).isEmpty());
+    }
+
+    @Test
+    void reserve_expiredKey_canBeReservedAgain() throws InterruptedException {
+        InMemoryIdempotencyStore store = createStore(Duration.ofMillis(20), 10);
+        store.reserve(KEY, FINGERPRINT);
+        store.complete(KEY, CREATED);
+
+        Thread.sleep(50);
+
+        assertTrue(store.reserve(KEY, FINGERPRINT).isEmpty());
+    }
+
+    @Test
+    void reserve_overCapacity_evictsOldestKeys() {
+        InMemoryIdempotencyStore store = createStore(Duration.ofHours(1), 3);
+        for (int i = 0; i < 5; i++) {
+            store.reserve(KEY + i, FINGERPRINT);
+        }
+
+        assertEquals(3, store.size());
+        assertTrue(store.reserve(KEY + 0, FINGERPRINT).isEmpty(), "Oldest key should have been evicted");
+        assertTrue(store.reserve(KEY + 4, FINGERPRINT).isPresent(), "Newest key should be kept");
+    }
+
+    private InMemoryIdempotencyStore createStore(Duration ttl, int maxKeys) {
+        return new InMemoryIdempotencyStore(new IdempotencyProperties("memory", ttl, maxKeys, DataSize.ofKilobytes(64)));
+    }
+
+}
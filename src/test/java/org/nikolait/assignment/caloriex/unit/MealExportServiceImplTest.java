@@ -0,0 +1,134 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.dto.MealResponseDto;
+import org.nikolait.assignment.caloriex.mapper.*;
+import org.nikolait.assignment.caloriex.model.ExportFormatEnum;
+import org.nikolait.assignment.caloriex.model.MealDishRow;
+import org.nikolait.assignment.caloriex.repository.MealDishRowRepository;
+import org.nikolait.assignment.caloriex.service.impl.MealExportServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringJUnitConfig({MealMapperImpl.class, MealDishMapperImpl.class, DishMapperImpl.class})
+class MealExportServiceImplTest extends UnitTestBase {
+
+    private static final Long USER_ID = 1L;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Mock
+    private MealDishRowRepository mealDishRowRepository;
+
+    @Autowired
+    private MealMapper mealMapper;
+
+    private MealExportServiceImpl mealExportService;
+
+    @BeforeEach
+    void setUp() {
+        mealExportService = new MealExportServiceImpl(mealDishRowRepository, objectMapper, mealMapper);
+    }
+
+    @Test
+    void exportUserMeals_ndjson_writesOneMealPerLine() throws IOException {
+        stubRows();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        mealExportService.exportUserMeals(USER_ID, ExportFormatEnum.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        MealResponseDto lunch = objectMapper.readValue(lines[0], MealResponseDto.class);
+        MealResponseDto breakfast = objectMapper.readValue(lines[1], MealResponseDto.class);
+        assertAll(
+                () -> assertEquals(2, lines.length),
+                () -> assertEquals(11L, lunch.id()),
+                () -> assertEquals(180, lunch.calories()),
+                () -> assertEquals(10L, breakfast.id()),
+                () -> assertEquals(2, breakfast.mealDishes().size()),
+                () -> assertEquals(182, breakfast.calories())
+        );
+    }
+
+    @Test
+    void exportUserMeals_csv_writesOneDishPerLineWithEscaping() throws IOException {
+        stubRows();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        mealExportService.exportUserMeals(USER_ID, ExportFormatEnum.CSV, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertAll(
+                () -> assertEquals(4, lines.size()),
+                () -> assertTrue(lines.getFirst().startsWith("meal_id,meal_name,")),
+                () -> assertEquals(
+                        "11,Lunch,2024-01-15T12:00:00Z,200,\"Soup, \"\"homemade\"\"\",2.0,180.0,90,5.0,2.0,10.0",
+                        lines.get(1)
+                ),
+                () -> assertEquals("10,Breakfast,2024-01-15T08:00:00Z,201,Oatmeal,1.0,150.0,150,,,", lines.get(2))
+        );
+    }
+
+    @Test
+    void exportUserMeals_csv_neutralizesFormulas() throws IOException {
+        MealDishRow row = new MealDishRow(12L, "@SUM(A1:A9)", Instant.parse("2024-01-15T18:00:00Z"),
+                203L, "=HYPERLINK(\"http://evil\",\"x\")", null, null, null, 100, Instant.parse("2024-01-01T00:00:00Z"), 1.0);
+        doAnswer(invocation -> {
+            invocation.<Consumer<MealDishRow>>getArgument(1).accept(row);
+            return null;
+        }).when(mealDishRowRepository).forEachByUserId(eq(USER_ID), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        mealExportService.exportUserMeals(USER_ID, ExportFormatEnum.CSV, out);
+
+        assertEquals(
+                "12,'@SUM(A1:A9),2024-01-15T18:00:00Z,203,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",1.0,100.0,100,,,",
+                out.toString(StandardCharsets.UTF_8).lines().toList().get(1)
+        );
+    }
+
+    @Test
+    void fromParameter_unknownFormat_throwsValidationException() {
+        assertEquals(ExportFormatEnum.CSV, ExportFormatEnum.fromParameter("csv"));
+        assertThrows(ValidationException.class, () -> ExportFormatEnum.fromParameter("xml"));
+    }
+
+    private void stubRows() {
+        List<MealDishRow> rows = List.of(
+                new MealDishRow(11L, "Lunch", Instant.parse("2024-01-15T12:00:00Z"),
+                        200L, "Soup, \"homemade\"", 5.0, 2.0, 10.0, 90, Instant.parse("2024-01-01T00:00:00Z"), 2.0),
+                new MealDishRow(10L, "Breakfast", Instant.parse("2024-01-15T08:00:00Z"),
+                        201L, "Oatmeal", null, null, null, 150, Instant.parse("2024-01-01T00:00:00Z"), 1.0),
+                new MealDishRow(10L, "Breakfast", Instant.parse("2024-01-15T08:00:00Z"),
+                        202L, "Milk", 3.2, 3.6, 4.8, 64, Instant.parse("2024-01-01T00:00:00Z"), 0.5)
+        );
+        doAnswer(invocation -> {
+            Consumer<MealDishRow> consumer = invocation.getArgument(1);
+            rows.forEach(consumer);
+            return null;
+        }).when(mealDishRowRepository).forEachByUserId(eq(USER_ID), any());
+    }
+
+}
@@ -0,0 +1,148 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.config.MealIngestionProperties;
+import org.nikolait.assignment.caloriex.ingestion.MealIngestionQueue;
+import org.nikolait.assignment.caloriex.ingestion.MealJournal;
+import org.nikolait.assignment.caloriex.model.*;
+import org.nikolait.assignment.caloriex.repository.MealJdbcRepository;
+import org.nikolait.assignment.caloriex.repository.MealOutboxRepository;
+import org.nikolait.assignment.caloriex.repository.SyncChangeRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MealIngestionQueueTest extends UnitTestBase {
+
+    private static final long USER_ID = 1L;
+    private static final long DISH_ID = 200L;
+
+    @TempDir
+    private Path journalDirectory;
+
+    @Mock
+    private MealJdbcRepository mealJdbcRepository;
+
+    @Mock
+    private MealOutboxRepository mealOutboxRepository;
+
+    @Mock
+    private SyncChangeRepository syncChangeRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private MealIngestionQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new MealIngestionQueue(
+                new MealIngestionProperties(true, 100, 10, Duration.ofMillis(10), journalDirectory,
+                        DataSize.ofKilobytes(1), Duration.ofMillis(10), Duration.ofMillis(50)),
+                mealJdbcRepository,
+                mealOutboxRepository,
+                syncChangeRepository,
+                transactionTemplate
+        );
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.stop();
+    }
+
+    @Test
+    void start_afterCrash_replaysJournaledMealsAndDeletesTheirSegments() throws IOException {
+        try (MealJournal journal = new MealJournal(journalDirectory, DataSize.ofKilobytes(1).toBytes())) {
+            journal.open();
+            journal.append(createMeal(300L));
+            journal.append(createMeal(301L));
+            journal.sync();
+        }
+        when(mealJdbcRepository.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        queue.start();
+
+        verify(mealJdbcRepository).insertAll(argThat(meals ->
+                meals.stream().map(Meal::getId).toList().equals(List.of(300L, 301L))));
+        verify(mealOutboxRepository).append(anyList());
+        verify(syncChangeRepository).append(USER_ID, SyncEntityTypeEnum.MEAL, List.of(300L, 301L), SyncOperationEnum.UPSERT);
+        assertEquals(1, countSegments(), "Only the new current segment should be left");
+    }
+
+    @Test
+    void mealBreakingConstraint_isRecordedAsFailed() {
+        when(mealJdbcRepository.nextMealId()).thenReturn(300L);
+        when(mealJdbcRepository.insertAll(anyList())).thenThrow(new DataIntegrityViolationException("fk violation"));
+        queue.start();
+
+        Meal meal = queue.submit(createMeal(null));
+
+        verify(mealJdbcRepository, timeout(5000)).insertFailure(same(meal), anyString());
+        queue.stop();
+        assertFalse(queue.isPending(USER_ID, 300L));
+        verifyNoInteractions(mealOutboxRepository);
+    }
+
+    @Test
+    void unreachableDatabase_isRetriedUntilMealIsWritten() {
+        when(mealJdbcRepository.nextMealId()).thenReturn(300L);
+        when(mealJdbcRepository.insertAll(anyList()))
+                .thenThrow(new CannotGetJdbcConnectionException("connection refused"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        queue.start();
+
+        queue.submit(createMeal(null));
+
+        verify(mealOutboxRepository, timeout(5000)).append(anyList());
+        queue.stop();
+        verify(mealJdbcRepository, times(2)).insertAll(anyList());
+        verify(mealJdbcRepository, never()).insertFailure(any(), anyString());
+        assertFalse(queue.isPending(USER_ID, 300L));
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            return files.count();
+        }
+    }
+
+    private Meal createMeal(Long id) {
+        Meal meal = Meal.builder()
+                .id(id)
+                .user(User.builder().id(USER_ID).build())
+                .name("Breakfast")
+                .build();
+        meal.getMealDishes().add(new MealDish(
+                new MealDishId(id, DISH_ID),
+                meal,
+                Dish.builder().id(DISH_ID).build(),
+                1.0
+        ));
+        return meal;
+    }
+
+}
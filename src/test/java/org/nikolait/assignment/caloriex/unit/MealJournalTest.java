@@ -0,0 +1,103 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.ingestion.MealJournal;
+import org.nikolait.assignment.caloriex.model.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MealJournalTest extends UnitTestBase {
+
+    private static final long SEGMENT_SIZE = 1024;
+
+    @TempDir
+    private Path journalDirectory;
+
+    @Test
+    void readAll_afterReopen_returnsAppendedMealsInOrder() throws IOException {
+        try (MealJournal journal = new MealJournal(journalDirectory, SEGMENT_SIZE)) {
+            journal.open();
+            journal.append(createMeal(300L, "Breakfast", 200L, 1.5));
+            journal.append(createMeal(301L, "Lunch", 201L, 2.0));
+            journal.sync();
+        }
+
+        List<Meal> replayed = new MealJournal(journalDirectory, SEGMENT_SIZE).readAll();
+
+        assertEquals(2, replayed.size());
+        Meal first = replayed.getFirst();
+        assertAll(
+                () -> assertEquals(300L, first.getId()),
+                () -> assertEquals(1L, first.getUser().getId()),
+                () -> assertEquals("Breakfast", first.getName()),
+                () -> assertEquals(Instant.parse("2024-01-15T09:00:00.123456Z"), first.getCreatedAt()),
+                () -> assertEquals(200L, first.getMealDishes().getFirst().getDish().getId()),
+                () -> assertEquals(1.5, first.getMealDishes().getFirst().getServings()),
+                () -> assertSame(first, first.getMealDishes().getFirst().getMeal()),
+                () -> assertEquals(301L, replayed.get(1).getId())
+        );
+    }
+
+    @Test
+    void readAll_withTornTailRecord_skipsIncompleteRecord() throws IOException {
+        try (MealJournal journal = new MealJournal(journalDirectory, SEGMENT_SIZE)) {
+            journal.open();
+            journal.append(createMeal(300L, "Breakfast", 200L, 1.0));
+        }
+        Path segment = listSegments().getFirst();
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        List<Meal> replayed = new MealJournal(journalDirectory, SEGMENT_SIZE).readAll();
+
+        assertEquals(1, replayed.size());
+        assertEquals(300L, replayed.getFirst().getId());
+    }
+
+    @Test
+    void deleteSegmentsBefore_keepsCurrentSegment() throws IOException {
+        try (MealJournal journal = new MealJournal(journalDirectory, SEGMENT_SIZE)) {
+            journal.open();
+            for (long id = 0; id < 50; id++) {
+                journal.append(createMeal(id, "Meal " + id, 200L, 1.0));
+            }
+            assertTrue(listSegments().size() > 1, "Journal should roll over to new segments");
+
+            journal.deleteSegmentsBefore(journal.currentSegment());
+
+            assertEquals(1, listSegments().size());
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private Meal createMeal(long id, String name, long dishId, double servings) {
+        Meal meal = Meal.builder()
+                .id(id)
+                .user(User.builder().id(1L).build())
+                .name(name)
+                .createdAt(Instant.parse("2024-01-15T09:00:00.123456Z"))
+                .build();
+        meal.getMealDishes().add(new MealDish(
+                new MealDishId(id, dishId),
+                meal,
+                Dish.builder().id(dishId).build(),
+                servings
+        ));
+        return meal;
+    }
+
+}
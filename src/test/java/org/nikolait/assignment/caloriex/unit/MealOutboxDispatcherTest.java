@@ -0,0 +1,110 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.config.MealOutboxProperties;
+import org.nikolait.assignment.caloriex.outbox.MealCreatedConsumer;
+import org.nikolait.assignment.caloriex.outbox.MealCreatedEvent;
+import org.nikolait.assignment.caloriex.outbox.MealOutboxDispatcher;
+import org.nikolait.assignment.caloriex.repository.MealOutboxRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class MealOutboxDispatcherTest extends UnitTestBase {
+
+    private static final List<MealCreatedEvent> BATCH = List.of(createEvent(1L), createEvent(2L));
+
+    @Mock
+    private MealOutboxRepository mealOutboxRepository;
+
+    @Mock
+    private ObjectProvider<MealCreatedConsumer> consumerProvider;
+
+    @Mock
+    private MealCreatedConsumer consumer;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MealOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        when(consumerProvider.orderedStream()).thenReturn(Stream.of(consumer));
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        dispatcher = new MealOutboxDispatcher(
+                new MealOutboxProperties(10, Duration.ofMillis(10), Duration.ofMillis(10)),
+                mealOutboxRepository,
+                consumerProvider,
+                transactionTemplate,
+                meterRegistry
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void lockHeldByAnotherNode_deliversNothing() {
+        when(mealOutboxRepository.tryLockDispatcher()).thenReturn(false);
+
+        dispatcher.start();
+
+        verify(mealOutboxRepository, timeout(5000).atLeast(2)).tryLockDispatcher();
+        verify(mealOutboxRepository, never()).findNextBatch(anyInt());
+        verifyNoInteractions(consumer);
+    }
+
+    @Test
+    void batch_isDeliveredThenDeletedBySequence() {
+        when(mealOutboxRepository.tryLockDispatcher()).thenReturn(true);
+        when(mealOutboxRepository.findNextBatch(10)).thenReturn(BATCH, List.of());
+
+        dispatcher.start();
+
+        verify(mealOutboxRepository, timeout(5000)).deleteAll(List.of(1L, 2L));
+        verify(consumer).onMealsCreated(BATCH);
+        assertEquals(2, meterRegistry.counter("caloriex.meal.outbox.delivered").count());
+    }
+
+    @Test
+    void consumerFailure_redeliversBatchWithoutDeletingIt() {
+        when(mealOutboxRepository.tryLockDispatcher()).thenReturn(true);
+        when(mealOutboxRepository.findNextBatch(10)).thenReturn(BATCH, BATCH, List.of());
+        doThrow(new IllegalStateException("consumer failed")).doNothing().when(consumer).onMealsCreated(BATCH);
+
+        dispatcher.start();
+
+        verify(mealOutboxRepository, timeout(5000)).deleteAll(List.of(1L, 2L));
+        dispatcher.stop();
+        verify(consumer, times(2)).onMealsCreated(BATCH);
+        verify(mealOutboxRepository, times(1)).deleteAll(any());
+        assertEquals(1, meterRegistry.counter("caloriex.meal.outbox.failures").count());
+    }
+
+    private static MealCreatedEvent createEvent(long sequence) {
+        Instant now = Instant.now();
+        return new MealCreatedEvent(sequence, sequence, 300L + sequence, 1L, now, now, 450, 20.0, 10.0, 50.0);
+    }
+
+}
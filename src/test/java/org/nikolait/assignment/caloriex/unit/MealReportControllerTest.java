@@ -0,0 +1,135 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.coalescing.CoalescingMealReportService;
+import org.nikolait.assignment.caloriex.controller.v1.MealReportController;
+import org.nikolait.assignment.caloriex.exception.handler.ControllerExceptionHandler;
+import org.nikolait.assignment.caloriex.mapper.RollingNutritionReportMapper;
+import org.nikolait.assignment.caloriex.model.ReportFormatEnum;
+import org.nikolait.assignment.caloriex.model.ReportViewEnum;
+import org.nikolait.assignment.caloriex.progress.DailyProgressRegistry;
+import org.nikolait.assignment.caloriex.secutiry.AuthorizationService;
+import org.nikolait.assignment.caloriex.service.MealReportStreamingService;
+import org.nikolait.assignment.caloriex.service.RollingNutritionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class MealReportControllerTest extends UnitTestBase {
+
+    private static final Long USER_ID = 1L;
+    private static final ZoneId TEST_ZONE = ZoneId.of("Europe/Paris");
+    private static final String NORMALIZED_BODY = "{\"days\":[],\"dishes\":{}}";
+
+    @Mock
+    private AuthorizationService authorizationService;
+    @Mock
+    private CoalescingMealReportService coalescingMealReportService;
+    @Mock
+    private MealReportStreamingService mealReportStreamingService;
+    @Mock
+    private RollingNutritionService rollingNutritionService;
+    @Mock
+    private RollingNutritionReportMapper rollingNutritionReportMapper;
+    @Mock
+    private DailyProgressRegistry dailyProgressRegistry;
+
+    @InjectMocks
+    private MealReportController mealReportController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(mealReportController)
+                .setControllerAdvice(new ControllerExceptionHandler())
+                .build();
+        when(authorizationService.authorizeByHeader("1")).thenReturn(USER_ID);
+    }
+
+    @Test
+    void periodReport_normalizedView_isStreamedInNormalizedShape() throws Exception {
+        LocalDate start = LocalDate.of(2024, 1, 11);
+        LocalDate end = LocalDate.of(2024, 1, 16);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(6).write(NORMALIZED_BODY.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(mealReportStreamingService).writeMealDailyReportsForPeriod(
+                eq(USER_ID), eq(start), eq(end), eq(TEST_ZONE),
+                eq(ReportFormatEnum.JSON), eq(ReportViewEnum.NORMALIZED), any()
+        );
+
+        MvcResult result = mockMvc.perform(get("/meals/report/daily/period")
+                        .header(HttpHeaders.AUTHORIZATION, "1")
+                        .header("X-Time-Zone", TEST_ZONE.getId())
+                        .param("startDay", start.toString())
+                        .param("endDay", end.toString())
+                        .param("view", "normalized"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(NORMALIZED_BODY));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"full", "normalized", "summary"})
+    void periodReport_endBeforeStart_isRejectedBeforeStreaming(String view) throws Exception {
+        mockMvc.perform(get("/meals/report/daily/period")
+                        .header(HttpHeaders.AUTHORIZATION, "1")
+                        .param("startDay", "2024-01-16")
+                        .param("endDay", "2024-01-11")
+                        .param("view", view))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(mealReportStreamingService, coalescingMealReportService);
+    }
+
+    @Test
+    void allTrackedReport_normalizedView_isStreamedInRequestedFormat() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(4).write(NORMALIZED_BODY.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(mealReportStreamingService).writeAllTrackedMealDailyReports(
+                eq(USER_ID), eq(ZoneId.of("UTC")), eq(ReportFormatEnum.CBOR), eq(ReportViewEnum.NORMALIZED), any()
+        );
+
+        MvcResult result = mockMvc.perform(get("/meals/report/daily/all-tracked")
+                        .header(HttpHeaders.AUTHORIZATION, "1")
+                        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE)
+                        .param("view", "normalized"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+}
@@ -1,30 +1,39 @@
 package org.nikolait.assignment.caloriex.unit;
 
+import jakarta.validation.ValidationException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.jfr.ReportGenerationEvent;
 import org.nikolait.assignment.caloriex.model.*;
+import org.nikolait.assignment.caloriex.repository.MealNutritionRepository;
 import org.nikolait.assignment.caloriex.repository.UserRepository;
 import org.nikolait.assignment.caloriex.service.MealService;
 import org.nikolait.assignment.caloriex.service.impl.MealReportServiceImpl;
 import org.springframework.data.util.Pair;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 public class MealReportServiceImplTest extends UnitTestBase {
@@ -38,13 +47,14 @@ public class MealReportServiceImplTest extends UnitTestBase {
     @Mock
     private MealService mealService;
     @Mock
+    private MealNutritionRepository mealNutritionRepository;
+    @Mock
     private UserRepository userRepository;
 
     @InjectMocks
     private MealReportServiceImpl mealReportService;
 
     private User testUser;
-    private Meal meal1;
     private Meal meal2;
     private Meal meal3;
 
@@ -56,16 +66,10 @@ public class MealReportServiceImplTest extends UnitTestBase {
                 .build();
 
         // Create test dishes
-        Dish dish500 = createDish(500);
         Dish dish300 = createDish(300);
         Dish dish600 = createDish(600);
 
         // Create meals with meal dishes
-        meal1 = createMeal("2024-01-10T09:00:00Z", List.of(
-                Pair.of(2.0, dish500),  // 2 * 500 = 1000
-                Pair.of(1.0, dish300)   // 1 * 300 = 300
-        )); // Total: 1300
-
         meal2 = createMeal("2024-01-15T10:00:00Z", List.of(
                 Pair.of(1.5, dish600)  // 1.5 * 600 = 900
         ));
@@ -142,6 +146,35 @@ public class MealReportServiceImplTest extends UnitTestBase {
             );
         }
 
+        @Test
+        @DisplayName("Record a JFR event with the loaded entities")
+        void generateDailyReport_RecordsJfrEvent(@TempDir Path tempDir) throws Exception {
+            when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
+            when(mealService.getUserMealsForDay(USER_ID, TEST_DATE, TEST_ZONE))
+                    .thenReturn(List.of(meal2, meal3));
+
+            Path file = tempDir.resolve("report.jfr");
+            try (Recording recording = new Recording()) {
+                recording.enable(ReportGenerationEvent.class).withoutThreshold();
+                recording.start();
+                mealReportService.generateMealDailyReportForDay(USER_ID, TEST_DATE, TEST_ZONE);
+                recording.stop();
+                recording.dump(file);
+            }
+
+            RecordedEvent event = RecordingFile.readAllEvents(file).stream()
+                    .filter(recorded -> recorded.getEventType().getName().equals("caloriex.ReportGeneration"))
+                    .findFirst()
+                    .orElseThrow();
+            assertAll(
+                    () -> assertEquals("day", event.getString("report")),
+                    () -> assertEquals(USER_ID, event.getLong("userId")),
+                    () -> assertEquals(1, event.getLong("daysRequested")),
+                    () -> assertEquals(2, event.getInt("mealsLoaded")),
+                    () -> assertEquals(2 + 2 + 2, event.getInt("entitiesHydrated"))
+            );
+        }
+
         @Test
         @DisplayName("Detect calorie limit exceed")
         void calorieExceededCheck() {
@@ -174,85 +207,147 @@ public class MealReportServiceImplTest extends UnitTestBase {
     }
 
     @Nested
-    @DisplayName("Period Report Tests")
-    class PeriodReportTests {
+    @DisplayName("Summary Report Tests")
+    class SummaryReportTests {
 
         @Test
-        @DisplayName("Generate multi-day reports")
-        void generateReportsForPeriod() {
+        @DisplayName("Generate summaries for every day of the period")
+        void generateSummariesForPeriod() {
             LocalDate start = LocalDate.of(2024, 1, 10);
             LocalDate end = LocalDate.of(2024, 1, 15);
 
             when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
-            when(mealService.getUserMealsBetween(USER_ID, start, end, TEST_ZONE))
-                    .thenReturn(List.of(meal1, meal2, meal3));
+            doAnswer(invocation -> {
+                Consumer<MealNutrition> consumer = invocation.getArgument(3);
+                consumer.accept(new MealNutrition(1L, Instant.parse("2024-01-10T09:00:00Z"), 1300, 0, 0, 0));
+                consumer.accept(new MealNutrition(2L, Instant.parse("2024-01-15T10:00:00Z"), 900, 0, 0, 0));
+                consumer.accept(new MealNutrition(3L, Instant.parse("2024-01-15T15:30:00Z"), 1200, 0, 0, 0));
+                return null;
+            }).when(mealNutritionRepository).forEachByUserIdAndCreatedAtBetween(
+                    eq(USER_ID), any(Instant.class), any(Instant.class), any()
+            );
 
-            List<MealDailyReport> reports = mealReportService
-                    .generateMealDailyReportsForPeriod(USER_ID, start, end, TEST_ZONE);
+            MealDailySummaries summaries = mealReportService
+                    .generateMealDailySummariesForPeriod(USER_ID, start, end, TEST_ZONE);
 
             assertAll(
-                    () -> assertEquals(6, reports.size()),
-                    () -> assertEquals(LocalDate.of(2024, 1, 15), reports.getFirst().getDate()),
-                    () -> assertEquals(900 + 900, reports.getFirst().getTotalCalories()),
-                    () -> assertEquals(LocalDate.of(2024, 1, 10), reports.get(5).getDate()),
-                    () -> assertEquals(1300, reports.get(5).getTotalCalories())
+                    () -> assertEquals(6, summaries.size()),
+                    () -> assertEquals(LocalDate.of(2024, 1, 15), summaries.getDate(0)),
+                    () -> assertEquals(2100, summaries.getTotalCalories(0)),
+                    () -> assertTrue(summaries.isExceeded(0)),
+                    () -> assertEquals(0, summaries.getTotalCalories(1)),
+                    () -> assertEquals(LocalDate.of(2024, 1, 10), summaries.getDate(5)),
+                    () -> assertEquals(1300, summaries.getTotalCalories(5)),
+                    () -> assertEquals(DAILY_TARGET, summaries.getDailyCalorieTarget())
             );
         }
 
         @Test
-        @DisplayName("Handle period with no meals")
-        void generateReportsWithEmptyDays() {
-            LocalDate start = TEST_DATE;
-            LocalDate end = TEST_DATE.plusDays(3);
-
+        @DisplayName("Generate summaries for tracked days only")
+        void generateAllTrackedSummaries() {
             when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
-            when(mealService.getUserMealsBetween(USER_ID, start, end, TEST_ZONE))
-                    .thenReturn(Collections.emptyList());
+            doAnswer(invocation -> {
+                Consumer<MealNutrition> consumer = invocation.getArgument(1);
+                consumer.accept(new MealNutrition(1L, Instant.parse("2024-01-10T09:00:00Z"), 1300, 0, 0, 0));
+                consumer.accept(new MealNutrition(2L, Instant.parse("2024-01-15T10:00:00Z"), 900, 0, 0, 0));
+                consumer.accept(new MealNutrition(3L, Instant.parse("2024-01-15T15:30:00Z"), 900, 0, 0, 0));
+                return null;
+            }).when(mealNutritionRepository).forEachByUserId(eq(USER_ID), any());
 
-            List<MealDailyReport> reports = mealReportService
-                    .generateMealDailyReportsForPeriod(USER_ID, start, end, TEST_ZONE);
+            MealDailySummaries summaries = mealReportService
+                    .generateAllTrackedMealDailySummaries(USER_ID, TEST_ZONE);
 
             assertAll(
-                    () -> assertEquals(4, reports.size()),
-                    () -> assertTrue(reports.stream().allMatch(r -> r.getTotalCalories() == 0))
+                    () -> assertEquals(2, summaries.size()),
+                    () -> assertEquals(LocalDate.of(2024, 1, 15), summaries.getDate(0)),
+                    () -> assertEquals(1800, summaries.getTotalCalories(0)),
+                    () -> assertEquals(LocalDate.of(2024, 1, 10), summaries.getDate(1)),
+                    () -> assertEquals(1300, summaries.getTotalCalories(1))
             );
         }
     }
 
     @Nested
-    @DisplayName("Comprehensive Report Tests")
-    class AllReportsTests {
+    @DisplayName("Aggregate Report Tests")
+    class AggregateReportTests {
 
         @Test
-        @DisplayName("Generate all tracked meal reports")
-        void generateAllTrackedReportsSorted() {
+        @DisplayName("Aggregate weeks along ISO week boundaries")
+        void generateWeeklyAggregates() {
+            // 2024-01-01 is a Monday of ISO week 1
+            LocalDate start = LocalDate.of(2024, 1, 3);
+            LocalDate end = LocalDate.of(2024, 1, 10);
+
             when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
-            when(mealService.getAllUserMeals(USER_ID))
-                    .thenReturn(List.of(meal1, meal2, meal3));
+            stubMealNutrition(
+                    new MealNutrition(1L, Instant.parse("2024-01-01T09:00:00Z"), 2500, 100, 50, 300),
+                    new MealNutrition(2L, Instant.parse("2024-01-03T09:00:00Z"), 1500, 0, 0, 0),
+                    new MealNutrition(3L, Instant.parse("2024-01-08T09:00:00Z"), 1000, 0, 0, 0)
+            );
 
-            List<MealDailyReport> reports = mealReportService
-                    .generateAllTrackedMealDailyReports(USER_ID, TEST_ZONE);
+            List<NutritionAggregate> aggregates = mealReportService
+                    .generateWeeklyAggregates(USER_ID, start, end, TEST_ZONE);
 
+            NutritionAggregate firstWeek = aggregates.get(1);
             assertAll(
-                    () -> assertEquals(2, reports.size()),
-                    () -> assertEquals(LocalDate.of(2024, 1, 15), reports.getFirst().getDate()),
-                    () -> assertEquals(LocalDate.of(2024, 1, 10), reports.get(1).getDate()),
-                    () -> assertEquals(900 + 900, reports.getFirst().getTotalCalories()),
-                    () -> assertEquals(1300, reports.get(1).getTotalCalories())
+                    () -> assertEquals(2, aggregates.size()),
+                    () -> assertEquals("2024-W02", aggregates.getFirst().getPeriod()),
+                    () -> assertEquals(1000, aggregates.getFirst().getTotalCalories()),
+                    () -> assertEquals("2024-W01", firstWeek.getPeriod()),
+                    () -> assertEquals(LocalDate.of(2024, 1, 1), firstWeek.getStartDate()),
+                    () -> assertEquals(LocalDate.of(2024, 1, 7), firstWeek.getEndDate()),
+                    () -> assertEquals(4000, firstWeek.getTotalCalories()),
+                    () -> assertEquals(2, firstWeek.getTrackedDays()),
+                    () -> assertEquals(2000, firstWeek.getAverageCalories()),
+                    () -> assertEquals(1, firstWeek.getDaysOverTarget()),
+                    () -> assertEquals(new MacroSplit(19.5, 22.0, 58.5), firstWeek.getMacroSplit())
             );
         }
 
         @Test
-        @DisplayName("Handle empty meal history")
-        void generateAllReportsWithNoMeals() {
+        @DisplayName("Aggregate whole calendar months in the user's time zone")
+        void generateMonthlyAggregates() {
+            ZoneId aucklandZone = ZoneId.of("Pacific/Auckland");
+            LocalDate start = LocalDate.of(2024, 1, 20);
+            LocalDate end = LocalDate.of(2024, 2, 5);
+
             when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
-            when(mealService.getAllUserMeals(USER_ID))
-                    .thenReturn(Collections.emptyList());
+            stubMealNutrition(
+                    // 2024-02-01 in Auckland
+                    new MealNutrition(1L, Instant.parse("2024-01-31T12:00:00Z"), 800, 0, 0, 0)
+            );
 
-            List<MealDailyReport> reports = mealReportService
-                    .generateAllTrackedMealDailyReports(USER_ID, TEST_ZONE);
+            List<NutritionAggregate> aggregates = mealReportService
+                    .generateMonthlyAggregates(USER_ID, start, end, aucklandZone);
 
-            assertTrue(reports.isEmpty());
+            assertAll(
+                    () -> assertEquals(2, aggregates.size()),
+                    () -> assertEquals("2024-02", aggregates.getFirst().getPeriod()),
+                    () -> assertEquals(LocalDate.of(2024, 2, 29), aggregates.getFirst().getEndDate()),
+                    () -> assertEquals(800, aggregates.getFirst().getTotalCalories()),
+                    () -> assertEquals(0, aggregates.get(1).getTotalCalories()),
+                    () -> assertEquals(0, aggregates.get(1).getAverageCalories())
+            );
+        }
+
+        @Test
+        @DisplayName("Reject period ending before it starts")
+        void rejectReversedPeriod() {
+            assertThrows(ValidationException.class,
+                    () -> mealReportService.generateMonthlyAggregates(
+                            USER_ID, TEST_DATE, TEST_DATE.minusDays(1), TEST_ZONE
+                    ));
+        }
+
+        @SuppressWarnings("unchecked")
+        private void stubMealNutrition(MealNutrition... meals) {
+            doAnswer(invocation -> {
+                Consumer<MealNutrition> consumer = invocation.getArgument(3);
+                List.of(meals).forEach(consumer);
+                return null;
+            }).when(mealNutritionRepository).forEachByUserIdAndCreatedAtBetween(
+                    eq(USER_ID), any(Instant.class), any(Instant.class), any(Consumer.class)
+            );
         }
     }
 
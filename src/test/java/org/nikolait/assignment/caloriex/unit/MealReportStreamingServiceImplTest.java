@@ -0,0 +1,328 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.dto.MealDailyReportDto;
+import org.nikolait.assignment.caloriex.dto.MealResponseDto;
+import org.nikolait.assignment.caloriex.jfr.ReportGenerationEvent;
+import org.nikolait.assignment.caloriex.mapper.*;
+import org.nikolait.assignment.caloriex.model.*;
+import org.nikolait.assignment.caloriex.repository.MealDishRowRepository;
+import org.nikolait.assignment.caloriex.repository.UserRepository;
+import org.nikolait.assignment.caloriex.service.impl.MealReportStreamingServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig({
+        MealDailyReportMapperImpl.class,
+        MealMapperImpl.class,
+        MealDishMapperImpl.class,
+        DishMapperImpl.class,
+        NormalizedMealReportMapperImpl.class
+})
+class MealReportStreamingServiceImplTest extends UnitTestBase {
+
+    private static final Long USER_ID = 1L;
+    private static final ZoneId TEST_ZONE = ZoneId.of("Europe/Paris");
+    private static final int DAILY_TARGET = 2000;
+    private static final Instant DISH_CREATED_AT = Instant.parse("2024-01-01T08:00:00Z");
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper cborMapper = CBORMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Mock
+    private MealDishRowRepository mealDishRowRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    @Autowired
+    private MealDailyReportMapper mealDailyReportMapper;
+    @Autowired
+    private NormalizedMealReportMapper normalizedMealReportMapper;
+
+    private MealReportStreamingServiceImpl mealReportStreamingService;
+
+    // Rows come newest meal first, as the repository reads them
+    private final List<MealDishRow> rows = List.of(
+            row(12L, "2024-01-15T15:30:00Z", 300, 3.0),
+            row(11L, "2024-01-15T10:00:00Z", 600, 1.5),
+            row(10L, "2024-01-12T09:00:00Z", 500, 2.0),
+            row(10L, "2024-01-12T09:00:00Z", 333, 0.5)
+    );
+
+    @BeforeEach
+    void setUp() {
+        mealReportStreamingService = new MealReportStreamingServiceImpl(
+                mealDishRowRepository,
+                userRepository,
+                objectMapper,
+                new MappingJackson2CborHttpMessageConverter(cborMapper),
+                mealDailyReportMapper,
+                normalizedMealReportMapper
+        );
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(User.builder()
+                .id(USER_ID)
+                .dailyCalorieTarget(DAILY_TARGET)
+                .build()));
+    }
+
+    @Test
+    void writeMealDailyReportsForPeriod_writesEveryDayNewestFirst() throws IOException {
+        LocalDate start = LocalDate.of(2024, 1, 11);
+        LocalDate end = LocalDate.of(2024, 1, 16);
+        doAnswer(invocation -> {
+            Consumer<MealDishRow> consumer = invocation.getArgument(3);
+            rows.forEach(consumer);
+            return null;
+        }).when(mealDishRowRepository).forEachByUserIdAndCreatedAtBetween(
+                eq(USER_ID), any(Instant.class), any(Instant.class), any()
+        );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mealReportStreamingService.writeMealDailyReportsForPeriod(USER_ID, start, end, TEST_ZONE, ReportFormatEnum.JSON, ReportViewEnum.FULL, out);
+
+        List<MealDailyReportDto> reports = objectMapper.readValue(out.toByteArray(), new TypeReference<>() {
+        });
+        assertEquals(
+                List.of(
+                        LocalDate.of(2024, 1, 16),
+                        LocalDate.of(2024, 1, 15),
+                        LocalDate.of(2024, 1, 14),
+                        LocalDate.of(2024, 1, 13),
+                        LocalDate.of(2024, 1, 12),
+                        LocalDate.of(2024, 1, 11)
+                ),
+                reports.stream().map(MealDailyReportDto::date).toList()
+        );
+        MealDailyReportDto jan15 = reports.get(1);
+        MealDailyReportDto jan12 = reports.get(4);
+        assertAll(
+                () -> assertTrue(reports.getFirst().meals().isEmpty()),
+                () -> assertEquals(0, reports.getFirst().totalCalories()),
+                () -> assertEquals(List.of(11L, 12L), jan15.meals().stream().map(MealResponseDto::id).toList()),
+                () -> assertEquals(900 + 900, jan15.totalCalories()),
+                () -> assertEquals(DAILY_TARGET, jan15.dailyCalorieTarget()),
+                () -> assertFalse(jan15.exceeded()),
+                () -> assertEquals(2, jan12.meals().getFirst().mealDishes().size()),
+                () -> assertEquals(166.5, jan12.meals().getFirst().mealDishes().get(1).calories()),
+                () -> assertEquals(1167, jan12.totalCalories()),
+                () -> assertEquals(DISH_CREATED_AT, jan12.meals().getFirst().mealDishes().getFirst().dish().createdAt()),
+                () -> assertNull(jan12.meals().getFirst().mealDishes().getFirst().dish().fat())
+        );
+    }
+
+    @Test
+    void writeMealDailyReportsForPeriod_recordsJfrEvent(@TempDir Path tempDir) throws Exception {
+        doAnswer(invocation -> {
+            Consumer<MealDishRow> consumer = invocation.getArgument(3);
+            rows.forEach(consumer);
+            return null;
+        }).when(mealDishRowRepository).forEachByUserIdAndCreatedAtBetween(
+                eq(USER_ID), any(Instant.class), any(Instant.class), any()
+        );
+
+        Path file = tempDir.resolve("report.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ReportGenerationEvent.class).withoutThreshold();
+            recording.start();
+            mealReportStreamingService.writeMealDailyReportsForPeriod(
+                    USER_ID,
+                    LocalDate.of(2024, 1, 11),
+                    LocalDate.of(2024, 1, 16),
+                    TEST_ZONE,
+                    ReportFormatEnum.JSON,
+                    ReportViewEnum.FULL,
+                    new ByteArrayOutputStream()
+            );
+            recording.stop();
+            recording.dump(file);
+        }
+
+        RecordedEvent event = RecordingFile.readAllEvents(file).stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("caloriex.ReportGeneration"))
+                .findFirst()
+                .orElseThrow();
+        assertAll(
+                () -> assertEquals("period", event.getString("report")),
+                () -> assertEquals(USER_ID, event.getLong("userId")),
+                () -> assertEquals(6, event.getLong("daysRequested")),
+                () -> assertEquals(3, event.getInt("mealsLoaded")),
+                () -> assertEquals(4, event.getLong("rowsStreamed")),
+                () -> assertTrue(event.getDuration("writeTime").toNanos() > 0)
+        );
+    }
+
+    @Test
+    void writeAllTrackedMealDailyReports_writesTrackedDaysOnly() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<MealDishRow> consumer = invocation.getArgument(1);
+            rows.forEach(consumer);
+            return null;
+        }).when(mealDishRowRepository).forEachByUserId(eq(USER_ID), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mealReportStreamingService.writeAllTrackedMealDailyReports(
+                USER_ID, TEST_ZONE, ReportFormatEnum.JSON, ReportViewEnum.FULL, out);
+
+        List<MealDailyReportDto> reports = objectMapper.readValue(out.toByteArray(), new TypeReference<>() {
+        });
+        assertEquals(
+                List.of(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 12)),
+                reports.stream().map(MealDailyReportDto::date).toList()
+        );
+    }
+
+    @Test
+    void writeAllTrackedMealDailyReports_withCborFormat_writesSameReportsAsJson() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<MealDishRow> consumer = invocation.getArgument(1);
+            rows.forEach(consumer);
+            return null;
+        }).when(mealDishRowRepository).forEachByUserId(eq(USER_ID), any());
+
+        ByteArrayOutputStream jsonOut = new ByteArrayOutputStream();
+        mealReportStreamingService.writeAllTrackedMealDailyReports(
+                USER_ID, TEST_ZONE, ReportFormatEnum.JSON, ReportViewEnum.FULL, jsonOut);
+        ByteArrayOutputStream cborOut = new ByteArrayOutputStream();
+        mealReportStreamingService.writeAllTrackedMealDailyReports(
+                USER_ID, TEST_ZONE, ReportFormatEnum.CBOR, ReportViewEnum.FULL, cborOut);
+
+        List<MealDailyReportDto> jsonReports = objectMapper.readValue(jsonOut.toByteArray(), new TypeReference<>() {
+        });
+        List<MealDailyReportDto> cborReports = cborMapper.readValue(cborOut.toByteArray(), new TypeReference<>() {
+        });
+        assertEquals(jsonReports, cborReports);
+        assertTrue(cborOut.size() < jsonOut.size());
+    }
+
+    @Test
+    void writeAllTrackedMealDailyReports_writesSameJsonAsMappedReports() throws IOException {
+        stubAllRows();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mealReportStreamingService.writeAllTrackedMealDailyReports(
+                USER_ID, TEST_ZONE, ReportFormatEnum.JSON, ReportViewEnum.FULL, out);
+
+        assertEquals(
+                objectMapper.readTree(objectMapper.writeValueAsBytes(
+                        mealDailyReportMapper.toResponseDtoList(trackedReports()))),
+                objectMapper.readTree(out.toByteArray())
+        );
+    }
+
+    @Test
+    void writeAllTrackedMealDailyReports_normalized_writesSameJsonAsMappedReports() throws IOException {
+        stubAllRows();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mealReportStreamingService.writeAllTrackedMealDailyReports(
+                USER_ID, TEST_ZONE, ReportFormatEnum.JSON, ReportViewEnum.NORMALIZED, out);
+
+        assertEquals(
+                objectMapper.readTree(objectMapper.writeValueAsBytes(
+                        normalizedMealReportMapper.toResponseDto(trackedReports()))),
+                objectMapper.readTree(out.toByteArray())
+        );
+    }
+
+    private void stubAllRows() {
+        doAnswer(invocation -> {
+            Consumer<MealDishRow> consumer = invocation.getArgument(1);
+            rows.forEach(consumer);
+            return null;
+        }).when(mealDishRowRepository).forEachByUserId(eq(USER_ID), any());
+    }
+
+    /**
+     * The reports built from entities for {@link #rows}.
+     */
+    private static List<MealDailyReport> trackedReports() {
+        return List.of(
+                new MealDailyReport(LocalDate.of(2024, 1, 15), List.of(
+                        meal(11L, "2024-01-15T10:00:00Z", mealDish(600, 1.5)),
+                        meal(12L, "2024-01-15T15:30:00Z", mealDish(300, 3.0))
+                ), DAILY_TARGET, 1800),
+                new MealDailyReport(LocalDate.of(2024, 1, 12), List.of(
+                        meal(10L, "2024-01-12T09:00:00Z", mealDish(500, 2.0), mealDish(333, 0.5))
+                ), DAILY_TARGET, 1167)
+        );
+    }
+
+    private static Meal meal(long id, String createdAt, MealDish... mealDishes) {
+        Meal meal = Meal.builder()
+                .id(id)
+                .name("Meal " + id)
+                .createdAt(Instant.parse(createdAt))
+                .build();
+        for (MealDish mealDish : mealDishes) {
+            mealDish.setMeal(meal);
+            meal.getMealDishes().add(mealDish);
+        }
+        return meal;
+    }
+
+    private static MealDish mealDish(int dishCalories, double servings) {
+        return MealDish.builder()
+                .dish(Dish.builder()
+                        .id((long) dishCalories)
+                        .name("Dish " + dishCalories)
+                        .protein(10.0)
+                        .carbohydrates(20.0)
+                        .calories(dishCalories)
+                        .createdAt(DISH_CREATED_AT)
+                        .build())
+                .servings(servings)
+                .build();
+    }
+
+    private static MealDishRow row(long mealId, String createdAt, int dishCalories, double servings) {
+        return new MealDishRow(
+                mealId,
+                "Meal " + mealId,
+                Instant.parse(createdAt),
+                dishCalories,
+                "Dish " + dishCalories,
+                10.0,
+                null,
+                20.0,
+                dishCalories,
+                DISH_CREATED_AT,
+                servings
+        );
+    }
+
+}
@@ -1,19 +1,33 @@
 package org.nikolait.assignment.caloriex.unit;
 
 import jakarta.persistence.EntityNotFoundException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.coalescing.RecentWrites;
 import org.nikolait.assignment.caloriex.exception.UnprocessableEntityException;
+import org.nikolait.assignment.caloriex.ingestion.MealIngestionQueue;
+import org.nikolait.assignment.caloriex.jfr.MealCreationEvent;
 import org.nikolait.assignment.caloriex.model.*;
 import org.nikolait.assignment.caloriex.repository.DishRepository;
+import org.nikolait.assignment.caloriex.repository.MealJdbcRepository;
+import org.nikolait.assignment.caloriex.repository.MealOutboxRepository;
 import org.nikolait.assignment.caloriex.repository.MealRepository;
+import org.nikolait.assignment.caloriex.repository.SyncChangeRepository;
 import org.nikolait.assignment.caloriex.repository.UserRepository;
 import org.nikolait.assignment.caloriex.service.impl.MealServiceImpl;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -21,6 +35,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -49,12 +65,31 @@ class MealServiceImplTest extends UnitTestBase {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private MealIngestionQueue mealIngestionQueue;
+
+    @Mock
+    private MealOutboxRepository mealOutboxRepository;
+
+    @Mock
+    private SyncChangeRepository syncChangeRepository;
+
+    @Mock
+    private MealJdbcRepository mealJdbcRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RecentWrites recentWrites;
+
     @InjectMocks
     private MealServiceImpl mealService;
 
     // Test entities
     private User testUser;
     private Dish testDish;
+    private boolean inTransaction;
 
     @BeforeEach
     void setUp() {
@@ -62,6 +97,21 @@ class MealServiceImplTest extends UnitTestBase {
         testDish = Dish.builder().id(DISH_ID).calories(300).build();
         lenient().when(userRepository.findById(USER_ID)).thenReturn(Optional.of(testUser));
         lenient().when(dishRepository.findById(DISH_ID)).thenReturn(Optional.of(testDish));
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                inTransaction(() -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)));
+        lenient().doAnswer(invocation -> inTransaction(() -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        })).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private Object inTransaction(Supplier<?> callback) {
+        inTransaction = true;
+        try {
+            return callback.get();
+        } finally {
+            inTransaction = false;
+        }
     }
 
     @AfterEach
@@ -91,6 +141,7 @@ class MealServiceImplTest extends UnitTestBase {
 
             when(mealRepository.save(any(Meal.class))).thenAnswer(invocation -> {
                 Meal savedMeal = invocation.getArgument(0);
+                savedMeal.setId(MEAL_ID);
                 savedMeal.getMealDishes().forEach(md -> md.setMeal(savedMeal));
                 return savedMeal;
             });
@@ -108,6 +159,9 @@ class MealServiceImplTest extends UnitTestBase {
             assertEquals(testDish, resultMealDish.getDish(), "MealDish should reference correct dish");
 
             verify(mealRepository).save(newMeal);
+            verify(mealOutboxRepository).append(List.of(result));
+            verify(syncChangeRepository).append(USER_ID, SyncEntityTypeEnum.MEAL, List.of(MEAL_ID), SyncOperationEnum.UPSERT);
+            verify(recentWrites).record(USER_ID);
             verify(dishRepository).findById(DISH_ID);
         }
 
@@ -140,6 +194,25 @@ class MealServiceImplTest extends UnitTestBase {
             verify(dishRepository).findById(NON_EXISTENT_DISH_ID);
         }
 
+        @ParameterizedTest
+        @ValueSource(booleans = {false, true})
+        @DisplayName("Should reject a dish listed twice, with or without write-behind")
+        void createMeal_duplicateDish_throwsException(boolean writeBehind) {
+            Meal invalidMeal = Meal.builder().mealDishes(List.of(
+                    new MealDish(new MealDishId(), null, testDish, VALID_SERVINGS),
+                    new MealDish(new MealDishId(), null, Dish.builder().id(DISH_ID).build(), 1.0)
+            )).build();
+            when(mealIngestionQueue.isEnabled()).thenReturn(writeBehind);
+
+            Exception exception = assertThrows(UnprocessableEntityException.class,
+                    () -> mealService.createMeal(USER_ID, invalidMeal));
+            assertEquals("Dish with id %d is listed more than once".formatted(DISH_ID), exception.getMessage());
+            verify(userRepository).findById(USER_ID);
+            verify(dishRepository).findById(DISH_ID);
+            verify(mealIngestionQueue, never()).submit(any());
+            verifyNoInteractions(mealOutboxRepository, syncChangeRepository);
+        }
+
         @Test
         @DisplayName("Should normalize meal name whitespace")
         void createMeal_normalizesNameWhitespace() {
@@ -150,6 +223,7 @@ class MealServiceImplTest extends UnitTestBase {
                     .build();
             when(mealRepository.save(any(Meal.class))).thenAnswer(invocation -> {
                 Meal savedMeal = invocation.getArgument(0);
+                savedMeal.setId(MEAL_ID);
                 savedMeal.getMealDishes().forEach(md -> md.setMeal(savedMeal));
                 return savedMeal;
             });
@@ -160,6 +234,64 @@ class MealServiceImplTest extends UnitTestBase {
             verify(dishRepository).findById(DISH_ID);
         }
 
+        @Test
+        @DisplayName("Should hand meal to ingestion queue when write-behind is enabled")
+        void createMeal_writeBehindEnabled_submitsToQueue() {
+            MealDish validMealDish = new MealDish(new MealDishId(), null, testDish, VALID_SERVINGS);
+            Meal newMeal = Meal.builder()
+                    .mealDishes(new ArrayList<>(List.of(validMealDish)))
+                    .build();
+            when(mealIngestionQueue.isEnabled()).thenReturn(true);
+            when(mealIngestionQueue.submit(newMeal)).thenAnswer(invocation -> {
+                assertFalse(inTransaction, "Meal should be journaled after the transaction is over");
+                Meal acceptedMeal = invocation.getArgument(0);
+                acceptedMeal.setId(MEAL_ID);
+                return acceptedMeal;
+            });
+
+            Meal result = mealService.createMeal(USER_ID, newMeal);
+
+            assertEquals(MEAL_ID, result.getId(), "Meal should carry the pre-allocated id");
+            assertEquals(testUser, result.getUser(), "Meal should be associated with correct user");
+            verify(mealIngestionQueue).submit(newMeal);
+            verify(recentWrites).record(USER_ID);
+            verify(mealRepository, never()).save(any(Meal.class));
+            verifyNoInteractions(mealOutboxRepository);
+            verify(dishRepository).findById(DISH_ID);
+        }
+
+        @Test
+        @DisplayName("Should record an uncommitted JFR event when the queue rejects the meal")
+        void createMeal_writeBehindSubmitFails_recordsUncommittedEvent(@TempDir Path tempDir) throws Exception {
+            MealDish validMealDish = new MealDish(new MealDishId(), null, testDish, VALID_SERVINGS);
+            Meal newMeal = Meal.builder()
+                    .mealDishes(new ArrayList<>(List.of(validMealDish)))
+                    .build();
+            when(mealIngestionQueue.isEnabled()).thenReturn(true);
+            when(mealIngestionQueue.submit(newMeal)).thenThrow(new IllegalStateException("Meal journal is closed"));
+
+            Path file = tempDir.resolve("meal.jfr");
+            try (Recording recording = new Recording()) {
+                recording.enable(MealCreationEvent.class).withoutThreshold();
+                recording.start();
+                assertThrows(IllegalStateException.class, () -> mealService.createMeal(USER_ID, newMeal));
+                recording.stop();
+                recording.dump(file);
+            }
+
+            RecordedEvent event = RecordingFile.readAllEvents(file).stream()
+                    .filter(recorded -> recorded.getEventType().getName().equals("caloriex.MealCreation"))
+                    .findFirst()
+                    .orElseThrow();
+            assertAll(
+                    () -> assertEquals(USER_ID, event.getLong("userId")),
+                    () -> assertTrue(event.getBoolean("queued")),
+                    () -> assertFalse(event.getBoolean("committed"))
+            );
+            verifyNoInteractions(recentWrites);
+            verify(dishRepository).findById(DISH_ID);
+        }
+
         @Test
         @DisplayName("Should throw IllegalArgumentException when no dishes provided")
         void createMeal_WithoutDishes_ThrowsValidationError() {
@@ -170,6 +302,44 @@ class MealServiceImplTest extends UnitTestBase {
         }
     }
 
+    @Nested
+    @DisplayName("Meal Status Tests")
+    class MealStatusTests {
+
+        @Test
+        @DisplayName("Should report a queued meal as pending")
+        void getUserMealStatus_queuedMeal_returnsPending() {
+            when(mealIngestionQueue.isPending(USER_ID, MEAL_ID)).thenReturn(true);
+
+            assertEquals(MealIngestionStatusEnum.PENDING, mealService.getUserMealStatus(USER_ID, MEAL_ID));
+        }
+
+        @Test
+        @DisplayName("Should report a stored meal as created")
+        void getUserMealStatus_storedMeal_returnsCreated() {
+            when(mealRepository.existsByIdAndUserId(MEAL_ID, USER_ID)).thenReturn(true);
+
+            assertEquals(MealIngestionStatusEnum.CREATED, mealService.getUserMealStatus(USER_ID, MEAL_ID));
+            verify(mealRepository).existsByIdAndUserId(MEAL_ID, USER_ID);
+        }
+
+        @Test
+        @DisplayName("Should report a dead-lettered meal as failed")
+        void getUserMealStatus_failedMeal_returnsFailed() {
+            when(mealJdbcRepository.existsFailure(MEAL_ID, USER_ID)).thenReturn(true);
+
+            assertEquals(MealIngestionStatusEnum.FAILED, mealService.getUserMealStatus(USER_ID, MEAL_ID));
+            verify(mealRepository).existsByIdAndUserId(MEAL_ID, USER_ID);
+        }
+
+        @Test
+        @DisplayName("Should throw exception for an unknown meal")
+        void getUserMealStatus_unknownMeal_throwsException() {
+            assertThrows(EntityNotFoundException.class, () -> mealService.getUserMealStatus(USER_ID, MEAL_ID));
+            verify(mealRepository).existsByIdAndUserId(MEAL_ID, USER_ID);
+        }
+    }
+
     @Nested
     @DisplayName("Meal Retrieval Tests")
     class MealRetrievalTests {
@@ -0,0 +1,102 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.metrics.MethodTimingAspect;
+import org.nikolait.assignment.caloriex.repository.DishRepository;
+import org.nikolait.assignment.caloriex.repository.SyncChangeRepository;
+import org.nikolait.assignment.caloriex.repository.UserRepository;
+import org.nikolait.assignment.caloriex.service.DishService;
+import org.nikolait.assignment.caloriex.service.impl.DishServiceImpl;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class MethodTimingAspectTest extends UnitTestBase {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private DishRepository dishRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private SyncChangeRepository syncChangeRepository;
+
+    private MeterRegistry meterRegistry;
+    private DishService dishService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(
+                new DishServiceImpl(dishRepository, userRepository, syncChangeRepository)
+        );
+        proxyFactory.addAspect(new MethodTimingAspect(meterRegistry));
+        dishService = proxyFactory.getProxy();
+    }
+
+    @Test
+    void serviceCall_isTimedWithoutUserTag() {
+        when(dishRepository.getAllByUserId(USER_ID)).thenReturn(List.of());
+
+        dishService.getAllByUserId(USER_ID);
+
+        Timer timer = meterRegistry.get("caloriex.service")
+                .tags("class", "DishServiceImpl", "method", "getAllByUserId")
+                .timer();
+        assertAll(
+                () -> assertEquals(1, timer.count()),
+                () -> assertEquals("none", timer.getId().getTag("endpoint")),
+                () -> assertEquals("SUCCESS", timer.getId().getTag("outcome")),
+                () -> assertEquals(
+                        List.of("class", "endpoint", "exception", "method", "outcome"),
+                        timer.getId().getTags().stream().map(Tag::getKey).toList()
+                )
+        );
+    }
+
+    @Test
+    void failingServiceCall_isTimedAsError() {
+        when(dishRepository.findByIdAndUserId(10L, USER_ID)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> dishService.getUserDish(USER_ID, 10L));
+
+        Timer timer = meterRegistry.get("caloriex.service").tag("method", "getUserDish").timer();
+        assertEquals("ERROR", timer.getId().getTag("outcome"));
+        assertEquals("EntityNotFoundException", timer.getId().getTag("exception"));
+    }
+
+    @Test
+    void unexpectedException_isTaggedAsOther() {
+        when(dishRepository.getAllByUserId(USER_ID)).thenThrow(new IllegalStateException("pool closed"));
+
+        assertThrows(IllegalStateException.class, () -> dishService.getAllByUserId(USER_ID));
+
+        Timer timer = meterRegistry.get("caloriex.service").tag("method", "getAllByUserId").timer();
+        assertEquals("Other", timer.getId().getTag("exception"));
+    }
+
+    @Test
+    void dataAccessException_isTaggedByItsBaseClass() {
+        when(dishRepository.getAllByUserId(USER_ID)).thenThrow(new QueryTimeoutException("statement timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> dishService.getAllByUserId(USER_ID));
+
+        Timer timer = meterRegistry.get("caloriex.service").tag("method", "getAllByUserId").timer();
+        assertEquals("DataAccessException", timer.getId().getTag("exception"));
+    }
+
+}
@@ -0,0 +1,33 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.config.NativeRuntimeHints;
+import org.nikolait.assignment.caloriex.dto.MealDailySummaryDto;
+import org.nikolait.assignment.caloriex.dto.NormalizedMealDailyReportsDto;
+import org.nikolait.assignment.caloriex.metrics.SlowOperation;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeRuntimeHintsTest extends UnitTestBase {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void registerHints_coversReflectionProxiesAndResources() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection().onType(MealDailySummaryDto.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(NormalizedMealDailyReportsDto.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(SlowOperation.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(Connection.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(PreparedStatement.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("sql/init_test_data.sql").test(hints));
+    }
+
+}
@@ -0,0 +1,114 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.dto.NormalizedMealDailyReportDto;
+import org.nikolait.assignment.caloriex.dto.NormalizedMealDailyReportsDto;
+import org.nikolait.assignment.caloriex.dto.NormalizedMealDishDto;
+import org.nikolait.assignment.caloriex.mapper.NormalizedMealReportMapper;
+import org.nikolait.assignment.caloriex.mapper.NormalizedMealReportMapperImpl;
+import org.nikolait.assignment.caloriex.model.Dish;
+import org.nikolait.assignment.caloriex.model.Meal;
+import org.nikolait.assignment.caloriex.model.MealDailyReport;
+import org.nikolait.assignment.caloriex.model.MealDish;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringJUnitConfig(NormalizedMealReportMapperImpl.class)
+class NormalizedMealReportMapperTest extends UnitTestBase {
+
+    private static final int DAILY_TARGET = 2000;
+
+    private final Dish oatmeal = dish(200L, "Oatmeal", 150);
+    private final Dish soup = dish(201L, "Soup", 90);
+
+    @Autowired
+    private NormalizedMealReportMapper normalizedMealReportMapper;
+
+    @Test
+    void toResponseDto_listsDishSharedAcrossDaysOnce() {
+        List<MealDailyReport> reports = List.of(
+                new MealDailyReport(LocalDate.of(2024, 1, 16), List.of(
+                        meal(12L, mealDish(oatmeal, 2.0), mealDish(soup, 1.0))
+                ), DAILY_TARGET, 390),
+                new MealDailyReport(LocalDate.of(2024, 1, 15), List.of(
+                        meal(11L, mealDish(oatmeal, 1.0))
+                ), DAILY_TARGET, 150)
+        );
+
+        NormalizedMealDailyReportsDto dto = normalizedMealReportMapper.toResponseDto(reports);
+
+        assertAll(
+                () -> assertEquals(List.of(200L, 201L), List.copyOf(dto.dishes().keySet())),
+                () -> assertEquals("Oatmeal", dto.dishes().get(200L).name()),
+                () -> assertEquals(150, dto.dishes().get(200L).calories()),
+                () -> assertEquals(
+                        List.of(new NormalizedMealDishDto(200L, 2.0, 300.0), new NormalizedMealDishDto(201L, 1.0, 90.0)),
+                        dto.days().getFirst().meals().getFirst().mealDishes()
+                ),
+                () -> assertEquals(200L, dto.days().get(1).meals().getFirst().mealDishes().getFirst().dishId())
+        );
+    }
+
+    @Test
+    void toResponseDto_keepsDayAndMealTotals() {
+        List<MealDailyReport> reports = List.of(
+                new MealDailyReport(LocalDate.of(2024, 1, 16), List.of(
+                        meal(12L, mealDish(oatmeal, 10.0)),
+                        meal(13L, mealDish(soup, 3.0), mealDish(oatmeal, 3.0))
+                ), DAILY_TARGET, 2220),
+                new MealDailyReport(LocalDate.of(2024, 1, 15), List.of(), DAILY_TARGET, 0)
+        );
+
+        NormalizedMealDailyReportsDto dto = normalizedMealReportMapper.toResponseDto(reports);
+
+        NormalizedMealDailyReportDto jan16 = dto.days().getFirst();
+        NormalizedMealDailyReportDto jan15 = dto.days().get(1);
+        assertAll(
+                () -> assertEquals(LocalDate.of(2024, 1, 16), jan16.date()),
+                () -> assertEquals(List.of(1500, 720), jan16.meals().stream().map(meal -> meal.calories()).toList()),
+                () -> assertEquals(2220, jan16.totalCalories()),
+                () -> assertEquals(DAILY_TARGET, jan16.dailyCalorieTarget()),
+                () -> assertTrue(jan16.exceeded()),
+                () -> assertTrue(jan15.meals().isEmpty()),
+                () -> assertEquals(0, jan15.totalCalories()),
+                () -> assertFalse(jan15.exceeded()),
+                () -> assertEquals(2, dto.dishes().size())
+        );
+    }
+
+    private static Meal meal(long id, MealDish... mealDishes) {
+        Meal meal = Meal.builder()
+                .id(id)
+                .name("Meal " + id)
+                .build();
+        for (MealDish mealDish : mealDishes) {
+            mealDish.setMeal(meal);
+            meal.getMealDishes().add(mealDish);
+        }
+        return meal;
+    }
+
+    private static MealDish mealDish(Dish dish, double servings) {
+        return MealDish.builder()
+                .dish(dish)
+                .servings(servings)
+                .build();
+    }
+
+    private static Dish dish(long id, String name, int calories) {
+        return Dish.builder()
+                .id(id)
+                .name(name)
+                .calories(calories)
+                .createdAt(Instant.parse("2024-01-01T00:00:00Z"))
+                .build();
+    }
+
+}
@@ -0,0 +1,87 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.model.NutritionAverage;
+import org.nikolait.assignment.caloriex.stats.RollingNutritionWindow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.nikolait.assignment.caloriex.stats.RollingNutritionWindow.MONTH;
+import static org.nikolait.assignment.caloriex.stats.RollingNutritionWindow.WEEK;
+
+class RollingNutritionWindowTest extends UnitTestBase {
+
+    private static final long TODAY = 20_000;
+    private static final int TARGET = 2000;
+
+    @Test
+    void average_countsMealsInsideEachWindow() {
+        RollingNutritionWindow window = new RollingNutritionWindow(TODAY, TARGET);
+        window.add(TODAY, 1L, 1400, 70, 20, 100);
+        window.add(TODAY - 6, 2L, 700, 35, 10, 50);
+        window.add(TODAY - 20, 3L, 900, 0, 0, 0);
+
+        NutritionAverage lastWeek = window.average(WEEK);
+        NutritionAverage lastMonth = window.average(MONTH);
+
+        assertAll(
+                () -> assertEquals(300, lastWeek.getCalories()),
+                () -> assertEquals(15, lastWeek.getProtein()),
+                () -> assertEquals(TARGET, lastWeek.getDailyCalorieTarget()),
+                () -> assertFalse(lastWeek.isExceeded()),
+                () -> assertEquals(100, lastMonth.getCalories())
+        );
+    }
+
+    @Test
+    void add_sameMealTwice_countsItOnce() {
+        RollingNutritionWindow window = new RollingNutritionWindow(TODAY, TARGET);
+
+        assertTrue(window.add(TODAY, 1L, 700, 0, 0, 0));
+        assertFalse(window.add(TODAY, 1L, 700, 0, 0, 0));
+
+        assertEquals(100, window.average(WEEK).getCalories());
+    }
+
+    @Test
+    void advanceTo_dropsDaysLeavingTheWindows() {
+        RollingNutritionWindow window = new RollingNutritionWindow(TODAY, TARGET);
+        window.add(TODAY - 6, 1L, 700, 0, 0, 0);
+        window.add(TODAY, 2L, 2100, 0, 0, 0);
+
+        window.advanceTo(TODAY + 1);
+
+        assertEquals(300, window.average(WEEK).getCalories());
+        assertEquals(93.33, window.average(MONTH).getCalories());
+
+        window.advanceTo(TODAY + 29);
+
+        assertEquals(0, window.average(WEEK).getCalories());
+        assertEquals(70, window.average(MONTH).getCalories());
+
+        window.advanceTo(TODAY + 100);
+
+        assertEquals(0, window.average(MONTH).getCalories());
+    }
+
+    @Test
+    void add_mealOlderThanWindow_isIgnored() {
+        RollingNutritionWindow window = new RollingNutritionWindow(TODAY, TARGET);
+
+        assertFalse(window.add(TODAY - MONTH, 1L, 3000, 0, 0, 0));
+        assertEquals(0, window.average(MONTH).getCalories());
+    }
+
+    @Test
+    void add_mealAfterLastDay_movesWindowForward() {
+        RollingNutritionWindow window = new RollingNutritionWindow(TODAY, TARGET);
+        window.add(TODAY - 6, 1L, 7000, 0, 0, 0);
+
+        window.add(TODAY + 1, 2L, 14000, 0, 0, 0);
+
+        assertEquals(TODAY + 1, window.lastDay());
+        assertEquals(2000, window.average(WEEK).getCalories());
+        assertEquals(700, window.average(MONTH).getCalories());
+    }
+
+}
@@ -0,0 +1,113 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.coalescing.SingleFlight;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest extends UnitTestBase {
+
+    private static final String OPERATION = "daily-report";
+
+    private MeterRegistry meterRegistry;
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry);
+    }
+
+    @Test
+    void execute_concurrentIdenticalCalls_shareOneComputation() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        Object result = new Object();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Object> leader = executor.submit(() -> singleFlight.execute(OPERATION, List.of(1L), () -> {
+                computations.incrementAndGet();
+                started.countDown();
+                await(release);
+                return result;
+            }));
+            started.await();
+            Future<Object> follower = executor.submit(() -> singleFlight.execute(
+                    OPERATION, List.of(1L), () -> fail("Identical call should not compute again")
+            ));
+            awaitCoalesced(1);
+            release.countDown();
+
+            assertSame(result, leader.get());
+            assertSame(result, follower.get());
+        }
+        assertEquals(1, computations.get());
+        assertEquals(1, meterRegistry.counter("caloriex.single-flight.calls",
+                "operation", OPERATION, "result", "executed").count());
+    }
+
+    @Test
+    void execute_differentArgs_computeSeparately() {
+        assertEquals("first", singleFlight.execute(OPERATION, List.of(1L), () -> "first"));
+        assertEquals("second", singleFlight.execute(OPERATION, List.of(2L), () -> "second"));
+    }
+
+    @Test
+    void execute_afterCompletion_computesAgain() {
+        AtomicInteger computations = new AtomicInteger();
+
+        singleFlight.execute(OPERATION, List.of(1L), computations::incrementAndGet);
+        singleFlight.execute(OPERATION, List.of(1L), computations::incrementAndGet);
+
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    void execute_failingComputation_rethrowsToEveryCaller() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("Database is down");
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Object> leader = executor.submit(() -> singleFlight.execute(OPERATION, List.of(1L), () -> {
+                started.countDown();
+                await(release);
+                throw failure;
+            }));
+            started.await();
+            Future<Object> follower = executor.submit(() -> singleFlight.execute(OPERATION, List.of(1L), () -> "ok"));
+            awaitCoalesced(1);
+            release.countDown();
+
+            assertSame(failure, assertThrows(ExecutionException.class, leader::get).getCause());
+            assertSame(failure, assertThrows(ExecutionException.class, follower::get).getCause());
+        }
+    }
+
+    private void awaitCoalesced(int calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("caloriex.single-flight.calls",
+                "operation", OPERATION, "result", "coalesced").count() < calls) {
+            assertTrue(System.nanoTime() < deadline, "Follower did not join the computation in time");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
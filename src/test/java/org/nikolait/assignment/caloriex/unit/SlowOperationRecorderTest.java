@@ -0,0 +1,152 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.config.SlowOperationProperties;
+import org.nikolait.assignment.caloriex.metrics.SlowOperation;
+import org.nikolait.assignment.caloriex.metrics.SlowOperationRecorder;
+import org.nikolait.assignment.caloriex.metrics.SlowQueryDataSource;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SlowOperationRecorderTest extends UnitTestBase {
+
+    private static final String SQL = "select * from meals where user_id = ? and created_at between ? and ?";
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Test
+    void recordRequest_keepsOnlyMostRecentSlowRequestsNewestFirst() {
+        SlowOperationRecorder recorder = recorder(Duration.ofSeconds(1), 2);
+
+        recorder.recordRequest("GET /api/v1/meals", Duration.ofSeconds(2).toNanos(), 3);
+        recorder.recordRequest("GET /api/v1/dishes", Duration.ofMillis(10).toNanos(), 1);
+        recorder.recordRequest("GET /api/v1/meals/report/daily/period", Duration.ofSeconds(3).toNanos(), 40);
+        recorder.recordRequest("GET /api/v1/meals/report/daily/all-tracked", Duration.ofSeconds(4).toNanos(), 90);
+
+        assertThat(recorder.getRecent())
+                .extracting(SlowOperation::endpoint, SlowOperation::statementCount)
+                .containsExactly(
+                        tuple("GET /api/v1/meals/report/daily/all-tracked", 90L),
+                        tuple("GET /api/v1/meals/report/daily/period", 40L)
+                );
+        assertThat(recorder.explain(1)).isEmpty();
+    }
+
+    @Test
+    void slowStatement_isRecordedWithParameterTypes() throws Exception {
+        SlowOperationRecorder recorder = recorder(Duration.ZERO, 10);
+        DataSource dataSource = slowQueryDataSource(recorder);
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(SQL)).thenReturn(preparedStatement);
+
+        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(SQL)) {
+            statement.setLong(1, 7L);
+            statement.setObject(2, Instant.EPOCH);
+            statement.setNull(3, Types.TIMESTAMP);
+            statement.executeQuery();
+        }
+
+        assertThat(recorder.getRecent()).singleElement().satisfies(operation -> {
+            assertThat(operation.type()).isEqualTo(SlowOperation.Type.QUERY);
+            assertThat(operation.sql()).isEqualTo(SQL);
+            assertThat(operation.parameterTypes()).containsExactly("Long", "Instant", "null");
+            assertThat(operation.endpoint()).isEqualTo("none");
+            assertThat(operation.explainable()).isTrue();
+        });
+        verify(preparedStatement).setLong(1, 7L);
+        verify(preparedStatement).close();
+    }
+
+    @Test
+    void statementWithStreamParameter_isNotExplainable() throws Exception {
+        SlowOperationRecorder recorder = recorder(Duration.ZERO, 10);
+        DataSource dataSource = slowQueryDataSource(recorder);
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(SQL)).thenReturn(preparedStatement);
+
+        PreparedStatement statement = dataSource.getConnection().prepareStatement(SQL);
+        statement.setBinaryStream(1, new ByteArrayInputStream(new byte[0]));
+        statement.executeUpdate();
+
+        assertThat(recorder.getRecent())
+                .extracting(SlowOperation::explainable, SlowOperation::parameterTypes)
+                .containsExactly(tuple(false, List.of("ByteArrayInputStream")));
+    }
+
+    @Test
+    void explainDisabled_keepsNoParametersAndCapturesNoPlan() {
+        SlowOperationRecorder recorder = new SlowOperationRecorder(properties(Duration.ZERO, 10, false), null);
+
+        recorder.recordQuery(SQL, List.of(7L, Instant.EPOCH, Instant.EPOCH), List.of("Long", "Instant", "Instant"), 1);
+
+        assertThat(recorder.getRecent()).singleElement().extracting(SlowOperation::explainable).isEqualTo(false);
+        assertThat(recorder.explain(1)).isEmpty();
+    }
+
+    @Test
+    void explain_runsAnalyzeOnlyForPlainSelect() throws Exception {
+        SlowOperationRecorder recorder = new SlowOperationRecorder(
+                properties(Duration.ZERO, 10, true), new JdbcTemplate(targetDataSource));
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        String withQuery = "with deleted as (delete from meals where user_id = ? returning id) select count(*) from deleted";
+
+        recorder.recordQuery(SQL, List.of(7L, Instant.EPOCH, Instant.EPOCH), List.of("Long", "Instant", "Instant"), 1);
+        recorder.recordQuery(withQuery, List.of(7L), List.of("Long"), 1);
+        recorder.explain(1);
+        recorder.explain(2);
+
+        verify(connection).prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + SQL);
+        verify(connection).prepareStatement("EXPLAIN " + withQuery);
+        verify(connection, times(2)).rollback();
+    }
+
+    private static SlowOperationRecorder recorder(Duration threshold, int capacity) {
+        return new SlowOperationRecorder(properties(threshold, capacity, true), null);
+    }
+
+    private static SlowOperationProperties properties(Duration threshold, int capacity, boolean explainEnabled) {
+        return new SlowOperationProperties(
+                true, threshold, Duration.ofSeconds(1), capacity, explainEnabled, Duration.ofSeconds(10));
+    }
+
+    private SlowQueryDataSource slowQueryDataSource(SlowOperationRecorder recorder) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("slowOperationRecorder", recorder);
+        return new SlowQueryDataSource(targetDataSource, beanFactory.getBeanProvider(SlowOperationRecorder.class));
+    }
+
+}
@@ -0,0 +1,135 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.config.SlowOperationProperties;
+import org.nikolait.assignment.caloriex.config.SqlStatementProperties;
+import org.nikolait.assignment.caloriex.metrics.SlowOperationRecorder;
+import org.nikolait.assignment.caloriex.metrics.SqlStatementCountFilter;
+import org.nikolait.assignment.caloriex.metrics.StatementCountingDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class SqlStatementCountFilterTest extends UnitTestBase {
+
+    @Mock
+    private DataSource targetDataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement statement;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlStatementCountFilter filter = new SqlStatementCountFilter(
+            new SqlStatementProperties(true, 50),
+            meterRegistry,
+            new SlowOperationRecorder(
+                    new SlowOperationProperties(true, Duration.ofMillis(200), Duration.ofSeconds(1), 10, false, Duration.ofSeconds(10)),
+                    null
+            )
+    );
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new StatementCountingDataSource(targetDataSource);
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+    }
+
+    @Test
+    void request_recordsStatementsRunDuringRequestPerEndpoint() throws Exception {
+        execute("select 1");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/dishes/7");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (servletRequest, servletResponse) -> {
+            servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/dishes/{id}");
+            execute("select * from dishes where id = ?");
+            execute("select * from users where id = ?");
+        });
+
+        assertEquals(2, summary("GET /api/v1/dishes/{id}").totalAmount());
+        assertEquals("2", response.getHeader(SqlStatementCountFilter.STATEMENT_COUNT_HEADER));
+    }
+
+    @Test
+    void streamedRequest_countsStatementsOfItsAsyncTask() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ReportEndpoint())
+                .addFilters(filter)
+                .build();
+
+        MvcResult result = mockMvc.perform(get("/report"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatementCountFilter.STATEMENT_COUNT_HEADER, "3"));
+
+        DistributionSummary summary = summary("GET /report");
+        assertEquals(1, summary.count());
+        assertEquals(3, summary.totalAmount());
+    }
+
+    private DistributionSummary summary(String endpoint) {
+        return meterRegistry.get("caloriex.http.sql.statements")
+                .tag("endpoint", endpoint)
+                .summary();
+    }
+
+    private void execute(String sql) {
+        try (Connection counted = dataSource.getConnection();
+             PreparedStatement prepared = counted.prepareStatement(sql)) {
+            prepared.executeQuery();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @RestController
+    class ReportEndpoint {
+
+        /**
+         * Loads the user on the request thread and streams two days, a query each, on the async one.
+         */
+        @GetMapping("/report")
+        StreamingResponseBody report() {
+            execute("select * from users where id = ?");
+            return outputStream -> {
+                execute("select * from meals where day = ?");
+                execute("select * from meals where day = ?");
+                outputStream.write("[]".getBytes(StandardCharsets.UTF_8));
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.config.SyncProperties;
+import org.nikolait.assignment.caloriex.model.*;
+import org.nikolait.assignment.caloriex.repository.DishRepository;
+import org.nikolait.assignment.caloriex.repository.MealRepository;
+import org.nikolait.assignment.caloriex.repository.SyncChangeRepository;
+import org.nikolait.assignment.caloriex.service.impl.SyncServiceImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SyncServiceImplTest extends UnitTestBase {
+
+    private static final Long USER_ID = 1L;
+    private static final int PAGE_SIZE = 3;
+
+    @Mock
+    private SyncChangeRepository syncChangeRepository;
+    @Mock
+    private MealRepository mealRepository;
+    @Mock
+    private DishRepository dishRepository;
+
+    private SyncServiceImpl syncService;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new SyncServiceImpl(
+                syncChangeRepository,
+                mealRepository,
+                dishRepository,
+                new SyncProperties(PAGE_SIZE)
+        );
+    }
+
+    @Test
+    void getChangesSince_withMoreChangesThanPage_returnsPageAndCursorOfLastChange() {
+        when(syncChangeRepository.findByUserIdAfter(USER_ID, 10L, PAGE_SIZE + 1)).thenReturn(List.of(
+                change(11L, SyncEntityTypeEnum.DISH, 200L, SyncOperationEnum.UPSERT),
+                change(12L, SyncEntityTypeEnum.MEAL, 300L, SyncOperationEnum.UPSERT),
+                change(13L, SyncEntityTypeEnum.MEAL, 301L, SyncOperationEnum.UPSERT),
+                change(14L, SyncEntityTypeEnum.MEAL, 302L, SyncOperationEnum.UPSERT)
+        ));
+        Dish dish = Dish.builder().id(200L).build();
+        List<Meal> meals = List.of(Meal.builder().id(300L).build(), Meal.builder().id(301L).build());
+        when(dishRepository.findAllByUserIdAndIdIn(USER_ID, List.of(200L))).thenReturn(List.of(dish));
+        when(mealRepository.findAllByUserIdAndIdIn(USER_ID, List.of(300L, 301L))).thenReturn(meals);
+
+        SyncChanges result = syncService.getChangesSince(USER_ID, 10L);
+
+        assertAll(
+                () -> assertEquals(13L, result.cursor()),
+                () -> assertTrue(result.hasMore()),
+                () -> assertEquals(meals, result.meals()),
+                () -> assertEquals(List.of(dish), result.dishes()),
+                () -> assertTrue(result.deletedMealIds().isEmpty()),
+                () -> assertTrue(result.deletedDishIds().isEmpty())
+        );
+    }
+
+    @Test
+    void getChangesSince_withVanishedEntities_reportsThemDeleted() {
+        when(syncChangeRepository.findByUserIdAfter(USER_ID, 0L, PAGE_SIZE + 1)).thenReturn(List.of(
+                change(1L, SyncEntityTypeEnum.MEAL, 300L, SyncOperationEnum.UPSERT),
+                change(2L, SyncEntityTypeEnum.MEAL, 301L, SyncOperationEnum.UPSERT),
+                change(3L, SyncEntityTypeEnum.MEAL, 300L, SyncOperationEnum.UPSERT)
+        ));
+        when(mealRepository.findAllByUserIdAndIdIn(USER_ID, List.of(300L, 301L))).thenReturn(List.of());
+
+        SyncChanges result = syncService.getChangesSince(USER_ID, 0L);
+
+        assertAll(
+                () -> assertEquals(3L, result.cursor()),
+                () -> assertFalse(result.hasMore()),
+                () -> assertTrue(result.meals().isEmpty()),
+                () -> assertEquals(List.of(300L, 301L), result.deletedMealIds())
+        );
+        verifyNoInteractions(dishRepository);
+    }
+
+    @Test
+    void getChangesSince_withoutChanges_keepsCursor() {
+        when(syncChangeRepository.findByUserIdAfter(USER_ID, 42L, PAGE_SIZE + 1)).thenReturn(List.of());
+
+        SyncChanges result = syncService.getChangesSince(USER_ID, 42L);
+
+        assertEquals(42L, result.cursor());
+        assertFalse(result.hasMore());
+        verifyNoInteractions(mealRepository, dishRepository);
+    }
+
+    @Test
+    void getChangesSince_negativeCursor_throwsValidationException() {
+        assertThrows(ValidationException.class, () -> syncService.getChangesSince(USER_ID, -1L));
+        verifyNoInteractions(syncChangeRepository);
+    }
+
+    private static SyncChange change(long sequence, SyncEntityTypeEnum type, long id, SyncOperationEnum operation) {
+        return new SyncChange(sequence, type, id, operation);
+    }
+
+}
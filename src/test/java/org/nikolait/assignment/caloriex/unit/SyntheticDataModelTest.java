@@ -0,0 +1,138 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.config.DataGeneratorProperties;
+import org.nikolait.assignment.caloriex.generator.SyntheticDataModel;
+import org.nikolait.assignment.caloriex.generator.SyntheticUser;
+import org.nikolait.assignment.caloriex.model.ActivityLevel;
+import org.nikolait.assignment.caloriex.model.Dish;
+import org.nikolait.assignment.caloriex.model.Goal;
+import org.nikolait.assignment.caloriex.model.Meal;
+import org.nikolait.assignment.caloriex.model.MealDish;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticDataModelTest extends UnitTestBase {
+
+    private static final LocalDate END_DATE = LocalDate.of(2025, 3, 31);
+    private static final List<ActivityLevel> ACTIVITY_LEVELS = List.of(
+            new ActivityLevel(1L, "SEDENTARY", 1.2),
+            new ActivityLevel(2L, "ACTIVE", 1.725)
+    );
+    private static final List<Goal> GOALS = List.of(
+            new Goal(1L, "WEIGHT_LOSS", 0.8),
+            new Goal(2L, "MAINTENANCE", 1.0)
+    );
+
+    @Test
+    void sameSeed_generatesSameUser() {
+        SyntheticUser first = model(42).generate(7, 100, 1000, 5000);
+        SyntheticUser second = model(42).generate(7, 100, 1000, 5000);
+        SyntheticUser otherSeed = model(43).generate(7, 100, 1000, 5000);
+
+        assertEquals(describe(first), describe(second));
+        assertNotEquals(describe(first), describe(otherSeed));
+    }
+
+    @Test
+    void sameIndex_getsSameNameAndEmailWhateverItsId() {
+        SyntheticUser generated = model(42).generate(6, 100, 1000, 5000);
+        SyntheticUser afterOtherRows = model(42).generate(6, 2100, 9000, 70000);
+
+        assertEquals("User 7", generated.user().getName());
+        assertEquals("user7@synthetic.caloriex", generated.user().getEmail());
+        assertEquals(generated.user().getEmail(), afterOtherRows.user().getEmail());
+        assertEquals(generated.meals().size(), afterOtherRows.meals().size());
+    }
+
+    @Test
+    void missingEndDate_isRejected() {
+        DataGeneratorProperties properties = new DataGeneratorProperties(42, 1000, 40, 60, null, 3.0, 2.0, 0.6, 1.5,
+                List.of("UTC"));
+
+        assertThrows(IllegalArgumentException.class, () -> new SyntheticDataModel(properties, ACTIVITY_LEVELS, GOALS));
+    }
+
+    @Test
+    void user_hasUniqueDishNamesAndNumberedRows() {
+        SyntheticUser generated = model(42).generate(3, 100, 1000, 5000);
+
+        List<Dish> dishes = generated.dishes();
+        assertEquals(40, dishes.size());
+        assertEquals(40, dishes.stream().map(Dish::getName).distinct().count());
+        assertEquals(1000L, dishes.getFirst().getId());
+        assertEquals(1039L, dishes.getLast().getId());
+        assertTrue(dishes.stream().allMatch(dish -> dish.getCalories() > 0));
+        assertTrue(generated.user().getDailyCalorieTarget() > 0);
+        for (int i = 0; i < generated.meals().size(); i++) {
+            assertEquals(5000L + i, generated.meals().get(i).getId());
+        }
+    }
+
+    @Test
+    void meals_areInOrderWithinHistoryAtLocalMealTimes() {
+        for (int index = 0; index < 50; index++) {
+            SyntheticUser generated = model(42).generate(index, 100, 1000, 5000);
+            Instant endOfHistory = END_DATE.plusDays(1).atStartOfDay(generated.zoneId()).toInstant();
+
+            List<Meal> meals = generated.meals();
+            assertEquals(meals.stream().sorted(Comparator.comparing(Meal::getCreatedAt)).toList(), meals);
+            for (Meal meal : meals) {
+                LocalTime localTime = meal.getCreatedAt().atZone(generated.zoneId()).toLocalTime();
+                assertFalse(meal.getCreatedAt().isBefore(generated.user().getCreatedAt()));
+                assertTrue(meal.getCreatedAt().isBefore(endOfHistory));
+                assertFalse(localTime.isBefore(LocalTime.of(7, 0)));
+                assertTrue(localTime.isBefore(LocalTime.of(22, 1)));
+                assertFalse(meal.getMealDishes().isEmpty());
+                assertEquals(meal.getMealDishes().size(),
+                        meal.getMealDishes().stream().map(MealDish::getDish).distinct().count());
+            }
+        }
+    }
+
+    @Test
+    void heavyUsers_logADisproportionateShareOfMeals() {
+        SyntheticDataModel model = model(42);
+        List<Integer> mealCounts = IntStream.range(0, 1000)
+                .mapToObj(index -> model.generate(index, 100L + index, 1000, 5000).meals().size())
+                .sorted(Comparator.reverseOrder())
+                .toList();
+
+        long total = mealCounts.stream().mapToLong(Integer::longValue).sum();
+        long topTenth = mealCounts.subList(0, 100).stream().mapToLong(Integer::longValue).sum();
+        assertTrue(topTenth > total * 0.2, "Top 10% of users logged " + topTenth + " of " + total + " meals");
+        assertTrue(total > 1000 * 10, "Only " + total + " meals were generated");
+    }
+
+    private static SyntheticDataModel model(long seed) {
+        return new SyntheticDataModel(
+                new DataGeneratorProperties(seed, 1000, 40, 60, END_DATE, 3.0, 2.0, 0.6, 1.5,
+                        List.of("UTC", "Europe/Moscow", "America/New_York", "Asia/Tokyo")),
+                ACTIVITY_LEVELS,
+                GOALS
+        );
+    }
+
+    private static String describe(SyntheticUser generated) {
+        StringBuilder description = new StringBuilder()
+                .append(generated.user().getEmail()).append(generated.user().getWeight())
+                .append(generated.user().getCreatedAt()).append(generated.zoneId());
+        generated.dishes().forEach(dish -> description.append(dish.getName()).append(dish.getCalories()));
+        generated.meals().forEach(meal -> {
+            description.append(meal.getName()).append(meal.getCreatedAt().atOffset(ZoneOffset.UTC));
+            meal.getMealDishes().forEach(mealDish ->
+                    description.append(mealDish.getDish().getId()).append(mealDish.getServings()));
+        });
+        return description.toString();
+    }
+
+}
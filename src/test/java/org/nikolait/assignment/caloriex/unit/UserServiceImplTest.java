@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import org.hibernate.exception.ConstraintViolationException;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -20,7 +21,9 @@ import org.nikolait.assignment.caloriex.repository.GoalRepository;
 import org.nikolait.assignment.caloriex.repository.UserRepository;
 import org.nikolait.assignment.caloriex.service.impl.UserServiceImpl;
 import org.nikolait.assignment.caloriex.ulti.CalorieCalculator;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.Instant;
 import java.util.Optional;
 
@@ -91,7 +94,11 @@ class UserServiceImplTest extends UnitTestBase {
 
     @Test
     void createUser_WhenEmailExists_ThrowsException() {
-        when(userRepository.existsByEmail(TEST_EMAIL)).thenReturn(true);
+        mockSuccessfulActivityLevelAndGoalLookup();
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new ConstraintViolationException("duplicate key value", new SQLException(), "users_email_key")
+        ));
         assertThrows(EntityAlreadyExistsException.class, () -> userService.createUser(validUser));
     }
 
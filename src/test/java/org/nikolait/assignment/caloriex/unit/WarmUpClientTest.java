@@ -0,0 +1,165 @@
+package org.nikolait.assignment.caloriex.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.nikolait.assignment.caloriex.UnitTestBase;
+import org.nikolait.assignment.caloriex.init.WarmUpClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.ExpectedCount.manyTimes;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+class WarmUpClientTest extends UnitTestBase {
+
+    private static final String BASE_URL = "http://localhost/api/v1";
+    private static final String EMAIL = "warm-up@caloriex.local";
+    private static final String WARM_UP_DISH = "[{\"id\":3,\"name\":\"Warm-up porridge\"}]";
+
+    private final RestClient.Builder builder = RestClient.builder().baseUrl(BASE_URL);
+
+    private MockRestServiceServer server;
+    private WarmUpClient warmUpClient;
+
+    @BeforeEach
+    void setUp() {
+        server = MockRestServiceServer.bindTo(builder).build();
+        warmUpClient = new WarmUpClient(builder.build(), EMAIL);
+    }
+
+    @Test
+    void missingUser_isCreatedAndEveryEndpointIsCalledWithItsId() {
+        server.expect(requestTo(startsWith(BASE_URL + "/users/login")))
+                .andExpect(queryParam("email", EMAIL.replace("@", "%40")))
+                .andRespond(withUnauthorizedRequest());
+        server.expect(requestTo(BASE_URL + "/users"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(jsonPath("$.email").value(EMAIL))
+                .andRespond(withStatus(HttpStatus.CREATED).header(HttpHeaders.AUTHORIZATION, "7"));
+        expectDishes("[]");
+        expectCreation("/dishes", BASE_URL + "/dishes/3", HttpStatus.CREATED);
+        expectCreation("/meals", BASE_URL + "/meals/5", HttpStatus.CREATED);
+        expectRead("/users/me");
+        expectRead("/dishes/3");
+        expectRead("/meals/5");
+        expectReportReads();
+
+        warmUpClient.run(1);
+
+        server.verify();
+    }
+
+    @Test
+    void seededDatabase_reusesExistingDish() {
+        expectLogin();
+        expectDishes(WARM_UP_DISH);
+        expectCreation("/meals", BASE_URL + "/meals/5", HttpStatus.CREATED);
+        expectRead("/users/me");
+        expectRead("/dishes/3");
+        expectRead("/meals/5");
+        expectReportReads();
+
+        warmUpClient.run(1);
+
+        server.verify();
+    }
+
+    @Test
+    void dishCreatedConcurrently_isLookedUpAgain() {
+        expectLogin();
+        expectDishes("[]");
+        server.expect(requestTo(BASE_URL + "/dishes"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withStatus(HttpStatus.CONFLICT));
+        expectDishes(WARM_UP_DISH);
+        expectCreation("/meals", BASE_URL + "/meals/5", HttpStatus.CREATED);
+        expectRead("/users/me");
+        expectRead("/dishes/3");
+        expectRead("/meals/5");
+        expectReportReads();
+
+        warmUpClient.run(1);
+
+        server.verify();
+    }
+
+    @Test
+    void manyRounds_createAtMostMealsPerRun() {
+        server = MockRestServiceServer.bindTo(builder).ignoreExpectOrder(true).build();
+        warmUpClient = new WarmUpClient(builder.build(), EMAIL);
+        expectLogin();
+        expectDishes(WARM_UP_DISH);
+        server.expect(times(WarmUpClient.MEALS_PER_RUN), requestTo(BASE_URL + "/meals"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withStatus(HttpStatus.CREATED).location(URI.create(BASE_URL + "/meals/5")));
+        server.expect(manyTimes(), requestTo(startsWith(BASE_URL)))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        warmUpClient.run(1000);
+
+        server.verify();
+    }
+
+    @Test
+    void mealAcceptedByWriteBehind_isNotRead() {
+        expectLogin();
+        expectDishes(WARM_UP_DISH);
+        expectCreation("/meals", BASE_URL + "/meals/5", HttpStatus.ACCEPTED);
+        expectRead("/users/me");
+        expectRead("/dishes/3");
+        expectReportReads();
+
+        warmUpClient.run(1);
+
+        server.verify();
+    }
+
+    private void expectLogin() {
+        server.expect(requestTo(startsWith(BASE_URL + "/users/login")))
+                .andExpect(queryParam("email", EMAIL.replace("@", "%40")))
+                .andRespond(withSuccess().header(HttpHeaders.AUTHORIZATION, "7"));
+    }
+
+    private void expectDishes(String dishes) {
+        server.expect(requestTo(BASE_URL + "/dishes"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, "7"))
+                .andRespond(withSuccess(dishes, MediaType.APPLICATION_JSON));
+    }
+
+    private void expectCreation(String path, String location, HttpStatus status) {
+        server.expect(requestTo(BASE_URL + path))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, "7"))
+                .andRespond(withStatus(status).location(URI.create(location)));
+    }
+
+    private void expectReportReads() {
+        expectRead("/meals/report/daily/today");
+        expectRead("/meals/report/daily/day?day=");
+        expectRead("/meals/report/daily/period?startDay=");
+        expectRead("/meals/report/daily/period?startDay=");
+        expectRead("/meals/report/daily/period?startDay=");
+        expectRead("/meals/report/weekly?startDay=");
+        expectRead("/meals/report/rolling");
+    }
+
+    private void expectRead(String path) {
+        server.expect(requestTo(startsWith(BASE_URL + path)))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, "7"))
+                .andExpect(header("X-Time-Zone", "UTC"))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+    }
+
+}